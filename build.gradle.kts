@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "dev.mathops.math"
@@ -20,4 +21,13 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Benchmarks live in src/jmh/java; run with "./gradlew jmh", or "./gradlew jmh -PjmhInclude=<regex>" for a subset
+jmh {
+    jmhVersion.set("1.37")
+    if (project.hasProperty("jmhInclude")) {
+        includes.add(project.property("jmhInclude").toString())
+    }
+    resultFormat.set("JSON")
+}
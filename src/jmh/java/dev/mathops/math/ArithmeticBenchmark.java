@@ -0,0 +1,97 @@
+package dev.mathops.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@code Add}, {@code Multiply}, and {@code Divide} for every pair of supported operand types, at
+ * magnitudes that stay in {@code long} arithmetic, cross over to {@code BigInteger}, and start in {@code BigInteger}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArithmeticBenchmark {
+
+    /** The type of the first operand. */
+    @Param({"Long", "Rational", "BigRational", "BigInteger", "BigDecimal", "Double"})
+    public String kind1;
+
+    /** The type of the second operand. */
+    @Param({"Long", "Rational", "BigRational", "BigInteger", "BigDecimal", "Double"})
+    public String kind2;
+
+    /** The approximate magnitude of both operands, in bits. */
+    @Param({"10", "62", "100"})
+    public int bits;
+
+    /** The first operand. */
+    private Number first;
+
+    /** The second operand. */
+    private Number second;
+
+    /**
+     * Constructs a new {@code ArithmeticBenchmark}.
+     */
+    public ArithmeticBenchmark() {
+
+        // No action
+    }
+
+    /**
+     * Builds the operands.
+     */
+    @Setup
+    public void setup() {
+
+        this.first = BenchmarkOperands.make(this.kind1, this.bits, 0);
+        this.second = BenchmarkOperands.make(this.kind2, this.bits, 1);
+    }
+
+    /**
+     * Benchmarks addition.
+     *
+     * @return the sum
+     */
+    @Benchmark
+    public Number add() {
+
+        return Add.numberPlusNumber(this.first, this.second);
+    }
+
+    /**
+     * Benchmarks multiplication.
+     *
+     * @return the product
+     */
+    @Benchmark
+    public Number multiply() {
+
+        return Multiply.numberTimesNumber(this.first, this.second);
+    }
+
+    /**
+     * Benchmarks division.
+     *
+     * @return the quotient
+     */
+    @Benchmark
+    public Number divide() {
+
+        return Divide.numberDivNumber(this.first, this.second);
+    }
+}
@@ -0,0 +1,59 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigIrrational;
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.EIrrationalFactor;
+import dev.mathops.commons.number.Irrational;
+import dev.mathops.commons.number.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Operands for the arithmetic benchmarks, built by type name and magnitude.
+ *
+ * <p>
+ * Magnitudes are given as a number of bits.  Values of about 2^10 keep every operation in the primitive {@code long}
+ * paths; values of about 2^62 fit in a {@code long}, but their sums and products do not, so operations cross over to
+ * {@code BigInteger}; and values of about 2^100 fit only in the big types.  {@code Long} and {@code Rational} operands
+ * cannot exceed 2^62, so larger magnitudes are clamped for them.
+ */
+enum BenchmarkOperands {
+    ;
+
+    /** The largest magnitude, in bits, of a {@code long} operand. */
+    private static final int MAX_LONG_BITS = 62;
+
+    /**
+     * Builds an operand.
+     *
+     * @param kind    the operand type name ("Long", "Rational", "BigRational", "BigInteger", "BigDecimal", "Double",
+     *                "Irrational", or "BigIrrational")
+     * @param bits    the approximate magnitude, in bits
+     * @param variant a small number that varies the operand, so two operands of the same kind differ (0 to 3)
+     * @return the operand
+     * @throws IllegalArgumentException if the kind is not recognized
+     */
+    static Number make(final String kind, final int bits, final int variant) {
+
+        final int longBits = Math.min(bits, MAX_LONG_BITS);
+        final long longValue = (1L << (longBits - 1)) + 2L * (long) variant + 1L;
+        final BigInteger bigValue = BigInteger.ONE.shiftLeft(bits - 1).add(BigInteger.valueOf(2L * variant + 1L));
+        final long smallDenom = 3L + 4L * (long) variant;
+
+        return switch (kind) {
+            case "Long" -> Long.valueOf(longValue);
+            case "Rational" -> new Rational(longValue, smallDenom);
+            case "BigRational" -> new BigRational(bigValue, BigInteger.valueOf(smallDenom).pow(3));
+            case "BigInteger" -> bigValue;
+            case "BigDecimal" -> new BigDecimal(bigValue, 3);
+            case "Double" -> Double.valueOf(Math.scalb(1.375 + 0.125 * (double) variant, bits - 1));
+            case "Irrational" -> new Irrational(EIrrationalFactor.PI, 0L, longValue, smallDenom);
+            case "BigIrrational" -> {
+                final BigInteger bigDenom = BigInteger.valueOf(smallDenom);
+                yield new BigIrrational(EIrrationalFactor.PI, 0L, bigValue, bigDenom);
+            }
+            default -> throw new IllegalArgumentException("Unrecognized operand kind: " + kind);
+        };
+    }
+}
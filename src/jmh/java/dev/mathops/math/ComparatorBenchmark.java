@@ -0,0 +1,75 @@
+package dev.mathops.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@code NumberComparator} for every pair of supported operand types, including the irrational types,
+ * at each benchmark magnitude.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComparatorBenchmark {
+
+    /** The type of the first operand. */
+    @Param({"Long", "Rational", "BigRational", "BigInteger", "BigDecimal", "Double", "Irrational", "BigIrrational"})
+    public String kind1;
+
+    /** The type of the second operand. */
+    @Param({"Long", "Rational", "BigRational", "BigInteger", "BigDecimal", "Double", "Irrational", "BigIrrational"})
+    public String kind2;
+
+    /** The approximate magnitude of both operands, in bits. */
+    @Param({"10", "62", "100"})
+    public int bits;
+
+    /** The first operand. */
+    private Number first;
+
+    /** The second operand. */
+    private Number second;
+
+    /**
+     * Constructs a new {@code ComparatorBenchmark}.
+     */
+    public ComparatorBenchmark() {
+
+        // No action
+    }
+
+    /**
+     * Builds the operands.
+     */
+    @Setup
+    public void setup() {
+
+        this.first = BenchmarkOperands.make(this.kind1, this.bits, 0);
+        this.second = BenchmarkOperands.make(this.kind2, this.bits, 1);
+    }
+
+    /**
+     * Benchmarks a comparison.
+     *
+     * @return the comparison result
+     */
+    @Benchmark
+    public int compare() {
+
+        return NumberComparator.INSTANCE.compare(this.first, this.second);
+    }
+}
@@ -0,0 +1,190 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@code NumberUtils}: {@code negate} and {@code signum} for every supported operand type, and each
+ * {@code simplify} method, at each benchmark magnitude.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberUtilsBenchmark {
+
+    /**
+     * Constructs a new {@code NumberUtilsBenchmark}.
+     */
+    public NumberUtilsBenchmark() {
+
+        // No action
+    }
+
+    /**
+     * An operand of a selected type and magnitude.
+     */
+    @State(Scope.Benchmark)
+    public static class KindState {
+
+        /** The operand type. */
+        @Param({"Long", "Rational", "BigRational", "BigInteger", "BigDecimal", "Double", "Irrational",
+                "BigIrrational"})
+        public String kind;
+
+        /** The approximate magnitude of the operand, in bits. */
+        @Param({"10", "62", "100"})
+        public int bits;
+
+        /** The operand. */
+        Number operand;
+
+        /**
+         * Constructs a new {@code KindState}.
+         */
+        public KindState() {
+
+            // No action
+        }
+
+        /**
+         * Builds the operand.
+         */
+        @Setup
+        public void setup() {
+
+            this.operand = BenchmarkOperands.make(this.kind, this.bits, 0);
+        }
+    }
+
+    /**
+     * Operands of each type accepted by a {@code simplify} method, of a selected magnitude.
+     */
+    @State(Scope.Benchmark)
+    public static class MagnitudeState {
+
+        /** The approximate magnitude of the operands, in bits. */
+        @Param({"10", "62", "100"})
+        public int bits;
+
+        /** A {@code BigInteger} operand. */
+        BigInteger bigInteger;
+
+        /** A {@code Rational} operand. */
+        Rational rational;
+
+        /** A {@code BigRational} operand. */
+        BigRational bigRational;
+
+        /** A {@code BigDecimal} operand. */
+        BigDecimal bigDecimal;
+
+        /**
+         * Constructs a new {@code MagnitudeState}.
+         */
+        public MagnitudeState() {
+
+            // No action
+        }
+
+        /**
+         * Builds the operands.
+         */
+        @Setup
+        public void setup() {
+
+            this.bigInteger = (BigInteger) BenchmarkOperands.make("BigInteger", this.bits, 0);
+            this.rational = (Rational) BenchmarkOperands.make("Rational", this.bits, 0);
+            this.bigRational = (BigRational) BenchmarkOperands.make("BigRational", this.bits, 0);
+            this.bigDecimal = (BigDecimal) BenchmarkOperands.make("BigDecimal", this.bits, 0);
+        }
+    }
+
+    /**
+     * Benchmarks negation.
+     *
+     * @param state the operand
+     * @return the negated operand
+     */
+    @Benchmark
+    public Number negate(final KindState state) {
+
+        return NumberUtils.negate(state.operand);
+    }
+
+    /**
+     * Benchmarks the signum function.
+     *
+     * @param state the operand
+     * @return the sign of the operand
+     */
+    @Benchmark
+    public int signum(final KindState state) {
+
+        return NumberUtils.signum(state.operand);
+    }
+
+    /**
+     * Benchmarks simplification of a {@code BigInteger}.
+     *
+     * @param state the operands
+     * @return the simplified value
+     */
+    @Benchmark
+    public Number simplifyBigInteger(final MagnitudeState state) {
+
+        return NumberUtils.simplifyBigInteger(state.bigInteger);
+    }
+
+    /**
+     * Benchmarks simplification of a {@code Rational}.
+     *
+     * @param state the operands
+     * @return the simplified value
+     */
+    @Benchmark
+    public Number simplifyRational(final MagnitudeState state) {
+
+        return NumberUtils.simplifyRational(state.rational);
+    }
+
+    /**
+     * Benchmarks simplification of a {@code BigRational}.
+     *
+     * @param state the operands
+     * @return the simplified value
+     */
+    @Benchmark
+    public Number simplifyBigRational(final MagnitudeState state) {
+
+        return NumberUtils.simplifyBigRational(state.bigRational);
+    }
+
+    /**
+     * Benchmarks simplification of a {@code BigDecimal}.
+     *
+     * @param state the operands
+     * @return the simplified value
+     */
+    @Benchmark
+    public Number simplifyBigDecimal(final MagnitudeState state) {
+
+        return NumberUtils.simplifyBigDecimal(state.bigDecimal);
+    }
+}
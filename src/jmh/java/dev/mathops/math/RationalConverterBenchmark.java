@@ -0,0 +1,125 @@
+package dev.mathops.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@code RationalConverter}: exact conversion of each supported operand type, and best-rational
+ * conversion of a {@code double} with a bounded denominator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RationalConverterBenchmark {
+
+    /**
+     * Constructs a new {@code RationalConverterBenchmark}.
+     */
+    public RationalConverterBenchmark() {
+
+        // No action
+    }
+
+    /**
+     * An operand of a selected type and magnitude.
+     */
+    @State(Scope.Benchmark)
+    public static class KindState {
+
+        /** The operand type. */
+        @Param({"Long", "Rational", "BigRational", "BigInteger", "BigDecimal", "Double"})
+        public String kind;
+
+        /** The approximate magnitude of the operand, in bits. */
+        @Param({"10", "62", "100"})
+        public int bits;
+
+        /** The operand. */
+        Number operand;
+
+        /**
+         * Constructs a new {@code KindState}.
+         */
+        public KindState() {
+
+            // No action
+        }
+
+        /**
+         * Builds the operand.
+         */
+        @Setup
+        public void setup() {
+
+            this.operand = BenchmarkOperands.make(this.kind, this.bits, 0);
+        }
+    }
+
+    /**
+     * A {@code double} value and a denominator bound.
+     */
+    @State(Scope.Benchmark)
+    public static class BestRationalState {
+
+        /** The maximum denominator. */
+        @Param({"100", "1000000", "1000000000000"})
+        public long maxDenominator;
+
+        /** The value to approximate. */
+        double value;
+
+        /**
+         * Constructs a new {@code BestRationalState}.
+         */
+        public BestRationalState() {
+
+            // No action
+        }
+
+        /**
+         * Builds the value.
+         */
+        @Setup
+        public void setup() {
+
+            this.value = Math.PI / 7.0;
+        }
+    }
+
+    /**
+     * Benchmarks exact conversion.
+     *
+     * @param state the operand
+     * @return the converted value
+     */
+    @Benchmark
+    public Number toRationalOrIrrational(final KindState state) {
+
+        return RationalConverter.toRationalOrIrrational(state.operand);
+    }
+
+    /**
+     * Benchmarks best-rational conversion.
+     *
+     * @param state the value and bound
+     * @return the approximation
+     */
+    @Benchmark
+    public Number toBestRational(final BestRationalState state) {
+
+        return RationalConverter.toBestRational(state.value, state.maxDenominator);
+    }
+}
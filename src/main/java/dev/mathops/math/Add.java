@@ -22,6 +22,7 @@ import dev.mathops.commons.number.Rational;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * Utilities for adding numbers where the result is a numeric type that will not overflow.  Supported number types
@@ -31,40 +32,122 @@ import java.math.BigInteger;
 public enum Add {
     ;
 
+    /** The table of kernels, indexed by the ordinals of the kinds of the first and second terms. */
+    private static final INumberKernel[][] KERNELS = buildKernels();
+
+    /**
+     * Builds the table of kernels for each pair of number kinds.
+     *
+     * @return the table
+     */
+    private static INumberKernel[][] buildKernels() {
+
+        final INumberKernel[][] table = new INumberKernel[ENumberKind.COUNT][ENumberKind.COUNT];
+
+        final int lng = ENumberKind.LONG.ordinal();
+        final int rat = ENumberKind.RATIONAL.ordinal();
+        final int bRat = ENumberKind.BIG_RATIONAL.ordinal();
+        final int bInt = ENumberKind.BIG_INTEGER.ordinal();
+        final int bDec = ENumberKind.BIG_DECIMAL.ordinal();
+
+        // Any pair that involves an "OTHER" kind is added as doubles
+        final INumberKernel asDoubles = Add::doublePlusDouble;
+        for (final INumberKernel[] row : table) {
+            Arrays.fill(row, asDoubles);
+        }
+
+        table[lng][lng] = (a, b) -> longPlusLong((Long) a, (Long) b);
+        table[lng][rat] = (a, b) -> longPlusRational((Long) a, (Rational) b);
+        table[lng][bRat] = (a, b) -> longPlusBigRational((Long) a, (BigRational) b);
+        table[lng][bInt] = (a, b) -> longPlusBigInteger((Long) a, (BigInteger) b);
+        table[lng][bDec] = (a, b) -> longPlusBigDecimal((Long) a, (BigDecimal) b);
+
+        table[rat][lng] = (a, b) -> longPlusRational((Long) b, (Rational) a);
+        table[rat][rat] = (a, b) -> rationalPlusRational((Rational) a, (Rational) b);
+        table[rat][bRat] = (a, b) -> rationalPlusBigRational((Rational) a, (BigRational) b);
+        table[rat][bInt] = (a, b) -> rationalPlusBigInteger((Rational) a, (BigInteger) b);
+        table[rat][bDec] = (a, b) -> rationalPlusBigRational((Rational) a,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) b));
+
+        table[bRat][lng] = (a, b) -> longPlusBigRational((Long) b, (BigRational) a);
+        table[bRat][rat] = (a, b) -> rationalPlusBigRational((Rational) b, (BigRational) a);
+        table[bRat][bRat] = (a, b) -> bigRationalPlusBigRational((BigRational) a, (BigRational) b);
+        table[bRat][bInt] = (a, b) -> bigRationalPlusBigInteger((BigRational) a, (BigInteger) b);
+        table[bRat][bDec] = (a, b) -> bigRationalPlusBigRational((BigRational) a,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) b));
+
+        table[bInt][lng] = (a, b) -> longPlusBigInteger((Long) b, (BigInteger) a);
+        table[bInt][rat] = (a, b) -> rationalPlusBigInteger((Rational) b, (BigInteger) a);
+        table[bInt][bRat] = (a, b) -> bigRationalPlusBigInteger((BigRational) b, (BigInteger) a);
+        table[bInt][bInt] = (a, b) -> NumberUtils.simplifyBigInteger(((BigInteger) a).add((BigInteger) b));
+        table[bInt][bDec] = (a, b) -> bigIntegerPlusBigDecimal((BigInteger) a, (BigDecimal) b);
+
+        table[bDec][lng] = (a, b) -> longPlusBigDecimal((Long) b, (BigDecimal) a);
+        table[bDec][rat] = (a, b) -> rationalPlusBigRational((Rational) b,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) a));
+        table[bDec][bRat] = (a, b) -> bigRationalPlusBigRational((BigRational) b,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) a));
+        table[bDec][bInt] = (a, b) -> bigIntegerPlusBigDecimal((BigInteger) b, (BigDecimal) a);
+        table[bDec][bDec] = (a, b) -> NumberUtils.simplifyBigDecimal(((BigDecimal) a).add((BigDecimal) b));
+
+        return table;
+    }
+
     /**
      * Adds two numbers without risk of overflow.
      *
      * @param term1 the first term
      * @param term2 the second term
-     * @return the product
+     * @return the sum
      */
     public static Number numberPlusNumber(final Number term1, final Number term2) {
 
+        final ENumberKind kind1 = ENumberKind.of(term1);
+        final ENumberKind kind2 = ENumberKind.of(term2);
+
+        return numberPlusNumber(kind1, term1, kind2, term2);
+    }
+
+    /**
+     * Adds two numbers whose kinds are already known without risk of overflow.
+     *
+     * @param kind1 the kind of the first term
+     * @param term1 the first term
+     * @param kind2 the kind of the second term
+     * @param term2 the second term
+     * @return the sum
+     */
+    public static Number numberPlusNumber(final ENumberKind kind1, final Number term1, final ENumberKind kind2,
+                                          final Number term2) {
+
         final Number result;
 
-        if (NumberUtils.isZero(term1)) {
+        if (kind1.isZero(term1)) {
             result = term2;
-        } else if (NumberUtils.isZero(term2)) {
+        } else if (kind2.isZero(term2)) {
             result = term1;
-        } else if (term1 instanceof final Long l1) {
-            result = longPlusNumber(l1, term2);
-        } else if (term1 instanceof final Rational r1) {
-            result = rationalPlusNumber(r1, term2);
-        } else if (term1 instanceof final BigRational br1) {
-            result = bigRationalPlusNumber(br1, term2);
-        } else if (term1 instanceof final BigInteger bi1) {
-            result = bigIntegerPlusNumber(bi1, term2);
-        } else if (term1 instanceof final BigDecimal bd1) {
-            result = bigDecimalPlusNumber(bd1, term2);
         } else {
-            final double d1 = term1.doubleValue();
-            final double d2 = term2.doubleValue();
-            result = Double.valueOf(d1 + d2);
+            result = KERNELS[kind1.ordinal()][kind2.ordinal()].apply(term1, term2);
         }
 
         return result;
     }
 
+    /**
+     * Adds two numbers as {@code double} values.
+     *
+     * @param term1 the first term
+     * @param term2 the second term
+     * @return the sum, as a {@code Double}
+     */
+    private static Number doublePlusDouble(final Number term1, final Number term2) {
+
+        final double d1 = term1.doubleValue();
+        final double d2 = term2.doubleValue();
+
+        return Double.valueOf(d1 + d2);
+    }
+
     /**
      * Adds a {code Long} and a number without risk of overflow.
      *
@@ -108,7 +191,7 @@ public enum Add {
 
         if (term2 instanceof final Long l2) {
             final long theValue = l2.longValue();
-            final Rational r2 = new Rational(theValue);
+            final Rational r2 = CanonicalNumbers.rational(theValue, 1L);
             return rationalPlusRational(r2, term1);
         } else if (term2 instanceof final Rational r2) {
             result = rationalPlusRational(term1, r2);
@@ -257,10 +340,28 @@ public enum Add {
      */
     public static Number longPlusRational(final Long term1, final Rational term2) {
 
+        // A + C/D = (AD + C) / D
+
         final long value = term1.longValue();
-        final Rational r1 = new Rational(value);
+        final long c = term2.numerator;
+        final long d = term2.denominator;
+
+        Number result = null;
+
+        if (!LongArithmetic.multiplyOverflows(value, d)) {
+            final long ad = value * d;
+            final long newNumer = ad + c;
+            if (!LongArithmetic.addOverflows(ad, c, newNumer)) {
+                result = CanonicalNumbers.simplified(newNumer, d);
+            }
+        }
+
+        if (result == null) {
+            final Rational r1 = CanonicalNumbers.rational(value, 1L);
+            result = rationalPlusRationalBig(r1, term2);
+        }
 
-        return rationalPlusRational(r1, term2);
+        return result;
     }
 
     /**
@@ -319,34 +420,65 @@ public enum Add {
      */
     public static Number rationalPlusRational(final Rational term1, final Rational term2) {
 
-        // A/B + C/D = (AD + BC) / (BD)
+        // A/B + C/D = (A(D/G) + C(B/G)) / (B(D/G)), where G = gcd(B, D).  Dividing out the common factor of the
+        // denominators first keeps the cross products small, so most sums never leave long arithmetic.
 
-        Number result;
+        final long a = term1.numerator;
+        final long b = term1.denominator;
+        final long c = term2.numerator;
+        final long d = term2.denominator;
 
-        try {
-            final long ad = Math.multiplyExact(term1.numerator, term2.denominator);
-            final long bc = Math.multiplyExact(term1.denominator, term2.numerator);
-            final long bd = Math.multiplyExact(term1.denominator, term2.denominator);
-            final long adPlusBc = Math.addExact(ad, bc);
+        final long g = LongArithmetic.gcd(b, d);
+        final long bOverG = b / g;
+        final long dOverG = d / g;
 
-            result = NumberUtils.simplifyRational(new Rational(adPlusBc, bd));
-        } catch (final ArithmeticException ex) {
-            final BigInteger n1 = BigInteger.valueOf(term1.numerator);
-            final BigInteger d1 = BigInteger.valueOf(term1.denominator);
-            final BigInteger n2 = BigInteger.valueOf(term2.numerator);
-            final BigInteger d2 = BigInteger.valueOf(term2.denominator);
+        Number result = null;
 
-            final BigInteger n1d2 = n1.multiply(d2);
-            final BigInteger d1n2 = d1.multiply(n2);
-            final BigInteger d1d2 = d1.multiply(d2);
-            final BigInteger newNumer = n1d2.add(d1n2);
+        if (!LongArithmetic.multiplyOverflows(a, dOverG)
+            && !LongArithmetic.multiplyOverflows(c, bOverG)
+            && !LongArithmetic.multiplyOverflows(b, dOverG)) {
 
-            result = NumberUtils.simplifyBigRational(new BigRational(newNumer, d1d2));
+            final long ad = a * dOverG;
+            final long cb = c * bOverG;
+            final long newNumer = ad + cb;
+
+            if (!LongArithmetic.addOverflows(ad, cb, newNumer)) {
+                result = CanonicalNumbers.simplified(newNumer, b * dOverG);
+            }
+        }
+
+        if (result == null) {
+            result = rationalPlusRationalBig(term1, term2);
         }
 
         return result;
     }
 
+    /**
+     * Computes the sum of two {code Rational} terms using {@code BigInteger} arithmetic, for use when the sum overflows
+     * a {@code long}.
+     *
+     * @param term1 the first term
+     * @param term2 the second term
+     * @return the sum
+     */
+    private static Number rationalPlusRationalBig(final Rational term1, final Rational term2) {
+
+        // A/B + C/D = (AD + BC) / (BD)
+
+        final BigInteger n1 = BigInteger.valueOf(term1.numerator);
+        final BigInteger d1 = BigInteger.valueOf(term1.denominator);
+        final BigInteger n2 = BigInteger.valueOf(term2.numerator);
+        final BigInteger d2 = BigInteger.valueOf(term2.denominator);
+
+        final BigInteger n1d2 = n1.multiply(d2);
+        final BigInteger d1n2 = d1.multiply(n2);
+        final BigInteger d1d2 = d1.multiply(d2);
+        final BigInteger newNumer = n1d2.add(d1n2);
+
+        return NumberUtils.simplifyBigRational(new BigRational(newNumer, d1d2));
+    }
+
     /**
      * Computes the product of a {code Rational}  and a {code BigRational} term, without risk of overflow.
      *
@@ -420,7 +552,7 @@ public enum Add {
         // A/B + C = (A + BC) / B
 
         final BigInteger d1n2 = term1.denominator.multiply(term2);
-        final BigInteger newNumer = term1.numerator.add(term1.denominator);
+        final BigInteger newNumer = term1.numerator.add(d1n2);
 
         return NumberUtils.simplifyBigRational(new BigRational(newNumer, term1.denominator));
     }
@@ -0,0 +1,380 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.Rational;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact arithmetic over arrays of numbers, for use where folding long arrays through {@code Add} and
+ * {@code Multiply} pairwise would allocate and reduce a result at every step.  Operands are grouped by kind as they are
+ * scanned: {@code Long} values are summed in a primitive {@code long}, {@code Rational} values in a primitive numerator
+ * and denominator, and all other values in an {@code ExactAccumulator}, whose rules for inexact values apply.  The
+ * groups are merged once, at the end.
+ *
+ * <p>
+ * The {@code parallel} variants split large arrays across the common {@code ForkJoinPool}, and merge the partial
+ * results exactly, so they return the same value as the sequential variants.
+ */
+public enum BulkArithmetic {
+    ;
+
+    /** The array length below which a parallel operation runs sequentially. */
+    static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * Computes the sum of an array of numbers.
+     *
+     * @param values the values (none may be null)
+     * @return the sum (zero if the array is empty)
+     */
+    public static Number sum(final Number[] values) {
+
+        return sumRange(values, 0, values.length).result();
+    }
+
+    /**
+     * Computes the sum of an array of numbers, splitting large arrays across the common {@code ForkJoinPool}.
+     *
+     * @param values the values (none may be null)
+     * @return the sum
+     */
+    public static Number parallelSum(final Number[] values) {
+
+        final ExactAccumulator total;
+
+        if (values.length < PARALLEL_THRESHOLD) {
+            total = sumRange(values, 0, values.length);
+        } else {
+            total = ForkJoinPool.commonPool().invoke(new SumTask(values, 0, values.length));
+        }
+
+        return total.result();
+    }
+
+    /**
+     * Computes the dot product of two arrays of numbers (the sum of the products of corresponding elements).
+     *
+     * @param values1 the first array (none may be null)
+     * @param values2 the second array (none may be null)
+     * @return the dot product
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public static Number dot(final Number[] values1, final Number[] values2) {
+
+        checkLengths(values1, values2);
+
+        return dotRange(values1, values2, 0, values1.length).result();
+    }
+
+    /**
+     * Computes the dot product of two arrays of numbers, splitting large arrays across the common
+     * {@code ForkJoinPool}.
+     *
+     * @param values1 the first array (none may be null)
+     * @param values2 the second array (none may be null)
+     * @return the dot product
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public static Number parallelDot(final Number[] values1, final Number[] values2) {
+
+        checkLengths(values1, values2);
+
+        final ExactAccumulator total;
+
+        if (values1.length < PARALLEL_THRESHOLD) {
+            total = dotRange(values1, values2, 0, values1.length);
+        } else {
+            total = ForkJoinPool.commonPool().invoke(new DotTask(values1, values2, 0, values1.length));
+        }
+
+        return total.result();
+    }
+
+    /**
+     * Computes the running sums of an array of numbers, so that {@code out[i]} is the sum of {@code values[0]} through
+     * {@code values[i]}.  While the running sum is an integer and the values are {@code Long}, no accumulator is used.
+     *
+     * @param values the values (none may be null)
+     * @param out    the array to which to write the running sums (at least as long as {@code values})
+     * @throws IllegalArgumentException if the output array is shorter than the input array
+     */
+    public static void prefixSums(final Number[] values, final Number[] out) {
+
+        if (out.length < values.length) {
+            throw new IllegalArgumentException("Output array is shorter than input array");
+        }
+
+        final int len = values.length;
+        long running = 0L;
+        int index = 0;
+
+        // Integer prefix: stay in a primitive long until a non-Long value or overflow
+        while (index < len) {
+            final Number value = values[index];
+            if (value.getClass() != Long.class) {
+                break;
+            }
+            final long l = value.longValue();
+            final long sum = running + l;
+            if (LongArithmetic.addOverflows(running, l, sum)) {
+                break;
+            }
+            running = sum;
+            if (running > (long) Integer.MAX_VALUE || running < (long) Integer.MIN_VALUE) {
+                out[index] = Long.valueOf(running);
+            } else {
+                out[index] = Integer.valueOf((int) running);
+            }
+            ++index;
+        }
+
+        if (index < len) {
+            final ExactAccumulator accumulator = new ExactAccumulator(Long.valueOf(running));
+            for (int i = index; i < len; ++i) {
+                accumulator.add(values[i]);
+                out[i] = accumulator.result();
+            }
+        }
+    }
+
+    /**
+     * Verifies that two arrays have the same length.
+     *
+     * @param values1 the first array
+     * @param values2 the second array
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    private static void checkLengths(final Number[] values1, final Number[] values2) {
+
+        if (values1.length != values2.length) {
+            throw new IllegalArgumentException("Arrays have different lengths");
+        }
+    }
+
+    /**
+     * Sums a range of an array, grouping operands by kind.
+     *
+     * @param values the values
+     * @param from   the index of the first value to sum
+     * @param to     the index after the last value to sum
+     * @return an accumulator holding the sum
+     */
+    private static ExactAccumulator sumRange(final Number[] values, final int from, final int to) {
+
+        final ExactAccumulator others = new ExactAccumulator();
+        final ExactAccumulator rationals = new ExactAccumulator();
+        long longSum = 0L;
+
+        for (int i = from; i < to; ++i) {
+            final Number value = values[i];
+            final Class<?> cls = value.getClass();
+
+            if (cls == Long.class) {
+                final long l = value.longValue();
+                final long sum = longSum + l;
+                if (LongArithmetic.addOverflows(longSum, l, sum)) {
+                    others.addFraction(longSum, 1L);
+                    longSum = l;
+                } else {
+                    longSum = sum;
+                }
+            } else if (cls == Rational.class) {
+                final Rational r = (Rational) value;
+                rationals.addFraction(r.numerator, r.denominator);
+            } else {
+                others.add(value);
+            }
+        }
+
+        others.addFraction(longSum, 1L);
+        others.add(rationals);
+
+        return others;
+    }
+
+    /**
+     * Computes the dot product over a range of two arrays, grouping products by kind.
+     *
+     * @param values1 the first array
+     * @param values2 the second array
+     * @param from    the index of the first pair
+     * @param to      the index after the last pair
+     * @return an accumulator holding the dot product
+     */
+    private static ExactAccumulator dotRange(final Number[] values1, final Number[] values2, final int from,
+                                             final int to) {
+
+        final ExactAccumulator others = new ExactAccumulator();
+        final ExactAccumulator rationals = new ExactAccumulator();
+        long longSum = 0L;
+
+        for (int i = from; i < to; ++i) {
+            final Number value1 = widen(values1[i]);
+            final Number value2 = widen(values2[i]);
+            final Class<?> cls1 = value1.getClass();
+            final Class<?> cls2 = value2.getClass();
+
+            if (cls1 == Long.class && cls2 == Long.class) {
+                final long l1 = value1.longValue();
+                final long l2 = value2.longValue();
+                if (LongArithmetic.multiplyOverflows(l1, l2)) {
+                    others.add(Multiply.numberTimesNumber(value1, value2));
+                } else {
+                    final long product = l1 * l2;
+                    final long sum = longSum + product;
+                    if (LongArithmetic.addOverflows(longSum, product, sum)) {
+                        others.addFraction(longSum, 1L);
+                        longSum = product;
+                    } else {
+                        longSum = sum;
+                    }
+                }
+            } else if (cls1 == Rational.class && cls2 == Rational.class) {
+                final Rational r1 = (Rational) value1;
+                final Rational r2 = (Rational) value2;
+                if (LongArithmetic.multiplyOverflows(r1.numerator, r2.numerator)
+                    || LongArithmetic.multiplyOverflows(r1.denominator, r2.denominator)) {
+                    others.add(Multiply.numberTimesNumber(value1, value2));
+                } else {
+                    rationals.addFraction(r1.numerator * r2.numerator, r1.denominator * r2.denominator);
+                }
+            } else {
+                others.add(Multiply.numberTimesNumber(value1, value2));
+            }
+        }
+
+        others.addFraction(longSum, 1L);
+        others.add(rationals);
+
+        return others;
+    }
+
+    /**
+     * Widens an {@code Integer}, {@code Short}, or {@code Byte} to a {@code Long}.  {@code Multiply} multiplies types
+     * other than {@code Long} and the big and rational types as {@code double} values, so the narrower integer types
+     * must be widened before a product is computed.
+     *
+     * @param value the value
+     * @return the value, as a {@code Long} if it was one of the narrower integer types
+     */
+    private static Number widen(final Number value) {
+
+        return value instanceof Integer || value instanceof Short || value instanceof Byte
+                ? Long.valueOf(value.longValue()) : value;
+    }
+
+    /**
+     * A task that sums a range of an array, splitting it in half until it is small enough to sum sequentially.
+     */
+    private static final class SumTask extends RecursiveTask<ExactAccumulator> {
+
+        /** The values. */
+        private final Number[] values;
+
+        /** The index of the first value to sum. */
+        private final int from;
+
+        /** The index after the last value to sum. */
+        private final int to;
+
+        /**
+         * Constructs a new {@code SumTask}.
+         *
+         * @param theValues the values
+         * @param theFrom   the index of the first value to sum
+         * @param theTo     the index after the last value to sum
+         */
+        SumTask(final Number[] theValues, final int theFrom, final int theTo) {
+
+            super();
+
+            this.values = theValues;
+            this.from = theFrom;
+            this.to = theTo;
+        }
+
+        /**
+         * Computes the sum.
+         *
+         * @return an accumulator holding the sum
+         */
+        @Override
+        protected ExactAccumulator compute() {
+
+            final ExactAccumulator result;
+
+            if (this.to - this.from < PARALLEL_THRESHOLD) {
+                result = sumRange(this.values, this.from, this.to);
+            } else {
+                final int mid = (this.from + this.to) >>> 1;
+                final SumTask left = new SumTask(this.values, this.from, mid);
+                left.fork();
+                result = new SumTask(this.values, mid, this.to).compute();
+                result.add(left.join());
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * A task that computes the dot product over a range of two arrays, splitting it in half until it is small enough
+     * to compute sequentially.
+     */
+    private static final class DotTask extends RecursiveTask<ExactAccumulator> {
+
+        /** The first array. */
+        private final Number[] values1;
+
+        /** The second array. */
+        private final Number[] values2;
+
+        /** The index of the first pair. */
+        private final int from;
+
+        /** The index after the last pair. */
+        private final int to;
+
+        /**
+         * Constructs a new {@code DotTask}.
+         *
+         * @param theValues1 the first array
+         * @param theValues2 the second array
+         * @param theFrom    the index of the first pair
+         * @param theTo      the index after the last pair
+         */
+        DotTask(final Number[] theValues1, final Number[] theValues2, final int theFrom, final int theTo) {
+
+            super();
+
+            this.values1 = theValues1;
+            this.values2 = theValues2;
+            this.from = theFrom;
+            this.to = theTo;
+        }
+
+        /**
+         * Computes the dot product.
+         *
+         * @return an accumulator holding the dot product
+         */
+        @Override
+        protected ExactAccumulator compute() {
+
+            final ExactAccumulator result;
+
+            if (this.to - this.from < PARALLEL_THRESHOLD) {
+                result = dotRange(this.values1, this.values2, this.from, this.to);
+            } else {
+                final int mid = (this.from + this.to) >>> 1;
+                final DotTask left = new DotTask(this.values1, this.values2, this.from, mid);
+                left.fork();
+                result = new DotTask(this.values1, this.values2, mid, this.to).compute();
+                result.add(left.join());
+            }
+
+            return result;
+        }
+    }
+}
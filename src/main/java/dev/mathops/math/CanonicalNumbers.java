@@ -0,0 +1,167 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.Rational;
+
+/**
+ * A factory for canonical instances of small numbers, in the spirit of {@code Long.valueOf}.  Every {@code Rational}
+ * whose reduced numerator and denominator are at most {@code MAX} in magnitude is created once, when this class is
+ * loaded, and shared from then on, so arithmetic that produces such values does not allocate, and callers may test
+ * for common values like zero and one by identity before falling back to comparing values.
+ *
+ * <p>
+ * Integer results are represented as an {@code Integer} if they fit, and a {@code Long} otherwise, matching
+ * {@code NumberUtils.simplifyRational}; the boxing caches of those classes supply the canonical small integers.
+ */
+public enum CanonicalNumbers {
+    ;
+
+    /** The largest numerator magnitude and denominator of a cached {@code Rational}. */
+    public static final int MAX = 128;
+
+    /** The number of table entries for each denominator. */
+    private static final int ROW_SIZE = 2 * MAX + 1;
+
+    /**
+     * The cached instances, indexed by {@code (denominator - 1) * ROW_SIZE + (numerator + MAX)}.  Entries for fractions
+     * not in lowest terms refer to the instance for the reduced fraction.
+     */
+    private static final Rational[] TABLE = buildTable();
+
+    /** The canonical {@code Long} zero. */
+    public static final Long LONG_ZERO = Long.valueOf(0L);
+
+    /** The canonical {@code Long} one. */
+    public static final Long LONG_ONE = Long.valueOf(1L);
+
+    /** The canonical {@code Integer} zero. */
+    public static final Integer INTEGER_ZERO = Integer.valueOf(0);
+
+    /** The canonical {@code Integer} one. */
+    public static final Integer INTEGER_ONE = Integer.valueOf(1);
+
+    /** The canonical {@code Rational} zero. */
+    public static final Rational RATIONAL_ZERO = TABLE[MAX];
+
+    /** The canonical {@code Rational} one. */
+    public static final Rational RATIONAL_ONE = TABLE[MAX + 1];
+
+    /**
+     * Builds the table of cached instances.
+     *
+     * @return the table
+     */
+    private static Rational[] buildTable() {
+
+        final Rational[] table = new Rational[MAX * ROW_SIZE];
+
+        // Denominators are filled in increasing order, so the reduced form of any fraction is already present
+        for (int denom = 1; denom <= MAX; ++denom) {
+            final int rowStart = (denom - 1) * ROW_SIZE;
+            for (int numer = -MAX; numer <= MAX; ++numer) {
+                final long gcd = LongArithmetic.gcd((long) numer, (long) denom);
+                if (gcd == 1L) {
+                    table[rowStart + numer + MAX] = new Rational((long) numer, (long) denom);
+                } else {
+                    final int reducedNumer = numer / (int) gcd;
+                    final int reducedDenom = denom / (int) gcd;
+                    table[rowStart + numer + MAX] = table[(reducedDenom - 1) * ROW_SIZE + reducedNumer + MAX];
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Tests whether a numerator and positive denominator are in the range of the table.
+     *
+     * @param numer the numerator
+     * @param denom the denominator
+     * @return true if cached
+     */
+    private static boolean inTable(final long numer, final long denom) {
+
+        return denom > 0L && denom <= (long) MAX && numer >= (long) -MAX && numer <= (long) MAX;
+    }
+
+    /**
+     * Gets a {@code Rational} with a specified value, returning a shared instance if the reduced value is cached.
+     *
+     * @param numer the numerator
+     * @param denom the denominator (may be negative, but not zero)
+     * @return the {@code Rational}
+     * @throws ArithmeticException if the denominator is zero
+     */
+    public static Rational rational(final long numer, final long denom) {
+
+        final Rational result;
+
+        if (inTable(numer, denom)) {
+            result = TABLE[(int) ((denom - 1L) * (long) ROW_SIZE + numer + (long) MAX)];
+        } else if (inTable(-numer, -denom)) {
+            result = TABLE[(int) ((-denom - 1L) * (long) ROW_SIZE - numer + (long) MAX)];
+        } else {
+            result = canonical(new Rational(numer, denom));
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the shared instance with the same value as a {@code Rational}, if that value is cached.
+     *
+     * @param value the value
+     * @return the shared instance, or {@code value} if not cached
+     */
+    public static Rational canonical(final Rational value) {
+
+        final long numer = value.numerator;
+        final long denom = value.denominator;
+
+        return inTable(numer, denom) ? TABLE[(int) ((denom - 1L) * (long) ROW_SIZE + numer + (long) MAX)] : value;
+    }
+
+    /**
+     * Gets an integer value as an {@code Integer} if it fits, or a {@code Long} if not.
+     *
+     * @param value the value
+     * @return the {@code Integer} or {@code Long}
+     */
+    public static Number integer(final long value) {
+
+        final Number result;
+
+        if (value > (long) Integer.MAX_VALUE || value < (long) Integer.MIN_VALUE) {
+            result = Long.valueOf(value);
+        } else {
+            result = Integer.valueOf((int) value);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets a fraction in simplest form: an {@code Integer} or {@code Long} if its reduced denominator is 1, or a
+     * {@code Rational} (a shared instance if cached) if not.  This gives the same value as
+     * {@code NumberUtils.simplifyRational(new Rational(numer, denom))}, but does not allocate when the result is
+     * cached.
+     *
+     * @param numer the numerator
+     * @param denom the denominator (may be negative, but not zero)
+     * @return the simplified value
+     * @throws ArithmeticException if the denominator is zero
+     */
+    public static Number simplified(final long numer, final long denom) {
+
+        final Number result;
+
+        if (denom == 1L) {
+            result = integer(numer);
+        } else {
+            final Rational rational = rational(numer, denom);
+            result = rational.denominator == 1L ? integer(rational.numerator) : rational;
+        }
+
+        return result;
+    }
+}
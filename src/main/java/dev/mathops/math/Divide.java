@@ -5,6 +5,7 @@ import dev.mathops.commons.number.Rational;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * Utilities for dividing numbers where the result is a numeric type that will not overflow.  Supported number types
@@ -14,6 +15,71 @@ import java.math.BigInteger;
 public enum Divide {
     ;
 
+    /** The table of kernels, indexed by the ordinals of the kinds of the dividend and divisor. */
+    private static final INumberKernel[][] KERNELS = buildKernels();
+
+    /**
+     * Builds the table of kernels for each pair of number kinds.
+     *
+     * @return the table
+     */
+    private static INumberKernel[][] buildKernels() {
+
+        final INumberKernel[][] table = new INumberKernel[ENumberKind.COUNT][ENumberKind.COUNT];
+
+        final int lng = ENumberKind.LONG.ordinal();
+        final int rat = ENumberKind.RATIONAL.ordinal();
+        final int bRat = ENumberKind.BIG_RATIONAL.ordinal();
+        final int bInt = ENumberKind.BIG_INTEGER.ordinal();
+        final int bDec = ENumberKind.BIG_DECIMAL.ordinal();
+
+        // Any pair that involves an "OTHER" kind is divided as doubles
+        final INumberKernel asDoubles = Divide::doubleDivDouble;
+        for (final INumberKernel[] row : table) {
+            Arrays.fill(row, asDoubles);
+        }
+
+        table[lng][lng] = (a, b) -> longDivLong((Long) a, (Long) b);
+        table[lng][rat] = (a, b) -> Multiply.longTimesRational((Long) a, ((Rational) b).reciprocal());
+        table[lng][bRat] = (a, b) -> Multiply.longTimesBigRational((Long) a, ((BigRational) b).reciprocal());
+        table[lng][bInt] = (a, b) -> longDivBigInteger((Long) a, (BigInteger) b);
+        table[lng][bDec] = (a, b) -> Multiply.longTimesBigRational((Long) a, bigDecimalReciprocal((BigDecimal) b));
+
+        table[rat][lng] = (a, b) -> rationalDivLong((Rational) a, (Long) b);
+        table[rat][rat] = (a, b) -> Multiply.rationalTimesRational((Rational) a, ((Rational) b).reciprocal());
+        table[rat][bRat] = (a, b) -> Multiply.rationalTimesBigRational((Rational) a, ((BigRational) b).reciprocal());
+        table[rat][bInt] = (a, b) -> rationalDivBigInteger((Rational) a, (BigInteger) b);
+        table[rat][bDec] = (a, b) -> Multiply.rationalTimesBigRational((Rational) a,
+                bigDecimalReciprocal((BigDecimal) b));
+
+        table[bRat][lng] = (a, b) -> bigRationalDivLong((BigRational) a, (Long) b);
+        table[bRat][rat] = (a, b) -> Multiply.rationalTimesBigRational(((Rational) b).reciprocal(), (BigRational) a);
+        table[bRat][bRat] = (a, b) -> Multiply.bigRationalTimesBigRational((BigRational) a,
+                ((BigRational) b).reciprocal());
+        table[bRat][bInt] = (a, b) -> bigRationalDivBigInteger((BigRational) a, (BigInteger) b);
+        table[bRat][bDec] = (a, b) -> Multiply.bigRationalTimesBigRational((BigRational) a,
+                bigDecimalReciprocal((BigDecimal) b));
+
+        table[bInt][lng] = (a, b) -> bigIntegerDivLong((BigInteger) a, (Long) b);
+        table[bInt][rat] = (a, b) -> Multiply.rationalTimesBigInteger(((Rational) b).reciprocal(), (BigInteger) a);
+        table[bInt][bRat] = (a, b) -> Multiply.bigRationalTimesBigInteger(((BigRational) b).reciprocal(),
+                (BigInteger) a);
+        table[bInt][bInt] = (a, b) -> bigIntegerDivBigInteger((BigInteger) a, (BigInteger) b);
+        table[bInt][bDec] = (a, b) -> Multiply.bigRationalTimesBigInteger(bigDecimalReciprocal((BigDecimal) b),
+                (BigInteger) a);
+
+        // A BigDecimal dividend is converted to a BigRational, then treated as a BigRational dividend
+        for (final ENumberKind kind : ENumberKind.values()) {
+            if (kind != ENumberKind.OTHER) {
+                final int i = kind.ordinal();
+                final INumberKernel asBigRational = table[bRat][i];
+                table[bDec][i] = (a, b) -> asBigRational.apply(NumberUtils.bigDecimalToBigRational((BigDecimal) a), b);
+            }
+        }
+
+        return table;
+    }
+
     /**
      * Divides two numbers without risk of overflow.
      *
@@ -23,34 +89,67 @@ public enum Divide {
      */
     public static Number numberDivNumber(final Number dividend, final Number divisor) {
 
+        final ENumberKind kind1 = ENumberKind.of(dividend);
+        final ENumberKind kind2 = ENumberKind.of(divisor);
+
+        return numberDivNumber(kind1, dividend, kind2, divisor);
+    }
+
+    /**
+     * Divides two numbers whose kinds are already known without risk of overflow.
+     *
+     * @param kind1    the kind of the dividend
+     * @param dividend the dividend (numerator)
+     * @param kind2    the kind of the divisor
+     * @param divisor  the divisor (denominator)
+     * @return the quotient, {code NaN} if {code divisor} was zero
+     */
+    public static Number numberDivNumber(final ENumberKind kind1, final Number dividend, final ENumberKind kind2,
+                                         final Number divisor) {
+
         final Number result;
 
-        if (NumberUtils.isZero(divisor)) {
+        if (kind2.isZero(divisor)) {
             result = Double.valueOf(Double.NaN);
-        } else if (NumberUtils.isZero(dividend)) {
+        } else if (kind1.isZero(dividend)) {
             result = Long.valueOf(0L);
-        } else if (NumberUtils.isOne(divisor)) {
+        } else if (kind2.isOne(divisor)) {
             result = dividend;
-        } else if (dividend instanceof final Long l1) {
-            result = longDivNumber(l1, divisor);
-        } else if (dividend instanceof final Rational r1) {
-            result = rationalDivNumber(r1, divisor);
-        } else if (dividend instanceof final BigRational br1) {
-            result = bigRationalDivNumber(br1, divisor);
-        } else if (dividend instanceof final BigInteger bi1) {
-            result = bigIntegerDivNumber(bi1, divisor);
-        } else if (dividend instanceof final BigDecimal bd1) {
-            final BigRational bigRat = NumberUtils.bigDecimalToBigRational(bd1);
-            result = bigRationalDivNumber(bigRat, divisor);
         } else {
-            final double d1 = dividend.doubleValue();
-            final double d2 = divisor.doubleValue();
-            result = Double.valueOf(d1 / d2);
+            result = KERNELS[kind1.ordinal()][kind2.ordinal()].apply(dividend, divisor);
         }
 
         return result;
     }
 
+    /**
+     * Divides two numbers as {@code double} values.
+     *
+     * @param dividend the dividend (numerator)
+     * @param divisor  the divisor (denominator)
+     * @return the quotient, as a {@code Double}
+     */
+    private static Number doubleDivDouble(final Number dividend, final Number divisor) {
+
+        final double d1 = dividend.doubleValue();
+        final double d2 = divisor.doubleValue();
+
+        return Double.valueOf(d1 / d2);
+    }
+
+    /**
+     * Computes the reciprocal of a {@code BigDecimal} as a {@code BigRational}.
+     *
+     * @param value the value
+     * @return the reciprocal
+     */
+    private static BigRational bigDecimalReciprocal(final BigDecimal value) {
+
+        final BigRational bigRat = NumberUtils.bigDecimalToBigRational(value);
+
+        return bigRat.reciprocal();
+    }
+
     /**
      * Divides a {code Long} and a number without risk of overflow.
      *
@@ -142,7 +241,8 @@ public enum Divide {
             result = bigRationalDivBigInteger(dividend, bi2);
         } else if (divisor instanceof final BigDecimal bd2) {
             final BigRational bigRat = NumberUtils.bigDecimalToBigRational(bd2);
-            result = Multiply.bigRationalTimesBigRational(dividend, bigRat);
+            final BigRational recip = bigRat.reciprocal();
+            result = Multiply.bigRationalTimesBigRational(dividend, recip);
         } else {
             final double d1 = dividend.doubleValue();
             final double d2 = divisor.doubleValue();
@@ -197,7 +297,7 @@ public enum Divide {
 
         final long l1 = dividend.longValue();
         final long l2 = divisor.longValue();
-        return NumberUtils.simplifyRational(new Rational(l1, l2));
+        return CanonicalNumbers.simplified(l1, l2);
     }
 
     /**
@@ -224,21 +324,23 @@ public enum Divide {
      */
     public static Number rationalDivLong(final Rational dividend, final Long divisor) {
 
-        Number result;
+        // (A/B) / L = (A/G) / (B(L/G)), where G = gcd(A, L)
 
         final long l2 = divisor.longValue();
+        final long g = LongArithmetic.gcd(dividend.numerator, l2);
+        final long lOverG = l2 / g;
 
-        try {
-            final long newDenom = Math.multiplyExact(dividend.denominator, l2);
+        final Number result;
 
-            result = NumberUtils.simplifyRational(new Rational(dividend.numerator, newDenom));
-        } catch (final ArithmeticException ex) {
+        if (LongArithmetic.multiplyOverflows(dividend.denominator, lOverG)) {
             final BigInteger bi2 = BigInteger.valueOf(l2);
             final BigInteger n1 = BigInteger.valueOf(dividend.numerator);
             final BigInteger d1 = BigInteger.valueOf(dividend.denominator);
             final BigInteger newDenom = d1.multiply(bi2);
-
             result = NumberUtils.simplifyBigRational(new BigRational(n1, newDenom));
+        } else {
+            final long newDenom = dividend.denominator * lOverG;
+            result = CanonicalNumbers.simplified(dividend.numerator / g, newDenom);
         }
 
         return result;
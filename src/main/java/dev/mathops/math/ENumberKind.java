@@ -0,0 +1,116 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The kinds of number on which the arithmetic utilities ({@code Add}, {@code Multiply}, {@code Divide}) dispatch.  An
+ * operand's kind is computed once, and the pair of kinds then selects a specialized kernel from a table rather than
+ * walking a chain of {@code instanceof} tests for each operand.
+ *
+ * <p>
+ * Any type not listed here (including {@code Integer}, {@code Double}, {@code Irrational}, and {@code BigIrrational})
+ * is of kind {@code OTHER}, which arithmetic operations treat as a {@code double}.
+ */
+public enum ENumberKind {
+
+    /** A {@code Long}. */
+    LONG,
+
+    /** A {@code Rational}. */
+    RATIONAL,
+
+    /** A {@code BigRational}. */
+    BIG_RATIONAL,
+
+    /** A {@code BigInteger}. */
+    BIG_INTEGER,
+
+    /** A {@code BigDecimal}. */
+    BIG_DECIMAL,
+
+    /** Any other type, treated as a {@code double}. */
+    OTHER;
+
+    /** The number of kinds (the size of each dimension of a dispatch table). */
+    static final int COUNT = values().length;
+
+    /**
+     * Classifies a number.  The common final types are recognized by class identity, which is cheaper than an
+     * {@code instanceof} test; subclasses of the supported types fall through to {@code instanceof} tests.
+     *
+     * @param number the number to classify
+     * @return the number's kind
+     */
+    public static ENumberKind of(final Number number) {
+
+        final Class<?> cls = number.getClass();
+
+        final ENumberKind result;
+
+        if (cls == Long.class) {
+            result = LONG;
+        } else if (cls == Rational.class) {
+            result = RATIONAL;
+        } else if (cls == BigRational.class) {
+            result = BIG_RATIONAL;
+        } else if (number instanceof BigInteger) {
+            result = BIG_INTEGER;
+        } else if (number instanceof BigDecimal) {
+            result = BIG_DECIMAL;
+        } else if (number instanceof Rational) {
+            result = RATIONAL;
+        } else if (number instanceof BigRational) {
+            result = BIG_RATIONAL;
+        } else {
+            result = OTHER;
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether a number of this kind is zero.
+     *
+     * @param number the number to test (must be of this kind)
+     * @return true if the number is zero
+     */
+    public boolean isZero(final Number number) {
+
+        return switch (this) {
+            case LONG -> 0L == number.longValue();
+            case RATIONAL -> 0L == ((Rational) number).numerator;
+            case BIG_RATIONAL -> 0 == ((BigRational) number).numerator.signum();
+            case BIG_INTEGER -> 0 == ((BigInteger) number).signum();
+            case BIG_DECIMAL -> 0 == ((BigDecimal) number).signum();
+            case OTHER -> NumberUtils.isZero(number);
+        };
+    }
+
+    /**
+     * Tests whether a number of this kind is one.
+     *
+     * @param number the number to test (must be of this kind)
+     * @return true if the number is one
+     */
+    public boolean isOne(final Number number) {
+
+        return switch (this) {
+            case LONG -> 1L == number.longValue();
+            case RATIONAL -> {
+                final Rational r = (Rational) number;
+                yield r.numerator == 1L && r.denominator == 1L;
+            }
+            case BIG_RATIONAL -> {
+                final BigRational br = (BigRational) number;
+                yield BigInteger.ONE.equals(br.numerator) && BigInteger.ONE.equals(br.denominator);
+            }
+            case BIG_INTEGER -> BigInteger.ONE.equals(number);
+            case BIG_DECIMAL -> 0 == BigDecimal.ONE.compareTo((BigDecimal) number);
+            case OTHER -> NumberUtils.isOne(number);
+        };
+    }
+}
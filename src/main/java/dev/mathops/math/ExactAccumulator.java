@@ -0,0 +1,508 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A mutable accumulator that sums or multiplies a run of numbers exactly, without allocating an intermediate
+ * {@code Rational} or {@code BigRational} at each step.
+ *
+ * <p>
+ * The running value is held as a numerator and denominator in primitive {@code long} fields, and moves to internal
+ * {@code BigInteger} values only when a step would overflow.  The fraction is not reduced at each step; it is reduced
+ * when the result is requested, or when the values grow large enough that reducing may keep them in (or bring them
+ * back to) the cheaper representation.
+ *
+ * <p>
+ * {@code Long}, {@code Integer}, {@code Short}, {@code Byte}, {@code BigInteger}, {@code Rational},
+ * {@code BigRational}, and {@code BigDecimal} values are accumulated exactly.  Any other value (such as a
+ * {@code Double} or an {@code Irrational}) switches the accumulator to {@code double} arithmetic, as {@code Add},
+ * {@code Multiply}, and {@code Divide} do.  As with those classes, multiplying by zero yields an exact zero, and
+ * dividing by zero yields NaN.
+ *
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class ExactAccumulator {
+
+    /** The bit length of a big denominator above which the big value is reduced before the next operation. */
+    private static final int MIN_REDUCE_BITS = 256;
+
+    /** The running numerator when in long mode. */
+    private long numer;
+
+    /** The running denominator when in long mode (always positive). */
+    private long denom;
+
+    /** The running numerator when in big mode. */
+    private BigInteger bigNumer;
+
+    /** The running denominator when in big mode (always positive). */
+    private BigInteger bigDenom;
+
+    /** The bit length of the big denominator at which the big value is next reduced. */
+    private int reduceBits;
+
+    /** The running value when in double mode. */
+    private double doubleValue;
+
+    /** True if the running value is held in {@code bigNumer} and {@code bigDenom}. */
+    private boolean big;
+
+    /** True if the running value is inexact, and held in {@code doubleValue}. */
+    private boolean inexact;
+
+    /**
+     * Constructs a new {@code ExactAccumulator} whose value is zero.
+     */
+    public ExactAccumulator() {
+
+        this.numer = 0L;
+        this.denom = 1L;
+    }
+
+    /**
+     * Constructs a new {@code ExactAccumulator} with an initial value.
+     *
+     * @param initial the initial value
+     */
+    public ExactAccumulator(final Number initial) {
+
+        set(initial);
+    }
+
+    /**
+     * Resets the accumulator to zero.
+     */
+    public void reset() {
+
+        this.numer = 0L;
+        this.denom = 1L;
+        this.bigNumer = null;
+        this.bigDenom = null;
+        this.big = false;
+        this.inexact = false;
+    }
+
+    /**
+     * Sets the value of the accumulator.
+     *
+     * @param value the new value
+     */
+    public void set(final Number value) {
+
+        reset();
+        this.numer = 1L;
+        multiply(value);
+    }
+
+    /**
+     * Adds a number to the accumulated value.
+     *
+     * @param value the number to add
+     */
+    public void add(final Number value) {
+
+        switch (value) {
+            case final Long l -> addLong(l.longValue(), 1L);
+            case final Integer i -> addLong(i.longValue(), 1L);
+            case final Short sh -> addLong(sh.longValue(), 1L);
+            case final Byte b -> addLong(b.longValue(), 1L);
+            case final Rational r -> addLong(r.numerator, r.denominator);
+            case final BigInteger bi -> addBig(bi, BigInteger.ONE);
+            case final BigRational br -> addBig(br.numerator, br.denominator);
+            case final BigDecimal bd -> {
+                final BigRational br = NumberUtils.bigDecimalToBigRational(bd);
+                addBig(br.numerator, br.denominator);
+            }
+            default -> {
+                // Adding an inexact zero leaves an exact value unchanged
+                if (!NumberUtils.isZero(value)) {
+                    makeInexact();
+                    this.doubleValue += value.doubleValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a fraction given as primitive values to the accumulated value, so that bulk operations can add values they
+     * have already unpacked without boxing them.
+     *
+     * @param numerator   the numerator
+     * @param denominator the denominator (must be positive)
+     */
+    void addFraction(final long numerator, final long denominator) {
+
+        addLong(numerator, denominator);
+    }
+
+    /**
+     * Adds the value of another accumulator to the accumulated value.
+     *
+     * @param other the other accumulator (unchanged)
+     */
+    public void add(final ExactAccumulator other) {
+
+        if (other.inexact) {
+            makeInexact();
+            this.doubleValue += other.doubleValue;
+        } else if (other.big) {
+            addBig(other.bigNumer, other.bigDenom);
+        } else {
+            addLong(other.numer, other.denom);
+        }
+    }
+
+    /**
+     * Multiplies the accumulated value by a number.
+     *
+     * @param value the number by which to multiply
+     */
+    public void multiply(final Number value) {
+
+        switch (value) {
+            case final Long l -> multiplyLong(l.longValue(), 1L);
+            case final Integer i -> multiplyLong(i.longValue(), 1L);
+            case final Short sh -> multiplyLong(sh.longValue(), 1L);
+            case final Byte b -> multiplyLong(b.longValue(), 1L);
+            case final Rational r -> multiplyLong(r.numerator, r.denominator);
+            case final BigInteger bi -> multiplyBig(bi, BigInteger.ONE);
+            case final BigRational br -> multiplyBig(br.numerator, br.denominator);
+            case final BigDecimal bd -> {
+                final BigRational br = NumberUtils.bigDecimalToBigRational(bd);
+                multiplyBig(br.numerator, br.denominator);
+            }
+            default -> {
+                if (NumberUtils.isZero(value)) {
+                    reset();
+                } else if (!isExactZero()) {
+                    makeInexact();
+                    this.doubleValue *= value.doubleValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Divides the accumulated value by a number.  Dividing by zero makes the accumulated value NaN.
+     *
+     * @param value the number by which to divide
+     */
+    public void divide(final Number value) {
+
+        if (NumberUtils.isZero(value)) {
+            makeInexact();
+            this.doubleValue = Double.NaN;
+        } else {
+            switch (value) {
+                case final Long l -> divideLong(l.longValue());
+                case final Integer i -> divideLong(i.longValue());
+                case final Short sh -> divideLong(sh.longValue());
+                case final Byte b -> divideLong(b.longValue());
+                case final Rational r -> divideRational(r);
+                case final BigInteger bi -> multiplyBig(BigInteger.ONE, bi);
+                case final BigRational br -> multiplyBig(br.denominator, br.numerator);
+                case final BigDecimal bd -> {
+                    final BigRational br = NumberUtils.bigDecimalToBigRational(bd);
+                    multiplyBig(br.denominator, br.numerator);
+                }
+                default -> {
+                    if (!isExactZero()) {
+                        makeInexact();
+                        this.doubleValue /= value.doubleValue();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the accumulated value, reduced to lowest terms and simplified to the smallest type that holds it exactly.
+     *
+     * @return the value (a {@code Double} if any inexact value was accumulated)
+     */
+    public Number result() {
+
+        final Number result;
+
+        if (this.inexact) {
+            result = Double.valueOf(this.doubleValue);
+        } else if (this.big) {
+            result = NumberUtils.simplifyBigRational(new BigRational(this.bigNumer, this.bigDenom));
+        } else if (this.denom == 1L) {
+            result = CanonicalNumbers.simplified(this.numer, 1L);
+        } else {
+            reduceLong();
+            result = CanonicalNumbers.simplified(this.numer, this.denom);
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether the accumulated value is an exact zero.
+     *
+     * @return true if exact and zero
+     */
+    private boolean isExactZero() {
+
+        return !this.inexact && (this.big ? this.bigNumer.signum() == 0 : this.numer == 0L);
+    }
+
+    /**
+     * Adds a fraction with a positive denominator to the accumulated value.
+     *
+     * @param n the numerator
+     * @param d the denominator
+     */
+    private void addLong(final long n, final long d) {
+
+        if (this.inexact) {
+            this.doubleValue += (double) n / (double) d;
+        } else if (this.big) {
+            addBig(BigInteger.valueOf(n), BigInteger.valueOf(d));
+        } else if (!tryAddLong(n, d) && !(reduceLong() && tryAddLong(n, d))) {
+            promote();
+            addBig(BigInteger.valueOf(n), BigInteger.valueOf(d));
+        }
+    }
+
+    /**
+     * Attempts to add a fraction with a positive denominator to the accumulated value in long arithmetic.
+     *
+     * @param n the numerator
+     * @param d the denominator
+     * @return true if successful; false if the operation would overflow (the value is unchanged)
+     */
+    private boolean tryAddLong(final long n, final long d) {
+
+        boolean ok = false;
+
+        if (d == this.denom) {
+            final long sum = this.numer + n;
+            if (!LongArithmetic.addOverflows(this.numer, n, sum)) {
+                this.numer = sum;
+                ok = true;
+            }
+        } else if (!LongArithmetic.multiplyOverflows(this.numer, d)
+                   && !LongArithmetic.multiplyOverflows(n, this.denom)
+                   && !LongArithmetic.multiplyOverflows(this.denom, d)) {
+            final long ad = this.numer * d;
+            final long bc = n * this.denom;
+            final long sum = ad + bc;
+            if (!LongArithmetic.addOverflows(ad, bc, sum)) {
+                this.numer = sum;
+                this.denom *= d;
+                ok = true;
+            }
+        }
+
+        return ok;
+    }
+
+    /**
+     * Multiplies the accumulated value by a fraction with a positive denominator.
+     *
+     * @param n the numerator
+     * @param d the denominator
+     */
+    private void multiplyLong(final long n, final long d) {
+
+        if (n == 0L) {
+            reset();
+        } else if (this.inexact) {
+            this.doubleValue *= (double) n / (double) d;
+        } else if (this.big) {
+            multiplyBig(BigInteger.valueOf(n), BigInteger.valueOf(d));
+        } else if (!tryMultiplyLong(n, d) && !(reduceLong() && tryMultiplyLong(n, d))) {
+            promote();
+            multiplyBig(BigInteger.valueOf(n), BigInteger.valueOf(d));
+        }
+    }
+
+    /**
+     * Attempts to multiply the accumulated value by a fraction with a positive denominator in long arithmetic.
+     *
+     * @param n the numerator
+     * @param d the denominator
+     * @return true if successful; false if the operation would overflow (the value is unchanged)
+     */
+    private boolean tryMultiplyLong(final long n, final long d) {
+
+        boolean ok = false;
+
+        if (!LongArithmetic.multiplyOverflows(this.numer, n) && !LongArithmetic.multiplyOverflows(this.denom, d)) {
+            this.numer *= n;
+            this.denom *= d;
+            ok = true;
+        }
+
+        return ok;
+    }
+
+    /**
+     * Divides the accumulated value by a nonzero integer.
+     *
+     * @param n the divisor
+     */
+    private void divideLong(final long n) {
+
+        if (n == Long.MIN_VALUE) {
+            multiplyBig(BigInteger.ONE, BigInteger.valueOf(n));
+        } else if (n < 0L) {
+            multiplyLong(-1L, -n);
+        } else {
+            multiplyLong(1L, n);
+        }
+    }
+
+    /**
+     * Divides the accumulated value by a nonzero {@code Rational}.
+     *
+     * @param r the divisor
+     */
+    private void divideRational(final Rational r) {
+
+        final long n = r.numerator;
+
+        if (n == Long.MIN_VALUE) {
+            multiplyBig(BigInteger.valueOf(r.denominator), BigInteger.valueOf(n));
+        } else if (n < 0L) {
+            multiplyLong(-r.denominator, -n);
+        } else {
+            multiplyLong(r.denominator, n);
+        }
+    }
+
+    /**
+     * Adds a fraction to the accumulated value in big mode.
+     *
+     * @param n the numerator
+     * @param d the denominator (positive)
+     */
+    private void addBig(final BigInteger n, final BigInteger d) {
+
+        if (this.inexact) {
+            this.doubleValue += new BigRational(n, d).doubleValue();
+        } else if (n.signum() != 0) {
+            if (!this.big) {
+                promote();
+            }
+
+            if (d.equals(this.bigDenom)) {
+                this.bigNumer = this.bigNumer.add(n);
+            } else {
+                this.bigNumer = this.bigNumer.multiply(d).add(n.multiply(this.bigDenom));
+                this.bigDenom = this.bigDenom.multiply(d);
+            }
+            reduceBigIfLarge();
+        }
+    }
+
+    /**
+     * Multiplies the accumulated value by a fraction in big mode.
+     *
+     * @param n the numerator
+     * @param d the denominator (nonzero, and may be negative)
+     */
+    private void multiplyBig(final BigInteger n, final BigInteger d) {
+
+        if (n.signum() == 0) {
+            reset();
+        } else if (this.inexact) {
+            this.doubleValue *= new BigRational(n, d).doubleValue();
+        } else if (!isExactZero()) {
+            if (!this.big) {
+                promote();
+            }
+
+            if (d.signum() < 0) {
+                this.bigNumer = this.bigNumer.multiply(n).negate();
+                this.bigDenom = this.bigDenom.multiply(d).negate();
+            } else {
+                this.bigNumer = this.bigNumer.multiply(n);
+                this.bigDenom = this.bigDenom.multiply(d);
+            }
+            reduceBigIfLarge();
+        }
+    }
+
+    /**
+     * Reduces the long-mode fraction to lowest terms.
+     *
+     * @return true if the fraction changed
+     */
+    private boolean reduceLong() {
+
+        final long g = LongArithmetic.gcd(this.numer, this.denom);
+        final boolean changed = g > 1L;
+
+        if (changed) {
+            this.numer /= g;
+            this.denom /= g;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Reduces the big-mode fraction to lowest terms if its denominator has grown past the current threshold, returning
+     * to long mode if the reduced fraction fits.
+     */
+    private void reduceBigIfLarge() {
+
+        if (this.bigDenom.bitLength() > this.reduceBits) {
+            final BigInteger g = this.bigNumer.gcd(this.bigDenom);
+            if (g.bitLength() > 1) {
+                this.bigNumer = this.bigNumer.divide(g);
+                this.bigDenom = this.bigDenom.divide(g);
+            }
+
+            if (this.bigNumer.bitLength() < 64 && this.bigDenom.bitLength() < 64) {
+                this.numer = this.bigNumer.longValue();
+                this.denom = this.bigDenom.longValue();
+                this.bigNumer = null;
+                this.bigDenom = null;
+                this.big = false;
+            } else {
+                // Let the value double in size before paying for another reduction
+                this.reduceBits = Math.max(MIN_REDUCE_BITS, 2 * this.bigDenom.bitLength());
+            }
+        }
+    }
+
+    /**
+     * Moves the long-mode value into big mode.
+     */
+    private void promote() {
+
+        this.bigNumer = BigInteger.valueOf(this.numer);
+        this.bigDenom = BigInteger.valueOf(this.denom);
+        this.reduceBits = MIN_REDUCE_BITS;
+        this.big = true;
+    }
+
+    /**
+     * Moves the exact value into double mode (has no effect if already in double mode).
+     */
+    private void makeInexact() {
+
+        if (!this.inexact) {
+            if (this.big) {
+                this.doubleValue = new BigRational(this.bigNumer, this.bigDenom).doubleValue();
+                this.bigNumer = null;
+                this.bigDenom = null;
+                this.big = false;
+            } else if (this.denom == 1L) {
+                this.doubleValue = (double) this.numer;
+            } else {
+                this.doubleValue = new Rational(this.numer, this.denom).doubleValue();
+            }
+            this.inexact = true;
+        }
+    }
+}
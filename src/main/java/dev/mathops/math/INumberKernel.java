@@ -0,0 +1,19 @@
+package dev.mathops.math;
+
+/**
+ * A specialized arithmetic operation on a pair of numbers of known kinds.  Dispatch tables in {@code Add},
+ * {@code Multiply}, and {@code Divide} hold one kernel for each pair of {@code ENumberKind} values, and each kernel may
+ * cast its arguments to the types its kinds imply without further testing.
+ */
+@FunctionalInterface
+interface INumberKernel {
+
+    /**
+     * Applies the operation.
+     *
+     * @param first  the first operand
+     * @param second the second operand
+     * @return the result
+     */
+    Number apply(Number first, Number second);
+}
@@ -0,0 +1,381 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.EIrrationalFactor;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exact comparisons involving the irrational factors (pi, e, and square roots of integers) of {@code Irrational} and
+ * {@code BigIrrational} values.
+ *
+ * <p>
+ * Comparisons against pi and e refine a rational enclosure of the factor, doubling its precision until the enclosure
+ * no longer overlaps the value being compared.  Since pi and e are transcendental, a rational multiple of either one
+ * is never equal to a rational value or a rational multiple of a square root, so refinement always terminates, and
+ * typically does so at the first precision tried.  Enclosures are cached and extended only when a comparison needs
+ * more precision than any earlier comparison did.
+ *
+ * <p>
+ * Comparisons between a rational value and a rational multiple of a square root, or between two rational multiples of
+ * square roots, are made exactly by squaring both sides, and need no enclosure.
+ */
+enum IrrationalFactors {
+    ;
+
+    /** The precision, in bits, of the first enclosure tried in a comparison. */
+    private static final int INITIAL_BITS = 64;
+
+    /** The relative difference above which {@code double} approximations are trusted to order two values. */
+    private static final double SCREEN_MARGIN = 1.0e-12;
+
+    /** The maximum number of square root enclosures cached. */
+    private static final int MAX_CACHED_ROOTS = 256;
+
+    /** The most precise enclosure of pi computed so far. */
+    private static Enclosure pi = null;
+
+    /** The most precise enclosure of e computed so far. */
+    private static Enclosure e = null;
+
+    /** The most precise enclosures of square roots computed so far, keyed by the integer whose root is enclosed. */
+    private static final Map<Long, Enclosure> ROOTS = new HashMap<>(16);
+
+    /**
+     * Compares a positive rational value {@code a/b} to a positive irrational value {@code (c/d)K}, where {@code K} is
+     * an irrational factor, all of whose parts fit in a {@code long}.  Values that differ by more than a small relative
+     * margin are ordered by {@code double} approximations (each within a few units in the last place of the exact
+     * value), and only values closer than that are compared exactly.
+     *
+     * @param a      the numerator of the rational value
+     * @param b      the denominator of the rational value
+     * @param c      the numerator of the coefficient of the irrational value
+     * @param d      the denominator of the coefficient of the irrational value
+     * @param factor the irrational factor
+     * @param base   the integer whose square root is the factor, if the factor is {@code SQRT}
+     * @return -1, 0, or 1 as the rational value is less than, equal to, or greater than the irrational value
+     */
+    static int compareRational(final long a, final long b, final long c, final long d,
+                               final EIrrationalFactor factor, final long base) {
+
+        final double approxFactor;
+        if (factor == EIrrationalFactor.PI) {
+            approxFactor = Math.PI;
+        } else if (factor == EIrrationalFactor.E) {
+            approxFactor = Math.E;
+        } else {
+            approxFactor = Math.sqrt((double) base);
+        }
+        final double x = (double) a / (double) b;
+        final double y = (double) c / (double) d * approxFactor;
+
+        final int result;
+
+        if (Math.abs(x - y) > SCREEN_MARGIN * Math.max(x, y)) {
+            result = x < y ? -1 : 1;
+        } else {
+            result = compareRational(BigInteger.valueOf(a), BigInteger.valueOf(b), BigInteger.valueOf(c),
+                    BigInteger.valueOf(d), factor, base);
+        }
+
+        return result;
+    }
+
+    /**
+     * Compares a positive rational value {@code a/b} to a positive irrational value {@code (c/d)K}, where {@code K} is
+     * an irrational factor.
+     *
+     * @param a      the numerator of the rational value
+     * @param b      the denominator of the rational value
+     * @param c      the numerator of the coefficient of the irrational value
+     * @param d      the denominator of the coefficient of the irrational value
+     * @param factor the irrational factor
+     * @param base   the integer whose square root is the factor, if the factor is {@code SQRT}
+     * @return -1, 0, or 1 as the rational value is less than, equal to, or greater than the irrational value
+     */
+    static int compareRational(final BigInteger a, final BigInteger b, final BigInteger c, final BigInteger d,
+                               final EIrrationalFactor factor, final long base) {
+
+        // a/b vs. (c/d)K has the sign of ad - bcK
+        final BigInteger ad = a.multiply(d);
+        final BigInteger bc = b.multiply(c);
+
+        int result;
+
+        if (factor == EIrrationalFactor.SQRT) {
+            // Both sides are positive, so squaring preserves their order
+            final BigInteger adSq = ad.multiply(ad);
+            final BigInteger bcSq = bc.multiply(bc).multiply(BigInteger.valueOf(base));
+            result = adSq.compareTo(bcSq);
+        } else {
+            int bits = INITIAL_BITS;
+            do {
+                final Enclosure enc = enclose(factor, base, bits);
+                final BigInteger scaled = ad.shiftLeft(enc.bits);
+                if (scaled.compareTo(bc.multiply(enc.lower)) < 0) {
+                    result = -1;
+                } else if (scaled.compareTo(bc.multiply(enc.upper)) > 0) {
+                    result = 1;
+                } else {
+                    result = 0;
+                    bits = enc.bits << 1;
+                }
+            } while (result == 0);
+        }
+
+        return result;
+    }
+
+    /**
+     * Compares two positive irrational values {@code (a/b)K1} and {@code (c/d)K2}, where {@code K1} and {@code K2} are
+     * irrational factors.
+     *
+     * @param a       the numerator of the coefficient of the first value
+     * @param b       the denominator of the coefficient of the first value
+     * @param factor1 the irrational factor of the first value
+     * @param base1   the integer whose square root is the first factor, if that factor is {@code SQRT}
+     * @param c       the numerator of the coefficient of the second value
+     * @param d       the denominator of the coefficient of the second value
+     * @param factor2 the irrational factor of the second value
+     * @param base2   the integer whose square root is the second factor, if that factor is {@code SQRT}
+     * @return -1, 0, or 1 as the first value is less than, equal to, or greater than the second
+     */
+    static int compareIrrational(final BigInteger a, final BigInteger b, final EIrrationalFactor factor1,
+                                 final long base1, final BigInteger c, final BigInteger d,
+                                 final EIrrationalFactor factor2, final long base2) {
+
+        // (a/b)K1 vs. (c/d)K2 has the sign of adK1 - bcK2
+        final BigInteger ad = a.multiply(d);
+        final BigInteger bc = b.multiply(c);
+
+        int result;
+
+        if (factor1 == EIrrationalFactor.SQRT && factor2 == EIrrationalFactor.SQRT) {
+            final BigInteger lhs = ad.multiply(ad).multiply(BigInteger.valueOf(base1));
+            final BigInteger rhs = bc.multiply(bc).multiply(BigInteger.valueOf(base2));
+            result = lhs.compareTo(rhs);
+        } else if (factor1 == factor2) {
+            result = ad.compareTo(bc);
+        } else {
+            // Distinct factors, at least one of which is transcendental, so the values differ unless both factors are
+            // transcendental (whether a rational multiple of pi can equal e is an open question)
+            int bits = INITIAL_BITS;
+            do {
+                final Enclosure enc1 = enclose(factor1, base1, bits);
+                final Enclosure enc2 = enclose(factor2, base2, bits);
+                final int shift1 = Math.max(enc1.bits, enc2.bits) - enc1.bits;
+                final int shift2 = Math.max(enc1.bits, enc2.bits) - enc2.bits;
+                final BigInteger lhsLower = ad.multiply(enc1.lower).shiftLeft(shift1);
+                final BigInteger lhsUpper = ad.multiply(enc1.upper).shiftLeft(shift1);
+                final BigInteger rhsLower = bc.multiply(enc2.lower).shiftLeft(shift2);
+                final BigInteger rhsUpper = bc.multiply(enc2.upper).shiftLeft(shift2);
+                if (lhsUpper.compareTo(rhsLower) < 0) {
+                    result = -1;
+                } else if (lhsLower.compareTo(rhsUpper) > 0) {
+                    result = 1;
+                } else {
+                    result = 0;
+                    bits = Math.min(enc1.bits, enc2.bits) << 1;
+                }
+            } while (result == 0);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets an enclosure of an irrational factor with at least a specified precision, computing and caching a new
+     * enclosure only if no cached enclosure is precise enough.
+     *
+     * @param factor the factor
+     * @param base   the integer whose square root is the factor, if the factor is {@code SQRT}
+     * @param bits   the minimum precision, in bits
+     * @return the enclosure
+     */
+    private static synchronized Enclosure enclose(final EIrrationalFactor factor, final long base, final int bits) {
+
+        Enclosure result;
+
+        if (factor == EIrrationalFactor.PI) {
+            result = pi;
+            if (result == null || result.bits < bits) {
+                result = computePi(result == null ? bits : Math.max(bits, result.bits << 1));
+                pi = result;
+            }
+        } else if (factor == EIrrationalFactor.E) {
+            result = e;
+            if (result == null || result.bits < bits) {
+                result = computeE(result == null ? bits : Math.max(bits, result.bits << 1));
+                e = result;
+            }
+        } else {
+            final Long key = Long.valueOf(base);
+            result = ROOTS.get(key);
+            if (result == null || result.bits < bits) {
+                result = computeSqrt(base, result == null ? bits : Math.max(bits, result.bits << 1));
+                if (ROOTS.size() >= MAX_CACHED_ROOTS) {
+                    ROOTS.clear();
+                }
+                ROOTS.put(key, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the number of guard bits to carry when computing a series to a given precision, enough that the
+     * accumulated truncation error is small relative to the last retained bit.
+     *
+     * @param bits the precision, in bits
+     * @return the number of guard bits
+     */
+    private static int guardBits(final int bits) {
+
+        return 40 + Integer.SIZE - Integer.numberOfLeadingZeros(bits);
+    }
+
+    /**
+     * Builds an enclosure from an approximation with a known error bound.
+     *
+     * @param approx the approximation, scaled by {@code 2^(bits + guard)}
+     * @param error  a bound on the absolute error in the approximation, in units of its last bit
+     * @param bits   the precision of the enclosure, in bits
+     * @param guard  the number of guard bits in the approximation
+     * @return the enclosure
+     */
+    private static Enclosure fromApproximation(final BigInteger approx, final long error, final int bits,
+                                               final int guard) {
+
+        final BigInteger err = BigInteger.valueOf(error);
+        final BigInteger lower = approx.subtract(err).shiftRight(guard);
+        final BigInteger upper = approx.add(err).shiftRight(guard).add(BigInteger.ONE);
+
+        return new Enclosure(bits, lower, upper);
+    }
+
+    /**
+     * Computes an enclosure of pi using Machin's formula, {@code pi = 16 atan(1/5) - 4 atan(1/239)}.
+     *
+     * @param bits the precision, in bits
+     * @return the enclosure
+     */
+    private static Enclosure computePi(final int bits) {
+
+        final int guard = guardBits(bits);
+        final int scale = bits + guard;
+
+        final BigInteger atan5 = arctanInverse(5L, scale);
+        final BigInteger atan239 = arctanInverse(239L, scale);
+        final BigInteger approx = atan5.shiftLeft(4).subtract(atan239.shiftLeft(2));
+
+        // Each arctangent sum of N terms is within 3N + 3 units of the true value; 1/5^(2k+1) drops below one unit
+        // after scale/4 terms, and 1/239^(2k+1) after scale/14 terms
+        final long terms5 = (long) (scale / 4 + 2);
+        final long terms239 = (long) (scale / 14 + 2);
+        final long error = 16L * (3L * terms5 + 3L) + 4L * (3L * terms239 + 3L);
+
+        return fromApproximation(approx, error, bits, guard);
+    }
+
+    /**
+     * Computes {@code atan(1/x)}, scaled by {@code 2^scale} and truncated, by its Taylor series.  The result is within
+     * {@code 3N + 3} units of the true scaled value, where {@code N} is the number of terms summed.
+     *
+     * @param x     the reciprocal of the argument (at least 5)
+     * @param scale the number of fraction bits
+     * @return the scaled approximation
+     */
+    private static BigInteger arctanInverse(final long x, final int scale) {
+
+        final BigInteger bigX = BigInteger.valueOf(x);
+        final BigInteger xSquared = BigInteger.valueOf(x * x);
+
+        BigInteger power = BigInteger.ONE.shiftLeft(scale).divide(bigX);
+        BigInteger sum = power;
+        long divisor = 1L;
+        boolean subtract = true;
+
+        while (power.signum() != 0) {
+            power = power.divide(xSquared);
+            divisor += 2L;
+            final BigInteger term = power.divide(BigInteger.valueOf(divisor));
+            sum = subtract ? sum.subtract(term) : sum.add(term);
+            subtract = !subtract;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Computes an enclosure of e by summing the series of reciprocal factorials.
+     *
+     * @param bits the precision, in bits
+     * @return the enclosure
+     */
+    private static Enclosure computeE(final int bits) {
+
+        final int guard = guardBits(bits);
+        final int scale = bits + guard;
+
+        BigInteger term = BigInteger.ONE.shiftLeft(scale);
+        BigInteger sum = term;
+        long k = 1L;
+
+        while (term.signum() != 0) {
+            term = term.divide(BigInteger.valueOf(k));
+            sum = sum.add(term);
+            ++k;
+        }
+
+        // Each truncated term is within 2 units of the true term, and the omitted tail is less than 4 units
+        final long error = 2L * k + 4L;
+
+        return fromApproximation(sum, error, bits, guard);
+    }
+
+    /**
+     * Computes an enclosure of the square root of an integer.
+     *
+     * @param base the integer (non-negative)
+     * @param bits the precision, in bits
+     * @return the enclosure
+     */
+    private static Enclosure computeSqrt(final long base, final int bits) {
+
+        final BigInteger lower = BigInteger.valueOf(base).shiftLeft(bits << 1).sqrt();
+        final BigInteger upper = lower.add(BigInteger.ONE);
+
+        return new Enclosure(bits, lower, upper);
+    }
+
+    /**
+     * An immutable rational enclosure {@code [lower / 2^bits, upper / 2^bits]} of an irrational factor.
+     */
+    private static final class Enclosure {
+
+        /** The precision, in bits. */
+        final int bits;
+
+        /** The lower bound, scaled by {@code 2^bits}. */
+        final BigInteger lower;
+
+        /** The upper bound, scaled by {@code 2^bits}. */
+        final BigInteger upper;
+
+        /**
+         * Constructs a new {@code Enclosure}.
+         *
+         * @param theBits  the precision, in bits
+         * @param theLower the lower bound, scaled by {@code 2^bits}
+         * @param theUpper the upper bound, scaled by {@code 2^bits}
+         */
+        Enclosure(final int theBits, final BigInteger theLower, final BigInteger theUpper) {
+
+            this.bits = theBits;
+            this.lower = theLower;
+            this.upper = theUpper;
+        }
+    }
+}
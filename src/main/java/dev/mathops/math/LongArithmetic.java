@@ -0,0 +1,105 @@
+package dev.mathops.math;
+
+/**
+ * Primitive {@code long} helpers for the overflow-checked fast paths in the rational arithmetic utilities.  None of
+ * these methods allocates or throws, so callers can test for overflow and fall back to {@code BigInteger} arithmetic
+ * only when a result really does not fit in 64 bits.
+ */
+enum LongArithmetic {
+    ;
+
+    /**
+     * Computes the greatest common divisor of two values using the binary GCD algorithm.
+     *
+     * @param a the first value (the sign is ignored)
+     * @param b the second value (the sign is ignored)
+     * @return the greatest common divisor (zero only if both values are zero)
+     */
+    static long gcd(final long a, final long b) {
+
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+
+        final long result;
+
+        if (x == 0L) {
+            result = y;
+        } else if (y == 0L) {
+            result = x;
+        } else {
+            // Values are compared as unsigned so that |Long.MIN_VALUE| (2^63) is handled correctly
+            final int shift = Long.numberOfTrailingZeros(x | y);
+            x >>>= Long.numberOfTrailingZeros(x);
+            do {
+                y >>>= Long.numberOfTrailingZeros(y);
+                if (Long.compareUnsigned(x, y) > 0) {
+                    final long t = y;
+                    y = x;
+                    x = t;
+                }
+                y -= x;
+            } while (y != 0L);
+
+            result = x << shift;
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether the product of two values overflows a {@code long}.
+     *
+     * @param a the first factor
+     * @param b the second factor
+     * @return true if the exact product does not fit in a {@code long}
+     */
+    static boolean multiplyOverflows(final long a, final long b) {
+
+        final long high = Math.multiplyHigh(a, b);
+        final long low = a * b;
+
+        // The product fits if the high word is just the sign extension of the low word
+        return high != (low >> 63);
+    }
+
+    /**
+     * Tests whether the sum of two values overflows a {@code long}.
+     *
+     * @param a   the first term
+     * @param b   the second term
+     * @param sum the (possibly wrapped) sum {@code a + b}
+     * @return true if the exact sum does not fit in a {@code long}
+     */
+    static boolean addOverflows(final long a, final long b, final long sum) {
+
+        // Overflow occurs only if both terms have the same sign, and the sum has the opposite sign
+        return ((a ^ sum) & (b ^ sum)) < 0L;
+    }
+
+    /**
+     * Compares the exact 128-bit products {@code a * b} and {@code c * d}.
+     *
+     * @param a the first factor of the first product
+     * @param b the second factor of the first product
+     * @param c the first factor of the second product
+     * @param d the second factor of the second product
+     * @return -1, 0, or 1 as the first product is less than, equal to, or greater than the second
+     */
+    static int compareProducts(final long a, final long b, final long c, final long d) {
+
+        final long high1 = Math.multiplyHigh(a, b);
+        final long high2 = Math.multiplyHigh(c, d);
+
+        final int result;
+
+        if (high1 == high2) {
+            final long low1 = a * b;
+            final long low2 = c * d;
+            result = Integer.signum(Long.compareUnsigned(low1, low2));
+        } else {
+            result = high1 < high2 ? -1 : 1;
+        }
+
+        return result;
+    }
+}
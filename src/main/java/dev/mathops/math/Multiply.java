@@ -5,6 +5,7 @@ import dev.mathops.commons.number.Rational;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * Utilities for multiplying numbers where the result is a numeric type that will not overflow.  Supported number types
@@ -14,6 +15,67 @@ import java.math.BigInteger;
 public enum Multiply {
     ;
 
+    /** The table of kernels, indexed by the ordinals of the kinds of the first and second factors. */
+    private static final INumberKernel[][] KERNELS = buildKernels();
+
+    /**
+     * Builds the table of kernels for each pair of number kinds.
+     *
+     * @return the table
+     */
+    private static INumberKernel[][] buildKernels() {
+
+        final INumberKernel[][] table = new INumberKernel[ENumberKind.COUNT][ENumberKind.COUNT];
+
+        final int lng = ENumberKind.LONG.ordinal();
+        final int rat = ENumberKind.RATIONAL.ordinal();
+        final int bRat = ENumberKind.BIG_RATIONAL.ordinal();
+        final int bInt = ENumberKind.BIG_INTEGER.ordinal();
+        final int bDec = ENumberKind.BIG_DECIMAL.ordinal();
+
+        // Any pair that involves an "OTHER" kind is multiplied as doubles
+        final INumberKernel asDoubles = Multiply::doubleTimesDouble;
+        for (final INumberKernel[] row : table) {
+            Arrays.fill(row, asDoubles);
+        }
+
+        table[lng][lng] = (a, b) -> longTimesLong((Long) a, (Long) b);
+        table[lng][rat] = (a, b) -> longTimesRational((Long) a, (Rational) b);
+        table[lng][bRat] = (a, b) -> longTimesBigRational((Long) a, (BigRational) b);
+        table[lng][bInt] = (a, b) -> longTimesBigInteger((Long) a, (BigInteger) b);
+        table[lng][bDec] = (a, b) -> longTimesBigDecimal((Long) a, (BigDecimal) b);
+
+        table[rat][lng] = (a, b) -> longTimesRational((Long) b, (Rational) a);
+        table[rat][rat] = (a, b) -> rationalTimesRational((Rational) a, (Rational) b);
+        table[rat][bRat] = (a, b) -> rationalTimesBigRational((Rational) a, (BigRational) b);
+        table[rat][bInt] = (a, b) -> rationalTimesBigInteger((Rational) a, (BigInteger) b);
+        table[rat][bDec] = (a, b) -> rationalTimesBigRational((Rational) a,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) b));
+
+        table[bRat][lng] = (a, b) -> longTimesBigRational((Long) b, (BigRational) a);
+        table[bRat][rat] = (a, b) -> rationalTimesBigRational((Rational) b, (BigRational) a);
+        table[bRat][bRat] = (a, b) -> bigRationalTimesBigRational((BigRational) a, (BigRational) b);
+        table[bRat][bInt] = (a, b) -> bigRationalTimesBigInteger((BigRational) a, (BigInteger) b);
+        table[bRat][bDec] = (a, b) -> bigRationalTimesBigRational((BigRational) a,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) b));
+
+        table[bInt][lng] = (a, b) -> longTimesBigInteger((Long) b, (BigInteger) a);
+        table[bInt][rat] = (a, b) -> rationalTimesBigInteger((Rational) b, (BigInteger) a);
+        table[bInt][bRat] = (a, b) -> bigRationalTimesBigInteger((BigRational) b, (BigInteger) a);
+        table[bInt][bInt] = (a, b) -> bigIntegerTimesBigInteger((BigInteger) a, (BigInteger) b);
+        table[bInt][bDec] = (a, b) -> bigIntegerTimesBigDecimal((BigInteger) a, (BigDecimal) b);
+
+        table[bDec][lng] = (a, b) -> longTimesBigDecimal((Long) b, (BigDecimal) a);
+        table[bDec][rat] = (a, b) -> rationalTimesBigRational((Rational) b,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) a));
+        table[bDec][bRat] = (a, b) -> bigRationalTimesBigRational((BigRational) b,
+                NumberUtils.bigDecimalToBigRational((BigDecimal) a));
+        table[bDec][bInt] = (a, b) -> bigIntegerTimesBigDecimal((BigInteger) b, (BigDecimal) a);
+        table[bDec][bDec] = (a, b) -> bigDecimalTimesBigDecimal((BigDecimal) a, (BigDecimal) b);
+
+        return table;
+    }
+
     /**
      * Multiplies two numbers without risk of overflow.
      *
@@ -23,33 +85,54 @@ public enum Multiply {
      */
     public static Number numberTimesNumber(final Number factor1, final Number factor2) {
 
+        final ENumberKind kind1 = ENumberKind.of(factor1);
+        final ENumberKind kind2 = ENumberKind.of(factor2);
+
+        return numberTimesNumber(kind1, factor1, kind2, factor2);
+    }
+
+    /**
+     * Multiplies two numbers whose kinds are already known without risk of overflow.
+     *
+     * @param kind1   the kind of the first factor
+     * @param factor1 the first factor
+     * @param kind2   the kind of the second factor
+     * @param factor2 the second factor
+     * @return the product
+     */
+    public static Number numberTimesNumber(final ENumberKind kind1, final Number factor1, final ENumberKind kind2,
+                                           final Number factor2) {
+
         final Number result;
 
-        if (NumberUtils.isZero(factor1) || NumberUtils.isZero(factor2)) {
+        if (kind1.isZero(factor1) || kind2.isZero(factor2)) {
             result = Long.valueOf(0L);
-        } else if (NumberUtils.isOne(factor1)) {
+        } else if (kind1.isOne(factor1)) {
             result = factor2;
-        } else if (NumberUtils.isOne(factor2)) {
+        } else if (kind2.isOne(factor2)) {
             result = factor1;
-        } else if (factor1 instanceof final Long l1) {
-            result = longTimesNumber(l1, factor2);
-        } else if (factor1 instanceof final Rational r1) {
-            result = rationalTimesNumber(r1, factor2);
-        } else if (factor1 instanceof final BigRational br1) {
-            result = bigRationalTimesNumber(br1, factor2);
-        } else if (factor1 instanceof final BigInteger bi1) {
-            result = bigIntegerTimesNumber(bi1, factor2);
-        } else if (factor1 instanceof final BigDecimal bd1) {
-            result = bigDecimalTimesNumber(bd1, factor2);
         } else {
-            final double d1 = factor1.doubleValue();
-            final double d2 = factor2.doubleValue();
-            result = Double.valueOf(d1 * d2);
+            result = KERNELS[kind1.ordinal()][kind2.ordinal()].apply(factor1, factor2);
         }
 
         return result;
     }
 
+    /**
+     * Multiplies two numbers as {@code double} values.
+     *
+     * @param factor1 the first factor
+     * @param factor2 the second factor
+     * @return the product, as a {@code Double}
+     */
+    private static Number doubleTimesDouble(final Number factor1, final Number factor2) {
+
+        final double d1 = factor1.doubleValue();
+        final double d2 = factor2.doubleValue();
+
+        return Double.valueOf(d1 * d2);
+    }
+
     /**
      * Multiplies a {code Long} and a number without risk of overflow.
      *
@@ -238,20 +321,24 @@ public enum Multiply {
      */
     public static Number longTimesRational(final Long factor1, final Rational factor2) {
 
+        // A * C/D = ((A/G)C) / (D/G), where G = gcd(A, D)
+
         final long l1 = factor1.longValue();
         final long numer = factor2.numerator;
         final long denom = factor2.denominator;
 
-        Number result;
+        final long g = LongArithmetic.gcd(l1, denom);
+        final long l1OverG = l1 / g;
 
-        try {
-            final long newNumer = Math.multiplyExact(l1, numer);
-            result = NumberUtils.simplifyRational(new Rational(newNumer, denom));
-        } catch (final ArithmeticException ex) {
+        final Number result;
+
+        if (LongArithmetic.multiplyOverflows(l1OverG, numer)) {
             final BigInteger val = BigInteger.valueOf(numer);
             final BigInteger bigNumer = BigInteger.valueOf(l1).multiply(val);
             final BigInteger bigDenom = BigInteger.valueOf(denom);
             result = NumberUtils.simplifyBigRational(new BigRational(bigNumer, bigDenom));
+        } else {
+            result = CanonicalNumbers.simplified(l1OverG * numer, denom / g);
         }
 
         return result;
@@ -315,26 +402,31 @@ public enum Multiply {
      */
     public static Number rationalTimesRational(final Rational factor1, final Rational factor2) {
 
+        // (A/B)(C/D) = ((A/G1)(C/G2)) / ((B/G2)(D/G1)), where G1 = gcd(A, D) and G2 = gcd(C, B).  Cancelling across
+        // the product first keeps the products small and leaves the result already in lowest terms.
+
         final long numer1 = factor1.numerator;
         final long denom1 = factor1.denominator;
         final long numer2 = factor2.numerator;
         final long denom2 = factor2.denominator;
 
-        Number result;
+        final long g1 = LongArithmetic.gcd(numer1, denom2);
+        final long g2 = LongArithmetic.gcd(numer2, denom1);
 
-        try {
-            final long newNumer = Math.multiplyExact(numer1, numer2);
-            final long newDenom = Math.multiplyExact(denom1, denom2);
+        final long a = numer1 / g1;
+        final long b = denom1 / g2;
+        final long c = numer2 / g2;
+        final long d = denom2 / g1;
 
-            result = NumberUtils.simplifyRational(new Rational(newNumer, newDenom));
-        } catch (final ArithmeticException ex) {
-            final BigInteger bigNumer2 = BigInteger.valueOf(numer2);
-            final BigInteger bigNumer = BigInteger.valueOf(numer1).multiply(bigNumer2);
-            final BigInteger bigDenom2 = BigInteger.valueOf(denom2);
-            final BigInteger bigDenom = BigInteger.valueOf(denom1).multiply(bigDenom2);
-            final BigRational bigResult = new BigRational(bigNumer, bigDenom);
+        final Number result;
 
+        if (LongArithmetic.multiplyOverflows(a, c) || LongArithmetic.multiplyOverflows(b, d)) {
+            final BigInteger bigNumer = BigInteger.valueOf(a).multiply(BigInteger.valueOf(c));
+            final BigInteger bigDenom = BigInteger.valueOf(b).multiply(BigInteger.valueOf(d));
+            final BigRational bigResult = new BigRational(bigNumer, bigDenom);
             result = NumberUtils.simplifyBigRational(bigResult);
+        } else {
+            result = CanonicalNumbers.simplified(a * c, b * d);
         }
 
         return result;
@@ -2,7 +2,6 @@ package dev.mathops.math;
 
 import dev.mathops.commons.number.BigIrrational;
 import dev.mathops.commons.number.BigRational;
-import dev.mathops.commons.number.EIrrationalFactor;
 import dev.mathops.commons.number.Irrational;
 import dev.mathops.commons.number.Rational;
 
@@ -244,28 +243,10 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compRationalRational(final Rational v1, final Rational v2) {
 
-        int result;
+        // A/B vs. C/D has the sign of AD - BC; the cross products are compared exactly in 128 bits, so no BigInteger
+        // is ever needed.
 
-        try {
-            final long ad = Math.multiplyExact(v1.numerator, v2.denominator);
-            final long bc = Math.multiplyExact(v1.denominator, v2.numerator);
-
-            final long adMinusBc = Math.subtractExact(ad, bc);
-            result = Long.compare(adMinusBc, 0L);
-        } catch (final ArithmeticException ex) {
-            final BigInteger n1 = BigInteger.valueOf(v1.numerator);
-            final BigInteger d1 = BigInteger.valueOf(v1.denominator);
-            final BigInteger n2 = BigInteger.valueOf(v2.numerator);
-            final BigInteger d2 = BigInteger.valueOf(v2.denominator);
-
-            final BigInteger n1d2 = n1.multiply(d2);
-            final BigInteger d1n2 = d1.multiply(n2);
-
-            final BigInteger n1d2MinusD1n2 = n1d2.subtract(d1n2);
-            result = n1d2MinusD1n2.signum();
-        }
-
-        return result;
+        return LongArithmetic.compareProducts(v1.numerator, v2.denominator, v1.denominator, v2.numerator);
     }
 
     /**
@@ -296,55 +277,12 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compRationalIrrational(final Rational v1, final Irrational v2) {
 
-        int result;
-
-        if (v2.factor == EIrrationalFactor.PI) {
-
-            final BigInteger a = BigInteger.valueOf(v1.numerator);
-            final BigInteger b = BigInteger.valueOf(v1.denominator);
-            final BigInteger c = BigInteger.valueOf(v2.numerator);
-            final BigInteger d = BigInteger.valueOf(v2.denominator);
-
-            final BigInteger ad = a.multiply(d);
-            final BigInteger bc = b.multiply(c);
-
-            // TODO: Check if ad-3bc is positive (ad is greater), or ad-4bc is negative (second is greater)
-            if (ad.subtract(bc.multiply(BigInteger.valueOf(3))).signum() > 0) {
-                result = 1;
-            } else if (ad.subtract(bc.multiply(BigInteger.valueOf(4))).signum() < 0) {
-                result = -1;
-            } else {
-                result = Double.compare(v1.doubleValue(), v2.doubleValue());
-            }
-
-        } else if (v2.factor == EIrrationalFactor.E) {
-
-            final BigInteger a = BigInteger.valueOf(v1.numerator);
-            final BigInteger b = BigInteger.valueOf(v1.denominator);
-            final BigInteger c = BigInteger.valueOf(v2.numerator);
-            final BigInteger d = BigInteger.valueOf(v2.denominator);
-
-            final BigInteger ad = a.multiply(d);
-            final BigInteger bc = b.multiply(c);
-
-            // TODO: Check if ad-2bc is positive (ad is greater), or ad-3bc is negative (second is greater)
-            if (ad.subtract(bc.multiply(BigInteger.valueOf(2))).signum() > 0) {
-                result = 1;
-            } else if (ad.subtract(bc.multiply(BigInteger.valueOf(3))).signum() < 0) {
-                result = -1;
-            } else {
-                result = Double.compare(v1.doubleValue(), v2.doubleValue());
-            }
-        } else {
-            // Sqrt
-            result = Double.compare(v1.doubleValue(), v2.doubleValue());
-        }
-
-        return result;
+        return IrrationalFactors.compareRational(v1.numerator, v1.denominator, v2.numerator, v2.denominator, v2.factor,
+                v2.base);
     }
 
     /**
-     * Compares a positive {@code Rational} to a positive {@code Irrational}.
+     * Compares a positive {@code Rational} to a positive {@code BigIrrational}.
      *
      * @param v1 the first object to be compared
      * @param v2 the second object to be compared
@@ -352,7 +290,10 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compRationalBigIrrational(final Rational v1, final BigIrrational v2) {
 
-        return Double.compare(v1.doubleValue(), v2.doubleValue());
+        final BigInteger a = BigInteger.valueOf(v1.numerator);
+        final BigInteger b = BigInteger.valueOf(v1.denominator);
+
+        return IrrationalFactors.compareRational(a, b, v2.numerator, v2.denominator, v2.factor, v2.base);
     }
 
     /**
@@ -381,7 +322,10 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compBigRationalIrrational(final BigRational v1, final Irrational v2) {
 
-        return Double.compare(v1.doubleValue(), v2.doubleValue());
+        final BigInteger c = BigInteger.valueOf(v2.numerator);
+        final BigInteger d = BigInteger.valueOf(v2.denominator);
+
+        return IrrationalFactors.compareRational(v1.numerator, v1.denominator, c, d, v2.factor, v2.base);
     }
 
     /**
@@ -393,7 +337,8 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compBigRationalBigIrrational(final BigRational v1, final BigIrrational v2) {
 
-        return Double.compare(v1.doubleValue(), v2.doubleValue());
+        return IrrationalFactors.compareRational(v1.numerator, v1.denominator, v2.numerator, v2.denominator,
+                v2.factor, v2.base);
     }
 
     /**
@@ -405,7 +350,12 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compIrrationalIrrational(final Irrational v1, final Irrational v2) {
 
-        return Double.compare(v1.doubleValue(), v2.doubleValue());
+        final BigInteger a = BigInteger.valueOf(v1.numerator);
+        final BigInteger b = BigInteger.valueOf(v1.denominator);
+        final BigInteger c = BigInteger.valueOf(v2.numerator);
+        final BigInteger d = BigInteger.valueOf(v2.denominator);
+
+        return IrrationalFactors.compareIrrational(a, b, v1.factor, v1.base, c, d, v2.factor, v2.base);
     }
 
     /**
@@ -417,7 +367,11 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compIrrationalBigIrrational(final Irrational v1, final BigIrrational v2) {
 
-        return Double.compare(v1.doubleValue(), v2.doubleValue());
+        final BigInteger a = BigInteger.valueOf(v1.numerator);
+        final BigInteger b = BigInteger.valueOf(v1.denominator);
+
+        return IrrationalFactors.compareIrrational(a, b, v1.factor, v1.base, v2.numerator, v2.denominator,
+                v2.factor, v2.base);
     }
 
     /**
@@ -429,6 +383,7 @@ public final class NumberComparator implements Comparator<Number> {
      */
     private static int compBigIrrationalBigIrrational(final BigIrrational v1, final BigIrrational v2) {
 
-        return Double.compare(v1.doubleValue(), v2.doubleValue());
+        return IrrationalFactors.compareIrrational(v1.numerator, v1.denominator, v1.factor, v1.base, v2.numerator,
+                v2.denominator, v2.factor, v2.base);
     }
 }
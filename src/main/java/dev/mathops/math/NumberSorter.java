@@ -0,0 +1,330 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigIrrational;
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.EIrrationalFactor;
+import dev.mathops.commons.number.Irrational;
+import dev.mathops.commons.number.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Sorting and searching for arrays of mixed-type numbers, in the order defined by {@code NumberComparator}.
+ *
+ * <p>
+ * Rather than dispatching on types (and possibly allocating) in every comparison, these methods compute a
+ * {@code double} approximation of each value once, along with a bound on its error, and order values by those
+ * primitive keys.  Two values can be out of order after that only if their error intervals overlap, so the exact
+ * {@code NumberComparator} is run only within runs of values, split wherever every interval before the split lies below
+ * every interval after it.  For typical data those runs hold a single value, or values that are exactly equal; a value
+ * with no useful error bound joins all values into a single run.
+ *
+ * <p>
+ * As with {@code NumberComparator}, NaN values are not supported.
+ */
+public enum NumberSorter {
+    ;
+
+    /** The number of units in the last place allowed for a key computed with a few rounded operations. */
+    private static final double DERIVED_ULPS = 8.0;
+
+    /** Arrays shorter than this are sorted by insertion sort within the merge sort. */
+    private static final int INSERTION_THRESHOLD = 32;
+
+    /**
+     * Sorts an array of numbers into ascending numerical order.  The sort is stable.
+     *
+     * @param values the values to sort (none may be null)
+     */
+    public static void sort(final Number[] values) {
+
+        final int len = values.length;
+        final double[] keys = new double[len];
+        final double[] errors = new double[len];
+        final double[] approx = new double[2];
+        for (int i = 0; i < len; ++i) {
+            approximate(values[i], approx);
+            keys[i] = approx[0];
+            errors[i] = approx[1];
+        }
+
+        final int[] order = new int[len];
+        for (int i = 0; i < len; ++i) {
+            order[i] = i;
+        }
+        mergeSort(keys, order, new double[len], new int[len], 0, len);
+
+        final Number[] sorted = new Number[len];
+        final double[] sortedErrors = new double[len];
+        for (int i = 0; i < len; ++i) {
+            final int index = order[i];
+            sorted[i] = values[index];
+            sortedErrors[i] = errors[index];
+        }
+
+        // A run may end after index i only if every interval up to i lies strictly below every interval after it;
+        // an interval can overlap values sorted far from it (a value with an infinite error overlaps everything), so
+        // this needs the minimum lower bound of each suffix rather than just the next lower bound
+        final double[] suffixLower = new double[len + 1];
+        suffixLower[len] = Double.POSITIVE_INFINITY;
+        for (int i = len - 1; i >= 0; --i) {
+            suffixLower[i] = Math.min(suffixLower[i + 1], keys[i] - sortedErrors[i]);
+        }
+
+        int runStart = 0;
+        double prefixUpper = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < len - 1; ++i) {
+            prefixUpper = Math.max(prefixUpper, keys[i] + sortedErrors[i]);
+            if (prefixUpper < suffixLower[i + 1]) {
+                if (i + 1 - runStart > 1) {
+                    Arrays.sort(sorted, runStart, i + 1, NumberComparator.INSTANCE);
+                }
+                runStart = i + 1;
+            }
+        }
+        if (len - runStart > 1) {
+            Arrays.sort(sorted, runStart, len, NumberComparator.INSTANCE);
+        }
+
+        System.arraycopy(sorted, 0, values, 0, len);
+    }
+
+    /**
+     * Searches an array of numbers sorted into ascending numerical order for a value, with the same conventions as
+     * {@code Arrays.binarySearch}.  Each probe compares {@code double} approximations first, and uses the exact
+     * {@code NumberComparator} only when the approximations cannot decide.
+     *
+     * @param sorted the sorted values (none may be null)
+     * @param key    the value to search for
+     * @return the index of a value numerically equal to the key, if there is one; otherwise,
+     *         {@code (-(insertion point) - 1)}
+     */
+    public static int binarySearch(final Number[] sorted, final Number key) {
+
+        final double[] approx = new double[2];
+        approximate(key, approx);
+        final double keyLower = approx[0] - approx[1];
+        final double keyUpper = approx[0] + approx[1];
+
+        final double[] probe = new double[2];
+
+        int low = 0;
+        int high = sorted.length - 1;
+        int result = -1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final Number value = sorted[mid];
+            approximate(value, probe);
+
+            final int cmp;
+            if (probe[0] + probe[1] < keyLower) {
+                cmp = -1;
+            } else if (probe[0] - probe[1] > keyUpper) {
+                cmp = 1;
+            } else {
+                cmp = NumberComparator.INSTANCE.compare(value, key);
+            }
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                result = mid;
+                break;
+            }
+        }
+
+        return result >= 0 ? result : -(low + 1);
+    }
+
+    /**
+     * Computes a {@code double} approximation of a number, and a bound on the absolute error of that approximation.
+     * The error is infinite if no useful bound is known (for example, if the value is out of the range of
+     * {@code double}); such values are always ordered by the exact comparator.
+     *
+     * @param value the value
+     * @param out   a two-element array to which to write the approximation (at index 0) and the error bound (at
+     *              index 1)
+     */
+    private static void approximate(final Number value, final double[] out) {
+
+        double key;
+        double error;
+
+        switch (value) {
+            case final Long l -> {
+                key = (double) l.longValue();
+                // Values up to 2^53 in magnitude convert exactly
+                error = Math.abs(l.longValue()) <= (1L << 53) ? 0.0 : Math.ulp(key);
+            }
+            case final Integer ignored -> {
+                key = value.doubleValue();
+                error = 0.0;
+            }
+            case final Short ignored -> {
+                key = value.doubleValue();
+                error = 0.0;
+            }
+            case final Byte ignored -> {
+                key = value.doubleValue();
+                error = 0.0;
+            }
+            case final Double ignored -> {
+                key = value.doubleValue();
+                error = 0.0;
+            }
+            case final Float ignored -> {
+                key = value.doubleValue();
+                error = 0.0;
+            }
+            case final Rational r -> {
+                key = (double) r.numerator / (double) r.denominator;
+                error = DERIVED_ULPS * Math.ulp(key);
+            }
+            case final BigInteger bi -> {
+                key = bi.doubleValue();
+                error = Math.ulp(key);
+            }
+            case final BigDecimal bd -> {
+                key = bd.doubleValue();
+                error = 2.0 * Math.ulp(key);
+            }
+            case final BigRational br -> {
+                key = quotient(br.numerator, br.denominator);
+                error = quotientError(key, br.numerator);
+            }
+            case final Irrational irr -> {
+                key = (double) irr.numerator / (double) irr.denominator * approximateFactor(irr.factor, irr.base);
+                error = DERIVED_ULPS * Math.ulp(key);
+            }
+            case final BigIrrational irr -> {
+                key = quotient(irr.numerator, irr.denominator) * approximateFactor(irr.factor, irr.base);
+                error = quotientError(key, irr.numerator);
+            }
+            default -> {
+                key = value.doubleValue();
+                error = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        if (!Double.isFinite(key) || !Double.isFinite(error)) {
+            key = 0.0;
+            error = Double.POSITIVE_INFINITY;
+        }
+
+        out[0] = key;
+        out[1] = error;
+    }
+
+    /**
+     * Computes a {@code double} approximation of the quotient of two integers, within a few units in the last place
+     * when the quotient is a normal {@code double}.  The numerator and denominator are each shifted to at most 64 bits
+     * before they are converted, and the quotient is scaled back afterward, so the result is accurate even if either
+     * part alone is out of the range of {@code double}.
+     *
+     * @param numer the numerator
+     * @param denom the denominator (not zero)
+     * @return the approximation, which may be infinite, zero, or subnormal if the quotient is out of range
+     */
+    private static double quotient(final BigInteger numer, final BigInteger denom) {
+
+        final int numerShift = Math.max(0, numer.bitLength() - 64);
+        final int denomShift = Math.max(0, denom.bitLength() - 64);
+        final double scaled = numer.shiftRight(numerShift).doubleValue() / denom.shiftRight(denomShift).doubleValue();
+
+        return Math.scalb(scaled, numerShift - denomShift);
+    }
+
+    /**
+     * Computes a bound on the error of an approximation computed from {@code quotient}.  A quotient that underflowed
+     * to a subnormal value or to zero has lost its relative precision, but its magnitude is still known to be below
+     * the smallest normal {@code double}.
+     *
+     * @param key   the approximation
+     * @param numer the numerator from which the approximation was computed
+     * @return the error bound
+     */
+    private static double quotientError(final double key, final BigInteger numer) {
+
+        return Math.abs(key) >= Double.MIN_NORMAL || numer.signum() == 0 ? DERIVED_ULPS * Math.ulp(key)
+                : 2.0 * Double.MIN_NORMAL;
+    }
+
+    /**
+     * Computes a {@code double} approximation of an irrational factor, within a few units in the last place.
+     *
+     * @param factor the factor
+     * @param base   the integer whose square root is the factor, if the factor is {@code SQRT}
+     * @return the approximation
+     */
+    private static double approximateFactor(final EIrrationalFactor factor, final long base) {
+
+        final double result;
+
+        if (factor == EIrrationalFactor.PI) {
+            result = Math.PI;
+        } else if (factor == EIrrationalFactor.E) {
+            result = Math.E;
+        } else {
+            result = Math.sqrt((double) base);
+        }
+
+        return result;
+    }
+
+    /**
+     * Sorts a range of an array of keys, using a stable merge sort, and applies the same permutation to a parallel
+     * array of indices.  Keys are moved along with their indices so that comparisons read keys sequentially.
+     *
+     * @param keys         the keys
+     * @param order        the indices
+     * @param keyScratch   a scratch array at least as long as {@code keys}
+     * @param orderScratch a scratch array at least as long as {@code order}
+     * @param from         the index of the first entry to sort
+     * @param to           the index after the last entry to sort
+     */
+    private static void mergeSort(final double[] keys, final int[] order, final double[] keyScratch,
+                                  final int[] orderScratch, final int from, final int to) {
+
+        if (to - from < INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; ++i) {
+                final double key = keys[i];
+                final int index = order[i];
+                int j = i - 1;
+                while (j >= from && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    order[j + 1] = order[j];
+                    --j;
+                }
+                keys[j + 1] = key;
+                order[j + 1] = index;
+            }
+        } else {
+            final int mid = (from + to) >>> 1;
+            mergeSort(keys, order, keyScratch, orderScratch, from, mid);
+            mergeSort(keys, order, keyScratch, orderScratch, mid, to);
+
+            if (keys[mid - 1] > keys[mid]) {
+                System.arraycopy(keys, from, keyScratch, from, to - from);
+                System.arraycopy(order, from, orderScratch, from, to - from);
+                int left = from;
+                int right = mid;
+                for (int i = from; i < to; ++i) {
+                    if (right >= to || (left < mid && keyScratch[left] <= keyScratch[right])) {
+                        keys[i] = keyScratch[left];
+                        order[i] = orderScratch[left];
+                        ++left;
+                    } else {
+                        keys[i] = keyScratch[right];
+                        order[i] = orderScratch[right];
+                        ++right;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -56,7 +56,7 @@ public enum NumberUtils {
                 }
                 case final BigInteger bi -> result = bi.negate();
                 case final BigDecimal bd -> result = bd.negate();
-                case final Rational r -> result = new Rational(-r.numerator, r.denominator);
+                case final Rational r -> result = CanonicalNumbers.rational(-r.numerator, r.denominator);
                 case final BigRational r -> {
                     final BigInteger num = r.numerator.negate();
                     result = new BigRational(num, r.denominator);
@@ -133,19 +133,29 @@ public enum NumberUtils {
      */
     public static boolean isZero(final Number number) {
 
-        return switch (number) {
-            case final Integer i -> 0 == i.intValue();
-            case final Short sh -> 0 == sh.intValue();
-            case final Byte b -> 0 == b.intValue();
-            case final Long l -> 0L == l.longValue();
-            case final BigInteger bi -> BigInteger.ZERO.equals(bi);
-            case final BigDecimal bd -> 0 == BigDecimal.ZERO.compareTo(bd);
-            case final Rational r -> 0L == r.numerator;
-            case final BigRational br -> BigInteger.ZERO.equals(br.numerator);
-            case final Irrational irr -> 0L == irr.numerator;
-            case final BigIrrational irr -> BigInteger.ZERO.equals(irr.numerator);
-            default -> 0.0 == number.doubleValue();
-        };
+        final boolean result;
+
+        // Canonical instances are recognized by identity, without a type switch
+        if (number == CanonicalNumbers.INTEGER_ZERO || number == CanonicalNumbers.LONG_ZERO
+            || number == CanonicalNumbers.RATIONAL_ZERO) {
+            result = true;
+        } else {
+            result = switch (number) {
+                case final Integer i -> 0 == i.intValue();
+                case final Short sh -> 0 == sh.intValue();
+                case final Byte b -> 0 == b.intValue();
+                case final Long l -> 0L == l.longValue();
+                case final BigInteger bi -> BigInteger.ZERO.equals(bi);
+                case final BigDecimal bd -> 0 == BigDecimal.ZERO.compareTo(bd);
+                case final Rational r -> 0L == r.numerator;
+                case final BigRational br -> BigInteger.ZERO.equals(br.numerator);
+                case final Irrational irr -> 0L == irr.numerator;
+                case final BigIrrational irr -> BigInteger.ZERO.equals(irr.numerator);
+                default -> 0.0 == number.doubleValue();
+            };
+        }
+
+        return result;
     }
 
     /**
@@ -156,22 +166,33 @@ public enum NumberUtils {
      */
     public static boolean isOne(final Number number) {
 
-        return switch (number) {
-            case final Integer i -> 1 == i.intValue();
-            case final Short sh -> 1 == sh.intValue();
-            case final Byte b -> 1 == b.intValue();
-            case final Long l -> l.longValue() == 1L;
-            case final BigInteger bi -> BigInteger.ONE.equals(bi);
-            case final BigDecimal bd -> 0 == BigDecimal.ONE.compareTo(bd);
-            case final Rational r -> r.numerator == 1L && r.denominator == 1L;
-            case final BigRational br -> BigInteger.ONE.equals(br.numerator) && BigInteger.ONE.equals(br.denominator);
-            case final Irrational irr -> irr.factor == EIrrationalFactor.SQRT && irr.base == 1L
-                                         && irr.numerator == 1L && irr.denominator == 1L;
-            case final BigIrrational irr -> irr.factor == EIrrationalFactor.SQRT && irr.base == 1L
-                                            && BigInteger.ONE.equals(irr.numerator)
-                                            && BigInteger.ONE.equals(irr.denominator);
-            default -> number.doubleValue() == 1.0;
-        };
+        final boolean result;
+
+        // Canonical instances are recognized by identity, without a type switch
+        if (number == CanonicalNumbers.INTEGER_ONE || number == CanonicalNumbers.LONG_ONE
+            || number == CanonicalNumbers.RATIONAL_ONE) {
+            result = true;
+        } else {
+            result = switch (number) {
+                case final Integer i -> 1 == i.intValue();
+                case final Short sh -> 1 == sh.intValue();
+                case final Byte b -> 1 == b.intValue();
+                case final Long l -> l.longValue() == 1L;
+                case final BigInteger bi -> BigInteger.ONE.equals(bi);
+                case final BigDecimal bd -> 0 == BigDecimal.ONE.compareTo(bd);
+                case final Rational r -> r.numerator == 1L && r.denominator == 1L;
+                case final BigRational br -> BigInteger.ONE.equals(br.numerator)
+                                             && BigInteger.ONE.equals(br.denominator);
+                case final Irrational irr -> irr.factor == EIrrationalFactor.SQRT && irr.base == 1L
+                                             && irr.numerator == 1L && irr.denominator == 1L;
+                case final BigIrrational irr -> irr.factor == EIrrationalFactor.SQRT && irr.base == 1L
+                                                && BigInteger.ONE.equals(irr.numerator)
+                                                && BigInteger.ONE.equals(irr.denominator);
+                default -> number.doubleValue() == 1.0;
+            };
+        }
+
+        return result;
     }
 
     /**
@@ -233,14 +254,9 @@ public enum NumberUtils {
         final Number result;
 
         if (value.denominator == 1L) {
-            final long l1 = value.numerator;
-            if (l1 > (long) Integer.MAX_VALUE || l1 < (long) Integer.MIN_VALUE) {
-                result = Long.valueOf(l1);
-            } else {
-                result = Integer.valueOf((int) l1);
-            }
+            result = CanonicalNumbers.integer(value.numerator);
         } else {
-            result = value;
+            result = CanonicalNumbers.canonical(value);
         }
 
         return result;
@@ -263,7 +279,7 @@ public enum NumberUtils {
             try {
                 final long numer = value.numerator.longValueExact();
                 final long denom = value.denominator.longValueExact();
-                result = new Rational(numer, denom);
+                result = CanonicalNumbers.rational(numer, denom);
             } catch (final ArithmeticException ex) {
                 result = value;
             }
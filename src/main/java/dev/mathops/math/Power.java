@@ -0,0 +1,291 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Utilities for raising numbers to integer powers, where the result is a numeric type that will not overflow.
+ * {@code Long}, {@code Integer}, {@code Rational}, {@code BigRational}, {@code BigInteger}, and {@code BigDecimal}
+ * bases are raised exactly, by repeated squaring, so a power like (3/4)^12 takes a handful of multiplications and
+ * stays a {@code Rational}.  Work is done in {@code long} arithmetic until a step would overflow, and in
+ * {@code BigInteger} arithmetic from then on.  Negative exponents produce the reciprocal of the positive power.  Any
+ * other types passed will be treated as double.
+ *
+ * <p>
+ * An exact result whose numerator or denominator would exceed {@code MAX_EXACT_BITS} bits is not computed; the power
+ * is approximated as a {@code double} instead.
+ */
+public enum Power {
+    ;
+
+    /** The largest number of bits in the numerator or denominator of an exact power. */
+    public static final long MAX_EXACT_BITS = 1L << 20;
+
+    /**
+     * Raises a number to a power, using exact arithmetic if the exponent is an integer, and {@code Math.pow} if not.
+     * {@code Double} and {@code Float} bases always use {@code Math.pow}, so they keep its IEEE results (0^-1 is
+     * infinite, for example).
+     *
+     * @param base     the base
+     * @param exponent the exponent
+     * @return the power; {@code NaN} if {@code base} is zero and {@code exponent} is negative
+     */
+    public static Number numberPowNumber(final Number base, final Number exponent) {
+
+        final Number result;
+
+        if (isLongInteger(exponent) && !(base instanceof Double || base instanceof Float)) {
+            result = numberPowLong(base, exponent.longValue());
+        } else {
+            result = Double.valueOf(Math.pow(base.doubleValue(), exponent.doubleValue()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether a number is an integer that is represented exactly by its {@code long} value.  Integral
+     * {@code Double} and {@code Float} values are included, since the parser creates numeric literals like the "12" in
+     * "x^12" as {@code Double}.
+     *
+     * @param number the number
+     * @return true if an exact {@code long} integer
+     */
+    private static boolean isLongInteger(final Number number) {
+
+        return switch (number) {
+            case final Long ignored -> true;
+            case final Integer ignored -> true;
+            case final Short ignored -> true;
+            case final Byte ignored -> true;
+            case final BigInteger bi -> bi.bitLength() < Long.SIZE;
+            case final Rational r -> r.denominator == 1L;
+            case final Double d -> isIntegral(d.doubleValue());
+            case final Float f -> isIntegral(f.doubleValue());
+            default -> false;
+        };
+    }
+
+    /**
+     * Tests whether a {@code double} is a finite integer within the range of {@code long}.
+     *
+     * @param value the value
+     * @return true if {@code value} is converted to {@code long} without loss
+     */
+    private static boolean isIntegral(final double value) {
+
+        return value == Math.rint(value) && Math.abs(value) < 0x1p63;
+    }
+
+    /**
+     * Raises a number to an integer power without risk of overflow.  Zero to the power zero is 1, as for
+     * {@code Math.pow}.
+     *
+     * @param base     the base
+     * @param exponent the exponent
+     * @return the power; {@code NaN} if {@code base} is zero and {@code exponent} is negative
+     */
+    public static Number numberPowLong(final Number base, final long exponent) {
+
+        final ENumberKind kind = ENumberKind.of(base);
+
+        final Number result;
+
+        if (exponent == 0L) {
+            result = Long.valueOf(1L);
+        } else if (kind.isZero(base)) {
+            result = exponent < 0L ? Double.valueOf(Double.NaN) : Long.valueOf(0L);
+        } else if (exponent == 1L || kind.isOne(base)) {
+            result = base;
+        } else if (!fitsExactly(base, kind, exponent)) {
+            result = Double.valueOf(Math.pow(base.doubleValue(), (double) exponent));
+        } else {
+            final int intExponent = (int) exponent;
+
+            result = switch (kind) {
+                case LONG -> fractionPow(base.longValue(), 1L, intExponent);
+                case RATIONAL -> {
+                    final Rational r = (Rational) base;
+                    yield fractionPow(r.numerator, r.denominator, intExponent);
+                }
+                case BIG_RATIONAL -> {
+                    final BigRational br = (BigRational) base;
+                    yield bigFractionPow(br.numerator, br.denominator, intExponent);
+                }
+                case BIG_INTEGER -> bigFractionPow((BigInteger) base, BigInteger.ONE, intExponent);
+                case BIG_DECIMAL -> bigDecimalPow((BigDecimal) base, intExponent);
+                case OTHER -> base instanceof Integer || base instanceof Short || base instanceof Byte
+                        ? fractionPow(base.longValue(), 1L, intExponent)
+                        : Double.valueOf(Math.pow(base.doubleValue(), (double) exponent));
+            };
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether the exact power of a nonzero base would be small enough to compute.
+     *
+     * @param base     the base
+     * @param kind     the kind of the base
+     * @param exponent the exponent
+     * @return true if the numerator and denominator of the power would have at most {@code MAX_EXACT_BITS} bits
+     */
+    private static boolean fitsExactly(final Number base, final ENumberKind kind, final long exponent) {
+
+        final long bits = switch (kind) {
+            case LONG -> (long) (Long.SIZE - Long.numberOfLeadingZeros(Math.abs(base.longValue())));
+            case RATIONAL -> {
+                final Rational r = (Rational) base;
+                yield (long) (Long.SIZE - Math.min(Long.numberOfLeadingZeros(Math.abs(r.numerator)),
+                        Long.numberOfLeadingZeros(r.denominator)));
+            }
+            case BIG_RATIONAL -> {
+                final BigRational br = (BigRational) base;
+                yield (long) Math.max(br.numerator.bitLength(), br.denominator.bitLength());
+            }
+            case BIG_INTEGER -> (long) ((BigInteger) base).bitLength();
+            case BIG_DECIMAL -> {
+                final BigDecimal bd = (BigDecimal) base;
+                yield Math.max((long) bd.unscaledValue().bitLength(), Math.abs((long) bd.scale()) * 4L);
+            }
+            case OTHER -> (long) Long.SIZE;
+        };
+
+        // The exponent test keeps the product below from overflowing
+        return exponent >= (long) -Integer.MAX_VALUE && exponent <= (long) Integer.MAX_VALUE
+               && bits * Math.abs(exponent) <= MAX_EXACT_BITS;
+    }
+
+    /**
+     * Raises a fraction with {@code long} numerator and positive denominator to a power.
+     *
+     * @param numer    the numerator
+     * @param denom    the denominator
+     * @param exponent the exponent (nonzero)
+     * @return the power
+     */
+    private static Number fractionPow(final long numer, final long denom, final int exponent) {
+
+        final Number result;
+
+        if (exponent < 0 && numer == Long.MIN_VALUE) {
+            result = bigFractionPow(BigInteger.valueOf(numer), BigInteger.valueOf(denom), exponent);
+        } else {
+            // A negative exponent inverts the fraction; the sign moves to the new numerator
+            final long newNumer;
+            final long newDenom;
+            if (exponent < 0) {
+                newNumer = numer < 0L ? -denom : denom;
+                newDenom = Math.abs(numer);
+            } else {
+                newNumer = numer;
+                newDenom = denom;
+            }
+
+            final int n = Math.abs(exponent);
+            final Number numerPow = longPow(newNumer, n);
+            final Number denomPow = newDenom == 1L ? Long.valueOf(1L) : longPow(newDenom, n);
+
+            if (numerPow instanceof final Long ln && denomPow instanceof final Long ld) {
+                result = ld.longValue() == 1L ? ln : CanonicalNumbers.simplified(ln.longValue(), ld.longValue());
+            } else {
+                final BigInteger bigNumer = numerPow instanceof final BigInteger bn ? bn
+                        : BigInteger.valueOf(numerPow.longValue());
+                final BigInteger bigDenom = denomPow instanceof final BigInteger bd ? bd
+                        : BigInteger.valueOf(denomPow.longValue());
+                result = NumberUtils.simplifyBigRational(new BigRational(bigNumer, bigDenom));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Raises a {@code long} value to a positive power by repeated squaring, in {@code long} arithmetic while no step
+     * overflows.
+     *
+     * @param base     the base
+     * @param exponent the exponent (positive)
+     * @return the power, as a {@code Long} if it fits, or a {@code BigInteger} if not
+     */
+    private static Number longPow(final long base, final int exponent) {
+
+        long power = 1L;
+        long square = base;
+        int remaining = exponent;
+        boolean overflow = false;
+
+        while (remaining != 0 && !overflow) {
+            if ((remaining & 1) == 1) {
+                if (LongArithmetic.multiplyOverflows(power, square)) {
+                    overflow = true;
+                } else {
+                    power *= square;
+                }
+            }
+            remaining >>>= 1;
+            if (remaining != 0 && !overflow) {
+                if (LongArithmetic.multiplyOverflows(square, square)) {
+                    overflow = true;
+                } else {
+                    square *= square;
+                }
+            }
+        }
+
+        return overflow ? BigInteger.valueOf(base).pow(exponent) : Long.valueOf(power);
+    }
+
+    /**
+     * Raises a fraction with {@code BigInteger} numerator and positive denominator to a power.
+     *
+     * @param numer    the numerator
+     * @param denom    the denominator
+     * @param exponent the exponent (nonzero)
+     * @return the power
+     */
+    private static Number bigFractionPow(final BigInteger numer, final BigInteger denom, final int exponent) {
+
+        final BigInteger newNumer;
+        final BigInteger newDenom;
+        if (exponent < 0) {
+            newNumer = numer.signum() < 0 ? denom.negate() : denom;
+            newDenom = numer.abs();
+        } else {
+            newNumer = numer;
+            newDenom = denom;
+        }
+
+        final int n = Math.abs(exponent);
+        final BigInteger numerPow = newNumer.pow(n);
+        final BigInteger denomPow = BigInteger.ONE.equals(newDenom) ? newDenom : newDenom.pow(n);
+
+        return NumberUtils.simplifyBigRational(new BigRational(numerPow, denomPow));
+    }
+
+    /**
+     * Raises a {@code BigDecimal} to a power.  Positive powers remain {@code BigDecimal} values; negative powers are
+     * computed as the reciprocal of a rational value, since they generally have no finite decimal expansion.
+     *
+     * @param base     the base
+     * @param exponent the exponent (nonzero)
+     * @return the power
+     */
+    private static Number bigDecimalPow(final BigDecimal base, final int exponent) {
+
+        final Number result;
+
+        if (exponent > 0) {
+            result = NumberUtils.simplifyBigDecimal(base.pow(exponent));
+        } else {
+            final BigRational bigRat = NumberUtils.bigDecimalToBigRational(base);
+            result = bigFractionPow(bigRat.numerator, bigRat.denominator, exponent);
+        }
+
+        return result;
+    }
+}
@@ -15,6 +15,12 @@ import java.util.concurrent.atomic.LongAdder;
 /**
  * Utility method that can convert any finite {@code Number} to a {@code Rational}, {@code BigRational},
  * {@code Irrational}, or {@code BigIrrational} with no loss of precision.
+ *
+ * <p>
+ * Exact conversion of a {@code double} yields its binary fraction, so 0.1 becomes a {@code BigRational} with a
+ * denominator of 2^55.  For values sampled from functions, where a small nearby fraction is what was meant, the
+ * {@code toBestRational} methods instead find the closest {@code Rational} with a bounded denominator, using the
+ * continued fraction expansion of the value.
  */
 public enum RationalConverter {
     ;
@@ -25,6 +31,12 @@ public enum RationalConverter {
     /** The minimum value that can fit in a long as a {@code BigInteger}. */
     private static final BigInteger BIG_MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
 
+    /** The number of explicit significand bits in a {@code double}. */
+    private static final int SIGNIFICAND_BITS = 52;
+
+    /** The largest power of two whose reciprocal is handled without {@code BigInteger} arithmetic. */
+    private static final int MAX_LONG_SHIFT = 62;
+
     /**
      * Converts any finite number to one of the four target classes.  If the input number is already one of these, it is
      * simply returned.  Otherwise, the number is converted.
@@ -53,7 +65,7 @@ public enum RationalConverter {
                    || number instanceof LongAccumulator) {
             // Integer types no larger than a long convert to {@code Rational}
             final long value = number.longValue();
-            result = new Rational(value, 1L);
+            result = CanonicalNumbers.rational(value, 1L);
         } else if (number instanceof final Float f) {
             final float value = f.floatValue();
             if (Float.isFinite(value)) {
@@ -71,7 +83,7 @@ public enum RationalConverter {
                     if (totalExponent < 39) {
                         // Value will fit in a long
                         final long numer = (long) significand << totalExponent;
-                        result = new Rational(sign == 0 ? numer : -numer);
+                        result = CanonicalNumbers.rational(sign == 0 ? numer : -numer, 1L);
                     } else {
                         // Value needs a BigInteger
                         final BigInteger big1 = BigInteger.valueOf((long) significand);
@@ -107,7 +119,7 @@ public enum RationalConverter {
                 result = new BigRational(bigInt);
             } else {
                 final long longValue = bigInt.longValue();
-                result = new Rational(longValue);
+                result = CanonicalNumbers.rational(longValue, 1L);
             }
         } else if (number instanceof final BigDecimal bigDec) {
             result = NumberUtils.bigDecimalToBigRational(bigDec);
@@ -129,7 +141,7 @@ public enum RationalConverter {
                     if (totalExponent < 10) {
                         // Value will fit in a long
                         final long numer = (long) significand << totalExponent;
-                        result = new Rational(sign == 0L ? numer : -numer);
+                        result = CanonicalNumbers.rational(sign == 0L ? numer : -numer, 1L);
                     } else {
                         // Value needs a BigInteger
                         final BigInteger big1 = BigInteger.valueOf((long) significand);
@@ -162,4 +174,298 @@ public enum RationalConverter {
 
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Finds the {@code Rational} closest to a {@code double} value among those whose denominators are at most a
+     * specified maximum.  The value is expanded as a continued fraction (exactly, from its binary representation), and
+     * the result is either the last convergent within the bound or the best semiconvergent past it.
+     *
+     * @param value          the value
+     * @param maxDenominator the maximum denominator (at least 1)
+     * @return the closest {@code Rational} (if two are equally close, the one with the smaller denominator)
+     * @throws IllegalArgumentException if the value is infinite, NaN, or too large in magnitude for a {@code Rational},
+     *                                  or if the maximum denominator is less than 1
+     */
+    public static Rational toBestRational(final double value, final long maxDenominator) {
+
+        validateBestRational(value, maxDenominator);
+
+        return bestRational(value, maxDenominator, 0.0);
+    }
+
+    /**
+     * Finds a {@code Rational} within a tolerance of a {@code double} value, with a denominator no greater than a
+     * specified maximum.  Convergents of the continued fraction expansion of the value are tried in order, and the
+     * first within the tolerance is returned, so the result has the smallest denominator of any convergent that is
+     * close enough.  If no {@code Rational} within the bound is close enough, the value is converted exactly, as by
+     * {@code toRationalOrIrrational}.
+     *
+     * @param value          the value
+     * @param maxDenominator the maximum denominator (at least 1)
+     * @param tolerance      the largest acceptable absolute difference between the value and the result
+     * @return a {@code Rational} within the tolerance, or the exact {@code Rational} or {@code BigRational} value
+     * @throws IllegalArgumentException if the value is infinite or NaN, or if the maximum denominator is less than 1
+     */
+    public static Number toBestRational(final double value, final long maxDenominator, final double tolerance) {
+
+        if (maxDenominator < 1L) {
+            throw new IllegalArgumentException("Maximum denominator must be at least 1.");
+        }
+
+        Number result = null;
+
+        if (Math.abs(value) < 0x1p63) {
+            final Rational best = bestRational(value, maxDenominator, tolerance);
+            final double error = Math.abs(Math.fma((double) best.denominator, value, (double) -best.numerator))
+                                 / (double) best.denominator;
+            if (error <= tolerance) {
+                result = best;
+            }
+        }
+
+        if (result == null) {
+            result = toRationalOrIrrational(Double.valueOf(value));
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the closest {@code Rational} to each of an array of {@code double} values among those whose denominators
+     * are at most a specified maximum.
+     *
+     * @param values         the values
+     * @param maxDenominator the maximum denominator (at least 1)
+     * @return an array of the same length as {@code values} holding the closest {@code Rational} to each value
+     * @throws IllegalArgumentException if any value is infinite, NaN, or too large in magnitude for a
+     *                                  {@code Rational}, or if the maximum denominator is less than 1
+     */
+    public static Rational[] toBestRational(final double[] values, final long maxDenominator) {
+
+        final int len = values.length;
+        final Rational[] result = new Rational[len];
+
+        for (int i = 0; i < len; ++i) {
+            result[i] = toBestRational(values[i], maxDenominator);
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds a {@code Rational} within a tolerance of each of an array of {@code double} values, with a denominator no
+     * greater than a specified maximum, converting exactly any value for which there is none.
+     *
+     * @param values         the values
+     * @param maxDenominator the maximum denominator (at least 1)
+     * @param tolerance      the largest acceptable absolute difference between a value and its result
+     * @return an array of the same length as {@code values} holding the result for each value
+     * @throws IllegalArgumentException if any value is infinite or NaN, or if the maximum denominator is less than 1
+     */
+    public static Number[] toBestRational(final double[] values, final long maxDenominator, final double tolerance) {
+
+        final int len = values.length;
+        final Number[] result = new Number[len];
+
+        for (int i = 0; i < len; ++i) {
+            result[i] = toBestRational(values[i], maxDenominator, tolerance);
+        }
+
+        return result;
+    }
+
+    /**
+     * Validates the arguments to a best-rational search.
+     *
+     * @param value          the value
+     * @param maxDenominator the maximum denominator
+     * @throws IllegalArgumentException if the value is infinite, NaN, or too large in magnitude for a {@code Rational},
+     *                                  or if the maximum denominator is less than 1
+     */
+    private static void validateBestRational(final double value, final long maxDenominator) {
+
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Infinite and NaN values not supported.");
+        }
+        if (Math.abs(value) >= 0x1p63) {
+            throw new IllegalArgumentException("Value is too large for a Rational.");
+        }
+        if (maxDenominator < 1L) {
+            throw new IllegalArgumentException("Maximum denominator must be at least 1.");
+        }
+    }
+
+    /**
+     * Finds the best rational approximation of a finite value whose magnitude is less than 2^63, stopping early at the
+     * first convergent within a tolerance.
+     *
+     * @param value          the value
+     * @param maxDenominator the maximum denominator (at least 1)
+     * @param tolerance      the tolerance for stopping early (0 to find the closest approximation)
+     * @return the approximation
+     */
+    private static Rational bestRational(final double value, final long maxDenominator, final double tolerance) {
+
+        final double x = Math.abs(value);
+        final long bits = Double.doubleToLongBits(x);
+        final int biasedExponent = (int) (bits >>> SIGNIFICAND_BITS);
+        final long fraction = bits & ((1L << SIGNIFICAND_BITS) - 1L);
+
+        // The exact value of x is numer / 2^shift
+        long numer = biasedExponent == 0 ? fraction : fraction | (1L << SIGNIFICAND_BITS);
+        int shift = (biasedExponent == 0 ? 1 : biasedExponent) - 1023 - SIGNIFICAND_BITS;
+        shift = -shift;
+
+        final Rational result;
+
+        if (numer == 0L) {
+            result = CanonicalNumbers.RATIONAL_ZERO;
+        } else if (shift <= 0) {
+            // An integer, which is its own best approximation
+            final long whole = numer << -shift;
+            result = CanonicalNumbers.rational(value < 0.0 ? -whole : whole, 1L);
+        } else {
+            final int zeros = Math.min(Long.numberOfTrailingZeros(numer), shift);
+            numer >>= zeros;
+            shift -= zeros;
+
+            // Euclid's algorithm on numer/denom generates the terms of the continued fraction; when the denominator
+            // is too large for a long, the first two terms (0 and floor(2^shift / numer)) are computed with BigInteger
+            final long denom;
+            final long secondTerm;
+            long rem;
+            BigInteger bigSecondTerm = null;
+            if (shift <= MAX_LONG_SHIFT) {
+                denom = 1L << shift;
+                secondTerm = 0L;
+                rem = 0L;
+            } else {
+                final BigInteger[] qr = BigInteger.ONE.shiftLeft(shift).divideAndRemainder(BigInteger.valueOf(numer));
+                denom = 0L;
+                if (qr[0].bitLength() > MAX_LONG_SHIFT) {
+                    bigSecondTerm = qr[0];
+                }
+                secondTerm = qr[0].longValue();
+                rem = qr[1].longValue();
+            }
+
+            long h1 = 1L;
+            long k1 = 0L;
+            long h2 = 0L;
+            long k2 = 1L;
+            long p = shift <= MAX_LONG_SHIFT ? numer : 0L;
+            long q = shift <= MAX_LONG_SHIFT ? denom : 1L;
+            int index = 0;
+            Rational best = null;
+
+            if (bigSecondTerm != null) {
+                // x < 2^-62, so the convergents are 0/1 and 1/a for a huge term a, and the only candidates are 0/1 and
+                // 1/maxDenominator; the latter is closer only if 2 * maxDenominator exceeds a
+                final BigInteger twiceMax = BigInteger.valueOf(maxDenominator).shiftLeft(1);
+                if (twiceMax.compareTo(bigSecondTerm) > 0) {
+                    best = CanonicalNumbers.rational(value < 0.0 ? -1L : 1L, maxDenominator);
+                } else {
+                    best = CanonicalNumbers.RATIONAL_ZERO;
+                }
+            }
+
+            while (best == null) {
+                final long term;
+                boolean exact = false;
+                if (shift > MAX_LONG_SHIFT && index < 2) {
+                    if (index == 0) {
+                        term = 0L;
+                        p = numer;
+                        q = 0L;
+                    } else {
+                        term = secondTerm;
+                        p = numer;
+                        q = rem;
+                        exact = rem == 0L;
+                    }
+                } else {
+                    term = p / q;
+                    rem = p % q;
+                    p = q;
+                    q = rem;
+                    exact = rem == 0L;
+                }
+                ++index;
+
+                // Next convergent h/k = (term * h1 + h2) / (term * k1 + k2), if it is within the bounds
+                final boolean fits = !LongArithmetic.multiplyOverflows(term, h1)
+                                     && !LongArithmetic.multiplyOverflows(term, k1)
+                                     && term * h1 <= Long.MAX_VALUE - h2
+                                     && term * k1 <= maxDenominator - k2;
+
+                if (fits) {
+                    final long h = term * h1 + h2;
+                    final long k = term * k1 + k2;
+                    h2 = h1;
+                    k2 = k1;
+                    h1 = h;
+                    k1 = k;
+                    if (exact || Math.abs(Math.fma((double) k, x, (double) -h)) <= tolerance * (double) k) {
+                        best = CanonicalNumbers.rational(value < 0.0 ? -h : h, k);
+                    }
+                } else {
+                    best = bestOfConvergentAndSemiconvergent(numer, shift, term, h1, k1, h2, k2, maxDenominator,
+                            value < 0.0);
+                }
+            }
+
+            result = best;
+        }
+
+        return result;
+    }
+
+    /**
+     * Chooses between the last convergent that fits within the bounds and the largest semiconvergent past it that
+     * also fits.
+     *
+     * @param numer          the numerator of the exact value
+     * @param shift          the exact value is {@code numer / 2^shift}
+     * @param term           the continued fraction term whose convergent did not fit
+     * @param h1             the numerator of the last convergent that fits
+     * @param k1             the denominator of the last convergent that fits
+     * @param h2             the numerator of the convergent before that
+     * @param k2             the denominator of the convergent before that
+     * @param maxDenominator the maximum denominator
+     * @param negative       true if the value is negative
+     * @return the better approximation
+     */
+    private static Rational bestOfConvergentAndSemiconvergent(final long numer, final int shift, final long term,
+                                                              final long h1, final long k1, final long h2,
+                                                              final long k2, final long maxDenominator,
+                                                              final boolean negative) {
+
+        // The largest multiplier t for which (t * h1 + h2) / (t * k1 + k2) fits within the bounds
+        long t = (maxDenominator - k2) / k1;
+        if (h1 > 0L) {
+            t = Math.min(t, (Long.MAX_VALUE - h2) / h1);
+        }
+
+        // A semiconvergent with multiplier t is closer than the convergent if 2t > term, and farther if 2t < term
+        boolean useSemi = t > 0L && (t > term / 2L || (term & 1L) == 0L && t == term / 2L);
+
+        final long semiH = t * h1 + h2;
+        final long semiK = t * k1 + k2;
+
+        if (useSemi && (term & 1L) == 0L && t == term / 2L) {
+            // Tie in the rule: compare |x - h/k| exactly, preferring the convergent when equally close
+            final BigInteger n = BigInteger.valueOf(numer);
+            final BigInteger d = BigInteger.ONE.shiftLeft(shift);
+            final BigInteger err1 = n.multiply(BigInteger.valueOf(k1)).subtract(d.multiply(BigInteger.valueOf(h1)))
+                    .abs().multiply(BigInteger.valueOf(semiK));
+            final BigInteger err2 = n.multiply(BigInteger.valueOf(semiK))
+                    .subtract(d.multiply(BigInteger.valueOf(semiH))).abs().multiply(BigInteger.valueOf(k1));
+            useSemi = err2.compareTo(err1) < 0;
+        }
+
+        final long h = useSemi ? semiH : h1;
+        final long k = useSemi ? semiK : k1;
+
+        return CanonicalNumbers.rational(negative ? -h : h, k);
+    }
+}
@@ -27,7 +27,15 @@ public abstract class AbstractFunction extends AbstractProduction {
      * @param variables variable values
      * @return the result; null if unable to evaluate
      */
-    public abstract Number eval(VariableValues variables);
+    public abstract Number eval(IVariableSource variables);
+
+    /**
+     * Evaluates the function using {@code double} arithmetic.
+     *
+     * @param variables variable values
+     * @return the result; NaN if unable to evaluate
+     */
+    public abstract double evalDouble(IVariableSource variables);
 
     /**
      * Generates the derivative of the function with respect to a given variable.
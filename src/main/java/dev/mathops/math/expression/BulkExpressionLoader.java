@@ -0,0 +1,303 @@
+package dev.mathops.math.expression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads large numbers of expressions from delimited text (one expression per line, by default), parsing chunks of
+ * records in parallel on a {@code ForkJoinPool}.
+ *
+ * <p>
+ * Files are memory-mapped and decoded as UTF-8 in one step, record boundaries are found in one sequential pass, and
+ * chunks of records are then parsed in parallel.  Each chunk parses its records in place, with one reusable
+ * {@code ExpressionTokenBuffer}, so records are never copied into strings and no token objects are created.  Parsing
+ * does not use the shared {@code ExpressionParser} cache, which a bulk load would only flush.
+ *
+ * <p>
+ * Results are in input order.  Records that are empty or all whitespace give null expressions and are not errors.  A
+ * loader may be used by several threads at once.
+ */
+public final class BulkExpressionLoader {
+
+    /** The default number of records each parsing task handles without splitting further. */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /** The record delimiter. */
+    private final char delimiter;
+
+    /** The pool on which to parse. */
+    private final ForkJoinPool pool;
+
+    /** The number of records each parsing task handles without splitting further. */
+    private final int chunkSize;
+
+    /**
+     * Constructs a new {@code BulkExpressionLoader} that reads one expression per line and parses on the common
+     * {@code ForkJoinPool}.
+     */
+    public BulkExpressionLoader() {
+
+        this('\n', ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code BulkExpressionLoader}.
+     *
+     * @param theDelimiter the record delimiter (if this is '\n', a '\r' that precedes it is also removed)
+     * @param thePool      the pool on which to parse
+     * @param theChunkSize the number of records each parsing task handles without splitting further
+     * @throws IllegalArgumentException if the pool is null or the chunk size is not positive
+     */
+    public BulkExpressionLoader(final char theDelimiter, final ForkJoinPool thePool, final int theChunkSize) {
+
+        if (thePool == null) {
+            throw new IllegalArgumentException("Pool may not be null");
+        }
+        if (theChunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        this.delimiter = theDelimiter;
+        this.pool = thePool;
+        this.chunkSize = theChunkSize;
+    }
+
+    /**
+     * Loads expressions from a UTF-8 file.
+     *
+     * @param file the file
+     * @return the result
+     * @throws IOException if the file cannot be read, is larger than 2 GB, or is not valid UTF-8
+     */
+    public BulkLoadResult load(final Path file) throws IOException {
+
+        final long start = System.nanoTime();
+
+        final CharBuffer text;
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > (long) Integer.MAX_VALUE) {
+                throw new IOException("File is too large to load");
+            }
+            final ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            text = StandardCharsets.UTF_8.newDecoder().decode(mapped);
+        }
+
+        return load(text, System.nanoTime() - start);
+    }
+
+    /**
+     * Loads expressions from text.
+     *
+     * @param text the text (not modified, and not retained after loading)
+     * @return the result
+     */
+    public BulkLoadResult load(final CharSequence text) {
+
+        return load(text, 0L);
+    }
+
+    /**
+     * Loads expressions from text.
+     *
+     * @param text      the text
+     * @param readNanos the time spent reading the text, in nanoseconds
+     * @return the result
+     */
+    private BulkLoadResult load(final CharSequence text, final long readNanos) {
+
+        final long splitStart = System.nanoTime();
+        final int[][] bounds = split(text);
+        final int[] starts = bounds[0];
+        final int[] ends = bounds[1];
+        final int numRecords = starts.length;
+
+        final long parseStart = System.nanoTime();
+        final Expr[] expressions = new Expr[numRecords];
+        final EParseFailure[] failures = new EParseFailure[numRecords];
+        final int[] failureOffsets = new int[numRecords];
+        final LongAdder taskNanos = new LongAdder();
+        if (numRecords > 0) {
+            this.pool.invoke(new ParseTask(text, starts, ends, 0, numRecords, expressions, failures, failureOffsets,
+                    taskNanos));
+        }
+        final long parseEnd = System.nanoTime();
+
+        final List<BulkLoadError> errors = new ArrayList<>(10);
+        for (int i = 0; i < numRecords; ++i) {
+            if (failures[i] != null) {
+                errors.add(new BulkLoadError(i + 1, text.subSequence(starts[i], ends[i]).toString(), failures[i],
+                        failureOffsets[i]));
+            }
+        }
+
+        return new BulkLoadResult(expressions, errors, readNanos, parseStart - splitStart, parseEnd - parseStart,
+                taskNanos.sum());
+    }
+
+    /**
+     * Finds the boundaries of records.  Text after the last delimiter is a record only if it is not empty.
+     *
+     * @param text the text
+     * @return a two-element array: the start index of each record, and the end index of each record (excluding the
+     *         delimiter)
+     */
+    private int[][] split(final CharSequence text) {
+
+        final int len = text.length();
+        int[] starts = new int[1024];
+        int[] ends = new int[1024];
+        int count = 0;
+
+        int start = 0;
+        while (start < len) {
+            int end = start;
+            while (end < len && text.charAt(end) != this.delimiter) {
+                ++end;
+            }
+
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = this.delimiter == '\n' && end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            ++count;
+
+            start = end + 1;
+        }
+
+        return new int[][]{Arrays.copyOf(starts, count), Arrays.copyOf(ends, count)};
+    }
+
+    /**
+     * Tests whether a region of text is empty or all whitespace.
+     *
+     * @param text  the text
+     * @param start the start of the region
+     * @param end   the end of the region
+     * @return true if the region is blank
+     */
+    private static boolean isBlank(final CharSequence text, final int start, final int end) {
+
+        boolean blank = true;
+
+        for (int i = start; i < end; ++i) {
+            final char ch = text.charAt(i);
+            if (ch != ' ' && ch != '\t' && ch != '\r' && ch != '\n') {
+                blank = false;
+                break;
+            }
+        }
+
+        return blank;
+    }
+
+    /**
+     * A task that parses a range of records, splitting it in half until it is no larger than the chunk size.
+     */
+    private final class ParseTask extends RecursiveAction {
+
+        /** The text. */
+        private final CharSequence text;
+
+        /** The start index of each record. */
+        private final int[] starts;
+
+        /** The end index of each record. */
+        private final int[] ends;
+
+        /** The index of the first record to parse. */
+        private final int from;
+
+        /** The index after the last record to parse. */
+        private final int to;
+
+        /** The array in which to store parsed expressions. */
+        private final Expr[] expressions;
+
+        /** The array in which to store the reason each record failed to parse (null if it did not fail). */
+        private final EParseFailure[] failures;
+
+        /** The array in which to store the position at which each record failed to parse. */
+        private final int[] failureOffsets;
+
+        /** The accumulated time spent by tasks. */
+        private final LongAdder taskNanos;
+
+        /**
+         * Constructs a new {@code ParseTask}.
+         *
+         * @param theText           the text
+         * @param theStarts         the start index of each record
+         * @param theEnds           the end index of each record
+         * @param theFrom           the index of the first record to parse
+         * @param theTo             the index after the last record to parse
+         * @param theExpressions    the array in which to store parsed expressions
+         * @param theFailures       the array in which to store the reason each record failed to parse
+         * @param theFailureOffsets the array in which to store the position at which each record failed to parse
+         * @param theTaskNanos      the accumulated time spent by tasks
+         */
+        ParseTask(final CharSequence theText, final int[] theStarts, final int[] theEnds, final int theFrom,
+                  final int theTo, final Expr[] theExpressions, final EParseFailure[] theFailures,
+                  final int[] theFailureOffsets, final LongAdder theTaskNanos) {
+
+            super();
+
+            this.text = theText;
+            this.starts = theStarts;
+            this.ends = theEnds;
+            this.from = theFrom;
+            this.to = theTo;
+            this.expressions = theExpressions;
+            this.failures = theFailures;
+            this.failureOffsets = theFailureOffsets;
+            this.taskNanos = theTaskNanos;
+        }
+
+        /**
+         * Parses the records.
+         */
+        @Override
+        protected void compute() {
+
+            if (this.to - this.from <= BulkExpressionLoader.this.chunkSize) {
+                final long start = System.nanoTime();
+
+                final ExpressionTokenBuffer tokens = new ExpressionTokenBuffer();
+                for (int i = this.from; i < this.to; ++i) {
+                    final int recordStart = this.starts[i];
+                    final int recordEnd = this.ends[i];
+
+                    if (!isBlank(this.text, recordStart, recordEnd)) {
+                        final Expr expr = ExpressionParser.parseExpr(this.text, recordStart, recordEnd, tokens);
+                        this.expressions[i] = expr;
+                        if (expr == null) {
+                            this.failures[i] = tokens.getFailure();
+                            this.failureOffsets[i] = tokens.getFailureOffset();
+                        }
+                    }
+                }
+
+                this.taskNanos.add(System.nanoTime() - start);
+            } else {
+                final int mid = (this.from + this.to) >>> 1;
+                invokeAll(new ParseTask(this.text, this.starts, this.ends, this.from, mid, this.expressions,
+                                this.failures, this.failureOffsets, this.taskNanos),
+                        new ParseTask(this.text, this.starts, this.ends, mid, this.to, this.expressions,
+                                this.failures, this.failureOffsets, this.taskNanos));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.mathops.math.expression;
+
+/**
+ * A record that could not be parsed during a bulk load.
+ */
+public final class BulkLoadError {
+
+    /** The record number (1 for the first record). */
+    private final int recordNumber;
+
+    /** The text of the record. */
+    private final String text;
+
+    /** The reason the record could not be parsed. */
+    private final EParseFailure failure;
+
+    /** The position in the record at which parsing failed. */
+    private final int failureOffset;
+
+    /**
+     * Constructs a new {@code BulkLoadError}.
+     *
+     * @param theRecordNumber  the record number (1 for the first record)
+     * @param theText          the text of the record
+     * @param theFailure       the reason the record could not be parsed
+     * @param theFailureOffset the position in the record at which parsing failed
+     */
+    BulkLoadError(final int theRecordNumber, final String theText, final EParseFailure theFailure,
+                  final int theFailureOffset) {
+
+        this.recordNumber = theRecordNumber;
+        this.text = theText;
+        this.failure = theFailure;
+        this.failureOffset = theFailureOffset;
+    }
+
+    /**
+     * Gets the record number (for newline-delimited input, the line number).
+     *
+     * @return the record number (1 for the first record)
+     */
+    public int getRecordNumber() {
+
+        return this.recordNumber;
+    }
+
+    /**
+     * Gets the text of the record.
+     *
+     * @return the text
+     */
+    public String getText() {
+
+        return this.text;
+    }
+
+    /**
+     * Gets the reason the record could not be parsed.
+     *
+     * @return {@code LEXICAL} if a character matched no token pattern; {@code SYNTACTIC} if the tokens did not form an
+     *         expression
+     */
+    public EParseFailure getFailure() {
+
+        return this.failure;
+    }
+
+    /**
+     * Gets the position in the record at which parsing failed (see {@code ExpressionTokenBuffer.getFailureOffset}).
+     *
+     * @return the position, where 0 is the first character of the record
+     */
+    public int getFailureOffset() {
+
+        return this.failureOffset;
+    }
+
+    /**
+     * Generates a string representation of the error.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+
+        final String reason = this.failure == EParseFailure.LEXICAL ? "invalid character" : "syntax error";
+
+        return "Record " + this.recordNumber + ": " + reason + " at offset " + this.failureOffset + " in '"
+               + this.text + "'";
+    }
+}
@@ -0,0 +1,174 @@
+package dev.mathops.math.expression;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a bulk load: the parsed expressions in input order, the records that failed to parse, and timings.
+ */
+public final class BulkLoadResult {
+
+    /** The expression parsed from each record (null for blank records and records that failed to parse). */
+    private final Expr[] expressions;
+
+    /** The records that failed to parse, in input order. */
+    private final List<BulkLoadError> errors;
+
+    /** The time spent reading and decoding input, in nanoseconds. */
+    private final long readNanos;
+
+    /** The time spent finding record boundaries, in nanoseconds. */
+    private final long splitNanos;
+
+    /** The elapsed time spent parsing, in nanoseconds. */
+    private final long parseNanos;
+
+    /** The total time parsing tasks spent, summed over all threads, in nanoseconds. */
+    private final long parseTaskNanos;
+
+    /**
+     * Constructs a new {@code BulkLoadResult}.
+     *
+     * @param theExpressions    the expression parsed from each record (stored, not copied)
+     * @param theErrors         the records that failed to parse, in input order
+     * @param theReadNanos      the time spent reading and decoding input
+     * @param theSplitNanos     the time spent finding record boundaries
+     * @param theParseNanos     the elapsed time spent parsing
+     * @param theParseTaskNanos the total time parsing tasks spent, summed over all threads
+     */
+    BulkLoadResult(final Expr[] theExpressions, final List<BulkLoadError> theErrors, final long theReadNanos,
+                   final long theSplitNanos, final long theParseNanos, final long theParseTaskNanos) {
+
+        this.expressions = theExpressions;
+        this.errors = Collections.unmodifiableList(theErrors);
+        this.readNanos = theReadNanos;
+        this.splitNanos = theSplitNanos;
+        this.parseNanos = theParseNanos;
+        this.parseTaskNanos = theParseTaskNanos;
+    }
+
+    /**
+     * Gets the number of records.
+     *
+     * @return the number of records
+     */
+    public int getNumRecords() {
+
+        return this.expressions.length;
+    }
+
+    /**
+     * Gets the expression parsed from a record.
+     *
+     * @param index the record index (0 for the first record)
+     * @return the expression; null if the record was blank or failed to parse
+     */
+    public Expr getExpression(final int index) {
+
+        return this.expressions[index];
+    }
+
+    /**
+     * Gets the expressions parsed from all records, in input order.
+     *
+     * @return an unmodifiable list with one entry per record (null for blank records and records that failed to parse)
+     */
+    public List<Expr> getExpressions() {
+
+        return Collections.unmodifiableList(Arrays.asList(this.expressions));
+    }
+
+    /**
+     * Gets the number of records that parsed successfully.
+     *
+     * @return the number of expressions
+     */
+    public int getNumParsed() {
+
+        int count = 0;
+
+        for (final Expr expr : this.expressions) {
+            if (expr != null) {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the records that failed to parse.
+     *
+     * @return an unmodifiable list of errors, in input order
+     */
+    public List<BulkLoadError> getErrors() {
+
+        return this.errors;
+    }
+
+    /**
+     * Gets the time spent reading and decoding input (zero when loading from text already in memory).
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getReadNanos() {
+
+        return this.readNanos;
+    }
+
+    /**
+     * Gets the time spent finding record boundaries.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getSplitNanos() {
+
+        return this.splitNanos;
+    }
+
+    /**
+     * Gets the elapsed time spent parsing.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getParseNanos() {
+
+        return this.parseNanos;
+    }
+
+    /**
+     * Gets the total time parsing tasks spent, summed over all threads.  The ratio of this to {@code getParseNanos}
+     * indicates how much parallelism was achieved.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getParseTaskNanos() {
+
+        return this.parseTaskNanos;
+    }
+
+    /**
+     * Gets the total elapsed time of the load.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getTotalNanos() {
+
+        return this.readNanos + this.splitNanos + this.parseNanos;
+    }
+
+    /**
+     * Generates a string representation of the result: counts and timings.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+
+        return this.expressions.length + " records, " + getNumParsed() + " parsed, " + this.errors.size()
+               + " errors; read " + this.readNanos / 1000000L + " ms, split " + this.splitNanos / 1000000L
+               + " ms, parse " + this.parseNanos / 1000000L + " ms (" + this.parseTaskNanos / 1000000L
+               + " ms across threads)";
+    }
+}
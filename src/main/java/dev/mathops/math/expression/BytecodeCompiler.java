@@ -0,0 +1,378 @@
+package dev.mathops.math.expression;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * A compiler that translates a {@code CompiledExpr} into JVM bytecode, defining a hidden class that implements
+ * {@code ICompiledFunction}.  Each register becomes a local variable and each constant an entry in the class's
+ * constant pool, so once the JIT compiler has seen the generated method, evaluation runs as fast as hand-written code.
+ *
+ * <p>
+ * Generating and defining a class costs on the order of a millisecond, so this suits functions that will be evaluated
+ * many thousands of times; {@code TieredFunction} interprets a program first and compiles it only once it has been
+ * called often enough to repay that cost.  Hidden classes are not tied to their class loader, so a generated class is
+ * unloaded once its function is no longer referenced.
+ */
+public final class BytecodeCompiler {
+
+    /** The internal name of generated classes (the JVM appends a unique suffix to each). */
+    private static final String CLASS_NAME = "dev/mathops/math/expression/GeneratedFunction";
+
+    /** The internal name of the class that holds the interpreter's "apply" method. */
+    private static final String COMPILED_EXPR = "dev/mathops/math/expression/CompiledExpr";
+
+    /** The internal name of the {@code Math} class. */
+    private static final String MATH = "java/lang/Math";
+
+    /** The largest size of a method's code, in bytes. */
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    /** The maximum operand stack depth of generated code: an {@code int} opcode and two {@code double} values. */
+    private static final int MAX_STACK = 5;
+
+    /** Opcode: push the {@code int} constant 0 (constants -1 through 5 follow in sequence). */
+    private static final int ICONST_0 = 0x03;
+
+    /** Opcode: push a byte as an {@code int}. */
+    private static final int BIPUSH = 0x10;
+
+    /** Opcode: push a short as an {@code int}. */
+    private static final int SIPUSH = 0x11;
+
+    /** Opcode: push an {@code int} from the constant pool, with a wide index. */
+    private static final int LDC_W = 0x13;
+
+    /** Opcode: push a {@code double} from the constant pool. */
+    private static final int LDC2_W = 0x14;
+
+    /** Opcode: load a {@code double} local variable. */
+    private static final int DLOAD = 0x18;
+
+    /** Opcode: load local variable 0 as a reference. */
+    private static final int ALOAD_0 = 0x2a;
+
+    /** Opcode: load local variable 1 as a reference. */
+    private static final int ALOAD_1 = 0x2b;
+
+    /** Opcode: load local variable 2 as a reference. */
+    private static final int ALOAD_2 = 0x2c;
+
+    /** Opcode: load a {@code double} from an array. */
+    private static final int DALOAD = 0x31;
+
+    /** Opcode: store a {@code double} local variable. */
+    private static final int DSTORE = 0x39;
+
+    /** Opcode: store a {@code double} into an array. */
+    private static final int DASTORE = 0x52;
+
+    /** Opcode: add {@code double} values. */
+    private static final int DADD = 0x63;
+
+    /** Opcode: subtract {@code double} values. */
+    private static final int DSUB = 0x67;
+
+    /** Opcode: multiply {@code double} values. */
+    private static final int DMUL = 0x6b;
+
+    /** Opcode: divide {@code double} values. */
+    private static final int DDIV = 0x6f;
+
+    /** Opcode: negate a {@code double} value. */
+    private static final int DNEG = 0x77;
+
+    /** Opcode: return an {@code int}. */
+    private static final int IRETURN = 0xac;
+
+    /** Opcode: return a {@code double}. */
+    private static final int DRETURN = 0xaf;
+
+    /** Opcode: return nothing. */
+    private static final int RETURN = 0xb1;
+
+    /** Opcode: invoke a constructor. */
+    private static final int INVOKESPECIAL = 0xb7;
+
+    /** Opcode: invoke a static method. */
+    private static final int INVOKESTATIC = 0xb8;
+
+    /** Opcode: use a two-byte local variable index in the following instruction. */
+    private static final int WIDE = 0xc4;
+
+    /** The program being compiled. */
+    private final CompiledExpr program;
+
+    /** The writer that receives the class. */
+    private final ClassFileWriter writer;
+
+    /**
+     * Constructs a new {@code BytecodeCompiler}.
+     *
+     * @param theProgram the program being compiled
+     */
+    private BytecodeCompiler(final CompiledExpr theProgram) {
+
+        this.program = theProgram;
+        this.writer = new ClassFileWriter();
+    }
+
+    /**
+     * Compiles a program into a new hidden class and creates an instance of it.
+     *
+     * @param program the program
+     * @return the compiled function; {@code null} if the program is too large to fit in a single method
+     * @throws IllegalArgumentException if the program is null
+     */
+    public static ICompiledFunction compile(final CompiledExpr program) {
+
+        if (program == null) {
+            throw new IllegalArgumentException("Program may not be null");
+        }
+
+        final byte[] classBytes = new BytecodeCompiler(program).generate();
+
+        ICompiledFunction result = null;
+
+        if (classBytes != null) {
+            try {
+                final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classBytes, true);
+                final Object instance = lookup.lookupClass().getDeclaredConstructor().newInstance();
+                result = (ICompiledFunction) instance;
+            } catch (final ReflectiveOperationException ex) {
+                throw new IllegalStateException("Unable to define generated function class", ex);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates the class file.
+     *
+     * @return the class file bytes; {@code null} if the program is too large
+     */
+    private byte[] generate() {
+
+        final int numInputs = this.program.getNumVariables();
+        final int numOutputs = this.program.getNumOutputs();
+        final int numRegisters = this.program.getNumRegisters();
+
+        final ClassFileWriter.ByteSink init = new ClassFileWriter.ByteSink(8);
+        init.u1(ALOAD_0);
+        init.u1(INVOKESPECIAL);
+        init.u2(this.writer.methodRef("java/lang/Object", "<init>", "()V"));
+        init.u1(RETURN);
+        this.writer.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", 1, 1, init);
+
+        final ClassFileWriter.ByteSink inputs = new ClassFileWriter.ByteSink(8);
+        pushInt(inputs, numInputs);
+        inputs.u1(IRETURN);
+        this.writer.addMethod(ClassFileWriter.ACC_PUBLIC, "getNumInputs", "()I", 1, 1, inputs);
+
+        final ClassFileWriter.ByteSink outputs = new ClassFileWriter.ByteSink(8);
+        pushInt(outputs, numOutputs);
+        outputs.u1(IRETURN);
+        this.writer.addMethod(ClassFileWriter.ACC_PUBLIC, "getNumOutputs", "()I", 1, 1, outputs);
+
+        // double evaluate(double[] arguments): "this" and the array precede the registers
+        final ClassFileWriter.ByteSink single = new ClassFileWriter.ByteSink(256);
+        emitBody(single, 2, false);
+        load(single, 2, this.program.getOutputRegister(0));
+        single.u1(DRETURN);
+        this.writer.addMethod(ClassFileWriter.ACC_PUBLIC, "evaluate", "([D)D", MAX_STACK, 2 + 2 * numRegisters,
+                single);
+
+        // void evaluate(double[] arguments, double[] outputs)
+        final ClassFileWriter.ByteSink all = new ClassFileWriter.ByteSink(256);
+        emitBody(all, 3, false);
+        for (int i = 0; i < numOutputs; ++i) {
+            all.u1(ALOAD_2);
+            pushInt(all, i);
+            load(all, 3, this.program.getOutputRegister(i));
+            all.u1(DASTORE);
+        }
+        all.u1(RETURN);
+        this.writer.addMethod(ClassFileWriter.ACC_PUBLIC, "evaluate", "([D[D)V", MAX_STACK, 3 + 2 * numRegisters,
+                all);
+
+        int maxCodeLength = Math.max(single.size(), all.size());
+
+        // A function of one argument also gets a direct "applyAsDouble", which avoids creating an argument array
+        if (numInputs == 1) {
+            final ClassFileWriter.ByteSink unary = new ClassFileWriter.ByteSink(256);
+            emitBody(unary, 3, true);
+            load(unary, 3, this.program.getOutputRegister(0));
+            unary.u1(DRETURN);
+            this.writer.addMethod(ClassFileWriter.ACC_PUBLIC, "applyAsDouble", "(D)D", MAX_STACK,
+                    3 + 2 * numRegisters, unary);
+            maxCodeLength = Math.max(maxCodeLength, unary.size());
+        }
+
+        final byte[] result;
+
+        if (maxCodeLength > MAX_CODE_LENGTH || this.writer.isPoolOverflowed()) {
+            result = null;
+        } else {
+            final int access = ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER
+                               | ClassFileWriter.ACC_SYNTHETIC;
+            result = this.writer.toByteArray(access, CLASS_NAME, "java/lang/Object",
+                    "dev/mathops/math/expression/ICompiledFunction");
+        }
+
+        return result;
+    }
+
+    /**
+     * Emits code that loads variables into registers and executes the program's instructions.
+     *
+     * @param code       the code buffer
+     * @param base       the local variable slot of register 0
+     * @param fromDouble true if the single variable is in a {@code double} parameter in slot 1; false if variables
+     *                   are in a {@code double[]} parameter in slot 1
+     */
+    private void emitBody(final ClassFileWriter.ByteSink code, final int base, final boolean fromDouble) {
+
+        final int numVariables = this.program.getNumVariables();
+        final int numInstructions = this.program.getNumInstructions();
+
+        for (int i = 0; i < numVariables; ++i) {
+            if (fromDouble) {
+                localOp(code, DLOAD, 1);
+            } else {
+                code.u1(ALOAD_1);
+                pushInt(code, i);
+                code.u1(DALOAD);
+            }
+            localOp(code, DSTORE, base + 2 * i);
+        }
+
+        for (int i = 0; i < numInstructions; ++i) {
+            final int opcode = this.program.getOpcode(i);
+            final boolean unary = CompiledExpr.isUnary(opcode);
+            final String mathMethod = mathMethodOf(opcode);
+            final boolean inline = opcode <= CompiledExpr.DIV;
+            final boolean viaApply = !inline && mathMethod == null;
+
+            if (viaApply) {
+                pushInt(code, opcode);
+            }
+            load(code, base, this.program.getSource(i, 0));
+            if (!unary || viaApply) {
+                load(code, base, this.program.getSource(i, 1));
+            }
+
+            if (inline) {
+                code.u1(switch (opcode) {
+                    case CompiledExpr.ADD -> DADD;
+                    case CompiledExpr.SUB -> DSUB;
+                    case CompiledExpr.MUL -> DMUL;
+                    case CompiledExpr.DIV -> DDIV;
+                    default -> DNEG;
+                });
+            } else if (viaApply) {
+                code.u1(INVOKESTATIC);
+                code.u2(this.writer.methodRef(COMPILED_EXPR, "apply", "(IDD)D"));
+            } else {
+                code.u1(INVOKESTATIC);
+                code.u2(this.writer.methodRef(MATH, mathMethod, unary ? "(D)D" : "(DD)D"));
+            }
+
+            localOp(code, DSTORE, base + 2 * this.program.getDestination(i));
+        }
+    }
+
+    /**
+     * Emits code that pushes the value of a register: a local variable load, or a constant pool load for a constant.
+     *
+     * @param code     the code buffer
+     * @param base     the local variable slot of register 0
+     * @param register the register
+     */
+    private void load(final ClassFileWriter.ByteSink code, final int base, final int register) {
+
+        final int firstConstant = this.program.getNumVariables();
+        final int constantIndex = register - firstConstant;
+
+        if (constantIndex >= 0 && constantIndex < this.program.getNumConstants()) {
+            code.u1(LDC2_W);
+            code.u2(this.writer.doubleConstant(this.program.getConstant(constantIndex)));
+        } else {
+            localOp(code, DLOAD, base + 2 * register);
+        }
+    }
+
+    /**
+     * Emits a local variable load or store, using the wide form if the slot does not fit in a byte.
+     *
+     * @param code   the code buffer
+     * @param opcode the opcode ({@code DLOAD} or {@code DSTORE})
+     * @param slot   the local variable slot
+     */
+    private static void localOp(final ClassFileWriter.ByteSink code, final int opcode, final int slot) {
+
+        if (slot > 255) {
+            code.u1(WIDE);
+            code.u1(opcode);
+            code.u2(slot);
+        } else {
+            code.u1(opcode);
+            code.u1(slot);
+        }
+    }
+
+    /**
+     * Emits code that pushes an {@code int} constant, using the shortest instruction.
+     *
+     * @param code  the code buffer
+     * @param value the value
+     */
+    private void pushInt(final ClassFileWriter.ByteSink code, final int value) {
+
+        if (value >= -1 && value <= 5) {
+            code.u1(ICONST_0 + value);
+        } else if (value >= (int) Byte.MIN_VALUE && value <= (int) Byte.MAX_VALUE) {
+            code.u1(BIPUSH);
+            code.u1(value);
+        } else if (value >= (int) Short.MIN_VALUE && value <= (int) Short.MAX_VALUE) {
+            code.u1(SIPUSH);
+            code.u2(value);
+        } else {
+            code.u1(LDC_W);
+            code.u2(this.writer.integer(value));
+        }
+    }
+
+    /**
+     * Gets the name of the {@code Math} method that performs an operation directly.
+     *
+     * @param opcode the opcode
+     * @return the method name; {@code null} if the operation is inlined or goes through {@code CompiledExpr.apply}
+     */
+    private static String mathMethodOf(final int opcode) {
+
+        return switch (opcode) {
+            case CompiledExpr.POW -> "pow";
+            case CompiledExpr.ATAN2 -> "atan2";
+            case CompiledExpr.HYPOT -> "hypot";
+            case CompiledExpr.ABS -> "abs";
+            case CompiledExpr.ACOS -> "acos";
+            case CompiledExpr.ASIN -> "asin";
+            case CompiledExpr.ATAN -> "atan";
+            case CompiledExpr.CBRT -> "cbrt";
+            case CompiledExpr.COS -> "cos";
+            case CompiledExpr.EXP -> "exp";
+            case CompiledExpr.EXPM1 -> "expm1";
+            case CompiledExpr.LOG -> "log";
+            case CompiledExpr.LOG1P -> "log1p";
+            case CompiledExpr.LOG10 -> "log10";
+            case CompiledExpr.SIN -> "sin";
+            case CompiledExpr.SQRT -> "sqrt";
+            case CompiledExpr.TAN -> "tan";
+            case CompiledExpr.TO_DEG -> "toDegrees";
+            case CompiledExpr.TO_RAD -> "toRadians";
+            case CompiledExpr.FLOOR -> "floor";
+            case CompiledExpr.CEIL -> "ceil";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,431 @@
+package dev.mathops.math.expression;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal writer for JVM class files, supporting just what {@code BytecodeCompiler} generates: a final class that
+ * extends {@code Object}, implements interfaces, and has methods with straight-line code (no branches, so no stack map
+ * frames are needed).  Names and descriptors must be ASCII, for which modified UTF-8 and UTF-8 agree.
+ */
+final class ClassFileWriter {
+
+    /** The class file magic number. */
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /** The class file major version (Java 17). */
+    private static final int MAJOR_VERSION = 61;
+
+    /** The largest number of constant pool entries. */
+    private static final int MAX_POOL_SIZE = 65535;
+
+    /** Access flag: public. */
+    static final int ACC_PUBLIC = 0x0001;
+
+    /** Access flag: final. */
+    static final int ACC_FINAL = 0x0010;
+
+    /** Access flag: treat superclass methods specially (set on all modern classes). */
+    static final int ACC_SUPER = 0x0020;
+
+    /** Access flag: synthetic. */
+    static final int ACC_SYNTHETIC = 0x1000;
+
+    /** Constant pool tag: UTF-8 string. */
+    private static final int TAG_UTF8 = 1;
+
+    /** Constant pool tag: integer. */
+    private static final int TAG_INTEGER = 3;
+
+    /** Constant pool tag: double. */
+    private static final int TAG_DOUBLE = 6;
+
+    /** Constant pool tag: class reference. */
+    private static final int TAG_CLASS = 7;
+
+    /** Constant pool tag: method reference. */
+    private static final int TAG_METHODREF = 10;
+
+    /** Constant pool tag: name and type. */
+    private static final int TAG_NAME_AND_TYPE = 12;
+
+    /** The encoded constant pool entries. */
+    private final ByteSink pool;
+
+    /** The number of constant pool slots used, plus one (slot 0 is unused, and doubles use two slots). */
+    private int poolCount;
+
+    /** A map from a key describing each constant pool entry to its index. */
+    private final Map<String, Integer> poolIndexes;
+
+    /** The encoded methods. */
+    private final List<byte[]> methods;
+
+    /**
+     * Constructs a new {@code ClassFileWriter}.
+     */
+    ClassFileWriter() {
+
+        this.pool = new ByteSink(256);
+        this.poolCount = 1;
+        this.poolIndexes = new HashMap<>(64);
+        this.methods = new ArrayList<>(8);
+    }
+
+    /**
+     * Tests whether the constant pool has grown beyond the size a class file can hold.
+     *
+     * @return true if the constant pool is too large
+     */
+    boolean isPoolOverflowed() {
+
+        return this.poolCount > MAX_POOL_SIZE;
+    }
+
+    /**
+     * Gets the index of a UTF-8 constant, adding it if needed.
+     *
+     * @param value the string
+     * @return the constant pool index
+     */
+    int utf8(final String value) {
+
+        final String key = "U" + value;
+        final Integer existing = this.poolIndexes.get(key);
+
+        final int result;
+
+        if (existing == null) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.pool.u1(TAG_UTF8);
+            this.pool.u2(bytes.length);
+            this.pool.bytes(bytes);
+            result = add(key, 1);
+        } else {
+            result = existing.intValue();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the index of a class reference constant, adding it if needed.
+     *
+     * @param internalName the internal name of the class, like "java/lang/Object"
+     * @return the constant pool index
+     */
+    int classRef(final String internalName) {
+
+        final String key = "C" + internalName;
+        final Integer existing = this.poolIndexes.get(key);
+
+        final int result;
+
+        if (existing == null) {
+            final int nameIndex = utf8(internalName);
+            this.pool.u1(TAG_CLASS);
+            this.pool.u2(nameIndex);
+            result = add(key, 1);
+        } else {
+            result = existing.intValue();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the index of a method reference constant, adding it if needed.
+     *
+     * @param owner      the internal name of the class that declares the method
+     * @param name       the method name
+     * @param descriptor the method descriptor, like "(D)D"
+     * @return the constant pool index
+     */
+    int methodRef(final String owner, final String name, final String descriptor) {
+
+        final String key = "M" + owner + "." + name + descriptor;
+        final Integer existing = this.poolIndexes.get(key);
+
+        final int result;
+
+        if (existing == null) {
+            final int classIndex = classRef(owner);
+            final int nameAndTypeIndex = nameAndType(name, descriptor);
+            this.pool.u1(TAG_METHODREF);
+            this.pool.u2(classIndex);
+            this.pool.u2(nameAndTypeIndex);
+            result = add(key, 1);
+        } else {
+            result = existing.intValue();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the index of a name-and-type constant, adding it if needed.
+     *
+     * @param name       the member name
+     * @param descriptor the member descriptor
+     * @return the constant pool index
+     */
+    private int nameAndType(final String name, final String descriptor) {
+
+        final String key = "N" + name + ":" + descriptor;
+        final Integer existing = this.poolIndexes.get(key);
+
+        final int result;
+
+        if (existing == null) {
+            final int nameIndex = utf8(name);
+            final int descriptorIndex = utf8(descriptor);
+            this.pool.u1(TAG_NAME_AND_TYPE);
+            this.pool.u2(nameIndex);
+            this.pool.u2(descriptorIndex);
+            result = add(key, 1);
+        } else {
+            result = existing.intValue();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the index of an integer constant, adding it if needed.
+     *
+     * @param value the value
+     * @return the constant pool index
+     */
+    int integer(final int value) {
+
+        final String key = "I" + value;
+        final Integer existing = this.poolIndexes.get(key);
+
+        final int result;
+
+        if (existing == null) {
+            this.pool.u1(TAG_INTEGER);
+            this.pool.u4(value);
+            result = add(key, 1);
+        } else {
+            result = existing.intValue();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the index of a double constant, adding it if needed.  Constants are matched by bit pattern, so 0.0 and -0.0
+     * are distinct.
+     *
+     * @param value the value
+     * @return the constant pool index
+     */
+    int doubleConstant(final double value) {
+
+        final long bits = Double.doubleToRawLongBits(value);
+        final String key = "D" + bits;
+        final Integer existing = this.poolIndexes.get(key);
+
+        final int result;
+
+        if (existing == null) {
+            this.pool.u1(TAG_DOUBLE);
+            this.pool.u4((int) (bits >>> 32));
+            this.pool.u4((int) bits);
+            result = add(key, 2);
+        } else {
+            result = existing.intValue();
+        }
+
+        return result;
+    }
+
+    /**
+     * Records a constant pool entry that has been written.
+     *
+     * @param key   the key describing the entry
+     * @param slots the number of slots the entry occupies
+     * @return the entry's index
+     */
+    private int add(final String key, final int slots) {
+
+        final int index = this.poolCount;
+        this.poolIndexes.put(key, Integer.valueOf(index));
+        this.poolCount += slots;
+
+        return index;
+    }
+
+    /**
+     * Adds a method with a "Code" attribute.
+     *
+     * @param access     the access flags
+     * @param name       the method name
+     * @param descriptor the method descriptor
+     * @param maxStack   the maximum operand stack depth, in slots
+     * @param maxLocals  the number of local variable slots, including those of the parameters
+     * @param code       the bytecode
+     */
+    void addMethod(final int access, final String name, final String descriptor, final int maxStack,
+                   final int maxLocals, final ByteSink code) {
+
+        final int codeLength = code.size();
+        final ByteSink method = new ByteSink(codeLength + 32);
+
+        method.u2(access);
+        method.u2(utf8(name));
+        method.u2(utf8(descriptor));
+        method.u2(1);
+
+        // The Code attribute: stack and locals limits, the code, no exception table, and no nested attributes
+        method.u2(utf8("Code"));
+        method.u4(codeLength + 12);
+        method.u2(maxStack);
+        method.u2(maxLocals);
+        method.u4(codeLength);
+        method.bytes(code.toByteArray());
+        method.u2(0);
+        method.u2(0);
+
+        this.methods.add(method.toByteArray());
+    }
+
+    /**
+     * Generates the class file.
+     *
+     * @param access         the class access flags
+     * @param className      the internal name of the class
+     * @param superName      the internal name of the superclass
+     * @param interfaceNames the internal names of implemented interfaces
+     * @return the class file bytes
+     */
+    byte[] toByteArray(final int access, final String className, final String superName,
+                       final String... interfaceNames) {
+
+        // Resolve every class reference before the constant pool is written
+        final int thisIndex = classRef(className);
+        final int superIndex = classRef(superName);
+        final int numInterfaces = interfaceNames.length;
+        final int[] interfaceIndexes = new int[numInterfaces];
+        for (int i = 0; i < numInterfaces; ++i) {
+            interfaceIndexes[i] = classRef(interfaceNames[i]);
+        }
+
+        final ByteSink out = new ByteSink(this.pool.size() + 1024);
+        out.u4(MAGIC);
+        out.u2(0);
+        out.u2(MAJOR_VERSION);
+        out.u2(this.poolCount);
+        out.bytes(this.pool.toByteArray());
+        out.u2(access);
+        out.u2(thisIndex);
+        out.u2(superIndex);
+        out.u2(numInterfaces);
+        for (final int index : interfaceIndexes) {
+            out.u2(index);
+        }
+        out.u2(0);
+        out.u2(this.methods.size());
+        for (final byte[] method : this.methods) {
+            out.bytes(method);
+        }
+        out.u2(0);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * A growable buffer of bytes, written in the big-endian order used by class files.
+     */
+    static final class ByteSink {
+
+        /** The bytes written so far. */
+        private byte[] data;
+
+        /** The number of bytes written. */
+        private int length;
+
+        /**
+         * Constructs a new {@code ByteSink}.
+         *
+         * @param capacity the initial capacity
+         */
+        ByteSink(final int capacity) {
+
+            this.data = new byte[Math.max(16, capacity)];
+        }
+
+        /**
+         * Gets the number of bytes written.
+         *
+         * @return the number of bytes
+         */
+        int size() {
+
+            return this.length;
+        }
+
+        /**
+         * Writes one byte.
+         *
+         * @param value the value, of which the low 8 bits are written
+         */
+        void u1(final int value) {
+
+            if (this.length == this.data.length) {
+                this.data = Arrays.copyOf(this.data, this.length * 2);
+            }
+            this.data[this.length] = (byte) value;
+            ++this.length;
+        }
+
+        /**
+         * Writes a two-byte value.
+         *
+         * @param value the value, of which the low 16 bits are written
+         */
+        void u2(final int value) {
+
+            u1(value >>> 8);
+            u1(value);
+        }
+
+        /**
+         * Writes a four-byte value.
+         *
+         * @param value the value
+         */
+        void u4(final int value) {
+
+            u2(value >>> 16);
+            u2(value);
+        }
+
+        /**
+         * Writes a sequence of bytes.
+         *
+         * @param bytes the bytes
+         */
+        void bytes(final byte[] bytes) {
+
+            for (final byte b : bytes) {
+                u1((int) b);
+            }
+        }
+
+        /**
+         * Gets a copy of the bytes written.
+         *
+         * @return the bytes
+         */
+        byte[] toByteArray() {
+
+            return Arrays.copyOf(this.data, this.length);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package dev.mathops.math.expression;
+
+/**
+ * An expression compiled by {@code ExprCompiler} (or built by a {@code ProgramBuilder}) into a linear sequence of
+ * instructions over a register file of {@code double} values.  A program has one or more outputs, each held in a
+ * register after evaluation.
+ *
+ * <p>
+ * The register file is laid out as the variables (in the order their names were given to the compiler), then the
+ * constants, then temporary values.  A caller creates a register file once with {@code newRegisters}, stores variable
+ * values in its first {@code getNumVariables()} entries, and calls {@code evaluate}, which performs no allocation.
+ * Evaluation follows IEEE {@code double} arithmetic, so division by zero gives an infinity rather than the NaN that
+ * exact evaluation gives.
+ *
+ * <p>
+ * A {@code CompiledExpr} is immutable, so one may be shared between threads as long as each thread uses its own
+ * register file.
+ */
+public final class CompiledExpr {
+
+    /** The number of {@code int} values per instruction: opcode, destination, and two source registers. */
+    static final int STRIDE = 4;
+
+    /** Opcode: negation of the first source. */
+    public static final int NEG = 0;
+
+    /** Opcode: sum of the sources. */
+    public static final int ADD = 1;
+
+    /** Opcode: first source minus second source. */
+    public static final int SUB = 2;
+
+    /** Opcode: product of the sources. */
+    public static final int MUL = 3;
+
+    /** Opcode: first source divided by second source. */
+    public static final int DIV = 4;
+
+    /** Opcode: first source raised to the power of the second source. */
+    public static final int POW = 5;
+
+    /** Opcode: {@code Math.atan2} of the sources. */
+    public static final int ATAN2 = 6;
+
+    /** Opcode: {@code Math.hypot} of the sources. */
+    public static final int HYPOT = 7;
+
+    /** Opcode: absolute value. */
+    public static final int ABS = 8;
+
+    /** Opcode: arc cosine. */
+    public static final int ACOS = 9;
+
+    /** Opcode: arc sine. */
+    public static final int ASIN = 10;
+
+    /** Opcode: arc tangent. */
+    public static final int ATAN = 11;
+
+    /** Opcode: cube root. */
+    public static final int CBRT = 12;
+
+    /** Opcode: cosine. */
+    public static final int COS = 13;
+
+    /** Opcode: exponential. */
+    public static final int EXP = 14;
+
+    /** Opcode: exponential minus one. */
+    public static final int EXPM1 = 15;
+
+    /** Opcode: natural logarithm. */
+    public static final int LOG = 16;
+
+    /** Opcode: natural logarithm of one plus the argument. */
+    public static final int LOG1P = 17;
+
+    /** Opcode: base-10 logarithm. */
+    public static final int LOG10 = 18;
+
+    /** Opcode: base-2 logarithm. */
+    public static final int LOG2 = 19;
+
+    /** Opcode: sine. */
+    public static final int SIN = 20;
+
+    /** Opcode: square root. */
+    public static final int SQRT = 21;
+
+    /** Opcode: tangent. */
+    public static final int TAN = 22;
+
+    /** Opcode: conversion from radians to degrees. */
+    public static final int TO_DEG = 23;
+
+    /** Opcode: conversion from degrees to radians. */
+    public static final int TO_RAD = 24;
+
+    /** Opcode: greatest integer not greater than the argument. */
+    public static final int FLOOR = 25;
+
+    /** Opcode: least integer not less than the argument. */
+    public static final int CEIL = 26;
+
+    /** Opcode: nearest integer, with ties rounded up, as {@code Math.round}. */
+    public static final int ROUND = 27;
+
+    /** Opcode: integer part, rounded toward zero. */
+    public static final int TRUNCATE = 28;
+
+    /** The variable names, in register order. */
+    private final String[] variableNames;
+
+    /** The constant values, stored in the registers following the variables. */
+    private final double[] constants;
+
+    /** The instructions, {@code STRIDE} values per instruction. */
+    private final int[] code;
+
+    /** The total number of registers. */
+    private final int numRegisters;
+
+    /** The registers that hold the outputs after evaluation. */
+    private final int[] outputRegisters;
+
+    /**
+     * Constructs a new {@code CompiledExpr}.
+     *
+     * @param theVariableNames   the variable names, in register order
+     * @param theConstants       the constant values
+     * @param theCode            the instructions
+     * @param theNumRegisters    the total number of registers
+     * @param theOutputRegisters the registers that hold the outputs after evaluation (at least one)
+     */
+    CompiledExpr(final String[] theVariableNames, final double[] theConstants, final int[] theCode,
+                 final int theNumRegisters, final int[] theOutputRegisters) {
+
+        this.variableNames = theVariableNames;
+        this.constants = theConstants;
+        this.code = theCode;
+        this.numRegisters = theNumRegisters;
+        this.outputRegisters = theOutputRegisters;
+    }
+
+    /**
+     * Gets the number of variables, which occupy the first registers of the register file.
+     *
+     * @return the number of variables
+     */
+    public int getNumVariables() {
+
+        return this.variableNames.length;
+    }
+
+    /**
+     * Gets the name of the variable in a register.
+     *
+     * @param index the register index, from 0 to one less than the number of variables
+     * @return the variable name
+     */
+    public String getVariableName(final int index) {
+
+        return this.variableNames[index];
+    }
+
+    /**
+     * Gets the register that holds a variable.
+     *
+     * @param name the variable name
+     * @return the register index; -1 if the expression was not compiled with the variable
+     */
+    public int indexOf(final String name) {
+
+        int result = -1;
+
+        final int count = this.variableNames.length;
+        for (int i = 0; i < count; ++i) {
+            if (this.variableNames[i].equals(name)) {
+                result = i;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the number of instructions.
+     *
+     * @return the number of instructions
+     */
+    public int getNumInstructions() {
+
+        return this.code.length / STRIDE;
+    }
+
+    /**
+     * Gets the opcode of an instruction.
+     *
+     * @param index the instruction index
+     * @return the opcode
+     */
+    int getOpcode(final int index) {
+
+        return this.code[index * STRIDE];
+    }
+
+    /**
+     * Gets the register that receives the result of an instruction.
+     *
+     * @param index the instruction index
+     * @return the destination register
+     */
+    int getDestination(final int index) {
+
+        return this.code[index * STRIDE + 1];
+    }
+
+    /**
+     * Gets a source register of an instruction.
+     *
+     * @param index  the instruction index
+     * @param source 0 for the first source, 1 for the second
+     * @return the source register
+     */
+    int getSource(final int index, final int source) {
+
+        return this.code[index * STRIDE + 2 + source];
+    }
+
+    /**
+     * Gets the number of constant registers, which follow the variable registers.
+     *
+     * @return the number of constants
+     */
+    int getNumConstants() {
+
+        return this.constants.length;
+    }
+
+    /**
+     * Gets the value of a constant.
+     *
+     * @param index the constant index, from 0 to one less than the number of constants
+     * @return the value
+     */
+    double getConstant(final int index) {
+
+        return this.constants[index];
+    }
+
+    /**
+     * Gets the number of outputs.
+     *
+     * @return the number of outputs
+     */
+    public int getNumOutputs() {
+
+        return this.outputRegisters.length;
+    }
+
+    /**
+     * Gets the register that holds an output after evaluation.
+     *
+     * @param index the output index
+     * @return the register index
+     */
+    public int getOutputRegister(final int index) {
+
+        return this.outputRegisters[index];
+    }
+
+    /**
+     * Gets the size of the register file this expression needs.
+     *
+     * @return the number of registers
+     */
+    public int getNumRegisters() {
+
+        return this.numRegisters;
+    }
+
+    /**
+     * Creates a register file for this expression, with variables set to zero.
+     *
+     * @return the register file
+     */
+    public double[] newRegisters() {
+
+        final double[] registers = new double[this.numRegisters];
+        System.arraycopy(this.constants, 0, registers, this.variableNames.length, this.constants.length);
+
+        return registers;
+    }
+
+    /**
+     * Evaluates the expression.  The caller stores variable values in the first {@code getNumVariables()} entries of
+     * the register file before calling this method; other entries are overwritten.
+     *
+     * @param registers the register file, at least {@code getNumRegisters()} long
+     * @return the value of the expression (the first output); others may be read from the registers given by
+     *         {@code getOutputRegister}
+     */
+    public double evaluate(final double[] registers) {
+
+        System.arraycopy(this.constants, 0, registers, this.variableNames.length, this.constants.length);
+
+        final int[] instructions = this.code;
+        final int len = instructions.length;
+        for (int pc = 0; pc < len; pc += STRIDE) {
+            final double a = registers[instructions[pc + 2]];
+            final double b = registers[instructions[pc + 3]];
+            final int opcode = instructions[pc];
+
+            // The arithmetic operations are handled inline; only function calls go through "apply"
+            registers[instructions[pc + 1]] = switch (opcode) {
+                case ADD -> a + b;
+                case SUB -> a - b;
+                case MUL -> a * b;
+                case DIV -> a / b;
+                case NEG -> -a;
+                default -> apply(opcode, a, b);
+            };
+        }
+
+        return registers[this.outputRegisters[0]];
+    }
+
+    /**
+     * Tests whether an operation takes one argument.
+     *
+     * @param opcode the opcode
+     * @return true if the operation takes one argument; false if it takes two
+     */
+    static boolean isUnary(final int opcode) {
+
+        return opcode == NEG || opcode >= ABS;
+    }
+
+    /**
+     * Applies an operation.
+     *
+     * @param opcode the opcode
+     * @param a      the first source value
+     * @param b      the second source value (ignored by operations of one argument)
+     * @return the result
+     */
+    static double apply(final int opcode, final double a, final double b) {
+
+        return switch (opcode) {
+            case NEG -> -a;
+            case ADD -> a + b;
+            case SUB -> a - b;
+            case MUL -> a * b;
+            case DIV -> a / b;
+            case POW -> Math.pow(a, b);
+            case ATAN2 -> Math.atan2(a, b);
+            case HYPOT -> Math.hypot(a, b);
+            case ABS -> Math.abs(a);
+            case ACOS -> Math.acos(a);
+            case ASIN -> Math.asin(a);
+            case ATAN -> Math.atan(a);
+            case CBRT -> Math.cbrt(a);
+            case COS -> Math.cos(a);
+            case EXP -> Math.exp(a);
+            case EXPM1 -> Math.expm1(a);
+            case LOG -> Math.log(a);
+            case LOG1P -> Math.log1p(a);
+            case LOG10 -> Math.log10(a);
+            case LOG2 -> Math.log(a) / AbstractFunction.LN2;
+            case SIN -> Math.sin(a);
+            case SQRT -> Math.sqrt(a);
+            case TAN -> Math.tan(a);
+            case TO_DEG -> Math.toDegrees(a);
+            case TO_RAD -> Math.toRadians(a);
+            case FLOOR -> Math.floor(a);
+            case CEIL -> Math.ceil(a);
+            case ROUND -> (double) Math.round(a);
+            case TRUNCATE -> a >= 0.0 ? Math.floor(a) : Math.ceil(a);
+            default -> Double.NaN;
+        };
+    }
+}
@@ -0,0 +1,259 @@
+package dev.mathops.math.expression;
+
+/**
+ * Forward-mode automatic differentiation of expressions: evaluates an expression with {@code DualNumber} arithmetic,
+ * giving its value and its derivatives with respect to chosen variables in one pass over the expression, without
+ * building a derivative expression.
+ *
+ * <p>
+ * Evaluation uses {@code double} arithmetic, so results may differ from exact evaluation in the last bits.  Where a
+ * function is not differentiable (like {@code abs} at 0 or {@code sqrt} at 0), the derivative is whatever the
+ * one-sided formula gives, possibly infinite or NaN.
+ */
+public enum DualEvaluator {
+    ;
+
+    /** The natural logarithm of 10. */
+    private static final double LN10 = Math.log(10.0);
+
+    /** The number of degrees per radian. */
+    private static final double DEG_PER_RAD = 180.0 / Math.PI;
+
+    /** The number of radians per degree. */
+    private static final double RAD_PER_DEG = Math.PI / 180.0;
+
+    /**
+     * Evaluates an expression and its derivative with respect to one variable.
+     *
+     * @param expr      the expression
+     * @param variables variable values
+     * @param varName   the name of the variable with respect to which to differentiate
+     * @return the value and derivative (read with {@code getValue} and {@code getDerivative}); null if a variable the
+     *         expression references has no value
+     */
+    public static DualNumber derivative(final Expr expr, final IVariableSource variables, final String varName) {
+
+        return evalExpr(expr, variables, new String[]{varName});
+    }
+
+    /**
+     * Evaluates an expression and its gradient with respect to several variables.
+     *
+     * @param expr      the expression
+     * @param variables variable values
+     * @param varNames  the names of the variables with respect to which to differentiate
+     * @return the value and partial derivatives (partial {@code i} is with respect to {@code varNames[i]}); null if a
+     *         variable the expression references has no value
+     */
+    public static DualNumber gradient(final Expr expr, final IVariableSource variables, final String... varNames) {
+
+        return evalExpr(expr, variables, varNames.clone());
+    }
+
+    /**
+     * Evaluates an expression.
+     *
+     * @param expr      the expression
+     * @param variables variable values
+     * @param varNames  the names of the differentiation variables
+     * @return the result; null if a variable has no value
+     */
+    private static DualNumber evalExpr(final Expr expr, final IVariableSource variables, final String[] varNames) {
+
+        DualNumber sum = evalTerm(expr.getTerm(0), variables, varNames);
+
+        final int numTerms = expr.getNumTerms();
+        for (int i = 1; sum != null && i < numTerms; ++i) {
+            final DualNumber value = evalTerm(expr.getTerm(i), variables, varNames);
+            sum = value == null ? null : sum.plus(value);
+        }
+
+        return sum;
+    }
+
+    /**
+     * Evaluates a term, including its sign.
+     *
+     * @param term      the term
+     * @param variables variable values
+     * @param varNames  the names of the differentiation variables
+     * @return the result; null if a variable has no value
+     */
+    private static DualNumber evalTerm(final Term term, final IVariableSource variables, final String[] varNames) {
+
+        DualNumber product = evalFactor(term.getFactor(0), variables, varNames);
+
+        // Terms hold no '^' operations (they are converted to "pow" functions at construction)
+        final int numFactors = term.getNumFactors();
+        for (int i = 1; product != null && i < numFactors; ++i) {
+            final DualNumber value = evalFactor(term.getFactor(i), variables, varNames);
+            if (value == null) {
+                product = null;
+            } else if ((int) term.getOp(i - 1).op == '/') {
+                product = product.dividedBy(value);
+            } else {
+                product = product.times(value);
+            }
+        }
+
+        if (product != null && (int) term.getSign().op == '-') {
+            product = product.negate();
+        }
+
+        return product;
+    }
+
+    /**
+     * Evaluates a factor.
+     *
+     * @param factor    the factor
+     * @param variables variable values
+     * @param varNames  the names of the differentiation variables
+     * @return the result; null if a variable has no value
+     */
+    private static DualNumber evalFactor(final Factor factor, final IVariableSource variables,
+                                         final String[] varNames) {
+
+        final int numPartials = varNames.length;
+
+        final Expr parenthesized = factor.getParenthesized();
+        final FunctionOf1 function1 = factor.getFunctionOf1();
+        final FunctionOf2 function2 = factor.getFunctionOf2();
+        final Number number = factor.getNumber();
+        final String varName = factor.getVarName();
+        final ESymbol symbol = factor.getSymbol();
+
+        DualNumber result = null;
+
+        if (parenthesized != null) {
+            result = evalExpr(parenthesized, variables, varNames);
+        } else if (function1 != null) {
+            final DualNumber arg = evalExpr(function1.getArgument(), variables, varNames);
+            if (arg != null) {
+                result = apply(function1.getFunction(), arg);
+            }
+        } else if (function2 != null) {
+            final DualNumber arg1 = evalExpr(function2.getArgument1(), variables, varNames);
+            final DualNumber arg2 = evalExpr(function2.getArgument2(), variables, varNames);
+            if (arg1 != null && arg2 != null) {
+                result = apply(function2.getFunction(), arg1, arg2);
+            }
+        } else if (number != null) {
+            result = DualNumber.constant(number.doubleValue(), numPartials);
+        } else if (varName != null) {
+            final Number value = variables.get(varName);
+            if (value != null) {
+                final int index = indexOf(varNames, varName);
+                result = index < 0 ? DualNumber.constant(value.doubleValue(), numPartials)
+                        : DualNumber.variable(value.doubleValue(), numPartials, index);
+            }
+        } else if (symbol != null) {
+            result = DualNumber.constant(symbol.value, numPartials);
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the index of a variable among the differentiation variables.
+     *
+     * @param varNames the names of the differentiation variables
+     * @param name     the variable name
+     * @return the index; -1 if not found
+     */
+    private static int indexOf(final String[] varNames, final String name) {
+
+        int result = -1;
+
+        for (int i = 0; i < varNames.length; ++i) {
+            if (varNames[i].equals(name)) {
+                result = i;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Applies a function of one argument.
+     *
+     * @param function the function
+     * @param arg      the argument
+     * @return the result
+     */
+    private static DualNumber apply(final EFunctionOf1 function, final DualNumber arg) {
+
+        final double a = arg.getValue();
+
+        return switch (function) {
+            case ABS -> arg.chain(Math.abs(a), Math.signum(a));
+            case ACOS -> arg.chain(Math.acos(a), -1.0 / Math.sqrt(1.0 - a * a));
+            case ASIN -> arg.chain(Math.asin(a), 1.0 / Math.sqrt(1.0 - a * a));
+            case ATAN -> arg.chain(Math.atan(a), 1.0 / (1.0 + a * a));
+            case CBRT -> {
+                final double root = Math.cbrt(a);
+                yield arg.chain(root, 1.0 / (3.0 * root * root));
+            }
+            case COS -> arg.chain(Math.cos(a), -Math.sin(a));
+            case EXP -> {
+                final double exp = Math.exp(a);
+                yield arg.chain(exp, exp);
+            }
+            case EXPM1 -> arg.chain(Math.expm1(a), Math.exp(a));
+            case LOG -> arg.chain(Math.log(a), 1.0 / a);
+            case LOG1P -> arg.chain(Math.log1p(a), 1.0 / (1.0 + a));
+            case LOG10 -> arg.chain(Math.log10(a), 1.0 / (a * LN10));
+            case LOG2 -> arg.chain(Math.log(a) / AbstractFunction.LN2, 1.0 / (a * AbstractFunction.LN2));
+            case SIN -> arg.chain(Math.sin(a), Math.cos(a));
+            case SQRT -> {
+                final double root = Math.sqrt(a);
+                yield arg.chain(root, 0.5 / root);
+            }
+            case TAN -> {
+                final double tan = Math.tan(a);
+                yield arg.chain(tan, 1.0 + tan * tan);
+            }
+            case TO_DEG -> arg.chain(Math.toDegrees(a), DEG_PER_RAD);
+            case TO_RAD -> arg.chain(Math.toRadians(a), RAD_PER_DEG);
+        };
+    }
+
+    /**
+     * Applies a function of two arguments.
+     *
+     * @param function the function
+     * @param arg1     the first argument
+     * @param arg2     the second argument
+     * @return the result
+     */
+    private static DualNumber apply(final EFunctionOf2 function, final DualNumber arg1, final DualNumber arg2) {
+
+        final double a = arg1.getValue();
+        final double b = arg2.getValue();
+
+        return switch (function) {
+            case ATAN2 -> {
+                final double denom = a * a + b * b;
+                yield arg1.chain(arg2, Math.atan2(a, b), b / denom, -a / denom);
+            }
+            case HYPOT -> {
+                final double hypot = Math.hypot(a, b);
+                yield arg1.chain(arg2, hypot, a / hypot, b / hypot);
+            }
+            case POW -> {
+                final double pow = Math.pow(a, b);
+
+                // The general rule uses log(a), which is NaN for a negative base, so the cases of a constant exponent
+                // (the power rule) and a constant base (the exponential rule) are handled separately.
+                if (arg2.hasZeroPartials()) {
+                    yield arg1.chain(pow, b * Math.pow(a, b - 1.0));
+                } else if (arg1.hasZeroPartials()) {
+                    yield arg2.chain(pow, pow * Math.log(a));
+                } else {
+                    yield arg1.chain(arg2, pow, b * Math.pow(a, b - 1.0), pow * Math.log(a));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,251 @@
+package dev.mathops.math.expression;
+
+import java.util.Arrays;
+
+/**
+ * A dual number: a value together with its partial derivatives with respect to one or more variables.  Arithmetic on
+ * dual numbers carries derivatives along with values by the rules of differentiation, which is the basis of
+ * forward-mode automatic differentiation.
+ *
+ * <p>
+ * Dual numbers are immutable; every operation returns a new dual number.  Operands of a binary operation must have the
+ * same number of partial derivatives.
+ */
+public final class DualNumber {
+
+    /** The value. */
+    private final double value;
+
+    /** The partial derivatives. */
+    private final double[] partials;
+
+    /**
+     * Constructs a new {@code DualNumber}.  The array of partial derivatives is stored, not copied.
+     *
+     * @param theValue    the value
+     * @param thePartials the partial derivatives
+     */
+    private DualNumber(final double theValue, final double[] thePartials) {
+
+        this.value = theValue;
+        this.partials = thePartials;
+    }
+
+    /**
+     * Creates a dual number for a constant, whose partial derivatives are all zero.
+     *
+     * @param theValue    the value
+     * @param numPartials the number of partial derivatives
+     * @return the dual number
+     */
+    public static DualNumber constant(final double theValue, final int numPartials) {
+
+        return new DualNumber(theValue, new double[numPartials]);
+    }
+
+    /**
+     * Creates a dual number for an independent variable, whose partial derivative with respect to itself is 1 and
+     * whose other partial derivatives are zero.
+     *
+     * @param theValue    the value
+     * @param numPartials the number of partial derivatives
+     * @param index       the index of the partial derivative with respect to this variable
+     * @return the dual number
+     */
+    public static DualNumber variable(final double theValue, final int numPartials, final int index) {
+
+        final double[] seed = new double[numPartials];
+        seed[index] = 1.0;
+
+        return new DualNumber(theValue, seed);
+    }
+
+    /**
+     * Gets the value.
+     *
+     * @return the value
+     */
+    public double getValue() {
+
+        return this.value;
+    }
+
+    /**
+     * Gets the number of partial derivatives.
+     *
+     * @return the number of partial derivatives
+     */
+    public int getNumPartials() {
+
+        return this.partials.length;
+    }
+
+    /**
+     * Gets a partial derivative.
+     *
+     * @param index the index of the variable
+     * @return the partial derivative with respect to that variable
+     */
+    public double getPartial(final int index) {
+
+        return this.partials[index];
+    }
+
+    /**
+     * Gets the derivative with respect to the first (usually the only) variable.
+     *
+     * @return the derivative
+     */
+    public double getDerivative() {
+
+        return this.partials[0];
+    }
+
+    /**
+     * Adds another dual number to this one.
+     *
+     * @param other the other dual number
+     * @return the sum
+     */
+    public DualNumber plus(final DualNumber other) {
+
+        final int count = this.partials.length;
+        final double[] result = new double[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = this.partials[i] + other.partials[i];
+        }
+
+        return new DualNumber(this.value + other.value, result);
+    }
+
+    /**
+     * Subtracts another dual number from this one.
+     *
+     * @param other the other dual number
+     * @return the difference
+     */
+    public DualNumber minus(final DualNumber other) {
+
+        final int count = this.partials.length;
+        final double[] result = new double[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = this.partials[i] - other.partials[i];
+        }
+
+        return new DualNumber(this.value - other.value, result);
+    }
+
+    /**
+     * Multiplies this dual number by another.
+     *
+     * @param other the other dual number
+     * @return the product
+     */
+    public DualNumber times(final DualNumber other) {
+
+        final int count = this.partials.length;
+        final double[] result = new double[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = this.partials[i] * other.value + this.value * other.partials[i];
+        }
+
+        return new DualNumber(this.value * other.value, result);
+    }
+
+    /**
+     * Divides this dual number by another.
+     *
+     * @param other the other dual number
+     * @return the quotient
+     */
+    public DualNumber dividedBy(final DualNumber other) {
+
+        final double quotient = this.value / other.value;
+
+        final int count = this.partials.length;
+        final double[] result = new double[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = (this.partials[i] - quotient * other.partials[i]) / other.value;
+        }
+
+        return new DualNumber(quotient, result);
+    }
+
+    /**
+     * Negates this dual number.
+     *
+     * @return the negation
+     */
+    public DualNumber negate() {
+
+        return chain(-this.value, -1.0);
+    }
+
+    /**
+     * Applies a function of one argument to this dual number, by the chain rule.
+     *
+     * @param fValue the value of the function at this number's value
+     * @param fPrime the derivative of the function at this number's value
+     * @return the result
+     */
+    public DualNumber chain(final double fValue, final double fPrime) {
+
+        final int count = this.partials.length;
+        final double[] result = new double[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = fPrime * this.partials[i];
+        }
+
+        return new DualNumber(fValue, result);
+    }
+
+    /**
+     * Applies a function of two arguments to this dual number and another, by the chain rule.
+     *
+     * @param other  the second argument
+     * @param fValue the value of the function
+     * @param fDx    the partial derivative of the function with respect to its first argument
+     * @param fDy    the partial derivative of the function with respect to its second argument
+     * @return the result
+     */
+    public DualNumber chain(final DualNumber other, final double fValue, final double fDx, final double fDy) {
+
+        final int count = this.partials.length;
+        final double[] result = new double[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = fDx * this.partials[i] + fDy * other.partials[i];
+        }
+
+        return new DualNumber(fValue, result);
+    }
+
+    /**
+     * Tests whether all partial derivatives are zero (as for a constant).
+     *
+     * @return true if all partial derivatives are zero
+     */
+    boolean hasZeroPartials() {
+
+        boolean zero = true;
+
+        for (final double partial : this.partials) {
+            if (partial != 0.0) {
+                zero = false;
+                break;
+            }
+        }
+
+        return zero;
+    }
+
+    /**
+     * Generates a string representation of the dual number: the value followed by the partial derivatives.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+
+        return this.value + " " + Arrays.toString(this.partials);
+    }
+}
@@ -0,0 +1,14 @@
+package dev.mathops.math.expression;
+
+/** The outcomes of checking whether an expression is equivalent to a reference expression. */
+public enum EEquivalence {
+
+    /** The expressions agree, within tolerance, at every point where both are defined. */
+    EQUIVALENT,
+
+    /** The expressions differ at some point where both are defined. */
+    NOT_EQUIVALENT,
+
+    /** The expressions are both defined at too few points to decide. */
+    UNDETERMINED
+}
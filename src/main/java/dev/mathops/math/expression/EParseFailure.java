@@ -0,0 +1,11 @@
+package dev.mathops.math.expression;
+
+/** The reasons a region of text can fail to parse as an expression. */
+public enum EParseFailure {
+
+    /** A character matched no token pattern. */
+    LEXICAL,
+
+    /** The tokens did not form a single complete expression. */
+    SYNTACTIC
+}
@@ -0,0 +1,476 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.math.set.number.RealInterval;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests whether expressions are equivalent to a reference expression by evaluating both at random points in the
+ * variables' domains.
+ *
+ * <p>
+ * The points, and the reference values at them, are computed once, when the checker is constructed, keeping only
+ * points where the reference is defined (finite).  Each candidate is then compiled and evaluated with a
+ * {@code BatchEvaluator} over blocks of points.  The first block is small, so that most wrong answers are rejected
+ * after a few evaluations; checking stops at the first block with a mismatch.  Points where the candidate is not
+ * defined are skipped.  Two values match if they differ by no more than the absolute tolerance or the relative
+ * tolerance times the larger magnitude.
+ *
+ * <p>
+ * Large numbers of points are split across a {@code ForkJoinPool}, as are lists of candidates given to
+ * {@code checkAll}.  The points are generated from a seed, so results are repeatable.  A checker is immutable, so one
+ * may be shared between threads.
+ */
+public final class EquivalenceChecker {
+
+    /** The default number of points. */
+    public static final int DEFAULT_NUM_POINTS = 64;
+
+    /** The default relative tolerance. */
+    public static final double DEFAULT_RELATIVE_TOLERANCE = 1.0e-9;
+
+    /** The default absolute tolerance. */
+    public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1.0e-12;
+
+    /** The default seed for generating points. */
+    public static final long DEFAULT_SEED = 0x2545F4914F6CDD1DL;
+
+    /** The number of points in the first block. */
+    static final int FIRST_BLOCK_SIZE = 8;
+
+    /** The number of points beyond the first block below which a candidate is checked sequentially. */
+    private static final int PARALLEL_THRESHOLD = 4 * BatchEvaluator.BLOCK_SIZE;
+
+    /** The number of candidates each task of {@code checkAll} handles without splitting further. */
+    private static final int CANDIDATE_CHUNK_SIZE = 16;
+
+    /** The maximum number of points drawn for each point kept, when the reference is undefined at some points. */
+    private static final int MAX_DRAWS_PER_POINT = 4;
+
+    /** The variable names, in sorted order. */
+    private final String[] names;
+
+    /** The points, in blocks; {@code blocks[b][v]} is the column of values of variable {@code v} in block {@code b}. */
+    private final double[][][] blocks;
+
+    /** The reference values at the points, in blocks. */
+    private final double[][] expected;
+
+    /** The total number of points. */
+    private final int numPoints;
+
+    /** The relative tolerance. */
+    private final double relativeTolerance;
+
+    /** The absolute tolerance. */
+    private final double absoluteTolerance;
+
+    /** The pool on which to check in parallel. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new {@code EquivalenceChecker} with the default number of points, tolerances, and seed, that runs
+     * parallel work on the common {@code ForkJoinPool}.
+     *
+     * @param reference the reference expression
+     * @param domains   the domain of each variable (these may include variables the reference does not reference)
+     * @throws IllegalArgumentException if the reference or domains is null, the reference references a variable with
+     *                                  no domain, or a domain is empty or not finite
+     */
+    public EquivalenceChecker(final Expr reference, final Map<String, RealInterval> domains) {
+
+        this(reference, domains, DEFAULT_NUM_POINTS, DEFAULT_RELATIVE_TOLERANCE, DEFAULT_ABSOLUTE_TOLERANCE,
+                DEFAULT_SEED, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code EquivalenceChecker}.
+     *
+     * @param reference            the reference expression
+     * @param domains              the domain of each variable (these may include variables the reference does not
+     *                             reference)
+     * @param theNumPoints         the number of points at which to compare
+     * @param theRelativeTolerance the relative tolerance
+     * @param theAbsoluteTolerance the absolute tolerance
+     * @param seed                 the seed for generating points
+     * @param thePool              the pool on which to check in parallel
+     * @throws IllegalArgumentException if the reference, domains, or pool is null, the reference references a
+     *                                  variable with no domain, a domain is empty or not finite, the number of points
+     *                                  is not positive, or a tolerance is negative
+     */
+    public EquivalenceChecker(final Expr reference, final Map<String, RealInterval> domains, final int theNumPoints,
+                              final double theRelativeTolerance, final double theAbsoluteTolerance, final long seed,
+                              final ForkJoinPool thePool) {
+
+        if (reference == null) {
+            throw new IllegalArgumentException("Reference expression may not be null");
+        }
+        if (domains == null) {
+            throw new IllegalArgumentException("Domains may not be null");
+        }
+        if (thePool == null) {
+            throw new IllegalArgumentException("Pool may not be null");
+        }
+        if (theNumPoints <= 0) {
+            throw new IllegalArgumentException("Number of points must be positive");
+        }
+        if (!(theRelativeTolerance >= 0.0 && theAbsoluteTolerance >= 0.0)) {
+            throw new IllegalArgumentException("Tolerances may not be negative");
+        }
+
+        this.names = new TreeSet<>(domains.keySet()).toArray(new String[0]);
+        final int numVariables = this.names.length;
+        final double[] lower = new double[numVariables];
+        final double[] upper = new double[numVariables];
+        for (int v = 0; v < numVariables; ++v) {
+            final RealInterval domain = domains.get(this.names[v]);
+            lower[v] = domain.lowerBound.doubleValue();
+            upper[v] = domain.upperBound.doubleValue();
+            if (!(Double.isFinite(lower[v]) && Double.isFinite(upper[v]) && lower[v] <= upper[v])) {
+                throw new IllegalArgumentException("Domain of '" + this.names[v] + "' is empty or not finite");
+            }
+        }
+
+        final BatchEvaluator referenceEvaluator = BatchEvaluator.of(reference, this.names);
+
+        // Draw points a block at a time, keeping those at which the reference is defined
+        final double[][] points = new double[numVariables][theNumPoints];
+        final double[] values = new double[theNumPoints];
+        final double[][] draws = new double[numVariables][BatchEvaluator.BLOCK_SIZE];
+        final double[] drawValues = new double[BatchEvaluator.BLOCK_SIZE];
+        final SplittableRandom random = new SplittableRandom(seed);
+
+        int kept = 0;
+        int drawn = 0;
+        final int maxDraws = theNumPoints * MAX_DRAWS_PER_POINT;
+        while (kept < theNumPoints && drawn < maxDraws) {
+            final int count = Math.min(BatchEvaluator.BLOCK_SIZE, maxDraws - drawn);
+            for (int v = 0; v < numVariables; ++v) {
+                final double[] column = draws[v];
+                final double width = upper[v] - lower[v];
+                for (int i = 0; i < count; ++i) {
+                    column[i] = lower[v] + width * random.nextDouble();
+                }
+            }
+            referenceEvaluator.evaluate(draws, count, drawValues);
+            drawn += count;
+
+            for (int i = 0; i < count && kept < theNumPoints; ++i) {
+                if (Double.isFinite(drawValues[i])) {
+                    for (int v = 0; v < numVariables; ++v) {
+                        points[v][kept] = draws[v][i];
+                    }
+                    values[kept] = drawValues[i];
+                    ++kept;
+                }
+            }
+        }
+
+        this.numPoints = kept;
+        this.blocks = makeBlocks(points, kept);
+        this.expected = new double[this.blocks.length][];
+        int start = 0;
+        for (int b = 0; b < this.blocks.length; ++b) {
+            final int len = blockLength(b, kept);
+            this.expected[b] = Arrays.copyOfRange(values, start, start + len);
+            start += len;
+        }
+
+        this.relativeTolerance = theRelativeTolerance;
+        this.absoluteTolerance = theAbsoluteTolerance;
+        this.pool = thePool;
+    }
+
+    /**
+     * Gets the length of a block.  The first block has {@code FIRST_BLOCK_SIZE} points, and the rest have
+     * {@code BatchEvaluator.BLOCK_SIZE}, except that the last block may be shorter.
+     *
+     * @param block the block index
+     * @param count the total number of points
+     * @return the number of points in the block
+     */
+    private static int blockLength(final int block, final int count) {
+
+        final int start = FIRST_BLOCK_SIZE + (block - 1) * BatchEvaluator.BLOCK_SIZE;
+
+        return block == 0 ? Math.min(FIRST_BLOCK_SIZE, count) : Math.min(BatchEvaluator.BLOCK_SIZE, count - start);
+    }
+
+    /**
+     * Divides columns of points into blocks.
+     *
+     * @param points the columns of points
+     * @param count  the number of points in each column to use
+     * @return the blocks
+     */
+    private static double[][][] makeBlocks(final double[][] points, final int count) {
+
+        final int first = Math.min(FIRST_BLOCK_SIZE, count);
+        final int rest = count - first;
+        final int numBlocks = (first > 0 ? 1 : 0) + (rest + BatchEvaluator.BLOCK_SIZE - 1) / BatchEvaluator.BLOCK_SIZE;
+
+        final double[][][] result = new double[numBlocks][points.length][];
+
+        int start = 0;
+        for (int b = 0; b < numBlocks; ++b) {
+            final int len = blockLength(b, count);
+            for (int v = 0; v < points.length; ++v) {
+                result[b][v] = Arrays.copyOfRange(points[v], start, start + len);
+            }
+            start += len;
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the number of points at which candidates are compared (fewer than the number requested if the reference was
+     * undefined at too many of the points drawn).
+     *
+     * @return the number of points
+     */
+    public int getNumPoints() {
+
+        return this.numPoints;
+    }
+
+    /**
+     * Gets the variable names, in the order in which their values are stored in each point.
+     *
+     * @return a copy of the variable names
+     */
+    public String[] getVariableNames() {
+
+        return this.names.clone();
+    }
+
+    /**
+     * Checks whether a candidate expression is equivalent to the reference.  A candidate is undetermined if it is
+     * defined at fewer than half the points.
+     *
+     * @param candidate the candidate expression
+     * @return the result; {@code NOT_EQUIVALENT} if the candidate is null or references a variable with no domain
+     */
+    public EEquivalence check(final Expr candidate) {
+
+        EEquivalence result = EEquivalence.NOT_EQUIVALENT;
+
+        BatchEvaluator evaluator = null;
+        if (candidate != null) {
+            try {
+                evaluator = BatchEvaluator.of(candidate, this.names);
+            } catch (final IllegalArgumentException ex) {
+                // The candidate references a variable with no domain, so it is not equivalent
+            }
+        }
+
+        if (evaluator != null) {
+            final int numBlocks = this.blocks.length;
+            final double[] out = new double[BatchEvaluator.BLOCK_SIZE];
+            int compared = numBlocks == 0 ? 0 : compareBlock(evaluator, 0, out);
+
+            if (compared >= 0 && numBlocks > 1) {
+                if (this.numPoints - FIRST_BLOCK_SIZE < PARALLEL_THRESHOLD) {
+                    for (int b = 1; b < numBlocks; ++b) {
+                        final int blockCompared = compareBlock(evaluator, b, out);
+                        if (blockCompared < 0) {
+                            compared = -1;
+                            break;
+                        }
+                        compared += blockCompared;
+                    }
+                } else {
+                    final AtomicBoolean mismatch = new AtomicBoolean(false);
+                    final AtomicInteger total = new AtomicInteger(compared);
+                    this.pool.invoke(new CompareTask(evaluator, 1, numBlocks, mismatch, total));
+                    compared = mismatch.get() ? -1 : total.get();
+                }
+            }
+
+            if (compared >= 0) {
+                result = compared > 0 && compared * 2 >= this.numPoints ? EEquivalence.EQUIVALENT
+                        : EEquivalence.UNDETERMINED;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether each of a list of candidate expressions is equivalent to the reference, checking candidates in
+     * parallel.
+     *
+     * @param candidates the candidate expressions
+     * @return the result for each candidate, in the order given
+     */
+    public EEquivalence[] checkAll(final List<Expr> candidates) {
+
+        final Expr[] array = candidates.toArray(new Expr[0]);
+        final EEquivalence[] results = new EEquivalence[array.length];
+
+        if (array.length > 0) {
+            this.pool.invoke(new CheckAllTask(array, 0, array.length, results));
+        }
+
+        return results;
+    }
+
+    /**
+     * Compares a candidate with the reference over one block of points.
+     *
+     * @param evaluator the candidate evaluator
+     * @param block     the block index
+     * @param out       an array in which to store candidate values (at least as long as the block)
+     * @return the number of points at which both expressions are defined; -1 if they differ at some point
+     */
+    private int compareBlock(final BatchEvaluator evaluator, final int block, final double[] out) {
+
+        final double[] refValues = this.expected[block];
+        final int len = refValues.length;
+
+        evaluator.evaluate(this.blocks[block], len, out);
+
+        int compared = 0;
+        for (int i = 0; i < len; ++i) {
+            final double actual = out[i];
+            if (Double.isFinite(actual)) {
+                final double ref = refValues[i];
+                final double scale = Math.max(Math.abs(ref), Math.abs(actual));
+                if (Math.abs(actual - ref) > Math.max(this.absoluteTolerance, this.relativeTolerance * scale)) {
+                    compared = -1;
+                    break;
+                }
+                ++compared;
+            }
+        }
+
+        return compared;
+    }
+
+    /**
+     * A task that compares a candidate with the reference over a range of blocks, splitting the range in half until it
+     * is one block.  Tasks stop early once any task finds a mismatch.
+     */
+    private final class CompareTask extends RecursiveAction {
+
+        /** The candidate evaluator. */
+        private final BatchEvaluator evaluator;
+
+        /** The index of the first block. */
+        private final int from;
+
+        /** The index after the last block. */
+        private final int to;
+
+        /** The flag set when a mismatch is found. */
+        private final AtomicBoolean mismatch;
+
+        /** The accumulated number of points at which both expressions are defined. */
+        private final AtomicInteger compared;
+
+        /**
+         * Constructs a new {@code CompareTask}.
+         *
+         * @param theEvaluator the candidate evaluator
+         * @param theFrom      the index of the first block
+         * @param theTo        the index after the last block
+         * @param theMismatch  the flag set when a mismatch is found
+         * @param theCompared  the accumulated number of points at which both expressions are defined
+         */
+        CompareTask(final BatchEvaluator theEvaluator, final int theFrom, final int theTo,
+                    final AtomicBoolean theMismatch, final AtomicInteger theCompared) {
+
+            super();
+
+            this.evaluator = theEvaluator;
+            this.from = theFrom;
+            this.to = theTo;
+            this.mismatch = theMismatch;
+            this.compared = theCompared;
+        }
+
+        /**
+         * Compares the blocks.
+         */
+        @Override
+        protected void compute() {
+
+            if (!this.mismatch.get()) {
+                if (this.to - this.from == 1) {
+                    final double[] out = new double[BatchEvaluator.BLOCK_SIZE];
+                    final int blockCompared = compareBlock(this.evaluator, this.from, out);
+                    if (blockCompared < 0) {
+                        this.mismatch.set(true);
+                    } else {
+                        this.compared.addAndGet(blockCompared);
+                    }
+                } else {
+                    final int mid = (this.from + this.to) >>> 1;
+                    invokeAll(new CompareTask(this.evaluator, this.from, mid, this.mismatch, this.compared),
+                            new CompareTask(this.evaluator, mid, this.to, this.mismatch, this.compared));
+                }
+            }
+        }
+    }
+
+    /**
+     * A task that checks a range of candidates, splitting the range in half until it is no larger than the chunk size.
+     */
+    private final class CheckAllTask extends RecursiveAction {
+
+        /** The candidates. */
+        private final Expr[] candidates;
+
+        /** The index of the first candidate to check. */
+        private final int from;
+
+        /** The index after the last candidate to check. */
+        private final int to;
+
+        /** The array in which to store results. */
+        private final EEquivalence[] results;
+
+        /**
+         * Constructs a new {@code CheckAllTask}.
+         *
+         * @param theCandidates the candidates
+         * @param theFrom       the index of the first candidate to check
+         * @param theTo         the index after the last candidate to check
+         * @param theResults    the array in which to store results
+         */
+        CheckAllTask(final Expr[] theCandidates, final int theFrom, final int theTo, final EEquivalence[] theResults) {
+
+            super();
+
+            this.candidates = theCandidates;
+            this.from = theFrom;
+            this.to = theTo;
+            this.results = theResults;
+        }
+
+        /**
+         * Checks the candidates.
+         */
+        @Override
+        protected void compute() {
+
+            if (this.to - this.from <= CANDIDATE_CHUNK_SIZE) {
+                for (int i = this.from; i < this.to; ++i) {
+                    this.results[i] = check(this.candidates[i]);
+                }
+            } else {
+                final int mid = (this.from + this.to) >>> 1;
+                invokeAll(new CheckAllTask(this.candidates, this.from, mid, this.results),
+                        new CheckAllTask(this.candidates, mid, this.to, this.results));
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package dev.mathops.math.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An evaluation of one expression that is kept up to date as variable values change one at a time, as when a graph is
+ * redrawn while a slider moves.
+ *
+ * <p>
+ * The session caches the value of each expression and function node.  When the session starts, it records which
+ * variables each node depends on and computes the values of nodes that depend on none (these are never computed
+ * again).  When a variable changes, only the cached values of nodes that depend on that variable are discarded, so
+ * the next evaluation recomputes the paths from that variable's occurrences to the root and reuses every other
+ * cached value.
+ *
+ * <p>
+ * For an expression interned by an {@code ExprInterner}, a shared subexpression is cached once however many times it
+ * occurs.  Sessions are not thread-safe.
+ */
+public final class EvaluationSession {
+
+    /** The expression. */
+    private final Expr expr;
+
+    /** The current variable values. */
+    private final VariableValues values;
+
+    /** The cached values of nodes, keyed by node identity. */
+    private final Map<Object, Number> cache;
+
+    /** For each variable, the cacheable nodes whose values depend on it. */
+    private final Map<String, List<Object>> dependents;
+
+    /** True if the cached value of the expression is current. */
+    private boolean current;
+
+    /** The value of the expression, when current. */
+    private Number value;
+
+    /**
+     * Constructs a new {@code EvaluationSession} with no variable values set.
+     *
+     * @param theExpr the expression
+     * @throws IllegalArgumentException if the expression is null
+     */
+    public EvaluationSession(final Expr theExpr) {
+
+        if (theExpr == null) {
+            throw new IllegalArgumentException("Expression may not be null");
+        }
+
+        this.expr = theExpr;
+        this.values = new VariableValues();
+        this.cache = new IdentityHashMap<>(32);
+        this.dependents = new HashMap<>(10);
+
+        collectExpr(theExpr, new IdentityHashMap<>(32));
+    }
+
+    /**
+     * Gets the expression.
+     *
+     * @return the expression
+     */
+    public Expr getExpr() {
+
+        return this.expr;
+    }
+
+    /**
+     * Tests whether the expression depends on a variable.
+     *
+     * @param name the variable name
+     * @return true if the expression references the variable
+     */
+    public boolean dependsOn(final String name) {
+
+        return this.dependents.containsKey(name);
+    }
+
+    /**
+     * Sets a variable value, discarding the cached values of nodes that depend on it.  Setting a variable to its
+     * current value, or setting a variable the expression does not reference, discards nothing.
+     *
+     * @param name     the variable name
+     * @param newValue the new value (null to un-set)
+     */
+    public void set(final String name, final Number newValue) {
+
+        final Number oldValue = this.values.get(name);
+
+        if (newValue == null ? oldValue != null : !newValue.equals(oldValue)) {
+            this.values.set(name, newValue);
+
+            final List<Object> affected = this.dependents.get(name);
+            if (affected != null) {
+                for (final Object node : affected) {
+                    this.cache.remove(node);
+                }
+                this.current = false;
+            }
+        }
+    }
+
+    /**
+     * Gets the value of the expression for the current variable values, recomputing only what has changed.
+     *
+     * @return the value; null if unable to evaluate (for example, if a variable is not set)
+     */
+    public Number getValue() {
+
+        if (!this.current) {
+            this.value = this.expr.eval(this.values, this.cache);
+            this.current = true;
+        }
+
+        return this.value;
+    }
+
+    /**
+     * Tests whether a node's value is cached (for testing).
+     *
+     * @param node the node
+     * @return true if the node's value is cached
+     */
+    boolean isCached(final Object node) {
+
+        return this.cache.containsKey(node);
+    }
+
+    /**
+     * Records the variables an expression depends on, computing its value now if it depends on none.
+     *
+     * @param node    the expression
+     * @param visited the variables each node visited so far depends on
+     * @return the variables the expression depends on
+     */
+    private Set<String> collectExpr(final Expr node, final Map<Object, Set<String>> visited) {
+
+        Set<String> vars = visited.get(node);
+
+        if (vars == null) {
+            vars = new HashSet<>(4);
+            final int numTerms = node.getNumTerms();
+            for (int i = 0; i < numTerms; ++i) {
+                final Term term = node.getTerm(i);
+                final int numFactors = term.getNumFactors();
+                for (int j = 0; j < numFactors; ++j) {
+                    vars.addAll(collectFactor(term.getFactor(j), visited));
+                }
+            }
+            record(node, vars, visited);
+        }
+
+        return vars;
+    }
+
+    /**
+     * Records the variables a factor depends on.
+     *
+     * @param factor  the factor
+     * @param visited the variables each node visited so far depends on
+     * @return the variables the factor depends on
+     */
+    private Set<String> collectFactor(final Factor factor, final Map<Object, Set<String>> visited) {
+
+        final Expr parenthesized = factor.getParenthesized();
+        final FunctionOf1 function1 = factor.getFunctionOf1();
+        final FunctionOf2 function2 = factor.getFunctionOf2();
+        final String varName = factor.getVarName();
+
+        Set<String> vars = Collections.emptySet();
+
+        if (parenthesized != null) {
+            vars = collectExpr(parenthesized, visited);
+        } else if (function1 != null) {
+            vars = visited.get(function1);
+            if (vars == null) {
+                vars = collectExpr(function1.getArgument(), visited);
+                record(function1, vars, visited);
+            }
+        } else if (function2 != null) {
+            vars = visited.get(function2);
+            if (vars == null) {
+                vars = new HashSet<>(collectExpr(function2.getArgument1(), visited));
+                vars.addAll(collectExpr(function2.getArgument2(), visited));
+                record(function2, vars, visited);
+            }
+        } else if (varName != null) {
+            vars = Collections.singleton(varName);
+        }
+
+        return vars;
+    }
+
+    /**
+     * Records a cacheable node's dependencies.  A node that depends on no variables is evaluated now, and its value is
+     * cached for the life of the session.
+     *
+     * @param node    the node (an {@code Expr}, {@code FunctionOf1}, or {@code FunctionOf2})
+     * @param vars    the variables the node depends on
+     * @param visited the variables each node visited so far depends on
+     */
+    private void record(final Object node, final Set<String> vars, final Map<Object, Set<String>> visited) {
+
+        visited.put(node, vars);
+
+        if (vars.isEmpty()) {
+            // Children that are constant were evaluated first, so this reuses their cached values
+            if (node instanceof final Expr e) {
+                e.eval(this.values, this.cache);
+            } else if (node instanceof final FunctionOf1 f) {
+                f.eval(this.values, this.cache);
+            } else if (node instanceof final FunctionOf2 f) {
+                f.eval(this.values, this.cache);
+            }
+        } else {
+            for (final String name : vars) {
+                this.dependents.computeIfAbsent(name, key -> new ArrayList<>(8)).add(node);
+            }
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package dev.mathops.math.expression;
 
 import dev.mathops.math.Add;
+import dev.mathops.math.ExactAccumulator;
 import dev.mathops.math.NumberUtils;
 import dev.mathops.math.expression.ExpressionTokens.PlusMinusTok;
+import dev.mathops.math.set.number.RealInterval;
 import dev.mathops.text.lexparse.AbstractProduction;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An immutable expression.
+ *
+ * <p>
+ * An expression, once constructed (or parsed), is never modified by evaluation, differentiation, or simplification,
+ * so a single expression may be shared and evaluated by several threads at once, provided each thread supplies its
+ * own variable values (a {@code VariableValues} or {@code VariableFrame} is not itself thread-safe).  Binding a
+ * {@code VariableLayout} records slot hints in variable references; a hint is only an optimization and is checked on
+ * every read, so binding while other threads evaluate never produces a wrong result.
  */
 public class Expr extends AbstractProduction {
 
@@ -19,6 +31,9 @@ public class Expr extends AbstractProduction {
     /** A flag to indicate this expression is already simplified. */
     private final boolean simplified;
 
+    /** The structural hash code, computed when first needed (0 until then). */
+    private int hash;
+
     /**
      * Constructs a new synthetic {@code Expr} consisting of a single term.
      *
@@ -117,6 +132,16 @@ public class Expr extends AbstractProduction {
         this.simplified = isSimplified;
     }
 
+    /**
+     * Tests whether the expression is marked as simplified.
+     *
+     * @return true if simplified
+     */
+    final boolean isSimplified() {
+
+        return this.simplified;
+    }
+
     /**
      * Gets the total number of terms in the expression.
      *
@@ -183,25 +208,181 @@ public class Expr extends AbstractProduction {
      * @param variables variable values
      * @return the result; null if unable to evaluate
      */
-    public final Number eval(final VariableValues variables) {
+    public final Number eval(final IVariableSource variables) {
+
+        return eval(variables, null);
+    }
+
+    /**
+     * Evaluates the expression, computing each distinct node only once.  For an expression interned by an
+     * {@code ExprInterner}, where structurally equal subexpressions are the same object, this evaluates each common
+     * subexpression once rather than once per occurrence.
+     *
+     * @param variables variable values
+     * @return the result; null if unable to evaluate
+     */
+    public final Number evalShared(final IVariableSource variables) {
+
+        return eval(variables, new IdentityHashMap<>(32));
+    }
+
+    /**
+     * Evaluates the expression, reusing values already computed during the same evaluation.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    final Number eval(final IVariableSource variables, final Map<Object, Number> memo) {
+
+        final Number result;
+
+        if (memo == null) {
+            result = sum(variables, null);
+        } else if (memo.containsKey(this)) {
+            result = memo.get(this);
+        } else {
+            result = sum(variables, memo);
+            memo.put(this, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the sum of the terms.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    private Number sum(final IVariableSource variables, final Map<Object, Number> memo) {
+
+        final int numTerms = this.terms.size();
 
         Number total = null;
 
-        for (final Term term : this.terms) {
-            final Number value = term.eval(variables);
-            if (value == null) {
-                total = null;
-                break;
-            } else if (total == null) {
-                total = value;
-            } else {
-                total = Add.numberPlusNumber(total, value);
+        if (numTerms == 1) {
+            total = this.terms.getFirst().eval(variables, memo);
+        } else if (numTerms > 1) {
+            // Sum into an accumulator so intermediate sums are not allocated and reduced at every step
+            final ExactAccumulator accumulator = new ExactAccumulator();
+            boolean valid = true;
+
+            for (final Term term : this.terms) {
+                final Number value = term.eval(variables, memo);
+                if (value == null) {
+                    valid = false;
+                    break;
+                }
+                accumulator.add(value);
+            }
+
+            if (valid) {
+                total = accumulator.result();
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Evaluates the expression using {@code double} arithmetic.  Unlike {@code eval}, no {@code Number} objects are
+     * created and no exact arithmetic is attempted, so rational results are rounded at each step.
+     *
+     * @param variables variable values
+     * @return the result; NaN if unable to evaluate
+     */
+    public final double evalDouble(final IVariableSource variables) {
+
+        double total = Double.NaN;
+
+        final int numTerms = this.terms.size();
+        if (numTerms > 0) {
+            total = this.terms.getFirst().evalDouble(variables);
+            for (int i = 1; i < numTerms; ++i) {
+                total += this.terms.get(i).evalDouble(variables);
             }
         }
 
         return total;
     }
 
+    /**
+     * Computes an interval guaranteed to contain the value of the expression at every point in a box of variable values
+     * where the expression is defined (where {@code evalDouble} gives a finite value).  The interval is computed with
+     * outward-rounded interval arithmetic, so it may be wider than the true range (most often where a variable occurs
+     * more than once), but never narrower.
+     *
+     * @param boxes the interval of values of each variable
+     * @return the enclosing interval, whose bounds are {@code Double} values and may be infinite; null if a variable
+     *         has no interval or an empty one, or the expression is undefined everywhere in the box
+     */
+    public final RealInterval evalInterval(final Map<String, RealInterval> boxes) {
+
+        final Map<String, double[]> intervals = new HashMap<>(boxes.size() * 2);
+        for (final Map.Entry<String, RealInterval> entry : boxes.entrySet()) {
+            final RealInterval box = entry.getValue();
+            intervals.put(entry.getKey(), IntervalArithmetic.ofBounds(box.lowerBound, box.upperBound));
+        }
+
+        final double[] result = enclose(intervals);
+
+        return result == null ? null : new RealInterval(Double.valueOf(result[0]), Double.valueOf(result[1]));
+    }
+
+    /**
+     * Computes an interval that encloses the value of the expression over a box of variable values.
+     *
+     * @param boxes the interval of values of each variable, as an array of lower and upper bound
+     * @return the enclosing interval; null if unable to evaluate
+     */
+    final double[] enclose(final Map<String, double[]> boxes) {
+
+        double[] total = null;
+
+        final int numTerms = this.terms.size();
+        if (numTerms > 0) {
+            total = this.terms.getFirst().enclose(boxes);
+            for (int i = 1; i < numTerms && total != null; ++i) {
+                final double[] value = this.terms.get(i).enclose(boxes);
+                total = value == null ? null : IntervalArithmetic.add(total, value);
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Evaluates the expression of one variable at many points, using {@code double} arithmetic.  The expression is
+     * compiled on each call; to evaluate the same expression repeatedly, create a {@code BatchEvaluator} once and reuse
+     * it.
+     *
+     * @param varName the variable name
+     * @param xs      the values of the variable
+     * @param out     the array to which to write results (at least as long as {@code xs})
+     * @throws IllegalArgumentException if the expression references another variable, or {@code out} is too short
+     */
+    public final void evalBatch(final String varName, final double[] xs, final double[] out) {
+
+        BatchEvaluator.of(this, varName).evaluate(xs, out);
+    }
+
+    /**
+     * Evaluates the expression at many points, using {@code double} arithmetic, with the values of each variable given
+     * as a column.  The number of points is the length of {@code out}.
+     *
+     * @param varNames the variable names
+     * @param columns  one column of values for each variable, in the order of {@code varNames}
+     * @param out      the array to which to write results
+     * @throws IllegalArgumentException if the expression references a variable not in {@code varNames}, the number of
+     *                                  columns does not match the number of names, or a column is too short
+     */
+    public final void evalBatch(final String[] varNames, final double[][] columns, final double[] out) {
+
+        BatchEvaluator.of(this, varNames).evaluate(columns, out.length, out);
+    }
+
     /**
      * Generates the derivative of this expression with respect to a given variable.  This operation simply
      * differentiates each term and creates a new expression from the results.
@@ -357,6 +538,46 @@ public class Expr extends AbstractProduction {
         return new Expr(nTerms, this.simplified);
     }
 
+    /**
+     * Generates a hash code based on the structure of the expression.
+     *
+     * @return the hash code
+     */
+    @Override
+    public final int hashCode() {
+
+        int h = this.hash;
+
+        if (h == 0) {
+            h = this.terms.hashCode();
+            this.hash = h;
+        }
+
+        return h;
+    }
+
+    /**
+     * Tests whether this object is structurally equal to another (whether or not either is simplified).
+     *
+     * @param obj the other object
+     * @return true if the objects are equal
+     */
+    @Override
+    public final boolean equals(final Object obj) {
+
+        final boolean equal;
+
+        if (obj == this) {
+            equal = true;
+        } else if (obj instanceof final Expr expr) {
+            equal = hashCode() == expr.hashCode() && this.terms.equals(expr.terms);
+        } else {
+            equal = false;
+        }
+
+        return equal;
+    }
+
     /**
      * Generates a string representation of the expression, which is simply the concatenation of the string
      * representation of each term, except that if the result has a leading '+' operation, that operation is removed.
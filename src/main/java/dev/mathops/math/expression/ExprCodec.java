@@ -0,0 +1,687 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, versioned binary encoding of expressions, so stored expressions can be loaded without lexing and parsing
+ * them again (for example, from a cache file written by one run and memory-mapped by the next).
+ *
+ * <p>
+ * A stream is a header (the bytes "MXPR" and a version byte) and a count, followed by that many expressions.  Each
+ * expression is written in prefix order: an opcode for each node, followed by its contents.
+ * <ul>
+ * <li>An expression is {@code EXPR} or {@code EXPR_SIMPLIFIED}, its number of terms, and its terms.</li>
+ * <li>A term is its number of factors and sign (combined in one varint), its leading factor, and then an operator
+ * byte and factor for each further factor.</li>
+ * <li>A factor is an opcode and its contents: an expression, a function ordinal and argument expressions, a symbol
+ * ordinal, a variable name, or a number.</li>
+ * </ul>
+ * Counts and exact integers are unsigned LEB128 varints (signed values zig-zag encoded), so small values take one
+ * byte; {@code BigInteger} values are length-prefixed two's complement bytes; doubles with integer values are
+ * varints and other doubles are 8 bytes.  The first occurrence of a variable name in a stream is written out in UTF-8
+ * and later occurrences refer to it by index, and decoded names are shared.
+ *
+ * <p>
+ * Token positions are not encoded: decoded nodes are synthetic, as though built by hand.  Expressions may contain
+ * numbers of types {@code Integer}, {@code Long}, {@code Double}, {@code BigInteger}, {@code Rational}, and
+ * {@code BigRational}.
+ */
+public enum ExprCodec {
+    ;
+
+    /** The format version written by this class. */
+    public static final int VERSION = 1;
+
+    /** The bytes that begin every stream. */
+    private static final byte[] MAGIC = {'M', 'X', 'P', 'R'};
+
+    /** Opcode for a missing expression. */
+    private static final int NULL = 0;
+
+    /** Opcode for an expression. */
+    private static final int EXPR = 1;
+
+    /** Opcode for an expression marked as simplified. */
+    private static final int EXPR_SIMPLIFIED = 2;
+
+    /** Opcode for a parenthesized factor. */
+    private static final int PAREN = 3;
+
+    /** Opcode for a function of one argument. */
+    private static final int FUNCTION_OF_1 = 4;
+
+    /** Opcode for a function of two arguments. */
+    private static final int FUNCTION_OF_2 = 5;
+
+    /** Opcode for a symbol. */
+    private static final int SYMBOL = 6;
+
+    /** Opcode for the first occurrence of a variable name. */
+    private static final int VARIABLE_NEW = 7;
+
+    /** Opcode for a later occurrence of a variable name. */
+    private static final int VARIABLE_REF = 8;
+
+    /** Opcode for an {@code Integer}. */
+    private static final int INTEGER = 9;
+
+    /** Opcode for a {@code Long}. */
+    private static final int LONG = 10;
+
+    /** Opcode for a {@code Double}. */
+    private static final int DOUBLE = 11;
+
+    /** Opcode for a {@code BigInteger}. */
+    private static final int BIG_INTEGER = 12;
+
+    /** Opcode for a {@code Rational}. */
+    private static final int RATIONAL = 13;
+
+    /** Opcode for a {@code BigRational}. */
+    private static final int BIG_RATIONAL = 14;
+
+    /** Opcode for a {@code Double} with an integer value, written as a varint. */
+    private static final int DOUBLE_INTEGRAL = 15;
+
+    /** The largest magnitude of a {@code Double} written as a varint (all integers up to this are exact). */
+    private static final double MAX_INTEGRAL = 9007199254740992.0;
+
+    /** Operator code for '*'. */
+    private static final int OP_TIMES = 0;
+
+    /** Operator code for '/'.  There is no code for '^', since the Term constructor rewrites '^' as "pow". */
+    private static final int OP_DIV = 1;
+
+    /** The functions of one argument, indexed by ordinal. */
+    private static final EFunctionOf1[] FUNCTIONS_OF_1 = EFunctionOf1.values();
+
+    /** The functions of two arguments, indexed by ordinal. */
+    private static final EFunctionOf2[] FUNCTIONS_OF_2 = EFunctionOf2.values();
+
+    /** The symbols, indexed by ordinal. */
+    private static final ESymbol[] SYMBOLS = ESymbol.values();
+
+    /**
+     * Encodes one expression.
+     *
+     * @param expr the expression
+     * @return the encoded stream
+     * @throws IllegalArgumentException if the expression contains a number of an unsupported type
+     */
+    public static byte[] encode(final Expr expr) {
+
+        return encode(List.of(expr));
+    }
+
+    /**
+     * Encodes a list of expressions.
+     *
+     * @param exprs the expressions (entries may be null)
+     * @return the encoded stream
+     * @throws IllegalArgumentException if an expression contains a number of an unsupported type
+     */
+    public static byte[] encode(final List<Expr> exprs) {
+
+        final Encoder encoder = new Encoder();
+
+        for (final byte b : MAGIC) {
+            encoder.writeByte(b);
+        }
+        encoder.writeByte(VERSION);
+        encoder.writeVarint(exprs.size());
+
+        for (final Expr expr : exprs) {
+            if (expr == null) {
+                encoder.writeByte(NULL);
+            } else {
+                encoder.writeExpr(expr);
+            }
+        }
+
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes a stream of expressions, from the buffer's position to its limit.
+     *
+     * @param buffer the buffer (a memory-mapped file, for example); its position is advanced past the stream
+     * @return the expressions (entries may be null if null was encoded)
+     * @throws IllegalArgumentException if the buffer does not hold a valid stream of the current version
+     */
+    public static List<Expr> decode(final ByteBuffer buffer) {
+
+        try {
+            for (final byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    throw new IllegalArgumentException("Not an encoded expression stream");
+                }
+            }
+            final int version = (int) buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported encoding version: " + version);
+            }
+
+            final Decoder decoder = new Decoder(buffer);
+            final int count = decoder.readCount();
+            final List<Expr> result = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                final int opcode = decoder.readByte();
+                result.add(opcode == NULL ? null : decoder.readExprBody(opcode));
+            }
+
+            return result;
+        } catch (final BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Encoded expression stream is truncated", ex);
+        } catch (final NumberFormatException | ArithmeticException ex) {
+            throw new IllegalArgumentException("Encoded expression stream has an invalid number", ex);
+        }
+    }
+
+    /**
+     * Decodes a stream that holds one expression.
+     *
+     * @param bytes the encoded stream
+     * @return the expression
+     * @throws IllegalArgumentException if the bytes are not a valid stream of the current version
+     */
+    public static Expr decodeExpr(final byte[] bytes) {
+
+        final List<Expr> exprs = decode(ByteBuffer.wrap(bytes));
+
+        if (exprs.size() != 1) {
+            throw new IllegalArgumentException("Stream holds " + exprs.size() + " expressions, not 1");
+        }
+
+        return exprs.getFirst();
+    }
+
+    /**
+     * Writes a list of expressions to a file, replacing its contents.
+     *
+     * @param file  the file
+     * @param exprs the expressions (entries may be null)
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(final Path file, final List<Expr> exprs) throws IOException {
+
+        Files.write(file, encode(exprs));
+    }
+
+    /**
+     * Reads a list of expressions from a file, by memory-mapping it.
+     *
+     * @param file the file
+     * @return the expressions
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file does not hold a valid stream of the current version (so a cache
+     *                                  file should be rebuilt)
+     */
+    public static List<Expr> read(final Path file) throws IOException {
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()));
+        }
+    }
+
+    /**
+     * Writes expressions to a growable byte array.
+     */
+    private static final class Encoder {
+
+        /** The bytes written. */
+        private byte[] bytes;
+
+        /** The number of bytes written. */
+        private int size;
+
+        /** The index of each variable name written so far. */
+        private final Map<String, Integer> names;
+
+        /**
+         * Constructs a new {@code Encoder}.
+         */
+        Encoder() {
+
+            this.bytes = new byte[256];
+            this.names = new HashMap<>(16);
+        }
+
+        /**
+         * Writes one byte.
+         *
+         * @param value the byte (low 8 bits are written)
+         */
+        void writeByte(final int value) {
+
+            if (this.size == this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, this.size * 2);
+            }
+            this.bytes[this.size] = (byte) value;
+            ++this.size;
+        }
+
+        /**
+         * Writes an unsigned varint.
+         *
+         * @param value the value (treated as unsigned)
+         */
+        void writeVarint(final long value) {
+
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0L) {
+                writeByte((int) (remaining & 0x7FL) | 0x80);
+                remaining >>>= 7;
+            }
+            writeByte((int) remaining);
+        }
+
+        /**
+         * Writes a signed value as a zig-zag varint.
+         *
+         * @param value the value
+         */
+        void writeSigned(final long value) {
+
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes a byte array, preceded by its length.
+         *
+         * @param data the bytes
+         */
+        void writeBytes(final byte[] data) {
+
+            writeVarint(data.length);
+            for (final byte b : data) {
+                writeByte(b);
+            }
+        }
+
+        /**
+         * Writes an expression.
+         *
+         * @param expr the expression
+         */
+        void writeExpr(final Expr expr) {
+
+            writeByte(expr.isSimplified() ? EXPR_SIMPLIFIED : EXPR);
+
+            final int numTerms = expr.getNumTerms();
+            writeVarint(numTerms);
+            for (int i = 0; i < numTerms; ++i) {
+                writeTerm(expr.getTerm(i));
+            }
+        }
+
+        /**
+         * Writes a term.
+         *
+         * @param term the term
+         */
+        private void writeTerm(final Term term) {
+
+            final int numFactors = term.getNumFactors();
+            final int minus = (int) term.getSign().op == '-' ? 1 : 0;
+            writeVarint(((long) numFactors << 1) | (long) minus);
+
+            writeFactor(term.getFactor(0));
+            for (int i = 1; i < numFactors; ++i) {
+                final int op = (int) term.getOp(i - 1).op;
+                writeByte(op == '/' ? OP_DIV : OP_TIMES);
+                writeFactor(term.getFactor(i));
+            }
+        }
+
+        /**
+         * Writes a factor.
+         *
+         * @param factor the factor
+         */
+        private void writeFactor(final Factor factor) {
+
+            final Expr parenthesized = factor.getParenthesized();
+            final FunctionOf1 function1 = factor.getFunctionOf1();
+            final FunctionOf2 function2 = factor.getFunctionOf2();
+            final Number number = factor.getNumber();
+            final String varName = factor.getVarName();
+            final ESymbol symbol = factor.getSymbol();
+
+            if (parenthesized != null) {
+                writeByte(PAREN);
+                writeExpr(parenthesized);
+            } else if (function1 != null) {
+                writeByte(FUNCTION_OF_1);
+                writeByte(function1.getFunction().ordinal());
+                writeExpr(function1.getArgument());
+            } else if (function2 != null) {
+                writeByte(FUNCTION_OF_2);
+                writeByte(function2.getFunction().ordinal());
+                writeExpr(function2.getArgument1());
+                writeExpr(function2.getArgument2());
+            } else if (number != null) {
+                writeNumber(number);
+            } else if (varName != null) {
+                final Integer index = this.names.get(varName);
+                if (index == null) {
+                    this.names.put(varName, Integer.valueOf(this.names.size()));
+                    writeByte(VARIABLE_NEW);
+                    writeBytes(varName.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    writeByte(VARIABLE_REF);
+                    writeVarint(index.longValue());
+                }
+            } else if (symbol != null) {
+                writeByte(SYMBOL);
+                writeByte(symbol.ordinal());
+            }
+        }
+
+        /**
+         * Writes a number.
+         *
+         * @param number the number
+         * @throws IllegalArgumentException if the number is of an unsupported type
+         */
+        private void writeNumber(final Number number) {
+
+            switch (number) {
+                case final Integer i -> {
+                    writeByte(INTEGER);
+                    writeSigned(i.longValue());
+                }
+                case final Long l -> {
+                    writeByte(LONG);
+                    writeSigned(l.longValue());
+                }
+                case final Double d -> {
+                    final double value = d.doubleValue();
+                    // Parsed constants are usually small integers, which take one or two bytes as varints; -0.0 is
+                    // written in full so its sign is kept
+                    if (value == Math.rint(value) && Math.abs(value) <= MAX_INTEGRAL
+                        && Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(-0.0)) {
+                        writeByte(DOUBLE_INTEGRAL);
+                        writeSigned((long) value);
+                    } else {
+                        writeByte(DOUBLE);
+                        final long bits = Double.doubleToRawLongBits(value);
+                        for (int shift = 56; shift >= 0; shift -= 8) {
+                            writeByte((int) (bits >>> shift));
+                        }
+                    }
+                }
+                case final BigInteger bi -> {
+                    writeByte(BIG_INTEGER);
+                    writeBytes(bi.toByteArray());
+                }
+                case final Rational r -> {
+                    writeByte(RATIONAL);
+                    writeSigned(r.numerator);
+                    writeVarint(r.denominator);
+                }
+                case final BigRational br -> {
+                    writeByte(BIG_RATIONAL);
+                    writeBytes(br.numerator.toByteArray());
+                    writeBytes(br.denominator.toByteArray());
+                }
+                default -> throw new IllegalArgumentException("Unsupported number type: "
+                                                               + number.getClass().getName());
+            }
+        }
+
+        /**
+         * Gets the bytes written.
+         *
+         * @return a copy of the bytes written
+         */
+        byte[] toByteArray() {
+
+            return Arrays.copyOf(this.bytes, this.size);
+        }
+    }
+
+    /**
+     * Reads expressions from a byte buffer.
+     */
+    private static final class Decoder {
+
+        /** The buffer. */
+        private final ByteBuffer buffer;
+
+        /** The variable names read so far, by index. */
+        private final List<String> names;
+
+        /**
+         * Constructs a new {@code Decoder}.
+         *
+         * @param theBuffer the buffer, positioned after the header
+         */
+        Decoder(final ByteBuffer theBuffer) {
+
+            this.buffer = theBuffer;
+            this.names = new ArrayList<>(16);
+        }
+
+        /**
+         * Reads one unsigned byte.
+         *
+         * @return the byte
+         */
+        int readByte() {
+
+            return (int) this.buffer.get() & 0xFF;
+        }
+
+        /**
+         * Reads an unsigned varint.
+         *
+         * @return the value
+         * @throws IllegalArgumentException if the varint is longer than 10 bytes
+         */
+        long readVarint() {
+
+            long value = 0L;
+            int shift = 0;
+            int b;
+            do {
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed varint");
+                }
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            return value;
+        }
+
+        /**
+         * Reads a count, which must be small enough to allocate.
+         *
+         * @return the count
+         * @throws IllegalArgumentException if the count exceeds the bytes remaining (every counted item takes at least
+         *                                  one byte)
+         */
+        int readCount() {
+
+            final long count = readVarint();
+            if (count > (long) this.buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid count: " + count);
+            }
+
+            return (int) count;
+        }
+
+        /**
+         * Reads a zig-zag encoded signed varint.
+         *
+         * @return the value
+         */
+        long readSigned() {
+
+            final long raw = readVarint();
+
+            return (raw >>> 1) ^ -(raw & 1L);
+        }
+
+        /**
+         * Reads a length-prefixed byte array.
+         *
+         * @return the bytes
+         */
+        byte[] readBytes() {
+
+            final byte[] data = new byte[readCount()];
+            this.buffer.get(data);
+
+            return data;
+        }
+
+        /**
+         * Reads an expression, with its opcode.
+         *
+         * @return the expression
+         */
+        Expr readExpr() {
+
+            return readExprBody(readByte());
+        }
+
+        /**
+         * Reads an expression whose opcode has been read.
+         *
+         * @param opcode the opcode
+         * @return the expression
+         * @throws IllegalArgumentException if the opcode is not an expression opcode
+         */
+        Expr readExprBody(final int opcode) {
+
+            if (opcode != EXPR && opcode != EXPR_SIMPLIFIED) {
+                throw new IllegalArgumentException("Expected an expression, found opcode " + opcode);
+            }
+
+            final int numTerms = readCount();
+            final List<Term> terms = new ArrayList<>(numTerms);
+            for (int i = 0; i < numTerms; ++i) {
+                terms.add(readTerm());
+            }
+
+            return new Expr(terms, opcode == EXPR_SIMPLIFIED);
+        }
+
+        /**
+         * Reads a term.
+         *
+         * @return the term
+         */
+        private Term readTerm() {
+
+            final long header = readVarint();
+            final int numFactors = (int) (header >>> 1);
+            if (numFactors < 1 || numFactors > this.buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid factor count: " + numFactors);
+            }
+            final ExpressionTokens.PlusMinusTok sign = (header & 1L) == 0L ? ExpressionTokens.PlusMinusTok.PLUS
+                    : ExpressionTokens.PlusMinusTok.MINUS;
+
+            final Factor leading = readFactor();
+            final List<ExpressionTokens.TimesDivCaretTok> ops = new ArrayList<>(numFactors - 1);
+            final List<Factor> factors = new ArrayList<>(numFactors - 1);
+            for (int i = 1; i < numFactors; ++i) {
+                final int op = readByte();
+                ops.add(switch (op) {
+                    case OP_TIMES -> ExpressionTokens.TimesDivCaretTok.TIMES;
+                    case OP_DIV -> ExpressionTokens.TimesDivCaretTok.DIV;
+                    default -> throw new IllegalArgumentException("Invalid operator code: " + op);
+                });
+                factors.add(readFactor());
+            }
+
+            return new Term(sign, leading, ops, factors);
+        }
+
+        /**
+         * Reads a factor.
+         *
+         * @return the factor
+         * @throws IllegalArgumentException if the factor's opcode or contents are invalid
+         */
+        private Factor readFactor() {
+
+            final int opcode = readByte();
+
+            return switch (opcode) {
+                case PAREN -> new Factor(readExpr());
+                case FUNCTION_OF_1 -> {
+                    final EFunctionOf1 function = FUNCTIONS_OF_1[readOrdinal(FUNCTIONS_OF_1.length)];
+                    yield new Factor(new FunctionOf1(function, readExpr()));
+                }
+                case FUNCTION_OF_2 -> {
+                    final EFunctionOf2 function = FUNCTIONS_OF_2[readOrdinal(FUNCTIONS_OF_2.length)];
+                    final Expr arg1 = readExpr();
+                    yield new Factor(new FunctionOf2(function, arg1, readExpr()));
+                }
+                case SYMBOL -> new Factor(SYMBOLS[readOrdinal(SYMBOLS.length)]);
+                case VARIABLE_NEW -> {
+                    final String name = new String(readBytes(), StandardCharsets.UTF_8);
+                    this.names.add(name);
+                    yield new Factor(name);
+                }
+                case VARIABLE_REF -> {
+                    final long index = readVarint();
+                    if (index >= (long) this.names.size()) {
+                        throw new IllegalArgumentException("Invalid variable name index: " + index);
+                    }
+                    yield new Factor(this.names.get((int) index));
+                }
+                case INTEGER -> new Factor(Integer.valueOf((int) readSigned()));
+                case LONG -> new Factor(Long.valueOf(readSigned()));
+                case DOUBLE -> new Factor(Double.valueOf(Double.longBitsToDouble(this.buffer.getLong())));
+                case DOUBLE_INTEGRAL -> new Factor(Double.valueOf((double) readSigned()));
+                case BIG_INTEGER -> new Factor(new BigInteger(readBytes()));
+                case RATIONAL -> {
+                    final long numerator = readSigned();
+                    yield new Factor(new Rational(numerator, readVarint()));
+                }
+                case BIG_RATIONAL -> {
+                    final BigInteger numerator = new BigInteger(readBytes());
+                    yield new Factor(new BigRational(numerator, new BigInteger(readBytes())));
+                }
+                default -> throw new IllegalArgumentException("Expected a factor, found opcode " + opcode);
+            };
+        }
+
+        /**
+         * Reads an enumeration ordinal.
+         *
+         * @param count the number of enumeration values
+         * @return the ordinal
+         * @throws IllegalArgumentException if the ordinal is out of range
+         */
+        private int readOrdinal(final int count) {
+
+            final int ordinal = readByte();
+            if (ordinal >= count) {
+                throw new IllegalArgumentException("Invalid ordinal: " + ordinal);
+            }
+
+            return ordinal;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package dev.mathops.math.expression;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compiler that lowers an {@code Expr} tree into a {@code CompiledExpr}: a linear sequence of instructions over a
+ * register file of {@code double} values, with variables resolved to register indexes.  Evaluating the result walks
+ * no tree, boxes no intermediate values, and performs no allocation, so it suits code that evaluates one expression
+ * many times, like plotting or numeric answer checking.
+ *
+ * <p>
+ * Operations whose arguments are all constant are evaluated at compile time, and structurally equal subexpressions and
+ * function calls are evaluated once and their result reused.
+ */
+public final class ExprCompiler {
+
+    /** The builder that receives the instructions. */
+    private final ProgramBuilder builder;
+
+    /** The operand holding the value of each expression and function already emitted (compared by structure). */
+    private final Map<Object, Integer> emitted;
+
+    /**
+     * Constructs a new {@code ExprCompiler}.
+     *
+     * @param theBuilder the builder that receives the instructions
+     */
+    private ExprCompiler(final ProgramBuilder theBuilder) {
+
+        this.builder = theBuilder;
+        this.emitted = new HashMap<>(32);
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @param expr          the expression
+     * @param variableNames the names of the variables the expression may reference, in the order their values will
+     *                      be stored in the register file
+     * @return the compiled expression
+     * @throws IllegalArgumentException if the expression references a variable not in {@code variableNames}, or a
+     *                                  variable name is duplicated
+     */
+    public static CompiledExpr compile(final Expr expr, final String... variableNames) {
+
+        if (expr == null) {
+            throw new IllegalArgumentException("Expression may not be null");
+        }
+
+        final ProgramBuilder builder = new ProgramBuilder(variableNames);
+        final ExprCompiler compiler = new ExprCompiler(builder);
+        final int result = compiler.emitExpr(expr);
+
+        return builder.build(result);
+    }
+
+    /**
+     * Emits the instructions to evaluate an expression.
+     *
+     * @param expr the expression
+     * @return the operand that holds the result
+     */
+    private int emitExpr(final Expr expr) {
+
+        final Integer known = this.emitted.get(expr);
+        int sum;
+
+        if (known == null) {
+            sum = emitTerm(expr.getTerm(0), true);
+
+            final int numTerms = expr.getNumTerms();
+            for (int i = 1; i < numTerms; ++i) {
+                final Term term = expr.getTerm(i);
+                final int value = emitTerm(term, false);
+                final int opcode = (int) term.getSign().op == '-' ? CompiledExpr.SUB : CompiledExpr.ADD;
+                sum = this.builder.apply(opcode, sum, value);
+            }
+
+            this.emitted.put(expr, Integer.valueOf(sum));
+        } else {
+            sum = known.intValue();
+        }
+
+        return sum;
+    }
+
+    /**
+     * Emits the instructions to evaluate a term.
+     *
+     * @param term      the term
+     * @param applySign true to negate the result if the term's sign is '-'; false to ignore the sign
+     * @return the operand that holds the result
+     */
+    private int emitTerm(final Term term, final boolean applySign) {
+
+        // Terms hold only '*' and '/', since the Term constructor rewrites '^' as calls to "pow"
+        int result = emitFactor(term.getFactor(0));
+
+        final int numFactors = term.getNumFactors();
+        for (int i = 1; i < numFactors; ++i) {
+            final int op = (int) term.getOp(i - 1).op == '/' ? CompiledExpr.DIV : CompiledExpr.MUL;
+            final int operand = emitFactor(term.getFactor(i));
+            result = this.builder.apply(op, result, operand);
+        }
+
+        if (applySign && (int) term.getSign().op == '-') {
+            result = this.builder.apply(CompiledExpr.NEG, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Emits the instructions to evaluate a factor.
+     *
+     * @param factor the factor
+     * @return the operand that holds the result
+     * @throws IllegalArgumentException if the factor is a reference to an unknown variable
+     */
+    private int emitFactor(final Factor factor) {
+
+        final int result;
+
+        final Expr parenthesized = factor.getParenthesized();
+        final FunctionOf1 function1 = factor.getFunctionOf1();
+        final FunctionOf2 function2 = factor.getFunctionOf2();
+        final Number number = factor.getNumber();
+        final String varName = factor.getVarName();
+        final ESymbol symbol = factor.getSymbol();
+
+        if (parenthesized != null) {
+            result = emitExpr(parenthesized);
+        } else if (function1 != null) {
+            final Integer known = this.emitted.get(function1);
+            if (known == null) {
+                final int arg = emitExpr(function1.getArgument());
+                result = this.builder.apply(opcodeOf(function1.getFunction()), arg);
+                this.emitted.put(function1, Integer.valueOf(result));
+            } else {
+                result = known.intValue();
+            }
+        } else if (function2 != null) {
+            final Integer known = this.emitted.get(function2);
+            if (known == null) {
+                final int arg1 = emitExpr(function2.getArgument1());
+                final int arg2 = emitExpr(function2.getArgument2());
+                result = this.builder.apply(opcodeOf(function2.getFunction()), arg1, arg2);
+                this.emitted.put(function2, Integer.valueOf(result));
+            } else {
+                result = known.intValue();
+            }
+        } else if (number != null) {
+            result = this.builder.constant(number.doubleValue());
+        } else if (varName != null) {
+            result = this.builder.variable(varName);
+        } else if (symbol != null) {
+            result = this.builder.constant(symbol.value);
+        } else {
+            result = this.builder.constant(Double.NaN);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the opcode for a function of one argument.
+     *
+     * @param function the function
+     * @return the opcode
+     */
+    private static int opcodeOf(final EFunctionOf1 function) {
+
+        return switch (function) {
+            case ABS -> CompiledExpr.ABS;
+            case ACOS -> CompiledExpr.ACOS;
+            case ASIN -> CompiledExpr.ASIN;
+            case ATAN -> CompiledExpr.ATAN;
+            case CBRT -> CompiledExpr.CBRT;
+            case COS -> CompiledExpr.COS;
+            case EXP -> CompiledExpr.EXP;
+            case EXPM1 -> CompiledExpr.EXPM1;
+            case LOG -> CompiledExpr.LOG;
+            case LOG1P -> CompiledExpr.LOG1P;
+            case LOG10 -> CompiledExpr.LOG10;
+            case LOG2 -> CompiledExpr.LOG2;
+            case SIN -> CompiledExpr.SIN;
+            case SQRT -> CompiledExpr.SQRT;
+            case TAN -> CompiledExpr.TAN;
+            case TO_DEG -> CompiledExpr.TO_DEG;
+            case TO_RAD -> CompiledExpr.TO_RAD;
+        };
+    }
+
+    /**
+     * Gets the opcode for a function of two arguments.
+     *
+     * @param function the function
+     * @return the opcode
+     */
+    private static int opcodeOf(final EFunctionOf2 function) {
+
+        return switch (function) {
+            case ATAN2 -> CompiledExpr.ATAN2;
+            case HYPOT -> CompiledExpr.HYPOT;
+            case POW -> CompiledExpr.POW;
+        };
+    }
+}
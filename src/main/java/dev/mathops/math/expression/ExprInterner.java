@@ -0,0 +1,150 @@
+package dev.mathops.math.expression;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps structurally equal expression nodes to a single canonical instance, turning expression trees into a directed
+ * acyclic graph in which every repeated subexpression is stored once.
+ *
+ * <p>
+ * Interning rebuilds a tree from the bottom up, replacing each node by the canonical instance of its structure, so
+ * nodes that were already canonical are kept and only their ancestors are rebuilt.  Expressions produced by
+ * differentiation repeat factors heavily (each term of a product-rule expansion repeats all but one factor); interning
+ * them keeps memory proportional to the number of distinct subexpressions, and {@code Expr.evalShared} evaluates each
+ * distinct subexpression once.  Each node's structural hash is computed once and cached in the node.
+ *
+ * <p>
+ * An interner holds its canonical nodes until it is discarded, and is not thread-safe.  The expressions it returns are
+ * immutable and may be shared freely.
+ */
+public final class ExprInterner {
+
+    /** The canonical instance of each node structure. */
+    private final Map<Object, Object> canonical;
+
+    /**
+     * Constructs a new {@code ExprInterner}.
+     */
+    public ExprInterner() {
+
+        this.canonical = new HashMap<>(64);
+    }
+
+    /**
+     * Gets the number of distinct nodes interned.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+
+        return this.canonical.size();
+    }
+
+    /**
+     * Interns an expression and all of its subexpressions.
+     *
+     * @param expr the expression
+     * @return the canonical instance (structurally equal to {@code expr})
+     */
+    public Expr intern(final Expr expr) {
+
+        final int numTerms = expr.getNumTerms();
+        final List<Term> terms = new ArrayList<>(numTerms);
+        boolean changed = false;
+
+        for (int i = 0; i < numTerms; ++i) {
+            final Term term = expr.getTerm(i);
+            final Term interned = internTerm(term);
+            terms.add(interned);
+            changed = changed || interned != term;
+        }
+
+        return canonicalize(changed ? new Expr(terms, false) : expr);
+    }
+
+    /**
+     * Interns a term and all of its factors.
+     *
+     * @param term the term
+     * @return the canonical instance
+     */
+    private Term internTerm(final Term term) {
+
+        final int numFactors = term.getNumFactors();
+        final Factor leading = term.getFactor(0);
+        final Factor internedLeading = internFactor(leading);
+        boolean changed = internedLeading != leading;
+
+        final List<ExpressionTokens.TimesDivCaretTok> ops = new ArrayList<>(numFactors - 1);
+        final List<Factor> factors = new ArrayList<>(numFactors - 1);
+        for (int i = 1; i < numFactors; ++i) {
+            final Factor factor = term.getFactor(i);
+            final Factor interned = internFactor(factor);
+            ops.add(term.getOp(i - 1));
+            factors.add(interned);
+            changed = changed || interned != factor;
+        }
+
+        return canonicalize(changed ? new Term(term.getSign(), internedLeading, ops, factors) : term);
+    }
+
+    /**
+     * Interns a factor and any expressions it contains.
+     *
+     * @param factor the factor
+     * @return the canonical instance
+     */
+    private Factor internFactor(final Factor factor) {
+
+        final Expr parenthesized = factor.getParenthesized();
+        final FunctionOf1 function1 = factor.getFunctionOf1();
+        final FunctionOf2 function2 = factor.getFunctionOf2();
+
+        Factor candidate = factor;
+
+        if (parenthesized != null) {
+            final Expr interned = intern(parenthesized);
+            if (interned != parenthesized) {
+                candidate = new Factor(interned);
+            }
+        } else if (function1 != null) {
+            final Expr arg = function1.getArgument();
+            final Expr interned = intern(arg);
+            final FunctionOf1 fn = canonicalize(interned == arg ? function1
+                    : new FunctionOf1(function1.getFunction(), interned));
+            if (fn != function1) {
+                candidate = new Factor(fn);
+            }
+        } else if (function2 != null) {
+            final Expr arg1 = function2.getArgument1();
+            final Expr arg2 = function2.getArgument2();
+            final Expr interned1 = intern(arg1);
+            final Expr interned2 = intern(arg2);
+            final FunctionOf2 fn = canonicalize(interned1 == arg1 && interned2 == arg2 ? function2
+                    : new FunctionOf2(function2.getFunction(), interned1, interned2));
+            if (fn != function2) {
+                candidate = new Factor(fn);
+            }
+        }
+
+        return canonicalize(candidate);
+    }
+
+    /**
+     * Gets the canonical instance of a node, making the node canonical if no equal node has been seen.
+     *
+     * @param node the node
+     * @param <T>  the node type
+     * @return the canonical instance
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T canonicalize(final T node) {
+
+        final Object existing = this.canonical.putIfAbsent(node, node);
+
+        return existing == null ? node : (T) existing;
+    }
+}
@@ -666,6 +666,309 @@ public class ExpressionLexicalGrammar {
         }
     }
 
+    /** Exact powers of ten for the fast path of number scanning. */
+    private static final double[] POWERS_OF_TEN = {1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8,
+            1.0e9, 1.0e10, 1.0e11, 1.0e12, 1.0e13, 1.0e14, 1.0e15, 1.0e16, 1.0e17, 1.0e18, 1.0e19, 1.0e20, 1.0e21,
+            1.0e22};
+
+    /** The functions of one argument (cached, since {@code values} copies its array on each call). */
+    private static final EFunctionOf1[] FUNCTIONS_OF_1 = EFunctionOf1.values();
+
+    /** The functions of two arguments. */
+    private static final EFunctionOf2[] FUNCTIONS_OF_2 = EFunctionOf2.values();
+
+    /** The largest number of significant digits whose value is exact as a {@code double}. */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /**
+     * Scans a region of text into a token buffer, producing the same tokens as a {@code Lexer} with
+     * {@code EXPRESSION_PATTERNS} (at each position, the longest match, with ties going to the earlier pattern in that
+     * list), but without creating token objects or copying the text.  Token positions are relative to {@code start}.
+     *
+     * @param source the text (a {@code CharBuffer} over a region of a file, for example)
+     * @param start  the index of the first character to scan
+     * @param end    the index after the last character to scan
+     * @param tokens the buffer to which to write tokens (it is cleared first)
+     * @return true if the whole region was scanned; false if a character matched no pattern
+     */
+    public static boolean scan(final CharSequence source, final int start, final int end,
+                               final ExpressionTokenBuffer tokens) {
+
+        tokens.reset(source, start);
+
+        int pos = start;
+        boolean valid = true;
+
+        while (valid && pos < end) {
+            final char ch = source.charAt(pos);
+            final int rel = pos - start;
+            int len = 1;
+
+            if (isWhitespace(ch)) {
+                while (pos + len < end && isWhitespace(source.charAt(pos + len))) {
+                    ++len;
+                }
+                tokens.add(ExpressionTokenBuffer.KIND_WHITESPACE, rel, len, 0, 0.0);
+            } else if (isDigit(ch) || ch == '.') {
+                len = scanNumber(source, pos, end, tokens, rel);
+                valid = len > 0;
+            } else if (ch == '(') {
+                tokens.add(ExpressionTokenBuffer.KIND_LPAREN, rel, 1, 0, 0.0);
+            } else if (ch == ')') {
+                tokens.add(ExpressionTokenBuffer.KIND_RPAREN, rel, 1, 0, 0.0);
+            } else if (ch == '+' || ch == '-') {
+                tokens.add(ExpressionTokenBuffer.KIND_PLUS_MINUS, rel, 1, ch, 0.0);
+            } else if (ch == ',') {
+                tokens.add(ExpressionTokenBuffer.KIND_COMMA, rel, 1, 0, 0.0);
+            } else if (ch == '*' || ch == '/' || ch == '^') {
+                tokens.add(ExpressionTokenBuffer.KIND_TIMES_DIV_CARET, rel, 1, ch, 0.0);
+            } else if (ch == '{') {
+                len = scanBracedVariable(source, pos, end, tokens, rel);
+                valid = len > 0;
+            } else if (isLetter(ch)) {
+                // As in the pattern list, where the variable pattern precedes the symbol pattern, a Greek letter that
+                // names a symbol scans as a variable.
+                while (pos + len < end && isIdentifierPart(source.charAt(pos + len))) {
+                    ++len;
+                }
+                if (pos + len < end && source.charAt(pos + len) == '(') {
+                    final EFunctionOf1 function1 = functionOf1Named(source, pos, len);
+                    final EFunctionOf2 function2 = function1 == null ? functionOf2Named(source, pos, len) : null;
+                    if (function1 != null) {
+                        ++len;
+                        tokens.add(ExpressionTokenBuffer.KIND_FUNCTION_OF_1, rel, len, function1.ordinal(), 0.0);
+                    } else if (function2 != null) {
+                        ++len;
+                        tokens.add(ExpressionTokenBuffer.KIND_FUNCTION_OF_2, rel, len, function2.ordinal(), 0.0);
+                    } else {
+                        tokens.add(ExpressionTokenBuffer.KIND_VARIABLE, rel, len, 0, 0.0);
+                    }
+                } else {
+                    tokens.add(ExpressionTokenBuffer.KIND_VARIABLE, rel, len, 0, 0.0);
+                }
+            } else {
+                valid = false;
+            }
+
+            pos += len;
+        }
+
+        return valid;
+    }
+
+    /**
+     * Tests whether a character is whitespace.
+     *
+     * @param ch the character
+     * @return true if whitespace
+     */
+    private static boolean isWhitespace(final char ch) {
+
+        return ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n';
+    }
+
+    /**
+     * Tests whether a character may appear after the first character of an identifier.
+     *
+     * @param ch the character
+     * @return true if the character may appear in an identifier
+     */
+    private static boolean isIdentifierPart(final char ch) {
+
+        return ch == '_' || isLetter(ch) || isDigit(ch);
+    }
+
+    /**
+     * Scans a number token, following the rules of {@code NumberPattern}.
+     *
+     * @param source the text
+     * @param pos    the index of the first character of the number
+     * @param end    the index after the last character to scan
+     * @param tokens the buffer to which to add the token
+     * @param rel    the position of the token relative to the scanned region
+     * @return the length of the token; 0 if the characters do not form a number
+     */
+    private static int scanNumber(final CharSequence source, final int pos, final int end,
+                                  final ExpressionTokenBuffer tokens, final int rel) {
+
+        long mantissa = 0L;
+        int numDigits = 0;
+        int significant = 0;
+        int scale = 0;
+
+        int p = pos;
+        while (p < end && isDigit(source.charAt(p))) {
+            if (significant < MAX_EXACT_DIGITS + 1) {
+                mantissa = mantissa * 10L + (long) (source.charAt(p) - '0');
+                if (mantissa != 0L) {
+                    ++significant;
+                }
+            } else {
+                ++significant;
+            }
+            ++numDigits;
+            ++p;
+        }
+        if (p < end && source.charAt(p) == '.') {
+            ++p;
+            while (p < end && isDigit(source.charAt(p))) {
+                if (significant < MAX_EXACT_DIGITS + 1) {
+                    mantissa = mantissa * 10L + (long) (source.charAt(p) - '0');
+                    if (mantissa != 0L) {
+                        ++significant;
+                    }
+                    --scale;
+                } else {
+                    ++significant;
+                }
+                ++numDigits;
+                ++p;
+            }
+        }
+
+        int length = 0;
+
+        if (numDigits > 0) {
+            final int mantissaEnd = p;
+            int exponent = 0;
+            boolean exponentValid = true;
+
+            if (p < end && (source.charAt(p) == 'E' || source.charAt(p) == 'e')) {
+                ++p;
+                boolean negative = false;
+                if (p < end && (source.charAt(p) == '+' || source.charAt(p) == '-')) {
+                    negative = source.charAt(p) == '-';
+                    ++p;
+                }
+                final int digitsStart = p;
+                while (p < end && isDigit(source.charAt(p))) {
+                    // Large exponents leave the fast path, so it only matters that they stay large
+                    if (exponent < 10000) {
+                        exponent = exponent * 10 + (source.charAt(p) - '0');
+                    }
+                    ++p;
+                }
+                if (p == digitsStart) {
+                    p = mantissaEnd;
+                    exponent = 0;
+                } else if (negative) {
+                    exponent = -exponent;
+                }
+            }
+
+            final int power = exponent + scale;
+            final double value;
+            if (mantissa == 0L && significant == 0) {
+                value = 0.0;
+            } else if (significant <= MAX_EXACT_DIGITS && power >= 0 && power < POWERS_OF_TEN.length) {
+                // Both operands are exact, so the one rounding of the product gives the correctly rounded value
+                value = (double) mantissa * POWERS_OF_TEN[power];
+            } else if (significant <= MAX_EXACT_DIGITS && power < 0 && -power < POWERS_OF_TEN.length) {
+                value = (double) mantissa / POWERS_OF_TEN[-power];
+            } else {
+                value = Double.parseDouble(source.subSequence(pos, p).toString());
+            }
+
+            length = p - pos;
+            tokens.add(ExpressionTokenBuffer.KIND_NUMBER, rel, length, 0, value);
+        }
+
+        return length;
+    }
+
+    /**
+     * Scans a variable token whose name is enclosed in braces, following the rules of {@code VariablePattern}.
+     *
+     * @param source the text
+     * @param pos    the index of the opening brace
+     * @param end    the index after the last character to scan
+     * @param tokens the buffer to which to add the token
+     * @param rel    the position of the token relative to the scanned region
+     * @return the length of the token; 0 if the characters do not form a variable token
+     */
+    private static int scanBracedVariable(final CharSequence source, final int pos, final int end,
+                                          final ExpressionTokenBuffer tokens, final int rel) {
+
+        int length = 0;
+
+        if (pos + 2 < end && isLetter(source.charAt(pos + 1))) {
+            int p = pos + 2;
+            while (p < end && isIdentifierPart(source.charAt(p))) {
+                ++p;
+            }
+            if (p < end && source.charAt(p) == '}') {
+                length = p - pos + 1;
+                tokens.add(ExpressionTokenBuffer.KIND_VARIABLE, rel, length, 0, 0.0);
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Tests whether a region of text is the name of a function of one argument.
+     *
+     * @param source the text
+     * @param pos    the start of the region
+     * @param len    the length of the region
+     * @return the function; null if none has that name
+     */
+    private static EFunctionOf1 functionOf1Named(final CharSequence source, final int pos, final int len) {
+
+        EFunctionOf1 result = null;
+
+        for (final EFunctionOf1 function : FUNCTIONS_OF_1) {
+            if (regionEquals(source, pos, len, function.label)) {
+                result = function;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether a region of text is the name of a function of two arguments.
+     *
+     * @param source the text
+     * @param pos    the start of the region
+     * @param len    the length of the region
+     * @return the function; null if none has that name
+     */
+    private static EFunctionOf2 functionOf2Named(final CharSequence source, final int pos, final int len) {
+
+        EFunctionOf2 result = null;
+
+        for (final EFunctionOf2 function : FUNCTIONS_OF_2) {
+            if (regionEquals(source, pos, len, function.label)) {
+                result = function;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether a region of text equals a string.
+     *
+     * @param source the text
+     * @param pos    the start of the region
+     * @param len    the length of the region
+     * @param str    the string
+     * @return true if the region equals the string
+     */
+    private static boolean regionEquals(final CharSequence source, final int pos, final int len, final String str) {
+
+        boolean equal = str.length() == len;
+
+        for (int i = 0; equal && i < len; ++i) {
+            equal = source.charAt(pos + i) == str.charAt(i);
+        }
+
+        return equal;
+    }
+
     /** The list of all expression lexical patterns, to passed to the Lexer. */
     public static final List<ILexicalPattern> EXPRESSION_PATTERNS = List.of(WHITESPACE, NUMBER, LPAREN, RPAREN,
             PLUS_MINUS, COMMA, TIMES_DIV_CARET, VARIABLE, FUNCTION_OF_1, FUNCTION_OF_2, SYMBOL);
@@ -10,9 +10,23 @@ import java.util.List;
 
 /**
  * A parser that generates an expression object from a string.
+ *
+ * <p>
+ * Parsing goes through a shared {@code ParsedExpressionCache}, so repeated requests to parse the same string return the
+ * same (immutable) expression without lexing or parsing it again.
  */
 public class ExpressionParser {
 
+    /** The default maximum number of cached expressions. */
+    public static final int DEFAULT_CACHE_ENTRIES = 4096;
+
+    /** The default maximum total length of the source strings of cached expressions. */
+    public static final long DEFAULT_CACHE_WEIGHT = 1024L * 1024L;
+
+    /** The shared cache of parsed expressions. */
+    private static final ParsedExpressionCache CACHE =
+            new ParsedExpressionCache(DEFAULT_CACHE_ENTRIES, DEFAULT_CACHE_WEIGHT);
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -22,22 +36,42 @@ public class ExpressionParser {
     }
 
     /**
-     * Parses a real expression.
+     * Gets the shared cache of parsed expressions (for example, to read its statistics).
+     *
+     * @return the cache
+     */
+    public static ParsedExpressionCache getCache() {
+
+        return CACHE;
+    }
+
+    /**
+     * Parses a real expression, using the shared cache.
      *
      * @param str the string to parse
      * @return the expression; null if a parsing error occurs
      */
     public static Expr parseExpr(final String str) {
 
+        return CACHE.get(str);
+    }
+
+    /**
+     * Parses a real expression without consulting a cache.
+     *
+     * @param str the string to parse
+     * @return the expression; null if a parsing error occurs
+     */
+    public static Expr parseExprUncached(final String str) {
+
         Expr result = null;
 
-        Log.info("Parsing ", str);
+        // Arguments are passed separately so the message is only built if the log level is enabled
+        Log.fine("Parsing ", str);
 
         final Lexer lexer = new Lexer(str, ExpressionLexicalGrammar.EXPRESSION_PATTERNS);
         final List<IToken> tokens = new ArrayList<>(10);
 
-        Log.info("Scanning");
-
         if (lexer.scan(tokens)) {
             int len = tokens.size();
             if (len > 0 && tokens.get(len - 1) instanceof EOSToken) {
@@ -45,12 +79,11 @@ public class ExpressionParser {
                 --len;
             }
 
-            Log.info("Scanned - found " + len + " tokens (excluding EOS)");
-
             final Expr expr = ExpressionSyntacticGrammar.REAL_EXPR.match(tokens, 0);
 
             if (expr != null) {
-                Log.info("Expression grammar matched " + expr.getLength() + " tokens");
+                Log.fine("Expression grammar matched ", Integer.valueOf(expr.getLength()), " of ",
+                        Integer.valueOf(len), " tokens");
 
                 if (expr.getLength() == tokens.size()) {
                     result = expr;
@@ -60,4 +93,40 @@ public class ExpressionParser {
 
         return result;
     }
+
+    /**
+     * Parses a real expression from a region of text, without consulting a cache, copying the text, or creating token
+     * objects.  This is intended for bulk loading: the text may be a {@code CharBuffer} over a large file, with each
+     * expression parsed in place, and the token buffer is reused from one call to the next.
+     *
+     * @param source the text
+     * @param start  the index of the first character of the expression
+     * @param end    the index after the last character of the expression
+     * @param tokens a token buffer to use while parsing (its contents are replaced; if the parse fails, the reason and
+     *               position are then available from its {@code getFailure} and {@code getFailureOffset} methods)
+     * @return the expression; null if a parsing error occurs
+     */
+    public static Expr parseExpr(final CharSequence source, final int start, final int end,
+                                 final ExpressionTokenBuffer tokens) {
+
+        Expr result = null;
+
+        if (ExpressionLexicalGrammar.scan(source, start, end, tokens)) {
+            final Expr expr = ExpressionSyntacticGrammar.REAL_EXPR.match(tokens, 0);
+            final int matched = expr == null ? 0 : expr.getLength();
+            final int size = tokens.size();
+
+            if (expr != null && matched == size) {
+                result = expr;
+            } else {
+                tokens.setFailure(EParseFailure.SYNTACTIC, matched < size ? tokens.getStart(matched) : end - start);
+            }
+        } else {
+            // Scanning stops at the first character that matches no pattern, just after the last token it added
+            final int last = tokens.size() - 1;
+            tokens.setFailure(EParseFailure.LEXICAL, last < 0 ? 0 : tokens.getStart(last) + tokens.getLength(last));
+        }
+
+        return result;
+    }
 }
@@ -22,6 +22,15 @@ import java.util.List;
  */
 public class ExpressionSyntacticGrammar {
 
+    /** The functions of one argument, indexed by ordinal. */
+    private static final EFunctionOf1[] FUNCTIONS_OF_1 = EFunctionOf1.values();
+
+    /** The functions of two arguments, indexed by ordinal. */
+    private static final EFunctionOf2[] FUNCTIONS_OF_2 = EFunctionOf2.values();
+
+    /** The symbols, indexed by ordinal. */
+    private static final ESymbol[] SYMBOLS = ESymbol.values();
+
     /** The pattern that matches an "REAL_EXPR" production. */
     public static final RealExprPattern REAL_EXPR = new RealExprPattern();
 
@@ -81,11 +90,57 @@ public class ExpressionSyntacticGrammar {
                     while (pos < len && tokens.get(pos) instanceof PlusMinusTok) {
                         final Term term = REAL_TERM.match(tokens, pos);
 
-                        if (term != null) {
-                            termList.add(term);
-                            pos += term.getLength();
-                            end = pos;
+                        if (term == null) {
+                            break;
                         }
+                        termList.add(term);
+                        pos += term.getLength();
+                        end = pos;
+                    }
+
+                    result = new Expr(start, end - start, termList, false);
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Attempts to match the pattern against a token buffer, as {@code match(List, int)} does against a token list.
+         *
+         * @param tokens the token buffer
+         * @param start  the start position in the token buffer
+         * @return the object; null if none matched
+         */
+        public final Expr match(final ExpressionTokenBuffer tokens, final int start) {
+
+            Expr result = null;
+
+            final int len = tokens.size();
+
+            int pos = skipWhitespace(tokens, start);
+
+            if (pos < len) {
+                final Term leadingTerm = REAL_TERM.match(tokens, pos);
+
+                if (leadingTerm != null) {
+
+                    pos += leadingTerm.getLength();
+
+                    final List<Term> termList = new ArrayList<>();
+                    termList.add(leadingTerm);
+
+                    int end = pos;
+                    // All but the first term MUST be preceded by a +/- token.
+                    while (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_PLUS_MINUS) {
+                        final Term term = REAL_TERM.match(tokens, pos);
+
+                        if (term == null) {
+                            break;
+                        }
+                        termList.add(term);
+                        pos += term.getLength();
+                        end = pos;
                     }
 
                     result = new Expr(start, end - start, termList, false);
@@ -154,14 +209,73 @@ public class ExpressionSyntacticGrammar {
                         pos = skipWhitespace(tokens, pos + 1);
                         final Factor factor = REAL_FACTOR.match(tokens, pos);
 
-                        if (factor != null) {
-                            tdmList.add(tdm);
-                            factorList.add(factor);
-                            pos += factor.getLength();
+                        if (factor == null) {
+                            break;
+                        }
+                        tdmList.add(tdm);
+                        factorList.add(factor);
+                        pos += factor.getLength();
+
+                        pos = skipWhitespace(tokens, pos);
+                        end = pos;
+                    }
+
+                    result = new Term(start, end - start, pm, leadingFactor, tdmList, factorList);
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Attempts to match the pattern against a token buffer, as {@code match(List, int)} does against a token list.
+         *
+         * @param tokens the token buffer
+         * @param start  the start position in the token buffer
+         * @return the object; null if none matched
+         */
+        public final Term match(final ExpressionTokenBuffer tokens, final int start) {
+
+            Term result = null;
+
+            final int len = tokens.size();
+
+            PlusMinusTok pm = null;
+
+            int pos = skipWhitespace(tokens, start);
+
+            if (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_PLUS_MINUS) {
+                pm = tokens.getCode(pos) == '-' ? PlusMinusTok.MINUS : PlusMinusTok.PLUS;
+                pos = skipWhitespace(tokens, pos + 1);
+            }
+
+            if (pos < len) {
+                final Factor leadingFactor = REAL_FACTOR.match(tokens, pos);
+
+                if (leadingFactor != null) {
+                    pos += leadingFactor.getLength();
+
+                    final List<TimesDivCaretTok> tdmList = new ArrayList<>();
+                    final List<Factor> factorList = new ArrayList<>();
+
+                    pos = skipWhitespace(tokens, pos);
+                    int end = pos;
 
-                            pos = skipWhitespace(tokens, pos);
-                            end = pos;
+                    while (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_TIMES_DIV_CARET) {
+                        final int op = tokens.getCode(pos);
+                        pos = skipWhitespace(tokens, pos + 1);
+                        final Factor factor = REAL_FACTOR.match(tokens, pos);
+
+                        if (factor == null) {
+                            break;
                         }
+                        tdmList.add(op == '*' ? TimesDivCaretTok.TIMES
+                                : op == '/' ? TimesDivCaretTok.DIV : TimesDivCaretTok.CARET);
+                        factorList.add(factor);
+                        pos += factor.getLength();
+
+                        pos = skipWhitespace(tokens, pos);
+                        end = pos;
                     }
 
                     result = new Term(start, end - start, pm, leadingFactor, tdmList, factorList);
@@ -255,6 +369,85 @@ public class ExpressionSyntacticGrammar {
 
             return result;
         }
+
+        /**
+         * Attempts to match the pattern against a token buffer, as {@code match(List, int)} does against a token list.
+         *
+         * @param tokens the token buffer
+         * @param start  the start position in the token buffer
+         * @return the object; null if none matched
+         */
+        public final Factor match(final ExpressionTokenBuffer tokens, final int start) {
+
+            Factor result = null;
+
+            final int len = tokens.size();
+
+            if (start < len) {
+                final int kind = tokens.getKind(start);
+
+                if (kind == ExpressionTokenBuffer.KIND_LPAREN) {
+                    final Expr inner = REAL_EXPR.match(tokens, start + 1);
+                    if (inner != null) {
+                        final int pos = start + 1 + inner.getLength();
+                        if (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_RPAREN) {
+                            result = new Factor(start, pos + 1 - start, inner);
+                        }
+                    }
+                } else if (kind == ExpressionTokenBuffer.KIND_FUNCTION_OF_1) {
+                    final Expr inner = REAL_EXPR.match(tokens, start + 1);
+                    if (inner != null) {
+                        final int pos = start + 1 + inner.getLength();
+                        if (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_RPAREN) {
+                            result = new Factor(start, pos + 1 - start, new FunctionOf1(start, pos + 1 - start,
+                                    FUNCTIONS_OF_1[tokens.getCode(start)], inner));
+                        }
+                    }
+                } else if (kind == ExpressionTokenBuffer.KIND_FUNCTION_OF_2) {
+                    final Expr inner1 = REAL_EXPR.match(tokens, start + 1);
+                    if (inner1 != null) {
+                        int pos = start + 1 + inner1.getLength();
+                        if (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_COMMA) {
+                            final Expr inner2 = REAL_EXPR.match(tokens, pos + 1);
+                            if (inner2 != null) {
+                                pos = pos + 1 + inner2.getLength();
+                                if (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_RPAREN) {
+                                    result = new Factor(start, pos + 1 - start, new FunctionOf2(start,
+                                            pos + 1 - start, FUNCTIONS_OF_2[tokens.getCode(start)], inner1, inner2));
+                                }
+                            }
+                        }
+                    }
+                } else if (kind == ExpressionTokenBuffer.KIND_VARIABLE) {
+                    result = new Factor(start, 1, tokens.getVariableName(start));
+                } else if (kind == ExpressionTokenBuffer.KIND_SYMBOL) {
+                    result = new Factor(start, 1, SYMBOLS[tokens.getCode(start)]);
+                } else if (kind == ExpressionTokenBuffer.KIND_NUMBER) {
+                    result = new Factor(start, 1, Double.valueOf(tokens.getNumber(start)));
+                }
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Finds the first position in a token buffer on or after a start position that is not whitespace.
+     *
+     * @param tokens the token buffer
+     * @param start  the start position
+     * @return the position of the first non-whitespace token found; or the size of the buffer if none was found
+     */
+    private static int skipWhitespace(final ExpressionTokenBuffer tokens, final int start) {
+
+        int pos = start;
+        final int len = tokens.size();
+
+        while (pos < len && tokens.getKind(pos) == ExpressionTokenBuffer.KIND_WHITESPACE) {
+            ++pos;
+        }
+
+        return pos;
     }
 
     /**
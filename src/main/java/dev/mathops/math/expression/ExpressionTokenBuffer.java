@@ -0,0 +1,272 @@
+package dev.mathops.math.expression;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of expression tokens stored in parallel primitive arrays, so scanning creates no token objects.
+ * This is the input to the {@code ExpressionSyntacticGrammar} patterns' buffer-based {@code match} methods, and is
+ * filled by {@code ExpressionLexicalGrammar.scan}.
+ *
+ * <p>
+ * Each token has a kind (one of the {@code KIND_*} constants), a start position and length relative to the start of the
+ * scanned region, and a payload: the value of a number token, the operator character of a plus-minus or
+ * times-div-caret token, or the ordinal of the function or symbol of a function or symbol token.  Variable names are
+ * read from the source text only when the grammar builds a factor.
+ *
+ * <p>
+ * A buffer holds a reference to the text it last scanned until it is reset or scans other text.  Buffers are not
+ * thread-safe; each thread should use its own.
+ */
+public final class ExpressionTokenBuffer {
+
+    /** The kind of a whitespace token. */
+    public static final int KIND_WHITESPACE = 0;
+
+    /** The kind of a number token. */
+    public static final int KIND_NUMBER = 1;
+
+    /** The kind of a left parenthesis token. */
+    public static final int KIND_LPAREN = 2;
+
+    /** The kind of a right parenthesis token. */
+    public static final int KIND_RPAREN = 3;
+
+    /** The kind of a plus-minus token. */
+    public static final int KIND_PLUS_MINUS = 4;
+
+    /** The kind of a comma token. */
+    public static final int KIND_COMMA = 5;
+
+    /** The kind of a times-div-caret token. */
+    public static final int KIND_TIMES_DIV_CARET = 6;
+
+    /** The kind of a variable token. */
+    public static final int KIND_VARIABLE = 7;
+
+    /** The kind of a function-of-1 token (the function name and its opening parenthesis). */
+    public static final int KIND_FUNCTION_OF_1 = 8;
+
+    /** The kind of a function-of-2 token (the function name and its opening parenthesis). */
+    public static final int KIND_FUNCTION_OF_2 = 9;
+
+    /** The kind of a symbol token. */
+    public static final int KIND_SYMBOL = 10;
+
+    /** The initial capacity. */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** The kind of each token. */
+    private int[] kinds;
+
+    /** The start position of each token. */
+    private int[] starts;
+
+    /** The length of each token. */
+    private int[] lengths;
+
+    /** The operator character or ordinal of each token (0 where not used). */
+    private int[] codes;
+
+    /** The value of each number token (0 for other tokens). */
+    private double[] numbers;
+
+    /** The number of tokens. */
+    private int size;
+
+    /** The text that was scanned. */
+    private CharSequence source;
+
+    /** The offset in {@code source} of the scanned region. */
+    private int offset;
+
+    /** The reason the last parse using this buffer failed; null if it did not fail. */
+    private EParseFailure failure;
+
+    /** The position, relative to the scanned region, at which the last parse failed; -1 if it did not fail. */
+    private int failureOffset;
+
+    /**
+     * Constructs a new {@code ExpressionTokenBuffer}.
+     */
+    public ExpressionTokenBuffer() {
+
+        this.kinds = new int[INITIAL_CAPACITY];
+        this.starts = new int[INITIAL_CAPACITY];
+        this.lengths = new int[INITIAL_CAPACITY];
+        this.codes = new int[INITIAL_CAPACITY];
+        this.numbers = new double[INITIAL_CAPACITY];
+        this.failureOffset = -1;
+    }
+
+    /**
+     * Clears the buffer and records the text whose tokens it will hold.
+     *
+     * @param theSource the text
+     * @param theOffset the offset in {@code theSource} of the region to be scanned (token positions are relative to
+     *                  this)
+     */
+    void reset(final CharSequence theSource, final int theOffset) {
+
+        this.source = theSource;
+        this.offset = theOffset;
+        this.size = 0;
+        this.failure = null;
+        this.failureOffset = -1;
+    }
+
+    /**
+     * Clears the buffer, releasing the text it last scanned.
+     */
+    public void reset() {
+
+        reset(null, 0);
+    }
+
+    /**
+     * Appends a token.
+     *
+     * @param kind   the kind
+     * @param start  the start position, relative to the scanned region
+     * @param length the length
+     * @param code   the operator character or ordinal
+     * @param number the number value
+     */
+    void add(final int kind, final int start, final int length, final int code, final double number) {
+
+        if (this.size == this.kinds.length) {
+            final int newCapacity = this.size * 2;
+            this.kinds = Arrays.copyOf(this.kinds, newCapacity);
+            this.starts = Arrays.copyOf(this.starts, newCapacity);
+            this.lengths = Arrays.copyOf(this.lengths, newCapacity);
+            this.codes = Arrays.copyOf(this.codes, newCapacity);
+            this.numbers = Arrays.copyOf(this.numbers, newCapacity);
+        }
+
+        final int index = this.size;
+        this.kinds[index] = kind;
+        this.starts[index] = start;
+        this.lengths[index] = length;
+        this.codes[index] = code;
+        this.numbers[index] = number;
+        ++this.size;
+    }
+
+    /**
+     * Records why and where a parse of the scanned region failed.
+     *
+     * @param theFailure       the reason
+     * @param theFailureOffset the position of the failure, relative to the scanned region
+     */
+    void setFailure(final EParseFailure theFailure, final int theFailureOffset) {
+
+        this.failure = theFailure;
+        this.failureOffset = theFailureOffset;
+    }
+
+    /**
+     * Gets the reason the last parse using this buffer failed.
+     *
+     * @return the reason; null if the parse did not fail
+     */
+    public EParseFailure getFailure() {
+
+        return this.failure;
+    }
+
+    /**
+     * Gets the position at which the last parse using this buffer failed: for a lexical failure, the position of the
+     * first character that matched no token pattern; for a syntactic failure, the start of the first token that was not
+     * part of the longest expression the grammar matched.
+     *
+     * @return the position, relative to the scanned region; -1 if the parse did not fail
+     */
+    public int getFailureOffset() {
+
+        return this.failureOffset;
+    }
+
+    /**
+     * Gets the number of tokens.
+     *
+     * @return the number of tokens
+     */
+    public int size() {
+
+        return this.size;
+    }
+
+    /**
+     * Gets the kind of a token.
+     *
+     * @param index the token index
+     * @return the kind (one of the {@code KIND_*} constants)
+     */
+    public int getKind(final int index) {
+
+        return this.kinds[index];
+    }
+
+    /**
+     * Gets the start position of a token, relative to the start of the scanned region.
+     *
+     * @param index the token index
+     * @return the start position
+     */
+    public int getStart(final int index) {
+
+        return this.starts[index];
+    }
+
+    /**
+     * Gets the length of a token.
+     *
+     * @param index the token index
+     * @return the length
+     */
+    public int getLength(final int index) {
+
+        return this.lengths[index];
+    }
+
+    /**
+     * Gets the operator character of a plus-minus or times-div-caret token, or the ordinal of the function or symbol of
+     * a function or symbol token.
+     *
+     * @param index the token index
+     * @return the code
+     */
+    public int getCode(final int index) {
+
+        return this.codes[index];
+    }
+
+    /**
+     * Gets the value of a number token.
+     *
+     * @param index the token index
+     * @return the value
+     */
+    public double getNumber(final int index) {
+
+        return this.numbers[index];
+    }
+
+    /**
+     * Gets the name of a variable token, without any enclosing braces.
+     *
+     * @param index the token index
+     * @return the name
+     */
+    public String getVariableName(final int index) {
+
+        int from = this.offset + this.starts[index];
+        int to = from + this.lengths[index];
+
+        if (this.source.charAt(from) == '{') {
+            ++from;
+            --to;
+        }
+
+        return this.source.subSequence(from, to).toString();
+    }
+}
@@ -3,6 +3,9 @@ package dev.mathops.math.expression;
 import dev.mathops.math.NumberUtils;
 import dev.mathops.text.lexparse.AbstractProduction;
 
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * A factor in a term.
  */
@@ -26,6 +29,15 @@ public class Factor extends AbstractProduction {
     /** The real-valued symbol. */
     private final ESymbol symbol;
 
+    /**
+     * For a variable, the slot assigned by the last {@code VariableLayout} bound to an expression containing this
+     * factor (-1 if none).  This is only a lookup hint, checked against the frame's layout on each use.
+     */
+    private int slotHint;
+
+    /** The structural hash code, computed when first needed (0 until then). */
+    private int hash;
+
     /**
      * Constructs a new {@code Factor}.
      *
@@ -159,6 +171,7 @@ public class Factor extends AbstractProduction {
         this.number = null;
         this.varName = theVarName;
         this.symbol = null;
+        this.slotHint = -1;
     }
 
     /**
@@ -260,6 +273,16 @@ public class Factor extends AbstractProduction {
         return this.symbol;
     }
 
+    /**
+     * Sets the slot hint of a variable factor.
+     *
+     * @param theSlotHint the slot the variable is assigned in a layout
+     */
+    final void setSlotHint(final int theSlotHint) {
+
+        this.slotHint = theSlotHint;
+    }
+
     /**
      * Tests whether the factor is constant with respect to a given variable name.
      *
@@ -324,7 +347,19 @@ public class Factor extends AbstractProduction {
      * @param variables variable values
      * @return the result; null if unable to evaluate
      */
-    public final Number eval(final VariableValues variables) {
+    public final Number eval(final IVariableSource variables) {
+
+        return eval(variables, null);
+    }
+
+    /**
+     * Evaluates the factor, reusing values already computed during the same evaluation.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    final Number eval(final IVariableSource variables, final Map<Object, Number> memo) {
 
         Number value = null;
 
@@ -337,19 +372,95 @@ public class Factor extends AbstractProduction {
                                 value = Double.valueOf(this.symbol.value);
                             }
                         } else {
-                            value = variables.get(this.varName);
+                            value = variables.get(this.varName, this.slotHint);
                         }
                     } else {
                         value = this.number;
                     }
                 } else {
-                    value = this.functionOf2.eval(variables);
+                    value = this.functionOf2.eval(variables, memo);
+                }
+            } else {
+                value = this.functionOf1.eval(variables, memo);
+            }
+        } else {
+            value = this.parenthesized.eval(variables, memo);
+        }
+
+        return value;
+    }
+
+    /**
+     * Evaluates the factor using {@code double} arithmetic.
+     *
+     * @param variables variable values
+     * @return the result; NaN if unable to evaluate
+     */
+    public final double evalDouble(final IVariableSource variables) {
+
+        double value = Double.NaN;
+
+        if (this.parenthesized == null) {
+            if (this.functionOf1 == null) {
+                if (this.functionOf2 == null) {
+                    if (this.number == null) {
+                        if (this.varName == null) {
+                            if (this.symbol != null) {
+                                value = this.symbol.value;
+                            }
+                        } else {
+                            value = variables.getDouble(this.varName, this.slotHint);
+                        }
+                    } else {
+                        value = this.number.doubleValue();
+                    }
+                } else {
+                    value = this.functionOf2.evalDouble(variables);
                 }
             } else {
-                value = this.functionOf1.eval(variables);
+                value = this.functionOf1.evalDouble(variables);
             }
         } else {
-            value = this.parenthesized.eval(variables);
+            value = this.parenthesized.evalDouble(variables);
+        }
+
+        return value;
+    }
+
+    /**
+     * Computes an interval that encloses the value of the factor over a box of variable values.
+     *
+     * @param boxes the interval of values of each variable, as an array of lower and upper bound
+     * @return the enclosing interval; null if unable to evaluate
+     */
+    final double[] enclose(final Map<String, double[]> boxes) {
+
+        double[] value = null;
+
+        if (this.parenthesized == null) {
+            if (this.functionOf1 == null) {
+                if (this.functionOf2 == null) {
+                    if (this.number == null) {
+                        if (this.varName == null) {
+                            if (this.symbol != null) {
+                                // The symbol's value is the nearest double, so the true value is within one unit
+                                value = IntervalArithmetic.of(Math.nextDown(this.symbol.value),
+                                        Math.nextUp(this.symbol.value));
+                            }
+                        } else {
+                            value = boxes.get(this.varName);
+                        }
+                    } else {
+                        value = IntervalArithmetic.ofNumber(this.number);
+                    }
+                } else {
+                    value = this.functionOf2.enclose(boxes);
+                }
+            } else {
+                value = this.functionOf1.enclose(boxes);
+            }
+        } else {
+            value = this.parenthesized.enclose(boxes);
         }
 
         return value;
@@ -445,6 +556,52 @@ public class Factor extends AbstractProduction {
         return result;
     }
 
+    /**
+     * Generates a hash code based on the structure of the factor.
+     *
+     * @return the hash code
+     */
+    @Override
+    public final int hashCode() {
+
+        int h = this.hash;
+
+        if (h == 0) {
+            h = Objects.hash(this.parenthesized, this.functionOf1, this.functionOf2, this.number, this.varName,
+                    this.symbol);
+            this.hash = h;
+        }
+
+        return h;
+    }
+
+    /**
+     * Tests whether this object is structurally equal to another.  Numbers are equal only if they have the same type
+     * and value.
+     *
+     * @param obj the other object
+     * @return true if the objects are equal
+     */
+    @Override
+    public final boolean equals(final Object obj) {
+
+        final boolean equal;
+
+        if (obj == this) {
+            equal = true;
+        } else if (obj instanceof final Factor factor) {
+            equal = hashCode() == factor.hashCode() && Objects.equals(this.parenthesized, factor.parenthesized)
+                    && Objects.equals(this.functionOf1, factor.functionOf1)
+                    && Objects.equals(this.functionOf2, factor.functionOf2)
+                    && Objects.equals(this.number, factor.number) && Objects.equals(this.varName, factor.varName)
+                    && this.symbol == factor.symbol;
+        } else {
+            equal = false;
+        }
+
+        return equal;
+    }
+
     /**
      * Generates a string representation of the expression.
      *
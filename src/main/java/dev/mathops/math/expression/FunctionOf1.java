@@ -3,6 +3,7 @@ package dev.mathops.math.expression;
 import dev.mathops.commons.number.Rational;
 
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * A function of a single real argument.
@@ -15,6 +16,9 @@ public class FunctionOf1 extends AbstractFunction {
     /** The argument. */
     private final Expr argument;
 
+    /** The structural hash code, computed when first needed (0 until then). */
+    private int hash;
+
     /**
      * Constructs a new synthetic {@code FunctionOf1}.
      *
@@ -281,11 +285,46 @@ public class FunctionOf1 extends AbstractFunction {
      * @return the result; null if unable to evaluate
      */
     @Override
-    public final Number eval(final VariableValues variables) {
+    public final Number eval(final IVariableSource variables) {
+
+        return eval(variables, null);
+    }
+
+    /**
+     * Evaluates the function, reusing values already computed during the same evaluation.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    final Number eval(final IVariableSource variables, final Map<Object, Number> memo) {
+
+        final Number result;
+
+        if (memo == null) {
+            result = compute(variables, null);
+        } else if (memo.containsKey(this)) {
+            result = memo.get(this);
+        } else {
+            result = compute(variables, memo);
+            memo.put(this, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the value of the function.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    private Number compute(final IVariableSource variables, final Map<Object, Number> memo) {
 
         final Number value;
 
-        final Number evalOut = this.argument.eval(variables);
+        final Number evalOut = this.argument.eval(variables, memo);
 
         if (evalOut == null) {
             value = null;
@@ -316,6 +355,51 @@ public class FunctionOf1 extends AbstractFunction {
         return value;
     }
 
+    /**
+     * Evaluates the function using {@code double} arithmetic.
+     *
+     * @param variables variable values
+     * @return the result; NaN if unable to evaluate
+     */
+    @Override
+    public final double evalDouble(final IVariableSource variables) {
+
+        final double argVal = this.argument.evalDouble(variables);
+
+        return switch (this.function) {
+            case ABS -> Math.abs(argVal);
+            case ACOS -> Math.acos(argVal);
+            case ASIN -> Math.asin(argVal);
+            case ATAN -> Math.atan(argVal);
+            case CBRT -> Math.cbrt(argVal);
+            case COS -> Math.cos(argVal);
+            case EXP -> Math.exp(argVal);
+            case EXPM1 -> Math.expm1(argVal);
+            case LOG -> Math.log(argVal);
+            case LOG1P -> Math.log1p(argVal);
+            case LOG10 -> Math.log10(argVal);
+            case LOG2 -> Math.log(argVal) / LN2;
+            case SIN -> Math.sin(argVal);
+            case SQRT -> Math.sqrt(argVal);
+            case TAN -> Math.tan(argVal);
+            case TO_DEG -> Math.toDegrees(argVal);
+            case TO_RAD -> Math.toRadians(argVal);
+        };
+    }
+
+    /**
+     * Computes an interval that encloses the value of the function over a box of variable values.
+     *
+     * @param boxes the interval of values of each variable, as an array of lower and upper bound
+     * @return the enclosing interval; null if unable to evaluate
+     */
+    final double[] enclose(final Map<String, double[]> boxes) {
+
+        final double[] arg = this.argument.enclose(boxes);
+
+        return arg == null ? null : IntervalArithmetic.apply(this.function, arg);
+    }
+
     /**
      * Generates the derivative of this factor with respect to a given variable.
      *
@@ -366,10 +450,13 @@ public class FunctionOf1 extends AbstractFunction {
                     argDiffFact), false).simplify();
 
             // diff(exp(arg)) = exp(arg) * diff(arg)
-            // diff(expm1(arg)) = exp(arg) * diff(arg)
-            case EXP, EXPM1 -> result = new Expr(new Term(new Factor(this), ExpressionTokens.TimesDivCaretTok.TIMES,
+            case EXP -> result = new Expr(new Term(new Factor(this), ExpressionTokens.TimesDivCaretTok.TIMES,
                     argDiffFact), false).simplify();
 
+            // diff(expm1(arg)) = exp(arg) * diff(arg)
+            case EXPM1 -> result = new Expr(new Term(new Factor(FunctionOf1.exp(this.argument)),
+                    ExpressionTokens.TimesDivCaretTok.TIMES, argDiffFact), false).simplify();
+
             // diff(log(arg)) = diff(arg) / arg
             case LOG -> result =
                     new Expr(new Term(argDiffFact, ExpressionTokens.TimesDivCaretTok.DIV, argFact), false).simplify();
@@ -424,6 +511,46 @@ public class FunctionOf1 extends AbstractFunction {
         return new Factor(new FunctionOf1(this.function, this.argument.simplify()));
     }
 
+    /**
+     * Generates a hash code based on the structure of the function.
+     *
+     * @return the hash code
+     */
+    @Override
+    public final int hashCode() {
+
+        int h = this.hash;
+
+        if (h == 0) {
+            h = 31 * this.function.ordinal() + this.argument.hashCode();
+            this.hash = h;
+        }
+
+        return h;
+    }
+
+    /**
+     * Tests whether this object is structurally equal to another.
+     *
+     * @param obj the other object
+     * @return true if the objects are equal
+     */
+    @Override
+    public final boolean equals(final Object obj) {
+
+        final boolean equal;
+
+        if (obj == this) {
+            equal = true;
+        } else if (obj instanceof final FunctionOf1 fn) {
+            equal = hashCode() == fn.hashCode() && this.function == fn.function && this.argument.equals(fn.argument);
+        } else {
+            equal = false;
+        }
+
+        return equal;
+    }
+
     /**
      * Generates a string representation of the expression.
      *
@@ -1,6 +1,9 @@
 package dev.mathops.math.expression;
 
+import dev.mathops.math.Power;
+
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * A function of two real arguments.
@@ -16,6 +19,9 @@ public class FunctionOf2 extends AbstractFunction {
     /** The second argument. */
     private final Expr argument2;
 
+    /** The structural hash code, computed when first needed (0 until then). */
+    private int hash;
+
     /**
      * Constructs a new synthetic {@code FunctionOf2}.
      *
@@ -145,12 +151,47 @@ public class FunctionOf2 extends AbstractFunction {
      * @return the result; null if unable to evaluate
      */
     @Override
-    public final Number eval(final VariableValues variables) {
+    public final Number eval(final IVariableSource variables) {
+
+        return eval(variables, null);
+    }
+
+    /**
+     * Evaluates the function, reusing values already computed during the same evaluation.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    final Number eval(final IVariableSource variables, final Map<Object, Number> memo) {
+
+        final Number result;
+
+        if (memo == null) {
+            result = compute(variables, null);
+        } else if (memo.containsKey(this)) {
+            result = memo.get(this);
+        } else {
+            result = compute(variables, memo);
+            memo.put(this, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the value of the function.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    private Number compute(final IVariableSource variables, final Map<Object, Number> memo) {
 
         final Number value;
 
-        final Number eval1Out = this.argument1.eval(variables);
-        final Number eval2Out = this.argument2.eval(variables);
+        final Number eval1Out = this.argument1.eval(variables, memo);
+        final Number eval2Out = this.argument2.eval(variables, memo);
 
         if (eval1Out == null || eval2Out == null) {
             value = null;
@@ -161,13 +202,46 @@ public class FunctionOf2 extends AbstractFunction {
             value = switch (this.function) {
                 case ATAN2 -> Double.valueOf(Math.atan2(arg1Val, arg2Val));
                 case HYPOT -> Double.valueOf(Math.hypot(arg1Val, arg2Val));
-                case POW -> Double.valueOf(Math.pow(arg1Val, arg2Val));
+                case POW -> Power.numberPowNumber(eval1Out, eval2Out);
             };
         }
 
         return value;
     }
 
+    /**
+     * Evaluates the function using {@code double} arithmetic.
+     *
+     * @param variables variable values
+     * @return the result; NaN if unable to evaluate
+     */
+    @Override
+    public final double evalDouble(final IVariableSource variables) {
+
+        final double arg1Val = this.argument1.evalDouble(variables);
+        final double arg2Val = this.argument2.evalDouble(variables);
+
+        return switch (this.function) {
+            case ATAN2 -> Math.atan2(arg1Val, arg2Val);
+            case HYPOT -> Math.hypot(arg1Val, arg2Val);
+            case POW -> Math.pow(arg1Val, arg2Val);
+        };
+    }
+
+    /**
+     * Computes an interval that encloses the value of the function over a box of variable values.
+     *
+     * @param boxes the interval of values of each variable, as an array of lower and upper bound
+     * @return the enclosing interval; null if unable to evaluate
+     */
+    final double[] enclose(final Map<String, double[]> boxes) {
+
+        final double[] arg1 = this.argument1.enclose(boxes);
+        final double[] arg2 = this.argument2.enclose(boxes);
+
+        return arg1 == null || arg2 == null ? null : IntervalArithmetic.apply(this.function, arg1, arg2);
+    }
+
     /**
      * Generates the derivative of this factor with respect to a given variable.
      *
@@ -187,11 +261,11 @@ public class FunctionOf2 extends AbstractFunction {
         final Expr result;
 
         switch (this.function) {
-            // diff(atan(arg1/arg2)) = (arg1 * diff(arg2) - arg2 * diff(arg1)) / (arg1^1 + arg2^2)
+            // diff(atan(arg1/arg2)) = (arg2 * diff(arg1) - arg1 * diff(arg2)) / (arg1^2 + arg2^2)
             case ATAN2 -> {
-                final Expr numer1 = new Expr(new Term(arg1Fact, ExpressionTokens.TimesDivCaretTok.TIMES,
-                        new Factor(arg2Diff)), new Term(ExpressionTokens.PlusMinusTok.MINUS, arg2Fact,
-                        ExpressionTokens.TimesDivCaretTok.TIMES, arg1DiffFact), false);
+                final Expr numer1 = new Expr(new Term(arg2Fact, ExpressionTokens.TimesDivCaretTok.TIMES,
+                        arg1DiffFact), new Term(ExpressionTokens.PlusMinusTok.MINUS, arg1Fact,
+                        ExpressionTokens.TimesDivCaretTok.TIMES, new Factor(arg2Diff)), false);
                 final Expr denom1 = new Expr(new Term(arg1Fact, ExpressionTokens.TimesDivCaretTok.TIMES, arg1Fact),
                         new Term(arg2Fact, ExpressionTokens.TimesDivCaretTok.TIMES, arg2Fact), false);
                 result = new Expr(new Term(new Factor(numer1), ExpressionTokens.TimesDivCaretTok.DIV,
@@ -274,6 +348,47 @@ public class FunctionOf2 extends AbstractFunction {
         return result;
     }
 
+    /**
+     * Generates a hash code based on the structure of the function.
+     *
+     * @return the hash code
+     */
+    @Override
+    public final int hashCode() {
+
+        int h = this.hash;
+
+        if (h == 0) {
+            h = 31 * (31 * this.function.ordinal() + this.argument1.hashCode()) + this.argument2.hashCode();
+            this.hash = h;
+        }
+
+        return h;
+    }
+
+    /**
+     * Tests whether this object is structurally equal to another.
+     *
+     * @param obj the other object
+     * @return true if the objects are equal
+     */
+    @Override
+    public final boolean equals(final Object obj) {
+
+        final boolean equal;
+
+        if (obj == this) {
+            equal = true;
+        } else if (obj instanceof final FunctionOf2 fn) {
+            equal = hashCode() == fn.hashCode() && this.function == fn.function && this.argument1.equals(fn.argument1)
+                    && this.argument2.equals(fn.argument2);
+        } else {
+            equal = false;
+        }
+
+        return equal;
+    }
+
     /**
      * Generates a string representation of the expression.
      *
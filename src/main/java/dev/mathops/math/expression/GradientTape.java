@@ -0,0 +1,281 @@
+package dev.mathops.math.expression;
+
+import java.util.Arrays;
+
+/**
+ * Reverse-mode automatic differentiation over a {@code CompiledExpr}: computes the value of an expression and its
+ * partial derivatives with respect to all of its variables in one forward and one backward pass, for roughly twice the
+ * cost of one evaluation however many variables there are.
+ *
+ * <p>
+ * The tape is the compiled program with each instruction given its own value slot (the compiled program reuses
+ * registers, which would overwrite values the backward pass needs).  Slots are laid out as the variables, then the
+ * constants, then one slot per instruction.  The forward pass fills the value slots; the backward pass visits the
+ * instructions in reverse, accumulating into each slot the derivative of the result with respect to that slot's value
+ * (its "adjoint").
+ *
+ * <p>
+ * A tape keeps its value and adjoint buffers between calls, so evaluation performs no allocation, and a tape is
+ * therefore not thread-safe.  Threads should each create their own tape from a shared {@code CompiledExpr}.
+ */
+public final class GradientTape {
+
+    /** The natural logarithm of 10. */
+    private static final double LN10 = Math.log(10.0);
+
+    /** The number of degrees per radian. */
+    private static final double DEG_PER_RAD = 180.0 / Math.PI;
+
+    /** The number of radians per degree. */
+    private static final double RAD_PER_DEG = Math.PI / 180.0;
+
+    /** The number of variables. */
+    private final int numVariables;
+
+    /** The opcode of each instruction. */
+    private final int[] opcodes;
+
+    /** The slot of the first source of each instruction. */
+    private final int[] sources1;
+
+    /** The slot of the second source of each instruction (unused for operations of one argument). */
+    private final int[] sources2;
+
+    /** The slot that holds the result. */
+    private final int outputSlot;
+
+    /** The value in each slot (constants are stored once, at construction). */
+    private final double[] values;
+
+    /** The adjoint of each slot. */
+    private final double[] adjoints;
+
+    /**
+     * Constructs a new {@code GradientTape}.
+     *
+     * @param program the compiled program
+     * @throws IllegalArgumentException if the program is null
+     */
+    public GradientTape(final CompiledExpr program) {
+
+        if (program == null) {
+            throw new IllegalArgumentException("Program may not be null");
+        }
+
+        this.numVariables = program.getNumVariables();
+        final int numConstants = program.getNumConstants();
+        final int numInstructions = program.getNumInstructions();
+        final int base = this.numVariables + numConstants;
+
+        this.opcodes = new int[numInstructions];
+        this.sources1 = new int[numInstructions];
+        this.sources2 = new int[numInstructions];
+        this.values = new double[base + numInstructions];
+        this.adjoints = new double[base + numInstructions];
+
+        for (int i = 0; i < numConstants; ++i) {
+            this.values[this.numVariables + i] = program.getConstant(i);
+        }
+
+        // Variable and constant registers coincide with their slots; a temporary register maps to the slot of the
+        // instruction that last wrote it
+        final int[] slotOfRegister = new int[program.getNumRegisters()];
+        for (int i = 0; i < slotOfRegister.length; ++i) {
+            slotOfRegister[i] = i;
+        }
+
+        for (int pc = 0; pc < numInstructions; ++pc) {
+            final int opcode = program.getOpcode(pc);
+            this.opcodes[pc] = opcode;
+            this.sources1[pc] = slotOfRegister[program.getSource(pc, 0)];
+            this.sources2[pc] = CompiledExpr.isUnary(opcode) ? 0 : slotOfRegister[program.getSource(pc, 1)];
+            slotOfRegister[program.getDestination(pc)] = base + pc;
+        }
+
+        this.outputSlot = slotOfRegister[program.getOutputRegister(0)];
+    }
+
+    /**
+     * Creates a gradient tape for an expression.
+     *
+     * @param expr          the expression
+     * @param variableNames the names of the variables, in the order their values and partial derivatives will be
+     *                      given
+     * @return the tape
+     * @throws IllegalArgumentException if the expression references a variable not in {@code variableNames}
+     */
+    public static GradientTape of(final Expr expr, final String... variableNames) {
+
+        return new GradientTape(ExprCompiler.compile(expr, variableNames));
+    }
+
+    /**
+     * Gets the number of variables.
+     *
+     * @return the number of variables
+     */
+    public int getNumVariables() {
+
+        return this.numVariables;
+    }
+
+    /**
+     * Gets the number of instructions on the tape.
+     *
+     * @return the number of instructions
+     */
+    public int getNumInstructions() {
+
+        return this.opcodes.length;
+    }
+
+    /**
+     * Evaluates the expression and its gradient.
+     *
+     * @param point    the value of each variable
+     * @param gradient an array to which to write the partial derivative with respect to each variable (at least
+     *                 {@code getNumVariables()} long)
+     * @return the value of the expression
+     * @throws IllegalArgumentException if {@code point} or {@code gradient} is shorter than the number of variables
+     */
+    public double evaluate(final double[] point, final double[] gradient) {
+
+        if (point.length < this.numVariables || gradient.length < this.numVariables) {
+            throw new IllegalArgumentException("Arrays must have an entry for each variable");
+        }
+
+        final double[] v = this.values;
+        System.arraycopy(point, 0, v, 0, this.numVariables);
+        forward(v);
+
+        final double[] adj = this.adjoints;
+        Arrays.fill(adj, 0.0);
+        adj[this.outputSlot] = 1.0;
+        backward(v, adj);
+
+        System.arraycopy(adj, 0, gradient, 0, this.numVariables);
+
+        return v[this.outputSlot];
+    }
+
+    /**
+     * Performs the forward pass, computing the value of every instruction.
+     *
+     * @param v the slot values, with variables and constants filled in
+     */
+    private void forward(final double[] v) {
+
+        final int base = v.length - this.opcodes.length;
+        final int count = this.opcodes.length;
+
+        for (int pc = 0; pc < count; ++pc) {
+            final double a = v[this.sources1[pc]];
+            final double b = v[this.sources2[pc]];
+            final int opcode = this.opcodes[pc];
+
+            v[base + pc] = switch (opcode) {
+                case CompiledExpr.ADD -> a + b;
+                case CompiledExpr.SUB -> a - b;
+                case CompiledExpr.MUL -> a * b;
+                case CompiledExpr.DIV -> a / b;
+                case CompiledExpr.NEG -> -a;
+                default -> CompiledExpr.apply(opcode, a, b);
+            };
+        }
+    }
+
+    /**
+     * Performs the backward pass, propagating adjoints from each instruction's result to its sources.
+     *
+     * @param v   the slot values from the forward pass
+     * @param adj the slot adjoints, with the output's adjoint set to 1 and all others 0
+     */
+    private void backward(final double[] v, final double[] adj) {
+
+        final int base = v.length - this.opcodes.length;
+
+        for (int pc = this.opcodes.length - 1; pc >= 0; --pc) {
+            final double g = adj[base + pc];
+
+            // Instructions that do not contribute to the output are skipped
+            if (g != 0.0) {
+                final int s1 = this.sources1[pc];
+                final int s2 = this.sources2[pc];
+                final double a = v[s1];
+                final double b = v[s2];
+                final double r = v[base + pc];
+
+                switch (this.opcodes[pc]) {
+                    case CompiledExpr.NEG -> adj[s1] -= g;
+                    case CompiledExpr.ADD -> {
+                        adj[s1] += g;
+                        adj[s2] += g;
+                    }
+                    case CompiledExpr.SUB -> {
+                        adj[s1] += g;
+                        adj[s2] -= g;
+                    }
+                    case CompiledExpr.MUL -> {
+                        adj[s1] += g * b;
+                        adj[s2] += g * a;
+                    }
+                    case CompiledExpr.DIV -> {
+                        adj[s1] += g / b;
+                        adj[s2] -= g * r / b;
+                    }
+                    case CompiledExpr.POW -> {
+                        adj[s1] += g * b * Math.pow(a, b - 1.0);
+                        // The exponent's adjoint involves log(a), which is NaN for a negative base; it is only needed
+                        // when the exponent is not a constant
+                        if (s2 < this.numVariables || s2 >= base) {
+                            adj[s2] += g * r * Math.log(a);
+                        }
+                    }
+                    case CompiledExpr.ATAN2 -> {
+                        final double denom = a * a + b * b;
+                        adj[s1] += g * b / denom;
+                        adj[s2] -= g * a / denom;
+                    }
+                    case CompiledExpr.HYPOT -> {
+                        adj[s1] += g * a / r;
+                        adj[s2] += g * b / r;
+                    }
+                    default -> adj[s1] += g * unaryDerivative(this.opcodes[pc], a, r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the derivative of an operation of one argument.
+     *
+     * @param opcode the opcode
+     * @param a      the argument
+     * @param r      the result
+     * @return the derivative of the result with respect to the argument
+     */
+    private static double unaryDerivative(final int opcode, final double a, final double r) {
+
+        return switch (opcode) {
+            case CompiledExpr.ABS -> Math.signum(a);
+            case CompiledExpr.ACOS -> -1.0 / Math.sqrt(1.0 - a * a);
+            case CompiledExpr.ASIN -> 1.0 / Math.sqrt(1.0 - a * a);
+            case CompiledExpr.ATAN -> 1.0 / (1.0 + a * a);
+            case CompiledExpr.CBRT -> 1.0 / (3.0 * r * r);
+            case CompiledExpr.COS -> -Math.sin(a);
+            case CompiledExpr.EXP -> r;
+            case CompiledExpr.EXPM1 -> r + 1.0;
+            case CompiledExpr.LOG -> 1.0 / a;
+            case CompiledExpr.LOG1P -> 1.0 / (1.0 + a);
+            case CompiledExpr.LOG10 -> 1.0 / (a * LN10);
+            case CompiledExpr.LOG2 -> 1.0 / (a * AbstractFunction.LN2);
+            case CompiledExpr.SIN -> Math.cos(a);
+            case CompiledExpr.SQRT -> 0.5 / r;
+            case CompiledExpr.TAN -> 1.0 + r * r;
+            case CompiledExpr.TO_DEG -> DEG_PER_RAD;
+            case CompiledExpr.TO_RAD -> RAD_PER_DEG;
+            // FLOOR, CEIL, ROUND, and TRUNCATE are constant between their jumps
+            default -> 0.0;
+        };
+    }
+}
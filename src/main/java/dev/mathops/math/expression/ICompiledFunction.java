@@ -0,0 +1,56 @@
+package dev.mathops.math.expression;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A function of {@code double} arguments compiled for fast repeated evaluation, with one or more {@code double}
+ * outputs.  Implementations are stateless apart from any tiering bookkeeping, so one instance may be called from many
+ * threads at once.
+ *
+ * <p>
+ * As a {@code DoubleUnaryOperator}, a function of one argument returns its first output.
+ */
+public interface ICompiledFunction extends DoubleUnaryOperator {
+
+    /**
+     * Gets the number of arguments.
+     *
+     * @return the number of arguments
+     */
+    int getNumInputs();
+
+    /**
+     * Gets the number of outputs.
+     *
+     * @return the number of outputs
+     */
+    int getNumOutputs();
+
+    /**
+     * Evaluates the function.
+     *
+     * @param arguments the arguments, at least {@code getNumInputs()} values
+     * @return the first output
+     */
+    double evaluate(double... arguments);
+
+    /**
+     * Evaluates the function, storing all outputs.
+     *
+     * @param arguments the arguments, at least {@code getNumInputs()} values
+     * @param outputs   the array to receive the outputs, at least {@code getNumOutputs()} long
+     */
+    void evaluate(double[] arguments, double[] outputs);
+
+    /**
+     * Evaluates a function of one argument.
+     *
+     * @param operand the argument
+     * @return the first output
+     */
+    @Override
+    default double applyAsDouble(final double operand) {
+
+        return evaluate(operand);
+    }
+}
@@ -0,0 +1,46 @@
+package dev.mathops.math.expression;
+
+/**
+ * A source of variable values for evaluating an expression.  {@code VariableValues} looks values up by name;
+ * {@code VariableFrame} stores them in slots assigned by a {@code VariableLayout}, and uses the slot index a variable
+ * reference was given when the layout was bound to its expression.
+ */
+public interface IVariableSource {
+
+    /**
+     * Gets a variable value.
+     *
+     * @param name the variable name
+     * @return the variable value (null if un-set)
+     */
+    Number get(String name);
+
+    /**
+     * Gets a variable value, given the slot the variable reference was assigned when a layout was bound to the
+     * expression.  The slot is only a hint: a source that does not use slots, or whose layout assigns the name a
+     * different slot, looks the value up by name.
+     *
+     * @param name     the variable name
+     * @param slotHint the slot assigned to the reference; -1 if none
+     * @return the variable value (null if un-set)
+     */
+    default Number get(final String name, final int slotHint) {
+
+        return get(name);
+    }
+
+    /**
+     * Gets a variable value as a {@code double}.  A source that stores {@code double} values overrides this to read
+     * them without creating a {@code Number}.
+     *
+     * @param name     the variable name
+     * @param slotHint the slot assigned to the reference; -1 if none
+     * @return the variable value (NaN if un-set)
+     */
+    default double getDouble(final String name, final int slotHint) {
+
+        final Number value = get(name, slotHint);
+
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
@@ -0,0 +1,635 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.commons.number.BigIrrational;
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.EIrrationalFactor;
+import dev.mathops.commons.number.Irrational;
+import dev.mathops.commons.number.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Outward-rounded interval arithmetic on {@code double} bounds, used to enclose the range of an expression over boxes
+ * of variable values.
+ *
+ * <p>
+ * An interval is a two-element array holding its lower and upper bounds, which may be infinite; arrays are never
+ * modified once created.  An operation returns null if it is undefined at every point of its arguments, and otherwise
+ * encloses its value at every point where it is defined.
+ *
+ * <p>
+ * Java has no directed rounding, so each computed bound is moved outward past its rounding error: one unit in the last
+ * place for the correctly rounded operations ({@code +}, {@code -}, {@code *}, {@code /}, and {@code sqrt}), and
+ * {@code LIBRARY_ULPS} units for functions from {@code Math}, whose results are within one or two units of the true
+ * value.  Periodic functions locate their extrema and poles with some slack, so a nearby extremum is included rather
+ * than missed.
+ */
+enum IntervalArithmetic {
+    ;
+
+    /** The number of units in the last place by which to widen bounds computed by {@code Math} functions. */
+    private static final int LIBRARY_ULPS = 2;
+
+    /**
+     * The number of units in the last place by which to widen an irrational constant, whose computed value is within 2
+     * units (see {@code ofIrrational}).
+     */
+    private static final int IRRATIONAL_ULPS = 4;
+
+    /** An upper bound for pi. */
+    private static final double PI_UP = Math.nextUp(Math.PI);
+
+    /** An upper bound for pi/2. */
+    private static final double HALF_PI_UP = Math.nextUp(Math.PI / 2.0);
+
+    /** The magnitude beyond which periodic functions are bounded only by their overall range. */
+    private static final double MAX_PERIODIC_ARGUMENT = 1.0e15;
+
+    /**
+     * Creates an interval.
+     *
+     * @param lo the lower bound
+     * @param hi the upper bound
+     * @return the interval
+     */
+    static double[] of(final double lo, final double hi) {
+
+        return new double[]{lo, hi};
+    }
+
+    /**
+     * Creates the interval that holds all real numbers.
+     *
+     * @return the interval
+     */
+    static double[] entire() {
+
+        return new double[]{Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+    }
+
+    /**
+     * Creates an interval that encloses a number.  The interval is a single point if the number is exactly a
+     * {@code double}.  Otherwise, an exact rational value ({@code Long}, {@code BigInteger}, {@code BigDecimal},
+     * {@code Rational}, or {@code BigRational}) is enclosed by the two adjacent {@code double} values around it, found
+     * by comparing candidates with the exact value.  An irrational value is widened by {@code IRRATIONAL_ULPS}.
+     * Numbers of other types have no known error bound, so they are enclosed by the whole real line.
+     *
+     * @param number the number
+     * @return the interval; null if the number is NaN
+     */
+    static double[] ofNumber(final Number number) {
+
+        final double[] result;
+
+        switch (number) {
+            case final Double d -> result = Double.isNaN(d.doubleValue()) ? null : of(d.doubleValue(), d.doubleValue());
+            case final Float f -> result = Float.isNaN(f.floatValue()) ? null : of(f.doubleValue(), f.doubleValue());
+            case final Integer i -> result = of(i.doubleValue(), i.doubleValue());
+            case final Short sh -> result = of(sh.doubleValue(), sh.doubleValue());
+            case final Byte b -> result = of(b.doubleValue(), b.doubleValue());
+            case final Long lng -> result = ofFraction(BigInteger.valueOf(lng.longValue()), BigInteger.ONE);
+            case final BigInteger big -> result = ofFraction(big, BigInteger.ONE);
+            case final BigDecimal dec -> {
+                final int scale = dec.scale();
+                result = scale >= 0 ? ofFraction(dec.unscaledValue(), BigInteger.TEN.pow(scale))
+                        : ofFraction(dec.unscaledValue().multiply(BigInteger.TEN.pow(-scale)), BigInteger.ONE);
+            }
+            case final Rational r -> result = ofFraction(BigInteger.valueOf(r.numerator),
+                    BigInteger.valueOf(r.denominator));
+            case final BigRational r -> result = ofFraction(r.numerator, r.denominator);
+            case final Irrational irr -> result = ofIrrational(irr.factor, irr.base,
+                    BigInteger.valueOf(irr.numerator), BigInteger.valueOf(irr.denominator));
+            case final BigIrrational irr -> result = ofIrrational(irr.factor, irr.base, irr.numerator,
+                    irr.denominator);
+            default -> result = Double.isNaN(number.doubleValue()) ? null : entire();
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates an interval that encloses the values between two bounds.
+     *
+     * @param lower the lower bound
+     * @param upper the upper bound
+     * @return the interval; null if a bound is NaN or the interval is empty
+     */
+    static double[] ofBounds(final Number lower, final Number upper) {
+
+        final double[] lo = ofNumber(lower);
+        final double[] hi = ofNumber(upper);
+
+        return lo == null || hi == null || lo[0] > hi[1] ? null : of(lo[0], hi[1]);
+    }
+
+    /**
+     * Creates the narrowest interval with {@code double} bounds that encloses a fraction.  A first approximation is
+     * within about one unit in the last place of the fraction, and is then stepped outward while it fails to enclose
+     * the fraction, comparing exactly, so this takes only a few steps.
+     *
+     * @param numer the numerator
+     * @param denom the denominator (not zero)
+     * @return the interval
+     */
+    private static double[] ofFraction(final BigInteger numer, final BigInteger denom) {
+
+        final BigDecimal p = new BigDecimal(denom.signum() < 0 ? numer.negate() : numer);
+        final BigDecimal q = new BigDecimal(denom.abs());
+
+        // Clamping to the finite range keeps every candidate comparable with the exact value
+        final double approx = p.divide(q, MathContext.DECIMAL128).doubleValue();
+        final double start = Math.max(-Double.MAX_VALUE, Math.min(Double.MAX_VALUE, approx));
+
+        final int cmp = compareFraction(p, q, start);
+        double lo = start;
+        double hi = start;
+
+        if (cmp > 0) {
+            hi = Math.nextUp(start);
+            while (Double.isFinite(hi) && compareFraction(p, q, hi) > 0) {
+                lo = hi;
+                hi = Math.nextUp(hi);
+            }
+        } else if (cmp < 0) {
+            lo = Math.nextDown(start);
+            while (Double.isFinite(lo) && compareFraction(p, q, lo) < 0) {
+                hi = lo;
+                lo = Math.nextDown(lo);
+            }
+        }
+
+        return of(lo, hi);
+    }
+
+    /**
+     * Compares a fraction with a positive denominator to a finite {@code double}, exactly.
+     *
+     * @param p the numerator
+     * @param q the denominator (positive)
+     * @param x the {@code double}
+     * @return a negative value, zero, or a positive value as {@code p/q} is less than, equal to, or greater than x
+     */
+    private static int compareFraction(final BigDecimal p, final BigDecimal q, final double x) {
+
+        return p.compareTo(new BigDecimal(x).multiply(q));
+    }
+
+    /**
+     * Creates an interval that encloses an irrational value {@code (numer/denom)K}, where {@code K} is pi, e, or the
+     * square root of an integer.
+     *
+     * <p>
+     * The coefficient is divided to 34 significant digits and multiplied exactly by a {@code double} approximation of
+     * {@code K}: {@code Math.PI} or {@code Math.E}, each within a relative 2^-53 of the constant, or the correctly
+     * rounded square root of the base, within a relative 1.5 × 2^-53 if the base must itself be rounded (above 2^53).
+     * Rounding the product to a {@code double} adds at most half a unit in the last place, so the result is within 2
+     * units in the last place of the value (even if it is subnormal).  {@code IRRATIONAL_ULPS} leaves a margin above
+     * that.
+     *
+     * @param factor the irrational factor
+     * @param base   the integer whose square root is the factor, if the factor is {@code SQRT}
+     * @param numer  the numerator of the coefficient
+     * @param denom  the denominator of the coefficient (not zero)
+     * @return the interval
+     */
+    private static double[] ofIrrational(final EIrrationalFactor factor, final long base, final BigInteger numer,
+                                         final BigInteger denom) {
+
+        final double approxFactor;
+        if (factor == EIrrationalFactor.PI) {
+            approxFactor = Math.PI;
+        } else if (factor == EIrrationalFactor.E) {
+            approxFactor = Math.E;
+        } else {
+            approxFactor = Math.sqrt((double) base);
+        }
+
+        final BigDecimal coefficient = new BigDecimal(numer).divide(new BigDecimal(denom), MathContext.DECIMAL128);
+        final double value = coefficient.multiply(new BigDecimal(approxFactor)).doubleValue();
+        final double error = (double) IRRATIONAL_ULPS * Math.ulp(Double.isInfinite(value) ? Double.MAX_VALUE : value);
+
+        final double[] result;
+
+        if (Double.isInfinite(value)) {
+            final double edge = Double.MAX_VALUE - error;
+            result = value > 0.0 ? of(edge, value) : of(value, -edge);
+        } else {
+            // Steps below a power of two are half a unit in the last place, so step from an absolute error rather than
+            // counting steps
+            result = of(Math.nextDown(value - error), Math.nextUp(value + error));
+        }
+
+        return result;
+    }
+
+    /**
+     * Moves a bound down past a rounding error.
+     *
+     * @param value the bound
+     * @param ulps  the number of units in the last place of the error
+     * @return the lower bound
+     */
+    private static double down(final double value, final int ulps) {
+
+        double result = value;
+
+        if (Double.isNaN(result)) {
+            result = Double.NEGATIVE_INFINITY;
+        } else {
+            for (int i = 0; i < ulps; ++i) {
+                result = Math.nextDown(result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Moves a bound up past a rounding error.
+     *
+     * @param value the bound
+     * @param ulps  the number of units in the last place of the error
+     * @return the upper bound
+     */
+    private static double up(final double value, final int ulps) {
+
+        double result = value;
+
+        if (Double.isNaN(result)) {
+            result = Double.POSITIVE_INFINITY;
+        } else {
+            for (int i = 0; i < ulps; ++i) {
+                result = Math.nextUp(result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates an interval from bounds computed by {@code Math} functions, widened past their rounding error and
+     * clamped to the range of the function.
+     *
+     * @param lo       the computed lower bound
+     * @param hi       the computed upper bound
+     * @param rangeMin the least value of the function
+     * @param rangeMax the greatest value of the function
+     * @return the interval
+     */
+    private static double[] library(final double lo, final double hi, final double rangeMin, final double rangeMax) {
+
+        return of(Math.max(rangeMin, down(lo, LIBRARY_ULPS)), Math.min(rangeMax, up(hi, LIBRARY_ULPS)));
+    }
+
+    /**
+     * Restricts an interval to a function's domain.
+     *
+     * @param a   the interval
+     * @param min the least value of the domain
+     * @param max the greatest value of the domain
+     * @return the restricted interval; null if it is empty
+     */
+    private static double[] restrict(final double[] a, final double min, final double max) {
+
+        final double lo = Math.max(a[0], min);
+        final double hi = Math.min(a[1], max);
+
+        return lo > hi ? null : of(lo, hi);
+    }
+
+    /**
+     * Computes the sum of two intervals.
+     *
+     * @param a the first interval
+     * @param b the second interval
+     * @return the sum
+     */
+    static double[] add(final double[] a, final double[] b) {
+
+        return of(down(a[0] + b[0], 1), up(a[1] + b[1], 1));
+    }
+
+    /**
+     * Computes the negation of an interval.
+     *
+     * @param a the interval
+     * @return the negation
+     */
+    static double[] negate(final double[] a) {
+
+        return of(-a[1], -a[0]);
+    }
+
+    /**
+     * Computes one product of bounds, where zero times an infinite bound is zero.
+     *
+     * @param a the first bound
+     * @param b the second bound
+     * @return the product
+     */
+    private static double boundProduct(final double a, final double b) {
+
+        return a == 0.0 || b == 0.0 ? 0.0 : a * b;
+    }
+
+    /**
+     * Computes the product of two intervals.
+     *
+     * @param a the first interval
+     * @param b the second interval
+     * @return the product
+     */
+    static double[] multiply(final double[] a, final double[] b) {
+
+        final double p1 = boundProduct(a[0], b[0]);
+        final double p2 = boundProduct(a[0], b[1]);
+        final double p3 = boundProduct(a[1], b[0]);
+        final double p4 = boundProduct(a[1], b[1]);
+
+        final double lo = Math.min(Math.min(p1, p2), Math.min(p3, p4));
+        final double hi = Math.max(Math.max(p1, p2), Math.max(p3, p4));
+
+        return of(down(lo, 1), up(hi, 1));
+    }
+
+    /**
+     * Computes the reciprocal of an interval.
+     *
+     * @param a the interval
+     * @return the reciprocal; null if the interval is zero
+     */
+    static double[] reciprocal(final double[] a) {
+
+        final double lo = a[0];
+        final double hi = a[1];
+        final double[] result;
+
+        if (lo > 0.0 || hi < 0.0) {
+            result = of(down(1.0 / hi, 1), up(1.0 / lo, 1));
+        } else if (lo == 0.0 && hi == 0.0) {
+            result = null;
+        } else if (lo == 0.0) {
+            result = of(down(1.0 / hi, 1), Double.POSITIVE_INFINITY);
+        } else if (hi == 0.0) {
+            result = of(Double.NEGATIVE_INFINITY, up(1.0 / lo, 1));
+        } else {
+            result = entire();
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the quotient of two intervals.
+     *
+     * @param a the dividend
+     * @param b the divisor
+     * @return the quotient; null if the divisor is zero
+     */
+    static double[] divide(final double[] a, final double[] b) {
+
+        final double[] recip = reciprocal(b);
+
+        return recip == null ? null : multiply(a, recip);
+    }
+
+    /**
+     * Tests whether an interval contains, or nearly contains, a point {@code offset + k * period} for some integer
+     * {@code k}.
+     *
+     * @param lo     the lower bound
+     * @param hi     the upper bound
+     * @param offset the offset of the points
+     * @param period the spacing of the points
+     * @return true if such a point is in the interval or within a small distance of it
+     */
+    private static boolean containsPeriodic(final double lo, final double hi, final double offset,
+                                            final double period) {
+
+        final double slack = 1.0e-9 * Math.max(1.0, Math.max(Math.abs(lo), Math.abs(hi)));
+        final double k = Math.ceil((lo - slack - offset) / period);
+
+        return offset + k * period <= hi + slack;
+    }
+
+    /**
+     * Computes the enclosure of sine or cosine.
+     *
+     * @param a      the argument
+     * @param isSine true for sine; false for cosine
+     * @return the enclosure
+     */
+    private static double[] sinCos(final double[] a, final boolean isSine) {
+
+        final double lo = a[0];
+        final double hi = a[1];
+        final double[] result;
+
+        if (!(Math.abs(lo) < MAX_PERIODIC_ARGUMENT && Math.abs(hi) < MAX_PERIODIC_ARGUMENT)
+            || hi - lo >= 2.0 * Math.PI) {
+            result = of(-1.0, 1.0);
+        } else {
+            final double maxOffset = isSine ? Math.PI / 2.0 : 0.0;
+            final double f1 = isSine ? Math.sin(lo) : Math.cos(lo);
+            final double f2 = isSine ? Math.sin(hi) : Math.cos(hi);
+
+            final double fMin = containsPeriodic(lo, hi, maxOffset + Math.PI, 2.0 * Math.PI) ? -1.0
+                    : Math.min(f1, f2);
+            final double fMax = containsPeriodic(lo, hi, maxOffset, 2.0 * Math.PI) ? 1.0 : Math.max(f1, f2);
+
+            result = library(fMin, fMax, -1.0, 1.0);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the enclosure of tangent.
+     *
+     * @param a the argument
+     * @return the enclosure
+     */
+    private static double[] tan(final double[] a) {
+
+        final double lo = a[0];
+        final double hi = a[1];
+        final double[] result;
+
+        if (!(Math.abs(lo) < MAX_PERIODIC_ARGUMENT && Math.abs(hi) < MAX_PERIODIC_ARGUMENT) || hi - lo >= Math.PI
+            || containsPeriodic(lo, hi, Math.PI / 2.0, Math.PI)) {
+            result = entire();
+        } else {
+            result = library(Math.tan(lo), Math.tan(hi), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the enclosure of a function of one argument.
+     *
+     * @param function the function
+     * @param a        the argument
+     * @return the enclosure; null if the function is undefined everywhere in the argument
+     */
+    static double[] apply(final EFunctionOf1 function, final double[] a) {
+
+        final double lo = a[0];
+        final double hi = a[1];
+        final double inf = Double.POSITIVE_INFINITY;
+
+        return switch (function) {
+            case ABS -> lo >= 0.0 ? a : hi <= 0.0 ? negate(a) : of(0.0, Math.max(-lo, hi));
+            case ACOS -> {
+                final double[] r = restrict(a, -1.0, 1.0);
+                yield r == null ? null : library(Math.acos(r[1]), Math.acos(r[0]), 0.0, PI_UP);
+            }
+            case ASIN -> {
+                final double[] r = restrict(a, -1.0, 1.0);
+                yield r == null ? null : library(Math.asin(r[0]), Math.asin(r[1]), -HALF_PI_UP, HALF_PI_UP);
+            }
+            case ATAN -> library(Math.atan(lo), Math.atan(hi), -HALF_PI_UP, HALF_PI_UP);
+            case CBRT -> library(Math.cbrt(lo), Math.cbrt(hi), -inf, inf);
+            case COS -> sinCos(a, false);
+            case EXP -> library(Math.exp(lo), Math.exp(hi), 0.0, inf);
+            case EXPM1 -> library(Math.expm1(lo), Math.expm1(hi), -1.0, inf);
+            case LOG -> hi <= 0.0 ? null : library(lo <= 0.0 ? -inf : Math.log(lo), Math.log(hi), -inf, inf);
+            case LOG1P -> hi <= -1.0 ? null
+                    : library(lo <= -1.0 ? -inf : Math.log1p(lo), Math.log1p(hi), -inf, inf);
+            case LOG10 -> hi <= 0.0 ? null : library(lo <= 0.0 ? -inf : Math.log10(lo), Math.log10(hi), -inf, inf);
+            case LOG2 -> {
+                // The quotient by an inexact LN2 adds two rounding errors to that of the logarithm
+                final double[] ln = hi <= 0.0 ? null
+                        : library(lo <= 0.0 ? -inf : Math.log(lo), Math.log(hi), -inf, inf);
+                yield ln == null ? null
+                        : of(down(ln[0] / AbstractFunction.LN2, 2), up(ln[1] / AbstractFunction.LN2, 2));
+            }
+            case SIN -> sinCos(a, true);
+            case SQRT -> hi < 0.0 ? null : of(lo <= 0.0 ? 0.0 : Math.max(0.0, down(Math.sqrt(lo), 1)),
+                    up(Math.sqrt(hi), 1));
+            case TAN -> tan(a);
+            case TO_DEG -> library(Math.toDegrees(lo), Math.toDegrees(hi), -inf, inf);
+            case TO_RAD -> library(Math.toRadians(lo), Math.toRadians(hi), -inf, inf);
+        };
+    }
+
+    /**
+     * Computes the enclosure of a function of two arguments.
+     *
+     * @param function the function
+     * @param a        the first argument
+     * @param b        the second argument
+     * @return the enclosure; null if the function is undefined everywhere in the arguments
+     */
+    static double[] apply(final EFunctionOf2 function, final double[] a, final double[] b) {
+
+        return switch (function) {
+            case ATAN2 -> atan2(a, b);
+            case HYPOT -> {
+                final double[] absA = apply(EFunctionOf1.ABS, a);
+                final double[] absB = apply(EFunctionOf1.ABS, b);
+                yield library(Math.hypot(absA[0], absB[0]), Math.hypot(absA[1], absB[1]), 0.0,
+                        Double.POSITIVE_INFINITY);
+            }
+            case POW -> pow(a, b);
+        };
+    }
+
+    /**
+     * Computes the enclosure of the two-argument arctangent.  In each half plane that does not meet the branch cut on
+     * the negative x axis, the function is expressed through the arctangent of a quotient; otherwise the enclosure is
+     * the whole range of the function.
+     *
+     * @param y the first argument
+     * @param x the second argument
+     * @return the enclosure
+     */
+    private static double[] atan2(final double[] y, final double[] x) {
+
+        final double[] result;
+
+        if (x[0] > 0.0) {
+            // atan2(y, x) = atan(y / x)
+            final double[] q = divide(y, x);
+            result = library(Math.atan(q[0]), Math.atan(q[1]), -HALF_PI_UP, HALF_PI_UP);
+        } else if (y[0] > 0.0 || y[1] < 0.0) {
+            // atan2(y, x) = (+/-)pi/2 - atan(x / y)
+            final double[] q = divide(x, y);
+            final double[] atan = library(Math.atan(q[0]), Math.atan(q[1]), -HALF_PI_UP, HALF_PI_UP);
+            final double[] halfPi = y[0] > 0.0 ? of(Math.PI / 2.0, HALF_PI_UP) : of(-HALF_PI_UP, -Math.PI / 2.0);
+            final double[] diff = add(halfPi, negate(atan));
+            result = of(Math.max(-PI_UP, diff[0]), Math.min(PI_UP, diff[1]));
+        } else {
+            result = of(-PI_UP, PI_UP);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the enclosure of a power.  A constant integer exponent is applied to any base; any other exponent
+     * applies only to non-negative bases, over which the power is monotonic in each argument, so it takes its extremes
+     * at the corners of the box.
+     *
+     * @param a the base
+     * @param b the exponent
+     * @return the enclosure; null if the power is undefined everywhere in the arguments
+     */
+    private static double[] pow(final double[] a, final double[] b) {
+
+        final double[] result;
+
+        final double bLo = b[0];
+        final double bHi = b[1];
+
+        if (bLo == bHi && bLo == Math.rint(bLo) && Math.abs(bLo) < 0x1p53) {
+            result = integerPow(a, bLo);
+        } else if (a[0] < 0.0 && Math.floor(bHi) >= Math.ceil(bLo)) {
+            // Negative bases have real powers at the integers in the exponent's interval
+            result = entire();
+        } else {
+            final double[] base = restrict(a, 0.0, Double.POSITIVE_INFINITY);
+            if (base == null) {
+                result = null;
+            } else {
+                final double p1 = Math.pow(base[0], bLo);
+                final double p2 = Math.pow(base[0], bHi);
+                final double p3 = Math.pow(base[1], bLo);
+                final double p4 = Math.pow(base[1], bHi);
+                result = library(Math.min(Math.min(p1, p2), Math.min(p3, p4)),
+                        Math.max(Math.max(p1, p2), Math.max(p3, p4)), 0.0, Double.POSITIVE_INFINITY);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the enclosure of a power with a constant integer exponent.
+     *
+     * @param a the base
+     * @param n the exponent (an integer)
+     * @return the enclosure; null if the power is undefined everywhere in the base
+     */
+    private static double[] integerPow(final double[] a, final double n) {
+
+        final double[] result;
+
+        if (n == 0.0) {
+            result = of(1.0, 1.0);
+        } else if (n < 0.0) {
+            final double[] positive = integerPow(a, -n);
+            result = reciprocal(positive);
+        } else if (n % 2.0 == 0.0) {
+            final double[] abs = apply(EFunctionOf1.ABS, a);
+            result = library(Math.pow(abs[0], n), Math.pow(abs[1], n), 0.0, Double.POSITIVE_INFINITY);
+        } else {
+            result = library(Math.pow(a[0], n), Math.pow(a[1], n), Double.NEGATIVE_INFINITY,
+                    Double.POSITIVE_INFINITY);
+        }
+
+        return result;
+    }
+}
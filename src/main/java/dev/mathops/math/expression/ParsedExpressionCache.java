@@ -0,0 +1,254 @@
+package dev.mathops.math.expression;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of parsed expressions, keyed by source string, bounded in both the number of entries and their total weight
+ * (the total length of their source strings).
+ *
+ * <p>
+ * Parsed expressions are immutable, so a cached expression is shared by every caller that parses the same string.
+ * Lookups do not lock.  A string that is not cached is parsed once even if several threads request it at the same
+ * time, and a string that fails to parse is cached as a failure.  When either bound is exceeded, the least recently
+ * used entries are evicted in a batch, down to {@code EVICT_TO_NUMER / EVICT_TO_DENOM} of each bound, so the cost of
+ * eviction is spread across many insertions.  Recency is tracked approximately, by the time of each entry's last use.
+ */
+public final class ParsedExpressionCache {
+
+    /** The numerator of the fraction of each bound to which eviction reduces the cache. */
+    private static final int EVICT_TO_NUMER = 9;
+
+    /** The denominator of the fraction of each bound to which eviction reduces the cache. */
+    private static final int EVICT_TO_DENOM = 10;
+
+    /** The maximum number of entries. */
+    private final int maxEntries;
+
+    /** The maximum total weight of entries. */
+    private final long maxWeight;
+
+    /** The entries, keyed by source string. */
+    private final Map<String, Entry> entries;
+
+    /** The total weight of entries. */
+    private final AtomicLong weight;
+
+    /** The number of lookups that found a cached entry. */
+    private final LongAdder hits;
+
+    /** The number of lookups that parsed the string. */
+    private final LongAdder misses;
+
+    /** The number of entries evicted. */
+    private final LongAdder evictions;
+
+    /** An object on which eviction synchronizes, so only one thread evicts at a time. */
+    private final Object evictionLock;
+
+    /**
+     * Constructs a new {@code ParsedExpressionCache}.
+     *
+     * @param theMaxEntries the maximum number of entries
+     * @param theMaxWeight  the maximum total weight of entries (the total length of their source strings); a string
+     *                      longer than this is parsed but never cached
+     * @throws IllegalArgumentException if either bound is not positive
+     */
+    public ParsedExpressionCache(final int theMaxEntries, final long theMaxWeight) {
+
+        if (theMaxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries must be positive");
+        }
+        if (theMaxWeight <= 0L) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+
+        this.maxEntries = theMaxEntries;
+        this.maxWeight = theMaxWeight;
+        this.entries = new ConcurrentHashMap<>(Math.min(theMaxEntries, 1024) * 2);
+        this.weight = new AtomicLong();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.evictionLock = new Object();
+    }
+
+    /**
+     * Gets the parsed expression for a string, parsing it if it is not cached.
+     *
+     * @param source the string to parse
+     * @return the expression; null if a parsing error occurs
+     */
+    public Expr get(final String source) {
+
+        final Expr result;
+
+        if (source == null || (long) source.length() > this.maxWeight) {
+            this.misses.increment();
+            result = ExpressionParser.parseExprUncached(source);
+        } else {
+            Entry entry = this.entries.get(source);
+
+            if (entry == null) {
+                entry = this.entries.computeIfAbsent(source, this::parseEntry);
+                if (this.entries.size() > this.maxEntries || this.weight.get() > this.maxWeight) {
+                    evict();
+                }
+            } else {
+                this.hits.increment();
+            }
+
+            entry.lastUsed = System.nanoTime();
+            result = entry.expr;
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses a string into a new entry.  This is called at most once per string while it remains cached.
+     *
+     * @param source the string
+     * @return the entry
+     */
+    private Entry parseEntry(final String source) {
+
+        this.misses.increment();
+        this.weight.addAndGet((long) source.length());
+
+        return new Entry(ExpressionParser.parseExprUncached(source));
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache is within the reduced bounds.
+     */
+    private void evict() {
+
+        synchronized (this.evictionLock) {
+            final int targetEntries = (int) ((long) this.maxEntries * EVICT_TO_NUMER / EVICT_TO_DENOM);
+            final long targetWeight = this.maxWeight * EVICT_TO_NUMER / EVICT_TO_DENOM;
+
+            // Another thread may have evicted while this one waited for the lock
+            if (this.entries.size() > this.maxEntries || this.weight.get() > this.maxWeight) {
+                final List<Map.Entry<String, Entry>> byAge = new ArrayList<>(this.entries.entrySet());
+                byAge.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+
+                for (final Map.Entry<String, Entry> oldest : byAge) {
+                    if (this.entries.size() <= targetEntries && this.weight.get() <= targetWeight) {
+                        break;
+                    }
+                    final String key = oldest.getKey();
+                    if (this.entries.remove(key, oldest.getValue())) {
+                        this.weight.addAndGet(-(long) key.length());
+                        this.evictions.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.  Statistics are not reset.
+     */
+    public void clear() {
+
+        synchronized (this.evictionLock) {
+            for (final String key : this.entries.keySet()) {
+                if (this.entries.remove(key) != null) {
+                    this.weight.addAndGet(-(long) key.length());
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+
+        return this.entries.size();
+    }
+
+    /**
+     * Gets the total weight of entries (the total length of their source strings).
+     *
+     * @return the total weight
+     */
+    public long getWeight() {
+
+        return this.weight.get();
+    }
+
+    /**
+     * Gets the number of lookups that found a cached entry.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+
+        return this.hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that parsed the string.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+
+        return this.misses.sum();
+    }
+
+    /**
+     * Gets the number of entries evicted.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+
+        return this.evictions.sum();
+    }
+
+    /**
+     * Gets the fraction of lookups that found a cached entry.
+     *
+     * @return the hit rate (0 if there have been no lookups)
+     */
+    public double getHitRate() {
+
+        final long numHits = this.hits.sum();
+        final long total = numHits + this.misses.sum();
+
+        return total == 0L ? 0.0 : (double) numHits / (double) total;
+    }
+
+    /**
+     * A cached parse result.
+     */
+    private static final class Entry {
+
+        /** The expression; null if the string failed to parse. */
+        final Expr expr;
+
+        /** The value of {@code System.nanoTime} when the entry was last used. */
+        volatile long lastUsed;
+
+        /**
+         * Constructs a new {@code Entry}.
+         *
+         * @param theExpr the expression; null if the string failed to parse
+         */
+        Entry(final Expr theExpr) {
+
+            this.expr = theExpr;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package dev.mathops.math.expression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A builder for a {@code CompiledExpr}.  A front end (like {@code ExprCompiler}, or a translator for another expression
+ * language) creates operands for variables and constants and combines them with operations, each of which yields a
+ * new operand.  Operations whose arguments are all constant are evaluated as they are added.
+ *
+ * <p>
+ * When the program is built, instructions that do not contribute to an output are dropped, and the results of the
+ * remaining instructions are assigned to temporary registers so that a register is reused as soon as the value it
+ * holds is no longer needed.
+ */
+public final class ProgramBuilder {
+
+    /** The tag for an operand that is a variable. */
+    private static final int VARIABLE = 0;
+
+    /** The tag for an operand that is a constant. */
+    private static final int CONSTANT = 1 << 28;
+
+    /** The tag for an operand that is the result of an instruction. */
+    private static final int RESULT = 2 << 28;
+
+    /** A mask that extracts the tag from an operand. */
+    private static final int TAG_MASK = 3 << 28;
+
+    /** The variable names, in register order. */
+    private final String[] variableNames;
+
+    /** The constants found so far. */
+    private double[] constants;
+
+    /** The number of constants found so far. */
+    private int numConstants;
+
+    /** A map from the bits of each constant value to its index. */
+    private final Map<Long, Integer> constantIndexes;
+
+    /** The instructions added so far, with tagged operands; the destination of instruction N is {@code RESULT | N}. */
+    private int[] code;
+
+    /** The number of instructions added so far. */
+    private int numInstructions;
+
+    /**
+     * Constructs a new {@code ProgramBuilder}.
+     *
+     * @param theVariableNames the names of the variables the program may reference, in the order their values will be
+     *                         stored in the register file
+     * @throws IllegalArgumentException if a variable name is null or duplicated
+     */
+    public ProgramBuilder(final String... theVariableNames) {
+
+        final String[] names = theVariableNames.clone();
+        final int numVariables = names.length;
+        for (int i = 0; i < numVariables; ++i) {
+            if (names[i] == null) {
+                throw new IllegalArgumentException("Variable names may not be null");
+            }
+            for (int j = 0; j < i; ++j) {
+                if (names[j].equals(names[i])) {
+                    throw new IllegalArgumentException("Duplicate variable name: " + names[i]);
+                }
+            }
+        }
+
+        this.variableNames = names;
+        this.constants = new double[8];
+        this.constantIndexes = new HashMap<>(16);
+        this.code = new int[16 * CompiledExpr.STRIDE];
+    }
+
+    /**
+     * Gets the operand for a variable.
+     *
+     * @param index the index of the variable in the list of names given to the constructor
+     * @return the operand
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    public int variable(final int index) {
+
+        if (index < 0 || index >= this.variableNames.length) {
+            throw new IllegalArgumentException("Invalid variable index: " + index);
+        }
+
+        return VARIABLE | index;
+    }
+
+    /**
+     * Gets the operand for a variable.
+     *
+     * @param name the variable name
+     * @return the operand
+     * @throws IllegalArgumentException if the variable is not known
+     */
+    public int variable(final String name) {
+
+        int index = -1;
+
+        final int count = this.variableNames.length;
+        for (int i = 0; i < count; ++i) {
+            if (this.variableNames[i].equals(name)) {
+                index = i;
+                break;
+            }
+        }
+
+        if (index < 0) {
+            throw new IllegalArgumentException("Expression references unknown variable: " + name);
+        }
+
+        return VARIABLE | index;
+    }
+
+    /**
+     * Gets the operand for a constant value, adding it to the constant table if needed.
+     *
+     * @param value the value
+     * @return the operand
+     */
+    public int constant(final double value) {
+
+        final Long key = Long.valueOf(Double.doubleToLongBits(value));
+        final Integer existing = this.constantIndexes.get(key);
+
+        final int index;
+
+        if (existing == null) {
+            index = this.numConstants;
+            if (index == this.constants.length) {
+                this.constants = Arrays.copyOf(this.constants, index * 2);
+            }
+            this.constants[index] = value;
+            ++this.numConstants;
+            this.constantIndexes.put(key, Integer.valueOf(index));
+        } else {
+            index = existing.intValue();
+        }
+
+        return CONSTANT | index;
+    }
+
+    /**
+     * Adds an operation of one argument.
+     *
+     * @param opcode the opcode, one of the opcode constants in {@code CompiledExpr}
+     * @param a      the argument operand
+     * @return the operand that holds the result
+     */
+    public int apply(final int opcode, final int a) {
+
+        return apply(opcode, a, a);
+    }
+
+    /**
+     * Adds an operation, or evaluates it now if its arguments are constant.
+     *
+     * @param opcode the opcode, one of the opcode constants in {@code CompiledExpr}
+     * @param a      the first argument operand
+     * @param b      the second argument operand (ignored by operations of one argument)
+     * @return the operand that holds the result
+     */
+    public int apply(final int opcode, final int a, final int b) {
+
+        final int second = CompiledExpr.isUnary(opcode) ? a : b;
+
+        final int result;
+
+        if ((a & TAG_MASK) == CONSTANT && (second & TAG_MASK) == CONSTANT) {
+            final double aValue = this.constants[a & ~TAG_MASK];
+            final double bValue = this.constants[second & ~TAG_MASK];
+            result = constant(CompiledExpr.apply(opcode, aValue, bValue));
+        } else {
+            final int pc = this.numInstructions * CompiledExpr.STRIDE;
+            if (pc == this.code.length) {
+                this.code = Arrays.copyOf(this.code, pc * 2);
+            }
+            result = RESULT | this.numInstructions;
+            this.code[pc] = opcode;
+            this.code[pc + 1] = result;
+            this.code[pc + 2] = a;
+            this.code[pc + 3] = second;
+            ++this.numInstructions;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the program.
+     *
+     * @param outputs the operands that hold the outputs (at least one)
+     * @return the program
+     * @throws IllegalArgumentException if no outputs are given
+     */
+    public CompiledExpr build(final int... outputs) {
+
+        if (outputs.length == 0) {
+            throw new IllegalArgumentException("A program must have at least one output");
+        }
+
+        final int count = this.numInstructions;
+        final int[] instructions = this.code;
+
+        // For each instruction result, the index of the last instruction that reads it (count if it is an output, -1
+        // if nothing reads it)
+        final int[] lastUse = new int[count];
+        Arrays.fill(lastUse, -1);
+        for (final int output : outputs) {
+            if ((output & TAG_MASK) == RESULT) {
+                lastUse[output & ~TAG_MASK] = count;
+            }
+        }
+
+        // Working backward, an instruction is live if something later reads its result; only live instructions mark
+        // their sources as read, so dead chains are dropped entirely
+        for (int i = count - 1; i >= 0; --i) {
+            if (lastUse[i] >= 0) {
+                final int pc = i * CompiledExpr.STRIDE;
+                for (int s = 2; s <= 3; ++s) {
+                    final int source = instructions[pc + s];
+                    if ((source & TAG_MASK) == RESULT) {
+                        lastUse[source & ~TAG_MASK] = Math.max(lastUse[source & ~TAG_MASK], i);
+                    }
+                }
+            }
+        }
+
+        final int base = this.variableNames.length + this.numConstants;
+        final int[] assigned = new int[count];
+        final int[] free = new int[count];
+        int numFree = 0;
+        int numTemporaries = 0;
+
+        final int[] linked = new int[count * CompiledExpr.STRIDE];
+        int length = 0;
+
+        for (int i = 0; i < count; ++i) {
+            if (lastUse[i] >= 0) {
+                final int pc = i * CompiledExpr.STRIDE;
+                final int a = instructions[pc + 2];
+                final int b = instructions[pc + 3];
+                linked[length] = instructions[pc];
+                linked[length + 2] = register(a, assigned);
+                linked[length + 3] = register(b, assigned);
+
+                // Registers whose last reader is this instruction are freed first, so the result may reuse one
+                if ((a & TAG_MASK) == RESULT && lastUse[a & ~TAG_MASK] == i) {
+                    free[numFree] = assigned[a & ~TAG_MASK];
+                    ++numFree;
+                }
+                if (b != a && (b & TAG_MASK) == RESULT && lastUse[b & ~TAG_MASK] == i) {
+                    free[numFree] = assigned[b & ~TAG_MASK];
+                    ++numFree;
+                }
+
+                if (numFree > 0) {
+                    --numFree;
+                    assigned[i] = free[numFree];
+                } else {
+                    assigned[i] = base + numTemporaries;
+                    ++numTemporaries;
+                }
+                linked[length + 1] = assigned[i];
+                length += CompiledExpr.STRIDE;
+            }
+        }
+
+        final int numOutputs = outputs.length;
+        final int[] outputRegisters = new int[numOutputs];
+        for (int i = 0; i < numOutputs; ++i) {
+            outputRegisters[i] = register(outputs[i], assigned);
+        }
+
+        // A register file always has room for a result, even for a program with no variables or constants
+        final int numRegisters = Math.max(1, base + numTemporaries);
+
+        return new CompiledExpr(this.variableNames, Arrays.copyOf(this.constants, this.numConstants),
+                Arrays.copyOf(linked, length), numRegisters, outputRegisters);
+    }
+
+    /**
+     * Resolves an operand to a register index.
+     *
+     * @param operand  the operand
+     * @param assigned the register assigned to each instruction result
+     * @return the register index
+     */
+    private int register(final int operand, final int[] assigned) {
+
+        final int index = operand & ~TAG_MASK;
+        final int tag = operand & TAG_MASK;
+
+        final int result;
+
+        if (tag == VARIABLE) {
+            result = index;
+        } else if (tag == CONSTANT) {
+            result = this.variableNames.length + index;
+        } else {
+            result = assigned[index];
+        }
+
+        return result;
+    }
+}
@@ -1,15 +1,22 @@
 package dev.mathops.math.expression;
 
 import dev.mathops.math.Divide;
+import dev.mathops.math.ExactAccumulator;
 import dev.mathops.math.Multiply;
 import dev.mathops.math.NumberUtils;
 import dev.mathops.text.lexparse.AbstractProduction;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A term in an expression.
+ *
+ * <p>
+ * Exponentiation operations are converted to "pow" functions when a term is constructed, and a term is never modified
+ * afterward, so evaluating, differentiating, or simplifying a term does not change it and may be done from several
+ * threads at once.
  */
 public class Term extends AbstractProduction {
 
@@ -17,7 +24,7 @@ public class Term extends AbstractProduction {
     private final ExpressionTokens.PlusMinusTok sign;
 
     /** The leading factor (never null). */
-    private Factor leadingFactor;
+    private final Factor leadingFactor;
 
     /** The TimesDivToken preceding each subsequent factor. */
     private final List<ExpressionTokens.TimesDivCaretTok> opList;
@@ -25,6 +32,9 @@ public class Term extends AbstractProduction {
     /** The subsequent factors. */
     private final List<Factor> factorList;
 
+    /** The structural hash code, computed when first needed (0 until then). */
+    private int hash;
+
     /**
      * Constructs a new synthetic {@code Term} consisting of a single numeric factor.
      *
@@ -111,13 +121,13 @@ public class Term extends AbstractProduction {
         }
 
         this.sign = theSign == null ? ExpressionTokens.PlusMinusTok.PLUS : theSign;
-        this.leadingFactor = theFactor1;
-
         this.opList = new ArrayList<>(1);
         this.opList.add(theTd);
 
         this.factorList = new ArrayList<>(1);
         this.factorList.add(theFactor2);
+
+        this.leadingFactor = convertExponentsToPowFunctions(theFactor1, this.opList, this.factorList);
     }
 
     /**
@@ -156,8 +166,6 @@ public class Term extends AbstractProduction {
         }
 
         this.sign = theSign == null ? ExpressionTokens.PlusMinusTok.PLUS : theSign;
-        this.leadingFactor = theFactor1;
-
         this.opList = new ArrayList<>(2);
         this.opList.add(theTd1);
         this.opList.add(theTd2);
@@ -165,6 +173,8 @@ public class Term extends AbstractProduction {
         this.factorList = new ArrayList<>(2);
         this.factorList.add(theFactor2);
         this.factorList.add(theFactor3);
+
+        this.leadingFactor = convertExponentsToPowFunctions(theFactor1, this.opList, this.factorList);
     }
 
     /**
@@ -179,7 +189,7 @@ public class Term extends AbstractProduction {
     public Term(final Factor theFactor1, final ExpressionTokens.TimesDivCaretTok theTd1, final Factor theFactor2,
                 final ExpressionTokens.TimesDivCaretTok theTd2, final Factor theFactor3) {
 
-        this(null, theFactor1, theTd2, theFactor2, theTd2, theFactor3);
+        this(null, theFactor1, theTd1, theFactor2, theTd2, theFactor3);
     }
 
     /**
@@ -219,9 +229,9 @@ public class Term extends AbstractProduction {
         }
 
         this.sign = theSign == null ? ExpressionTokens.PlusMinusTok.PLUS : theSign;
-        this.leadingFactor = theLeadingFactor;
         this.opList = new ArrayList<>(theTdList);
         this.factorList = new ArrayList<>(theFactorList);
+        this.leadingFactor = convertExponentsToPowFunctions(theLeadingFactor, this.opList, this.factorList);
     }
 
     /**
@@ -277,9 +287,9 @@ public class Term extends AbstractProduction {
         }
 
         this.sign = theSign == null ? ExpressionTokens.PlusMinusTok.PLUS : theSign;
-        this.leadingFactor = theLeadingFactor;
         this.opList = new ArrayList<>(theTdList);
         this.factorList = new ArrayList<>(theFactorList);
+        this.leadingFactor = convertExponentsToPowFunctions(theLeadingFactor, this.opList, this.factorList);
     }
 
     /**
@@ -422,35 +432,53 @@ public class Term extends AbstractProduction {
      * @param variables variable values
      * @return the result; null if unable to evaluate
      */
-    public final Number eval(final VariableValues variables) {
+    public final Number eval(final IVariableSource variables) {
+
+        return eval(variables, null);
+    }
 
-        convertExponentsToPowFunctions();
+    /**
+     * Evaluates the term, reusing values already computed during the same evaluation.
+     *
+     * @param variables variable values
+     * @param memo      the values of nodes computed so far, keyed by node identity; null to compute every node
+     * @return the result; null if unable to evaluate
+     */
+    final Number eval(final IVariableSource variables, final Map<Object, Number> memo) {
 
-        Number value = this.leadingFactor.eval(variables);
+        Number value = this.leadingFactor.eval(variables, memo);
 
         if (value != null) {
             final int opListSize = this.opList.size();
             final int factorListSize = this.factorList.size();
             final int size = Math.min(opListSize, factorListSize);
 
-            for (int i = 0; i < size; ++i) {
-                final Number temp = this.factorList.get(i).eval(variables);
-                if (temp == null) {
-                    value = null;
-                    break;
+            if (size > 0) {
+                // Form the product in an accumulator so intermediate products are not allocated and reduced at
+                // every step
+                final ExactAccumulator accumulator = new ExactAccumulator(value);
+
+                for (int i = 0; i < size; ++i) {
+                    final Number temp = this.factorList.get(i).eval(variables, memo);
+                    if (temp == null) {
+                        value = null;
+                        break;
+                    }
+
+                    // Exponents were converted to "pow" functions at construction, so each operation is '*' or '/'
+                    if ((int) this.opList.get(i).op == '/') {
+                        accumulator.divide(temp);
+                    } else {
+                        accumulator.multiply(temp);
+                    }
                 }
 
-                final int op = (int) this.opList.get(i).op;
-                if (op == '/') {
-                    value = Divide.numberDivNumber(value, temp);
-                } else if (op == '*') {
-                    value = Multiply.numberTimesNumber(value, temp);
-                } else {
-                    value = Double.valueOf(Math.pow(value.doubleValue(), temp.doubleValue()));
+                if (value != null) {
+                    value = accumulator.result();
                 }
             }
 
-            if ((int) this.sign.op == '-') {
+            if (value != null && (int) this.sign.op == '-') {
                 value = NumberUtils.negate(value);
             }
         }
@@ -458,6 +486,60 @@ public class Term extends AbstractProduction {
         return value;
     }
 
+    /**
+     * Evaluates the term using {@code double} arithmetic.
+     *
+     * @param variables variable values
+     * @return the result; NaN if unable to evaluate
+     */
+    public final double evalDouble(final IVariableSource variables) {
+
+        double value = this.leadingFactor.evalDouble(variables);
+
+        final int size = Math.min(this.opList.size(), this.factorList.size());
+        for (int i = 0; i < size; ++i) {
+            final double temp = this.factorList.get(i).evalDouble(variables);
+
+            // Exponents were converted to "pow" functions at construction, so each operation is '*' or '/'
+            if ((int) this.opList.get(i).op == '/') {
+                value /= temp;
+            } else {
+                value *= temp;
+            }
+        }
+
+        return (int) this.sign.op == '-' ? -value : value;
+    }
+
+    /**
+     * Computes an interval that encloses the value of the term over a box of variable values.
+     *
+     * @param boxes the interval of values of each variable, as an array of lower and upper bound
+     * @return the enclosing interval; null if unable to evaluate
+     */
+    final double[] enclose(final Map<String, double[]> boxes) {
+
+        double[] value = this.leadingFactor.enclose(boxes);
+
+        final int size = Math.min(this.opList.size(), this.factorList.size());
+        for (int i = 0; i < size && value != null; ++i) {
+            final double[] temp = this.factorList.get(i).enclose(boxes);
+            if (temp == null) {
+                value = null;
+            } else if ((int) this.opList.get(i).op == '/') {
+                value = IntervalArithmetic.divide(value, temp);
+            } else {
+                value = IntervalArithmetic.multiply(value, temp);
+            }
+        }
+
+        if (value != null && (int) this.sign.op == '-') {
+            value = IntervalArithmetic.negate(value);
+        }
+
+        return value;
+    }
+
     /**
      * Generates the derivative of this term with respect to a given variable.
      *
@@ -466,8 +548,6 @@ public class Term extends AbstractProduction {
      */
     public final Term differentiate(final String varName) {
 
-        convertExponentsToPowFunctions();
-
 //        Log.info("    Differentiating term ", this);
 
         final List<Factor> numer = new ArrayList<>(4);
@@ -483,15 +563,19 @@ public class Term extends AbstractProduction {
             }
         }
 
-        final Term result;
+        final Term unsigned;
 
         if (denom.isEmpty()) {
             final Expr prod = doProductRule(numer, varName).simplify();
-            result = new Term(new Factor(prod));
+            unsigned = new Term(new Factor(prod));
         } else {
-            result = doQuotientRule(numer, denom, varName).simplify();
+            unsigned = doQuotientRule(numer, denom, varName).simplify();
         }
 
+        // The derivative of a negative term is the negation of the derivative of its factors
+        final Term result = (int) this.sign.op == '-'
+                ? new Term(ExpressionTokens.PlusMinusTok.MINUS, new Factor(new Expr(unsigned, false))) : unsigned;
+
         //        Log.info("    Derivative of term ", this, " is ", result);
 
         return result;
@@ -504,8 +588,6 @@ public class Term extends AbstractProduction {
      */
     public final Term simplify() {
 
-        convertExponentsToPowFunctions();
-
         //        Log.info("Simplifying ", this);
 
         final int numFactors = this.factorList.size();
@@ -648,46 +730,42 @@ public class Term extends AbstractProduction {
     }
 
     /**
-     * Scans the list of operations and converts any exponentiation operations found into "pow" functions.
+     * Converts exponentiation operations in a term's operation list into "pow" functions, so a term never holds a
+     * '^' operation once constructed.  Each '^' binds its two neighboring factors more tightly than '*' and '/', and a
+     * chain of '^' operations is grouped from the left.
+     *
+     * @param theLeadingFactor the leading factor
+     * @param ops              the operations (updated in place)
+     * @param factors          the subsequent factors (updated in place)
+     * @return the leading factor to use (a "pow" function if the first operation was '^')
      */
-    private void convertExponentsToPowFunctions() {
-
-        // TODO: member flag to indicate there are no exponents so we can skip this quickly
-
-        boolean hasExponents = false;
-        for (final ExpressionTokens.TimesDivCaretTok td : this.opList) {
-            if ((int) td.op == '^') {
-                hasExponents = true;
-                break;
-            }
-        }
+    private static Factor convertExponentsToPowFunctions(final Factor theLeadingFactor,
+                                                         final List<ExpressionTokens.TimesDivCaretTok> ops,
+                                                         final List<Factor> factors) {
 
-        if (hasExponents) {
-            int numOps = this.opList.size();
+        Factor leading = theLeadingFactor;
 
-            // Factor1 ^ Factor2 --> new Factor(Pow(factor1, factor2))
-            for (int i = 0; i < numOps; ++i) {
-                if ((int) this.opList.get(i).op == '^') {
-                    if (i == 0) {
-                        final Factor pow = new Factor(FunctionOf2.pow( //
-                                new Expr(new Term(this.leadingFactor), false), //
-                                new Expr(new Term(this.factorList.get(0)), false)));
-                        this.opList.remove(0);
-                        this.factorList.remove(0);
-                        this.leadingFactor = pow;
-                    } else {
-                        final Factor pow = new Factor(FunctionOf2.pow( //
-                                new Expr(new Term(this.factorList.get(i - 1)), false), //
-                                new Expr(new Term(this.factorList.get(i)), false)));
-
-                        this.opList.remove(i);
-                        this.factorList.remove(i);
-                        this.factorList.set(i, pow);
-                    }
-                    --numOps;
+        // Factor1 ^ Factor2 --> new Factor(Pow(factor1, factor2)), which then serves as the base for a following '^'
+        int i = 0;
+        while (i < ops.size()) {
+            if ((int) ops.get(i).op == '^') {
+                final Factor base = i == 0 ? leading : factors.get(i - 1);
+                final Factor pow = new Factor(FunctionOf2.pow(new Expr(new Term(base), false),
+                        new Expr(new Term(factors.get(i)), false)));
+
+                ops.remove(i);
+                factors.remove(i);
+                if (i == 0) {
+                    leading = pow;
+                } else {
+                    factors.set(i - 1, pow);
                 }
+            } else {
+                ++i;
             }
         }
+
+        return leading;
     }
 
     /**
@@ -723,7 +801,12 @@ public class Term extends AbstractProduction {
                 // Nothing varies - derivative is zero
                 result = new Expr(new Term(0.0), true);
             } else {
-                // Perform a product-rule derivative of all the variable factors
+                // Perform a product-rule derivative of all the variable factors, differentiating each factor once
+
+                final List<Factor> derivatives = new ArrayList<>(numVarFactors);
+                for (final Factor f : varFactors) {
+                    derivatives.add(f.differentiate(varName));
+                }
 
                 final List<Term> resultTerms = new ArrayList<>(count);
                 for (int i = 0; i < numVarFactors; ++i) {
@@ -731,9 +814,9 @@ public class Term extends AbstractProduction {
 
                     for (int j = 0; j < numVarFactors; ++j) {
                         if (j == i) {
-                            termFactors.add(varFactors.get(i).differentiate(varName));
+                            termFactors.add(derivatives.get(i));
                         } else {
-                            termFactors.add(varFactors.get(i));
+                            termFactors.add(varFactors.get(j));
                         }
                     }
 
@@ -832,6 +915,58 @@ public class Term extends AbstractProduction {
         return new Term(topFact, quotientTds, quotientFactors).simplify();
     }
 
+    /**
+     * Generates a hash code based on the structure of the term.
+     *
+     * @return the hash code
+     */
+    @Override
+    public final int hashCode() {
+
+        int h = this.hash;
+
+        if (h == 0) {
+            h = 31 * (int) this.sign.op + this.leadingFactor.hashCode();
+            final int count = this.factorList.size();
+            for (int i = 0; i < count; ++i) {
+                h = 31 * (31 * h + (int) this.opList.get(i).op) + this.factorList.get(i).hashCode();
+            }
+            this.hash = h;
+        }
+
+        return h;
+    }
+
+    /**
+     * Tests whether this object is structurally equal to another.
+     *
+     * @param obj the other object
+     * @return true if the objects are equal
+     */
+    @Override
+    public final boolean equals(final Object obj) {
+
+        boolean equal;
+
+        if (obj == this) {
+            equal = true;
+        } else if (obj instanceof final Term term) {
+            final int count = this.factorList.size();
+
+            equal = hashCode() == term.hashCode() && this.sign.op == term.sign.op
+                    && count == term.factorList.size() && this.leadingFactor.equals(term.leadingFactor);
+
+            for (int i = 0; equal && i < count; ++i) {
+                equal = this.opList.get(i).op == term.opList.get(i).op
+                        && this.factorList.get(i).equals(term.factorList.get(i));
+            }
+        } else {
+            equal = false;
+        }
+
+        return equal;
+    }
+
     /**
      * Generates a string representation of the expression.
      *
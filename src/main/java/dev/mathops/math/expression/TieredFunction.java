@@ -0,0 +1,264 @@
+package dev.mathops.math.expression;
+
+/**
+ * A function that starts out interpreting a {@code CompiledExpr} and switches to bytecode generated by
+ * {@code BytecodeCompiler} once it has been called a set number of times.  An expression that is parsed, evaluated
+ * once or twice, and discarded never pays the cost of generating a class, while one evaluated across a plot or a
+ * numeric check is compiled early in the run.
+ *
+ * <p>
+ * Compilation happens on the thread that makes the call that reaches the threshold; other threads keep interpreting
+ * until the compiled form is published.  The call count is not synchronized, so under contention the switch may happen
+ * a few calls late, which is harmless.  A program too large for one method is never compiled, and stays interpreted.
+ */
+public final class TieredFunction implements ICompiledFunction {
+
+    /** The default number of interpreted calls before compilation. */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    /** The program. */
+    private final CompiledExpr program;
+
+    /** The number of interpreted calls before compilation. */
+    private final int threshold;
+
+    /** The number of interpreted calls so far. */
+    private int numCalls;
+
+    /** The compiled function; null until compiled. */
+    private volatile ICompiledFunction compiled;
+
+    /** True if compilation was attempted and the program could not be compiled. */
+    private volatile boolean compileFailed;
+
+    /** The time spent generating and defining the compiled class, in nanoseconds. */
+    private volatile long compileNanos;
+
+    /**
+     * Constructs a new {@code TieredFunction} with the default threshold.
+     *
+     * @param theProgram the program
+     * @throws IllegalArgumentException if the program is null
+     */
+    public TieredFunction(final CompiledExpr theProgram) {
+
+        this(theProgram, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new {@code TieredFunction}.
+     *
+     * @param theProgram   the program
+     * @param theThreshold the number of interpreted calls before compilation; 0 to compile on the first call
+     * @throws IllegalArgumentException if the program is null or the threshold is negative
+     */
+    public TieredFunction(final CompiledExpr theProgram, final int theThreshold) {
+
+        if (theProgram == null) {
+            throw new IllegalArgumentException("Program may not be null");
+        }
+        if (theThreshold < 0) {
+            throw new IllegalArgumentException("Threshold may not be negative");
+        }
+
+        this.program = theProgram;
+        this.threshold = theThreshold;
+    }
+
+    /**
+     * Creates a tiered function that evaluates an expression.
+     *
+     * @param expr          the expression
+     * @param variableNames the names of the variables the expression may reference, in argument order
+     * @return the function
+     * @throws IllegalArgumentException if the expression references a variable not in {@code variableNames}, or a
+     *                                  variable name is duplicated
+     */
+    public static TieredFunction of(final Expr expr, final String... variableNames) {
+
+        final CompiledExpr program = ExprCompiler.compile(expr, variableNames);
+
+        return new TieredFunction(program);
+    }
+
+    /**
+     * Gets the program this function evaluates.
+     *
+     * @return the program
+     */
+    public CompiledExpr getProgram() {
+
+        return this.program;
+    }
+
+    /**
+     * Tests whether the function has been compiled to bytecode.
+     *
+     * @return true if compiled
+     */
+    public boolean isCompiled() {
+
+        return this.compiled != null;
+    }
+
+    /**
+     * Gets the time spent compiling the function to bytecode.
+     *
+     * @return the time, in nanoseconds; 0 if the function has not been compiled
+     */
+    public long getCompileNanos() {
+
+        return this.compileNanos;
+    }
+
+    /**
+     * Gets the number of arguments.
+     *
+     * @return the number of arguments
+     */
+    @Override
+    public int getNumInputs() {
+
+        return this.program.getNumVariables();
+    }
+
+    /**
+     * Gets the number of outputs.
+     *
+     * @return the number of outputs
+     */
+    @Override
+    public int getNumOutputs() {
+
+        return this.program.getNumOutputs();
+    }
+
+    /**
+     * Evaluates the function.
+     *
+     * @param arguments the arguments, at least {@code getNumInputs()} values
+     * @return the first output
+     */
+    @Override
+    public double evaluate(final double... arguments) {
+
+        final ICompiledFunction function = tier();
+
+        final double result;
+
+        if (function == null) {
+            final double[] registers = load(arguments);
+            result = this.program.evaluate(registers);
+        } else {
+            result = function.evaluate(arguments);
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the function, storing all outputs.
+     *
+     * @param arguments the arguments, at least {@code getNumInputs()} values
+     * @param outputs   the array to receive the outputs, at least {@code getNumOutputs()} long
+     */
+    @Override
+    public void evaluate(final double[] arguments, final double[] outputs) {
+
+        final ICompiledFunction function = tier();
+
+        if (function == null) {
+            final double[] registers = load(arguments);
+            this.program.evaluate(registers);
+            final int numOutputs = this.program.getNumOutputs();
+            for (int i = 0; i < numOutputs; ++i) {
+                outputs[i] = registers[this.program.getOutputRegister(i)];
+            }
+        } else {
+            function.evaluate(arguments, outputs);
+        }
+    }
+
+    /**
+     * Evaluates a function of one argument.
+     *
+     * @param operand the argument
+     * @return the first output
+     */
+    @Override
+    public double applyAsDouble(final double operand) {
+
+        final ICompiledFunction function = tier();
+
+        final double result;
+
+        if (function == null) {
+            final double[] registers = this.program.newRegisters();
+            registers[0] = operand;
+            result = this.program.evaluate(registers);
+        } else {
+            result = function.applyAsDouble(operand);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a register file with the variables set from arguments.
+     *
+     * @param arguments the arguments
+     * @return the register file
+     */
+    private double[] load(final double[] arguments) {
+
+        final double[] registers = this.program.newRegisters();
+        System.arraycopy(arguments, 0, registers, 0, this.program.getNumVariables());
+
+        return registers;
+    }
+
+    /**
+     * Gets the compiled function to call, counting an interpreted call and compiling if the threshold is reached.
+     *
+     * @return the compiled function; null to interpret
+     */
+    private ICompiledFunction tier() {
+
+        ICompiledFunction result = this.compiled;
+
+        if (result == null && !this.compileFailed) {
+            final int count = this.numCalls;
+            if (count >= this.threshold) {
+                result = compile();
+            } else {
+                this.numCalls = count + 1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Compiles the function, unless another thread has already done so.
+     *
+     * @return the compiled function; null if the program could not be compiled
+     */
+    private synchronized ICompiledFunction compile() {
+
+        ICompiledFunction result = this.compiled;
+
+        if (result == null && !this.compileFailed) {
+            final long start = System.nanoTime();
+            result = BytecodeCompiler.compile(this.program);
+            this.compileNanos = System.nanoTime() - start;
+
+            if (result == null) {
+                this.compileFailed = true;
+            } else {
+                this.compiled = result;
+            }
+        }
+
+        return result;
+    }
+}
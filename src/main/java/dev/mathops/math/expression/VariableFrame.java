@@ -0,0 +1,213 @@
+package dev.mathops.math.expression;
+
+import java.util.Arrays;
+
+/**
+ * A store of variable values in the slots assigned by a {@code VariableLayout}.  Each slot holds a value as a
+ * {@code Number}, for exact evaluation, and as a {@code double}, for compiled evaluation; setting either form sets
+ * both.  A value set as a {@code double} is boxed only when it is first read as a {@code Number}, so a caller that
+ * sets and evaluates {@code double} values does not allocate.
+ *
+ * <p>
+ * When an expression has been bound to the frame's layout, evaluating it against the frame reads each variable by
+ * index, with no hashing.  A frame is not thread-safe; threads evaluating the same expression should each use their
+ * own frame.
+ */
+public final class VariableFrame implements IVariableSource {
+
+    /** The layout. */
+    private final VariableLayout layout;
+
+    /** The values, as {@code double} values ({@code NaN} if un-set). */
+    private final double[] doubles;
+
+    /** The values, as {@code Number} values (null if un-set, or if not yet boxed from {@code doubles}). */
+    private final Number[] numbers;
+
+    /** Flags indicating slots set by {@code setDouble} whose {@code Number} value has not yet been boxed. */
+    private final boolean[] unboxed;
+
+    /**
+     * Constructs a new {@code VariableFrame} with all variables un-set.
+     *
+     * @param theLayout the layout
+     * @throws IllegalArgumentException if the layout is null
+     */
+    public VariableFrame(final VariableLayout theLayout) {
+
+        if (theLayout == null) {
+            throw new IllegalArgumentException("Layout may not be null");
+        }
+
+        final int numSlots = theLayout.getNumSlots();
+
+        this.layout = theLayout;
+        this.doubles = new double[numSlots];
+        this.numbers = new Number[numSlots];
+        this.unboxed = new boolean[numSlots];
+        Arrays.fill(this.doubles, Double.NaN);
+    }
+
+    /**
+     * Gets the layout.
+     *
+     * @return the layout
+     */
+    public VariableLayout getLayout() {
+
+        return this.layout;
+    }
+
+    /**
+     * Sets the value in a slot.
+     *
+     * @param slot  the slot
+     * @param value the value (null to un-set)
+     */
+    public void set(final int slot, final Number value) {
+
+        this.numbers[slot] = value;
+        this.unboxed[slot] = false;
+        this.doubles[slot] = value == null ? Double.NaN : value.doubleValue();
+    }
+
+    /**
+     * Sets the value in a slot from a {@code double}.  The value is boxed only if it is later read as a
+     * {@code Number}.
+     *
+     * @param slot  the slot
+     * @param value the value
+     */
+    public void setDouble(final int slot, final double value) {
+
+        this.doubles[slot] = value;
+        this.numbers[slot] = null;
+        this.unboxed[slot] = true;
+    }
+
+    /**
+     * Sets a variable value by name.
+     *
+     * @param name  the variable name
+     * @param value the value (null to un-set)
+     * @throws IllegalArgumentException if the layout does not include the variable
+     */
+    public void set(final String name, final Number value) {
+
+        final int slot = this.layout.slotOf(name);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Layout does not include variable: " + name);
+        }
+
+        set(slot, value);
+    }
+
+    /**
+     * Copies values from a {@code VariableValues} into every slot (slots for variables it does not set are un-set).
+     *
+     * @param values the values
+     */
+    public void load(final VariableValues values) {
+
+        final int numSlots = this.numbers.length;
+        for (int i = 0; i < numSlots; ++i) {
+            set(i, values.get(this.layout.getName(i)));
+        }
+    }
+
+    /**
+     * Gets the value in a slot.
+     *
+     * @param slot the slot
+     * @return the value (null if un-set)
+     */
+    public Number get(final int slot) {
+
+        if (this.unboxed[slot]) {
+            this.numbers[slot] = Double.valueOf(this.doubles[slot]);
+            this.unboxed[slot] = false;
+        }
+
+        return this.numbers[slot];
+    }
+
+    /**
+     * Gets the value in a slot as a {@code double}.
+     *
+     * @param slot the slot
+     * @return the value ({@code NaN} if un-set)
+     */
+    public double getDouble(final int slot) {
+
+        return this.doubles[slot];
+    }
+
+    /**
+     * Gets the array that holds the {@code double} values, in slot order.  This is the frame's own storage, not a copy,
+     * so it can be passed as the arguments of a function compiled with the layout's variable names.
+     *
+     * @return the array of {@code double} values
+     */
+    public double[] getDoubles() {
+
+        return this.doubles;
+    }
+
+    /**
+     * Gets a variable value by name.
+     *
+     * @param name the variable name
+     * @return the value (null if un-set or not in the layout)
+     */
+    @Override
+    public Number get(final String name) {
+
+        final int slot = this.layout.slotOf(name);
+
+        return slot < 0 ? null : get(slot);
+    }
+
+    /**
+     * Gets a variable value, reading the hinted slot directly if the layout assigns that slot to the variable.
+     *
+     * @param name     the variable name
+     * @param slotHint the slot assigned to the reference; -1 if none
+     * @return the value (null if un-set or not in the layout)
+     */
+    @Override
+    public Number get(final String name, final int slotHint) {
+
+        final Number result;
+
+        if (slotHint >= 0 && slotHint < this.numbers.length && this.layout.getName(slotHint).equals(name)) {
+            result = get(slotHint);
+        } else {
+            result = get(name);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets a variable value as a {@code double}, reading the hinted slot directly if the layout assigns that slot to
+     * the variable.
+     *
+     * @param name     the variable name
+     * @param slotHint the slot assigned to the reference; -1 if none
+     * @return the value (NaN if un-set or not in the layout)
+     */
+    @Override
+    public double getDouble(final String name, final int slotHint) {
+
+        final double result;
+
+        if (slotHint >= 0 && slotHint < this.doubles.length && this.layout.getName(slotHint).equals(name)) {
+            result = this.doubles[slotHint];
+        } else {
+            final int slot = this.layout.slotOf(name);
+            result = slot < 0 ? Double.NaN : this.doubles[slot];
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,209 @@
+package dev.mathops.math.expression;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An assignment of dense integer slots to variable names, used by {@code VariableFrame} to store variable values in
+ * arrays rather than a map.
+ *
+ * <p>
+ * Binding a layout to an expression records each variable reference's slot in the reference itself, so evaluating the
+ * expression against a frame of this layout reads each variable by index.  The recorded slot is checked against the
+ * frame's layout on every read, so a frame of a different layout (or a {@code VariableValues}) still evaluates
+ * correctly, by name.  A layout is immutable once built.
+ */
+public final class VariableLayout {
+
+    /** The variable names, in slot order. */
+    private final String[] names;
+
+    /** A map from each variable name to its slot. */
+    private final Map<String, Integer> slots;
+
+    /**
+     * Constructs a new {@code VariableLayout}.
+     *
+     * @param theNames the variable names, in slot order
+     * @throws IllegalArgumentException if a name is null or duplicated
+     */
+    public VariableLayout(final String... theNames) {
+
+        final int count = theNames.length;
+        this.names = theNames.clone();
+        this.slots = new HashMap<>(count * 2);
+
+        for (int i = 0; i < count; ++i) {
+            if (this.names[i] == null) {
+                throw new IllegalArgumentException("Variable names may not be null");
+            }
+            if (this.slots.put(this.names[i], Integer.valueOf(i)) != null) {
+                throw new IllegalArgumentException("Duplicate variable name: " + this.names[i]);
+            }
+        }
+    }
+
+    /**
+     * Creates a layout with a slot for every variable an expression references, and binds it to the expression.
+     *
+     * @param expr         the expression
+     * @param leadingNames names to place in the first slots, in order, whether or not the expression references them
+     *                     (for example, the arguments of a function); other variables follow in the order they first
+     *                     appear in the expression
+     * @return the layout
+     * @throws IllegalArgumentException if a leading name is null or duplicated
+     */
+    public static VariableLayout of(final Expr expr, final String... leadingNames) {
+
+        final Set<String> found = new LinkedHashSet<>(16);
+        for (final String name : leadingNames) {
+            if (name == null) {
+                throw new IllegalArgumentException("Variable names may not be null");
+            }
+            if (!found.add(name)) {
+                throw new IllegalArgumentException("Duplicate variable name: " + name);
+            }
+        }
+        collect(expr, found);
+
+        final VariableLayout layout = new VariableLayout(found.toArray(new String[0]));
+        layout.bind(expr);
+
+        return layout;
+    }
+
+    /**
+     * Adds the names of the variables an expression references to a set.
+     *
+     * @param expr  the expression
+     * @param found the set to which to add names
+     */
+    private static void collect(final Expr expr, final Set<String> found) {
+
+        final int numTerms = expr.getNumTerms();
+        for (int i = 0; i < numTerms; ++i) {
+            final Term term = expr.getTerm(i);
+            final int numFactors = term.getNumFactors();
+            for (int j = 0; j < numFactors; ++j) {
+                final Factor factor = term.getFactor(j);
+                final String varName = factor.getVarName();
+                if (varName != null) {
+                    found.add(varName);
+                }
+                for (final Expr inner : innerExpressions(factor)) {
+                    collect(inner, found);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the expressions nested directly inside a factor.
+     *
+     * @param factor the factor
+     * @return the nested expressions (empty for a number, variable, or symbol)
+     */
+    private static Expr[] innerExpressions(final Factor factor) {
+
+        final Expr parenthesized = factor.getParenthesized();
+        final FunctionOf1 function1 = factor.getFunctionOf1();
+        final FunctionOf2 function2 = factor.getFunctionOf2();
+
+        final Expr[] result;
+
+        if (parenthesized != null) {
+            result = new Expr[]{parenthesized};
+        } else if (function1 != null) {
+            result = new Expr[]{function1.getArgument()};
+        } else if (function2 != null) {
+            result = new Expr[]{function2.getArgument1(), function2.getArgument2()};
+        } else {
+            result = new Expr[0];
+        }
+
+        return result;
+    }
+
+    /**
+     * Binds this layout to an expression, recording in each variable reference the slot of its variable.  References
+     * to variables this layout does not include are given no slot.
+     *
+     * @param expr the expression
+     */
+    public void bind(final Expr expr) {
+
+        final int numTerms = expr.getNumTerms();
+        for (int i = 0; i < numTerms; ++i) {
+            final Term term = expr.getTerm(i);
+            final int numFactors = term.getNumFactors();
+            for (int j = 0; j < numFactors; ++j) {
+                final Factor factor = term.getFactor(j);
+                final String varName = factor.getVarName();
+                if (varName != null) {
+                    factor.setSlotHint(slotOf(varName));
+                }
+                for (final Expr inner : innerExpressions(factor)) {
+                    bind(inner);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of slots.
+     *
+     * @return the number of slots
+     */
+    public int getNumSlots() {
+
+        return this.names.length;
+    }
+
+    /**
+     * Gets the name of the variable in a slot.
+     *
+     * @param slot the slot
+     * @return the variable name
+     */
+    public String getName(final int slot) {
+
+        return this.names[slot];
+    }
+
+    /**
+     * Gets the variable names, in slot order.  Passing these to {@code ExprCompiler.compile} gives a compiled
+     * expression whose variable registers match the slots, so a frame's {@code double} values can be passed directly to
+     * a compiled function.
+     *
+     * @return a copy of the variable names
+     */
+    public String[] getNames() {
+
+        return this.names.clone();
+    }
+
+    /**
+     * Gets the slot of a variable.
+     *
+     * @param name the variable name
+     * @return the slot; -1 if the layout does not include the variable
+     */
+    public int slotOf(final String name) {
+
+        final Integer slot = this.slots.get(name);
+
+        return slot == null ? -1 : slot.intValue();
+    }
+
+    /**
+     * Creates a frame for this layout, with all variables un-set.
+     *
+     * @return the frame
+     */
+    public VariableFrame newFrame() {
+
+        return new VariableFrame(this);
+    }
+}
@@ -4,9 +4,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * A value store for named real-valued variables.
+ * A value store for named real-valued variables, looked up by name.  For repeated evaluation of one expression with
+ * different values, a {@code VariableFrame} avoids the map lookups; {@code VariableFrame.load} copies values from a
+ * {@code VariableValues} into a frame.
  */
-public final class VariableValues {
+public final class VariableValues implements IVariableSource {
 
     /** Values for variables. */
     private final Map<String, Number> values;
@@ -44,6 +46,7 @@ public final class VariableValues {
      * @param name the variable name
      * @return the variable value (null if un-set)
      */
+    @Override
     public Number get(final String name) {
 
         if (name == null) {
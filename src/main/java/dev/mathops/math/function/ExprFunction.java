@@ -15,13 +15,21 @@
 
 package dev.mathops.math.function;
 
+import dev.mathops.math.expression.BatchEvaluator;
+import dev.mathops.math.expression.DualEvaluator;
+import dev.mathops.math.expression.DualNumber;
 import dev.mathops.math.expression.Expr;
-import dev.mathops.math.expression.VariableValues;
+import dev.mathops.math.expression.VariableFrame;
+import dev.mathops.math.expression.VariableLayout;
 import dev.mathops.math.set.number.RealInterval;
 import dev.mathops.text.builder.CharSimpleBuilder;
 
 /**
  * A function that is based on an expression.
+ *
+ * <p>
+ * Each call to {@code evaluate} stores its argument in a frame of its own, and the expression is never modified by
+ * evaluation, so one {@code ExprFunction} may be evaluated by several threads at once.
  */
 public class ExprFunction extends AbstractFunction {
 
@@ -31,8 +39,11 @@ public class ExprFunction extends AbstractFunction {
     /** The independent variable. */
     private final String indepVar;
 
-    /** Variable values used to evaluate the expression. */
-    private final VariableValues values;
+    /** The variable layout bound to the expression, with the independent variable in slot 0. */
+    private final VariableLayout layout;
+
+    /** The batch evaluator; null if the expression references variables other than the independent variable. */
+    private final BatchEvaluator batch;
 
     /**
      * Constructs a new {code ExprFunction}.
@@ -57,11 +68,15 @@ public class ExprFunction extends AbstractFunction {
 
         this.expr = theExpr;
         this.indepVar = theIndepVar;
-        this.values = new VariableValues();
+        this.layout = VariableLayout.of(theExpr, theIndepVar);
+        this.batch = this.layout.getNumSlots() == 1 ? BatchEvaluator.of(theExpr, theIndepVar) : null;
     }
 
     /**
-     * Evaluates the function.
+     * Evaluates the function.  The argument is clamped to the domain, and the expression is evaluated with
+     * {@code double} arithmetic ({@code Expr.evalDouble}) rather than exactly, so each operation rounds its result
+     * (rather than only the final value being rounded), and division by zero gives an infinity (or NaN for 0/0) as in
+     * IEEE arithmetic, rather than NaN.  Callers that need the exact value can use {@code Expr.eval}.
      *
      * @param arguments the arguments (the length of this array must match the number of inputs)
      * @return the result (an array whose length is the number of outputs)
@@ -76,11 +91,60 @@ public class ExprFunction extends AbstractFunction {
 
         final RealInterval domain = getDomain(0);
         final double x = IFunction.clampToRange(arguments[0], domain.lowerBound, domain.upperBound);
-        this.values.set(this.indepVar, Double.valueOf(x));
+        final VariableFrame frame = this.layout.newFrame();
+        frame.setDouble(0, x);
+
+        return new double[]{this.expr.evalDouble(frame)};
+    }
 
-        final Number result = this.expr.eval(this.values);
+    /**
+     * Evaluates the function and its derivative in one pass, without building a derivative expression.  The argument
+     * is clamped to the domain, as for {@code evaluate}, and the derivative is that of the expression at the clamped
+     * argument.
+     *
+     * @param x the argument
+     * @return the value and derivative (read with {@code getValue} and {@code getDerivative})
+     */
+    public DualNumber evaluateDual(final double x) {
+
+        final RealInterval domain = getDomain(0);
+        final VariableFrame frame = this.layout.newFrame();
+        frame.setDouble(0, IFunction.clampToRange(x, domain.lowerBound, domain.upperBound));
+
+        return DualEvaluator.derivative(this.expr, frame, this.indepVar);
+    }
 
-        return new double[]{result.doubleValue()};
+    /**
+     * Evaluates the function at many points.  Arguments are clamped to the domain and the expression is evaluated with
+     * {@code double} arithmetic, as for {@code evaluate}, but over the whole array at once by a compiled program that
+     * folds constants and shares repeated subexpressions, so results may differ from those of {@code evaluate} in the
+     * last bits.
+     *
+     * @param xs  the arguments
+     * @param out the array to which to write results (at least as long as {@code xs})
+     * @throws IllegalArgumentException if {@code out} is shorter than {@code xs}
+     */
+    public void evalBatch(final double[] xs, final double[] out) {
+
+        final int count = xs.length;
+        if (out.length < count) {
+            throw new IllegalArgumentException("Output array is shorter than the argument array");
+        }
+
+        final RealInterval domain = getDomain(0);
+        final double[] clamped = new double[count];
+        for (int i = 0; i < count; ++i) {
+            clamped[i] = IFunction.clampToRange(xs[i], domain.lowerBound, domain.upperBound);
+        }
+
+        if (this.batch == null) {
+            // The expression references variables that have no values, so defer to "evaluate" for each point
+            for (int i = 0; i < count; ++i) {
+                out[i] = evaluate(clamped[i])[0];
+            }
+        } else {
+            this.batch.evaluate(clamped, out);
+        }
     }
 
     /**
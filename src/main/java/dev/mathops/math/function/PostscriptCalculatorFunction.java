@@ -15,15 +15,26 @@
 
 package dev.mathops.math.function;
 
+import dev.mathops.math.expression.CompiledExpr;
+import dev.mathops.math.expression.ICompiledFunction;
+import dev.mathops.math.expression.TieredFunction;
 import dev.mathops.math.function.op.OperatorException;
 import dev.mathops.math.function.op.OperatorStack;
+import dev.mathops.math.function.op.PostScriptCompiler;
 import dev.mathops.math.function.op.PostScriptExpression;
 import dev.mathops.math.set.number.RealInterval;
 import dev.mathops.text.ByteQueue;
 import dev.mathops.commons.log.Log;
 
+import java.util.Arrays;
+
 /**
  * A PostScript calculator (Type 4) function, which can take any number of inputs and generate any number of outputs.
+ *
+ * <p>
+ * Where possible, the expression is translated into straight-line arithmetic (see {@code PostScriptCompiler}), which
+ * is interpreted at first and compiled to bytecode once the function has been evaluated many times.  Expressions that
+ * cannot be translated, and evaluations that would report an error, use the operator interpreter.
  */
 public class PostscriptCalculatorFunction extends AbstractFunction implements IPdfFunction {
 
@@ -33,6 +44,9 @@ public class PostscriptCalculatorFunction extends AbstractFunction implements IP
     /** The parsed expression. */
     private final PostScriptExpression expression;
 
+    /** The translated expression, with a check value after the outputs; null if the expression is interpreted. */
+    private final ICompiledFunction compiled;
+
     /**
      * Constructs a new {code PostscriptCalculatorFunction}.
      *
@@ -55,6 +69,9 @@ public class PostscriptCalculatorFunction extends AbstractFunction implements IP
 
         this.opcodes = theOpcodes.clone();
         this.expression = new PostScriptExpression(new ByteQueue(theOpcodes));
+
+        final CompiledExpr program = PostScriptCompiler.compile(this.expression, theNumInputs, theNumOutputs);
+        this.compiled = program == null ? null : new TieredFunction(program);
     }
 
     /**
@@ -81,6 +98,35 @@ public class PostscriptCalculatorFunction extends AbstractFunction implements IP
             throw new IllegalArgumentException("Number of arguments does not match number of inputs");
         }
 
+        double[] result = null;
+
+        if (this.compiled != null) {
+            final int numOutputs = getNumOutputs();
+            final double[] outputs = new double[numOutputs + 1];
+            this.compiled.evaluate(arguments, outputs);
+
+            // A check value that is not finite means the interpreter would report an error, so it runs to report it
+            if (Double.isFinite(outputs[numOutputs])) {
+                result = Arrays.copyOf(outputs, numOutputs);
+            }
+        }
+
+        if (result == null) {
+            result = interpret(arguments);
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the function by executing the expression's operators.
+     *
+     * @param arguments the arguments
+     * @return the result (an array whose length is the number of outputs)
+     * @throws IllegalArgumentException if the expression reports an error
+     */
+    private double[] interpret(final double[] arguments) {
+
         // Input variable values are initial stack
         final OperatorStack stack = new OperatorStack();
         for (final double d : arguments) {
@@ -18,7 +18,7 @@ package dev.mathops.math.function.op;
 /**
  * The "mul" operator.
  * <p>
- * This operator pops two numbers from the stack, computes their sum, and returns that value to the stack.
+ * This operator pops two numbers from the stack, computes their product, and returns that value to the stack.
  */
 public final class MulOperator extends AbstractOperator {
 
@@ -64,15 +64,15 @@ public final class MulOperator extends AbstractOperator {
                     stack.pushDouble(prod);
                 }
             } else if (num2 instanceof Double arg2Dbl) {
-                final double sum = num1Long.doubleValue() + arg2Dbl.doubleValue();
-                stack.pushDouble(sum);
+                final double prod = num1Long.doubleValue() * arg2Dbl.doubleValue();
+                stack.pushDouble(prod);
             } else {
                 throw badType("Second argument", num2, "Number");
             }
         } else if (num1 instanceof Double arg1Dbl) {
             if (num2 instanceof Number arg2Nbr) {
-                final double sum = arg1Dbl.doubleValue() + arg2Nbr.doubleValue();
-                stack.pushDouble(sum);
+                final double prod = arg1Dbl.doubleValue() * arg2Nbr.doubleValue();
+                stack.pushDouble(prod);
             } else {
                 throw badType("Second argument", num2, "Number");
             }
@@ -192,8 +192,9 @@ public final class OperatorStack {
             throw new IllegalArgumentException("index(" + n + ") called when stack has only " + size + " items.");
         }
 
+        // The deque's array form lists the top item first
         final Object[] array = this.stack.toArray(ZERO_LEN_ARRAY);
-        final Object toPush = array[size - 1 - n];
+        final Object toPush = array[n];
 
         this.stack.push(toPush);
     }
@@ -206,7 +207,7 @@ public final class OperatorStack {
      */
     final void roll(final int n, final int j) {
 
-        if (n < 0 || n >= this.stack.size()) {
+        if (n < 0 || n > this.stack.size()) {
             throw new IllegalArgumentException("Invalid number of items to roll");
         }
         if (n > 0 && j != 0) {
@@ -0,0 +1,480 @@
+/*
+ * Copyright (C) 2026 Steve Benoit
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the  License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU  General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program. If  not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+
+package dev.mathops.math.function.op;
+
+import dev.mathops.math.expression.CompiledExpr;
+import dev.mathops.math.expression.ProgramBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Translates a {@code PostScriptExpression} into a {@code CompiledExpr} by running it once against a symbolic stack.
+ *
+ * <p>
+ * Inputs are pushed as real values, and operations on real values produce real values, so the type of every stack
+ * entry is known without running the program on actual inputs.  An operation whose arguments are all literals is
+ * evaluated now, by the operator itself, so integer arithmetic and the exact results of {@code sin} and {@code cos} on
+ * integer angles are unchanged.  Stack manipulation with literal counts ({@code dup}, {@code exch}, {@code pop},
+ * {@code copy}, {@code index}, {@code roll}) is resolved now, as is {@code if} or {@code ifelse} on a literal
+ * condition.  What remains is straight-line arithmetic on real values.
+ *
+ * <p>
+ * A program that branches on a computed condition, applies integer or boolean operators to computed values, or does
+ * not leave exactly the expected number of real values on the stack is not translated; such programs are interpreted.
+ *
+ * <p>
+ * The interpreter reports an error when an operation produces a value that is not finite, or when both arguments to
+ * {@code atan} are zero.  The translated program has one extra output after the function outputs: a check value that is
+ * finite when no such error occurred.  When it is not, the caller should interpret the program to get the error.
+ */
+public final class PostScriptCompiler {
+
+    /** The builder that receives the instructions. */
+    private final ProgramBuilder builder;
+
+    /** The symbolic stack, with the top entry last. */
+    private final List<Entry> stack;
+
+    /** The operands of every computed value, whose sum forms the check output. */
+    private final List<Integer> computed;
+
+    /**
+     * Constructs a new {@code PostScriptCompiler}.
+     *
+     * @param theBuilder the builder that receives the instructions
+     */
+    private PostScriptCompiler(final ProgramBuilder theBuilder) {
+
+        this.builder = theBuilder;
+        this.stack = new ArrayList<>(20);
+        this.computed = new ArrayList<>(20);
+    }
+
+    /**
+     * Translates an expression.
+     *
+     * @param expression the expression
+     * @param numInputs  the number of inputs, which are pushed onto the stack in order before the expression runs
+     * @param numOutputs the number of outputs; output 0 is the top of the stack after the expression runs
+     * @return the program, with {@code numOutputs + 1} outputs, the last being the check value; {@code null} if the
+     *         expression cannot be translated
+     */
+    public static CompiledExpr compile(final PostScriptExpression expression, final int numInputs,
+                                       final int numOutputs) {
+
+        final String[] names = new String[numInputs];
+        for (int i = 0; i < numInputs; ++i) {
+            names[i] = "in" + i;
+        }
+
+        final ProgramBuilder builder = new ProgramBuilder(names);
+        final PostScriptCompiler compiler = new PostScriptCompiler(builder);
+
+        for (int i = 0; i < numInputs; ++i) {
+            final int operand = builder.variable(i);
+            compiler.stack.add(new Entry(null, operand));
+            compiler.computed.add(Integer.valueOf(operand));
+        }
+
+        CompiledExpr result = null;
+
+        if (compiler.translateAll(expression) && compiler.stack.size() == numOutputs) {
+            final int[] outputs = new int[numOutputs + 1];
+            boolean valid = true;
+            for (int i = 0; i < numOutputs; ++i) {
+                final Entry entry = compiler.stack.get(numOutputs - 1 - i);
+                if (entry.constant() == null) {
+                    outputs[i] = entry.operand();
+                } else if (entry.constant() instanceof final Double dbl) {
+                    outputs[i] = builder.constant(dbl.doubleValue());
+                } else {
+                    valid = false;
+                }
+            }
+
+            if (valid) {
+                int check = builder.constant(0.0);
+                for (final Integer operand : compiler.computed) {
+                    check = builder.apply(CompiledExpr.ADD, check, operand.intValue());
+                }
+                outputs[numOutputs] = check;
+                result = builder.build(outputs);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Translates the operators of an expression.
+     *
+     * @param expression the expression
+     * @return true if successful; false if the expression cannot be translated
+     */
+    private boolean translateAll(final PostScriptExpression expression) {
+
+        boolean ok = true;
+
+        for (final AbstractOperator op : expression.getOperators()) {
+            ok = translate(op);
+            if (!ok) {
+                break;
+            }
+        }
+
+        return ok;
+    }
+
+    /**
+     * Translates one operator.
+     *
+     * @param op the operator
+     * @return true if successful; false if the operator cannot be translated
+     */
+    private boolean translate(final AbstractOperator op) {
+
+        return switch (op) {
+            case final PostScriptExpression expr -> push(new Entry(expr, 0));
+            case final DupOperator ignored -> copy(1L);
+            case final ExchOperator ignored -> exchange();
+            case final PopOperator ignored -> pop() != null;
+            case final CopyOperator ignored -> {
+                final Entry count = pop();
+                yield count != null && count.constant() instanceof final Long n && copy(n.longValue());
+            }
+            case final IndexOperator ignored -> {
+                final Entry index = pop();
+                yield index != null && index.constant() instanceof final Long n && index(n.longValue());
+            }
+            case final RollOperator ignored -> {
+                final Entry j = pop();
+                final Entry n = pop();
+                yield j != null && n != null && n.constant() instanceof final Long nLong
+                      && j.constant() instanceof final Long jLong && roll(nLong.longValue(), jLong.longValue());
+            }
+            case final IfOperator ignored -> {
+                final Entry proc = pop();
+                final Entry condition = pop();
+                yield proc != null && condition != null && proc.constant() instanceof final PostScriptExpression expr
+                      && condition.constant() instanceof final Boolean bool
+                      && (!bool.booleanValue() || translateAll(expr));
+            }
+            case final IfElseOperator ignored -> {
+                final Entry proc2 = pop();
+                final Entry proc1 = pop();
+                final Entry condition = pop();
+                yield proc1 != null && proc2 != null && condition != null
+                      && proc1.constant() instanceof final PostScriptExpression expr1
+                      && proc2.constant() instanceof final PostScriptExpression expr2
+                      && condition.constant() instanceof final Boolean bool
+                      && translateAll(bool.booleanValue() ? expr1 : expr2);
+            }
+            default -> operate(op);
+        };
+    }
+
+    /**
+     * Translates an operator that consumes some values and pushes one.
+     *
+     * @param op the operator
+     * @return true if successful; false if the operator cannot be translated
+     */
+    private boolean operate(final AbstractOperator op) {
+
+        final int arity = arityOf(op);
+
+        boolean ok = arity >= 0 && this.stack.size() >= arity;
+
+        if (ok) {
+            final int size = this.stack.size();
+            final List<Entry> args = new ArrayList<>(this.stack.subList(size - arity, size));
+            this.stack.subList(size - arity, size).clear();
+
+            boolean allConstant = true;
+            for (final Entry arg : args) {
+                allConstant = allConstant && arg.constant() != null;
+            }
+
+            ok = allConstant ? evaluateNow(op, args) : emit(op, args);
+        }
+
+        return ok;
+    }
+
+    /**
+     * Evaluates an operator whose arguments are all literals, by running it on a scratch stack.
+     *
+     * @param op   the operator
+     * @param args the arguments, the top of the stack last
+     * @return true if successful; false if the operator reported an error
+     */
+    private boolean evaluateNow(final AbstractOperator op, final Iterable<Entry> args) {
+
+        boolean ok = true;
+
+        final OperatorStack scratch = new OperatorStack();
+        try {
+            for (final Entry arg : args) {
+                switch (arg.constant()) {
+                    case final Long lng -> scratch.pushLong(lng.longValue());
+                    case final Double dbl -> scratch.pushDouble(dbl.doubleValue());
+                    case final Boolean bool -> scratch.pushBoolean(bool);
+                    default -> scratch.pushExpression((PostScriptExpression) arg.constant());
+                }
+            }
+            op.execute(scratch);
+        } catch (final OperatorException | IllegalArgumentException | ArithmeticException ex) {
+            ok = false;
+        }
+
+        if (ok) {
+            final List<Entry> results = new ArrayList<>(2);
+            Object value = scratch.poll();
+            while (value != null) {
+                results.addFirst(new Entry(value, 0));
+                value = scratch.poll();
+            }
+            this.stack.addAll(results);
+        }
+
+        return ok;
+    }
+
+    /**
+     * Emits instructions for an operator with at least one computed argument.  Computed values are always real, so
+     * only the operators that act on real values can be emitted.
+     *
+     * @param op   the operator
+     * @param args the arguments, the top of the stack last
+     * @return true if successful; false if the operator cannot be translated
+     */
+    private boolean emit(final AbstractOperator op, final List<Entry> args) {
+
+        final int numArgs = args.size();
+        final int[] operands = new int[numArgs];
+        boolean ok = true;
+        for (int i = 0; i < numArgs; ++i) {
+            final Entry arg = args.get(i);
+            if (arg.constant() == null) {
+                operands[i] = arg.operand();
+            } else if (arg.constant() instanceof final Number num) {
+                operands[i] = this.builder.constant(num.doubleValue());
+            } else {
+                ok = false;
+            }
+        }
+
+        if (ok) {
+            final int a = operands[0];
+            final int b = numArgs > 1 ? operands[1] : a;
+
+            final int result = switch (op) {
+                case final AbsOperator ignored -> this.builder.apply(CompiledExpr.ABS, a);
+                case final CeilingOperator ignored -> this.builder.apply(CompiledExpr.CEIL, a);
+                case final CosOperator ignored -> this.builder.apply(CompiledExpr.COS,
+                        this.builder.apply(CompiledExpr.TO_RAD, a));
+                case final CvrOperator ignored -> a;
+                case final FloorOperator ignored -> this.builder.apply(CompiledExpr.FLOOR, a);
+                case final LnOperator ignored -> this.builder.apply(CompiledExpr.LOG, a);
+                case final LogOperator ignored -> this.builder.apply(CompiledExpr.LOG10, a);
+                case final NegOperator ignored -> this.builder.apply(CompiledExpr.NEG, a);
+                case final RoundOperator ignored -> this.builder.apply(CompiledExpr.ROUND, a);
+                case final SinOperator ignored -> this.builder.apply(CompiledExpr.SIN,
+                        this.builder.apply(CompiledExpr.TO_RAD, a));
+                case final SqrtOperator ignored -> this.builder.apply(CompiledExpr.SQRT, a);
+                case final TruncateOperator ignored -> this.builder.apply(CompiledExpr.TRUNCATE, a);
+                case final AddOperator ignored -> this.builder.apply(CompiledExpr.ADD, a, b);
+                case final SubOperator ignored -> this.builder.apply(CompiledExpr.SUB, a, b);
+                case final MulOperator ignored -> this.builder.apply(CompiledExpr.MUL, a, b);
+                case final DivOperator ignored -> this.builder.apply(CompiledExpr.DIV, a, b);
+                case final ExpOperator ignored -> this.builder.apply(CompiledExpr.POW, a, b);
+                case final AtanOperator ignored -> {
+                    // Zero divided by the sum of the magnitudes is NaN (failing the check) when both are zero
+                    final int magnitude = this.builder.apply(CompiledExpr.ADD, this.builder.apply(CompiledExpr.ABS, a),
+                            this.builder.apply(CompiledExpr.ABS, b));
+                    this.computed.add(Integer.valueOf(this.builder.apply(CompiledExpr.DIV, this.builder.constant(0.0),
+                            magnitude)));
+                    yield this.builder.apply(CompiledExpr.ATAN2, a, b);
+                }
+                default -> -1;
+            };
+
+            if (result == -1) {
+                ok = false;
+            } else {
+                this.computed.add(Integer.valueOf(result));
+                this.stack.add(new Entry(null, result));
+            }
+        }
+
+        return ok;
+    }
+
+    /**
+     * Gets the number of values an operator consumes (each pushes one value).
+     *
+     * @param op the operator
+     * @return the number of values; -1 if the operator is not one that consumes values and pushes one
+     */
+    private static int arityOf(final AbstractOperator op) {
+
+        return switch (op) {
+            case final LiteralNumberOperator ignored -> 0;
+            case final TrueOperator ignored -> 0;
+            case final FalseOperator ignored -> 0;
+            case final AbsOperator ignored -> 1;
+            case final CeilingOperator ignored -> 1;
+            case final CosOperator ignored -> 1;
+            case final CviOperator ignored -> 1;
+            case final CvrOperator ignored -> 1;
+            case final FloorOperator ignored -> 1;
+            case final LnOperator ignored -> 1;
+            case final LogOperator ignored -> 1;
+            case final NegOperator ignored -> 1;
+            case final NotOperator ignored -> 1;
+            case final RoundOperator ignored -> 1;
+            case final SinOperator ignored -> 1;
+            case final SqrtOperator ignored -> 1;
+            case final TruncateOperator ignored -> 1;
+            case final AddOperator ignored -> 2;
+            case final AndOperator ignored -> 2;
+            case final AtanOperator ignored -> 2;
+            case final BitshiftOperator ignored -> 2;
+            case final DivOperator ignored -> 2;
+            case final EqOperator ignored -> 2;
+            case final ExpOperator ignored -> 2;
+            case final GeOperator ignored -> 2;
+            case final GtOperator ignored -> 2;
+            case final IdivOperator ignored -> 2;
+            case final LeOperator ignored -> 2;
+            case final LtOperator ignored -> 2;
+            case final ModOperator ignored -> 2;
+            case final MulOperator ignored -> 2;
+            case final NeOperator ignored -> 2;
+            case final OrOperator ignored -> 2;
+            case final SubOperator ignored -> 2;
+            case final XorOperator ignored -> 2;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Pushes an entry.
+     *
+     * @param entry the entry
+     * @return true
+     */
+    private boolean push(final Entry entry) {
+
+        this.stack.add(entry);
+
+        return true;
+    }
+
+    /**
+     * Pops the top entry.
+     *
+     * @return the entry; null if the stack is empty
+     */
+    private Entry pop() {
+
+        return this.stack.isEmpty() ? null : this.stack.removeLast();
+    }
+
+    /**
+     * Duplicates the top entries, as the {@code copy} operator.
+     *
+     * @param n the number of entries
+     * @return true if successful; false if the count is not valid
+     */
+    private boolean copy(final long n) {
+
+        final int size = this.stack.size();
+        final boolean ok = n >= 0L && n <= (long) size;
+
+        if (ok) {
+            this.stack.addAll(new ArrayList<>(this.stack.subList(size - (int) n, size)));
+        }
+
+        return ok;
+    }
+
+    /**
+     * Pushes a copy of an entry, as the {@code index} operator.
+     *
+     * @param n the index of the entry to copy, 0 for the top
+     * @return true if successful; false if the index is not valid
+     */
+    private boolean index(final long n) {
+
+        final int size = this.stack.size();
+        final boolean ok = n >= 0L && n < (long) size;
+
+        if (ok) {
+            this.stack.add(this.stack.get(size - 1 - (int) n));
+        }
+
+        return ok;
+    }
+
+    /**
+     * Exchanges the top two entries, as the {@code exch} operator.
+     *
+     * @return true if successful; false if the stack has fewer than two entries
+     */
+    private boolean exchange() {
+
+        final int size = this.stack.size();
+        final boolean ok = size >= 2;
+
+        if (ok) {
+            Collections.swap(this.stack, size - 2, size - 1);
+        }
+
+        return ok;
+    }
+
+    /**
+     * Rotates the top entries, as the {@code roll} operator: a positive count moves entries toward the top.
+     *
+     * @param n the number of entries
+     * @param j the number of positions to rotate
+     * @return true if successful; false if the counts are not valid
+     */
+    private boolean roll(final long n, final long j) {
+
+        final int size = this.stack.size();
+        final boolean ok = n > 0L && n <= (long) size;
+
+        if (ok) {
+            Collections.rotate(this.stack.subList(size - (int) n, size), (int) (j % n));
+        }
+
+        return ok;
+    }
+
+    /**
+     * An entry on the symbolic stack: either a literal value or a value computed at run time.
+     *
+     * @param constant the literal value ({@code Long}, {@code Double}, {@code Boolean}, or
+     *                 {@code PostScriptExpression}); null for a computed value
+     * @param operand  the builder operand of a computed value
+     */
+    private record Entry(Object constant, int operand) {
+    }
+}
@@ -113,6 +113,7 @@ public final class PostScriptExpression extends AbstractOperator {
         // Copy the sequence of bytes to parse, then convert to string
         final int[] toParse = new int[end];
         queue.peek(0, end, toParse);
+        queue.consume(end);
         final String strToParse = new String(toParse, 0, end);
 
         try {
@@ -339,7 +340,8 @@ public final class PostScriptExpression extends AbstractOperator {
     }
 
     /**
-     * Executes the operator against a stack.
+     * Executes the operator against a stack.  A procedure nested in this expression is pushed onto the stack as an
+     * operand (for {@code if} or {@code ifelse}) rather than executed.
      *
      * @param stack the stack
      * @throws OperatorException if there was an error executing the operator
@@ -347,7 +349,11 @@ public final class PostScriptExpression extends AbstractOperator {
     public void execute(final OperatorStack stack) throws OperatorException {
 
         for (final AbstractOperator op : this.operators) {
-            op.execute(stack);
+            if (op instanceof final PostScriptExpression procedure) {
+                stack.pushExpression(procedure);
+            } else {
+                op.execute(stack);
+            }
         }
     }
 
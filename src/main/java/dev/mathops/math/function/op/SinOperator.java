@@ -49,8 +49,8 @@ public final class SinOperator extends AbstractOperator {
         if (arg instanceof Double argDbl) {
             final double value = argDbl.doubleValue();
             final double radians = Math.toRadians(value);
-            final double cosValue = Math.cos(radians);
-            stack.pushDouble(cosValue);
+            final double sinValue = Math.sin(radians);
+            stack.pushDouble(sinValue);
         } else if (arg instanceof Long argLong) {
             // NOTE: we have selected the MAX and MIN long values allowed on the stack to have the same magnitude
             // so abs will never overflow (as could occur in normal two's complement numbers).
@@ -0,0 +1,158 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigIrrational;
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.EIrrationalFactor;
+import dev.mathops.commons.number.Irrational;
+import dev.mathops.commons.number.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fixtures shared by the tests of exact arithmetic: a reference model of exact values as fractions of
+ * {@code BigInteger} values, and a generator of arrays of values of mixed types.
+ */
+enum NumberFixtures {
+    ;
+
+    /** 10^400, which is outside the range of {@code double}. */
+    static final BigInteger HUGE = BigInteger.TEN.pow(400);
+
+    /**
+     * Converts an exact value to a numerator and denominator in lowest terms with a positive denominator.
+     *
+     * @param value the value (a {@code Long}, {@code Integer}, {@code Short}, {@code Byte}, {@code BigInteger},
+     *              {@code BigDecimal}, {@code Rational}, or {@code BigRational})
+     * @return a two-element array of numerator and denominator
+     */
+    static BigInteger[] fraction(final Number value) {
+
+        return switch (value) {
+            case final Rational r -> reduce(BigInteger.valueOf(r.numerator), BigInteger.valueOf(r.denominator));
+            case final BigRational r -> reduce(r.numerator, r.denominator);
+            case final BigInteger b -> new BigInteger[]{b, BigInteger.ONE};
+            case final BigDecimal d -> d.scale() > 0
+                    ? reduce(d.unscaledValue(), BigInteger.TEN.pow(d.scale()))
+                    : new BigInteger[]{d.toBigIntegerExact(), BigInteger.ONE};
+            default -> new BigInteger[]{BigInteger.valueOf(value.longValue()), BigInteger.ONE};
+        };
+    }
+
+    /**
+     * Reduces a fraction to lowest terms with a positive denominator.
+     *
+     * @param numer the numerator
+     * @param denom the denominator (not zero)
+     * @return a two-element array of numerator and denominator
+     */
+    static BigInteger[] reduce(final BigInteger numer, final BigInteger denom) {
+
+        final BigInteger gcd = numer.gcd(denom);
+        final BigInteger divisor = denom.signum() < 0 ? gcd.negate() : gcd;
+
+        return new BigInteger[]{numer.divide(divisor), denom.divide(divisor)};
+    }
+
+    /**
+     * Adds two fractions.  The sum is formed over the least common denominator and is not reduced, so a long sum of
+     * values with few distinct denominators never computes the GCD of two large numbers.
+     *
+     * @param a the first fraction
+     * @param b the second fraction
+     * @return the sum, with a positive denominator but not necessarily in lowest terms
+     */
+    static BigInteger[] add(final BigInteger[] a, final BigInteger[] b) {
+
+        final BigInteger denom = a[1].divide(a[1].gcd(b[1])).multiply(b[1]);
+        final BigInteger numer = a[0].multiply(denom.divide(a[1])).add(b[0].multiply(denom.divide(b[1])));
+
+        return new BigInteger[]{numer, denom};
+    }
+
+    /**
+     * Multiplies two fractions.
+     *
+     * @param a the first fraction
+     * @param b the second fraction
+     * @return the product, with a positive denominator but not necessarily in lowest terms
+     */
+    static BigInteger[] multiply(final BigInteger[] a, final BigInteger[] b) {
+
+        return new BigInteger[]{a[0].multiply(b[0]), a[1].multiply(b[1])};
+    }
+
+    /**
+     * Asserts that an exact result equals an expected fraction.
+     *
+     * @param numer   the expected numerator
+     * @param denom   the expected denominator (not zero, and not necessarily in lowest terms)
+     * @param actual  the result
+     * @param message the message if the assertion fails
+     */
+    static void assertFraction(final BigInteger numer, final BigInteger denom, final Number actual,
+                               final String message) {
+
+        final BigInteger[] expected = reduce(numer, denom);
+        final BigInteger[] found = fraction(actual);
+
+        assertEquals(expected[0], found[0], message + ": numerator");
+        assertEquals(expected[1], found[1], message + ": denominator");
+    }
+
+    /**
+     * Asserts that an exact result equals an expected fraction.
+     *
+     * @param expected the expected fraction (not necessarily in lowest terms)
+     * @param actual   the result
+     * @param message  the message if the assertion fails
+     */
+    static void assertFraction(final BigInteger[] expected, final Number actual, final String message) {
+
+        assertFraction(expected[0], expected[1], actual, message);
+    }
+
+    /**
+     * Generates an array of values of mixed types.  Most are small integers scaled in several ways, so many values are
+     * equal or nearly equal across types; others are {@code Long} values whose sums overflow, and values outside the
+     * range of {@code double}.
+     *
+     * @param random      the random number generator
+     * @param size        the array size
+     * @param irrationals true to include {@code Irrational} and {@code BigIrrational} values, which the reference
+     *                    model cannot represent
+     * @return the array
+     */
+    static Number[] mixed(final Random random, final int size, final boolean irrationals) {
+
+        final Number[] values = new Number[size];
+        final int kinds = irrationals ? 14 : 12;
+
+        for (int i = 0; i < size; ++i) {
+            final long k = (long) random.nextInt(41) - 20L;
+
+            values[i] = switch (random.nextInt(kinds)) {
+                case 0 -> Long.valueOf(k);
+                case 1 -> Integer.valueOf((int) k);
+                case 2 -> BigDecimal.valueOf(k * 25L, 2);
+                case 3 -> new Rational(k, 3L);
+                case 4 -> new Rational(k * 7L + 1L, 21L);
+                case 5 -> new BigRational(BigInteger.valueOf(k).multiply(HUGE).add(BigInteger.ONE),
+                        HUGE.multiply(BigInteger.valueOf(3L)));
+                case 6 -> new Rational(k * 245850922L / 20L, 78256779L / 20L);
+                case 7 -> Long.valueOf(k < 0L ? Long.MIN_VALUE - k : Long.MAX_VALUE - k);
+                case 8 -> Long.valueOf((1L << 62) + k);
+                case 9 -> Long.valueOf(random.nextLong() >> random.nextInt(40));
+                case 10 -> HUGE.multiply(BigInteger.valueOf(k));
+                case 11 -> BigInteger.valueOf(k);
+                case 12 -> new Irrational(EIrrationalFactor.PI, 0L, k, 1L);
+                default -> new BigIrrational(EIrrationalFactor.SQRT, 2L, BigInteger.valueOf(k), BigInteger.ONE);
+            };
+        }
+
+        return values;
+    }
+}
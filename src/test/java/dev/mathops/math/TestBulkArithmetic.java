@@ -0,0 +1,149 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static dev.mathops.math.NumberFixtures.add;
+import static dev.mathops.math.NumberFixtures.assertFraction;
+import static dev.mathops.math.NumberFixtures.fraction;
+import static dev.mathops.math.NumberFixtures.mixed;
+import static dev.mathops.math.NumberFixtures.multiply;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the BulkArithmetic class.
+ */
+final class TestBulkArithmetic {
+
+    /** Array sizes on either side of the parallel threshold. */
+    private static final int[] SIZES = {0, 1, 17, BulkArithmetic.PARALLEL_THRESHOLD - 1,
+            BulkArithmetic.PARALLEL_THRESHOLD, BulkArithmetic.PARALLEL_THRESHOLD + 1,
+            BulkArithmetic.PARALLEL_THRESHOLD * 2 + 37};
+
+    /**
+     * Constructs a new {@code TestBulkArithmetic}.
+     */
+    TestBulkArithmetic() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Sequential and parallel sums agree exactly with a reference sum across the parallel threshold")
+    void testSum() {
+
+        final Random random = new Random(1L);
+
+        for (final int size : SIZES) {
+            final Number[] values = mixed(random, size, false);
+
+            BigInteger[] expected = {BigInteger.ZERO, BigInteger.ONE};
+            for (final Number value : values) {
+                expected = add(expected, fraction(value));
+            }
+
+            final Number sequential = BulkArithmetic.sum(values);
+            final Number parallel = BulkArithmetic.parallelSum(values);
+
+            assertFraction(expected, sequential, "Sum of " + size + " values");
+            assertFraction(expected, parallel, "Parallel sum of " + size + " values");
+            assertEquals(sequential.getClass(), parallel.getClass(), "Parallel sum of " + size + " changed type");
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Sums of longs that overflow become exact BigInteger values")
+    void testSumOverflow() {
+
+        final int size = BulkArithmetic.PARALLEL_THRESHOLD * 3;
+        final Number[] values = new Number[size];
+        for (int i = 0; i < size; ++i) {
+            values[i] = Long.valueOf(Long.MAX_VALUE);
+        }
+
+        final BigInteger expected = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf((long) size));
+
+        assertEquals(expected, BulkArithmetic.sum(values), "Sum is incorrect");
+        assertEquals(expected, BulkArithmetic.parallelSum(values), "Parallel sum is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Sequential and parallel dot products agree exactly with a reference across the parallel threshold")
+    void testDot() {
+
+        final Random random = new Random(2L);
+
+        for (final int size : SIZES) {
+            final Number[] values1 = mixed(random, size, false);
+            final Number[] values2 = mixed(random, size, false);
+
+            BigInteger[] expected = {BigInteger.ZERO, BigInteger.ONE};
+            for (int i = 0; i < size; ++i) {
+                final BigInteger[] a = fraction(values1[i]);
+                final BigInteger[] b = fraction(values2[i]);
+                expected = add(expected, multiply(a, b));
+            }
+
+            final Number sequential = BulkArithmetic.dot(values1, values2);
+            final Number parallel = BulkArithmetic.parallelDot(values1, values2);
+
+            assertFraction(expected, sequential, "Dot product of " + size + " pairs");
+            assertFraction(expected, parallel, "Parallel dot product of " + size + " pairs");
+            assertEquals(sequential.getClass(), parallel.getClass(), "Parallel dot of " + size + " changed type");
+        }
+
+        final Number[] shorter = new Number[1];
+        final Number[] longer = new Number[2];
+        assertThrows(IllegalArgumentException.class, () -> BulkArithmetic.dot(shorter, longer),
+                "Mismatched lengths were accepted");
+        assertThrows(IllegalArgumentException.class, () -> BulkArithmetic.parallelDot(shorter, longer),
+                "Mismatched lengths were accepted in parallel");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Prefix sums are exact, narrow to Integer where possible, and survive overflow and mixed types")
+    void testPrefixSums() {
+
+        final Number[] values = {Long.valueOf(5L), Long.valueOf((long) Integer.MAX_VALUE), Long.valueOf(-10L),
+                Long.valueOf(Long.MAX_VALUE), Long.valueOf(Long.MAX_VALUE), new Rational(1L, 3L),
+                Long.valueOf(-Long.MAX_VALUE), new BigRational(BigInteger.ONE, BigInteger.valueOf(6L))};
+        final Number[] out = new Number[values.length + 1];
+
+        BulkArithmetic.prefixSums(values, out);
+
+        assertEquals(Integer.valueOf(5), out[0], "First prefix is not a narrowed Integer");
+        assertEquals(Long.valueOf((long) Integer.MAX_VALUE + 5L), out[1], "Prefix above Integer range is not a Long");
+        assertInstanceOf(Integer.class, out[2], "Prefix back in Integer range is not narrowed");
+
+        BigInteger[] expected = {BigInteger.ZERO, BigInteger.ONE};
+        for (int i = 0; i < values.length; ++i) {
+            expected = add(expected, fraction(values[i]));
+            assertFraction(expected, out[i], "Prefix " + i);
+        }
+        assertNull(out[values.length], "Output beyond the input length was written");
+
+        final Number[] shortOut = new Number[values.length - 1];
+        assertThrows(IllegalArgumentException.class, () -> BulkArithmetic.prefixSums(values, shortOut),
+                "Short output array was accepted");
+    }
+}
@@ -0,0 +1,196 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the CanonicalNumbers class.
+ */
+final class TestCanonicalNumbers {
+
+    /** The table bound as a {@code long}. */
+    private static final long MAX = (long) CanonicalNumbers.MAX;
+
+    /**
+     * Constructs a new {@code TestCanonicalNumbers}.
+     */
+    TestCanonicalNumbers() {
+
+        // No action
+    }
+
+    /**
+     * Asserts that a {@code Rational} has a specified numerator and denominator.
+     *
+     * @param numer   the expected numerator
+     * @param denom   the expected denominator
+     * @param actual  the {@code Rational}
+     * @param message the message if the assertion fails
+     */
+    private static void assertFraction(final long numer, final long denom, final Rational actual,
+                                       final String message) {
+
+        assertEquals(numer, actual.numerator, message + ": numerator");
+        assertEquals(denom, actual.denominator, message + ": denominator");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Every fraction with the same reduced value in the table shares one instance")
+    void testIdentitySharing() {
+
+        for (long denom = 1L; denom <= MAX; ++denom) {
+            for (long numer = -MAX; numer <= MAX; ++numer) {
+                final long gcd = LongArithmetic.gcd(numer, denom);
+                final Rational reduced = CanonicalNumbers.rational(numer / gcd, denom / gcd);
+                final String label = numer + "/" + denom;
+
+                assertSame(reduced, CanonicalNumbers.rational(numer, denom), label + " is not shared");
+                assertSame(reduced, CanonicalNumbers.rational(-numer, -denom), label + " negated is not shared");
+                assertSame(reduced, CanonicalNumbers.canonical(new Rational(numer, denom)),
+                        "canonical(" + label + ") is not shared");
+            }
+        }
+
+        assertSame(CanonicalNumbers.RATIONAL_ZERO, CanonicalNumbers.rational(0L, 7L), "0/7 is not the shared zero");
+        assertSame(CanonicalNumbers.RATIONAL_ZERO, CanonicalNumbers.rational(0L, -MAX),
+                "0/-MAX is not the shared zero");
+        assertSame(CanonicalNumbers.RATIONAL_ONE, CanonicalNumbers.rational(-MAX, -MAX),
+                "-MAX/-MAX is not the shared one");
+        assertSame(CanonicalNumbers.LONG_ZERO, Long.valueOf(0L), "Long zero is not the boxed cache instance");
+        assertSame(CanonicalNumbers.INTEGER_ONE, Integer.valueOf(1), "Integer one is not the boxed cache instance");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Fractions are reduced with a positive denominator, inside and outside the table")
+    void testReductionAndSign() {
+
+        final long[] numerators = {-3L * MAX, -MAX - 1L, -MAX, -12L, -1L, 0L, 1L, 12L, MAX, MAX + 1L, 2L * MAX + 2L,
+                Long.MAX_VALUE};
+        final long[] denominators = {-3L * MAX, -MAX - 1L, -6L, -1L, 1L, 4L, MAX, MAX + 1L, 2L * MAX, Long.MAX_VALUE};
+
+        for (final long numer : numerators) {
+            for (final long denom : denominators) {
+                final long gcd = LongArithmetic.gcd(numer, denom);
+                final long sign = denom < 0L ? -1L : 1L;
+                final long expectedNumer = numer / gcd * sign;
+                final long expectedDenom = denom / gcd * sign;
+                final String label = numer + "/" + denom;
+                final Rational result = CanonicalNumbers.rational(numer, denom);
+
+                assertFraction(expectedNumer, expectedDenom, result, label);
+                if (Math.abs(expectedNumer) <= MAX && expectedDenom <= MAX) {
+                    assertSame(CanonicalNumbers.rational(expectedNumer, expectedDenom), result,
+                            label + " reduces into the table but is not shared");
+                }
+            }
+        }
+
+        assertSame(CanonicalNumbers.rational(1L, 2L), CanonicalNumbers.rational(1000L, 2000L),
+                "1000/2000 is not the shared 1/2");
+        assertSame(CanonicalNumbers.rational(-1L, 3L), CanonicalNumbers.rational(5000L, -15000L),
+                "5000/-15000 is not the shared -1/3");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Values just inside the table bounds are shared and values just outside are not")
+    void testTableBounds() {
+
+        assertSame(CanonicalNumbers.rational(MAX, 1L), CanonicalNumbers.rational(MAX, 1L), "MAX is not shared");
+        assertSame(CanonicalNumbers.rational(-MAX, 1L), CanonicalNumbers.rational(-MAX, 1L), "-MAX is not shared");
+        assertSame(CanonicalNumbers.rational(1L, MAX), CanonicalNumbers.rational(1L, MAX), "1/MAX is not shared");
+        assertSame(CanonicalNumbers.rational(-MAX, MAX - 1L), CanonicalNumbers.rational(-MAX, MAX - 1L),
+                "-MAX/(MAX-1) is not shared");
+
+        assertNotSame(CanonicalNumbers.rational(MAX + 1L, 1L), CanonicalNumbers.rational(MAX + 1L, 1L),
+                "MAX+1 is shared");
+        assertNotSame(CanonicalNumbers.rational(-MAX - 1L, 1L), CanonicalNumbers.rational(-MAX - 1L, 1L),
+                "-MAX-1 is shared");
+        assertNotSame(CanonicalNumbers.rational(1L, MAX + 1L), CanonicalNumbers.rational(1L, MAX + 1L),
+                "1/(MAX+1) is shared");
+
+        final Rational outside = new Rational(MAX + 1L, MAX);
+        assertSame(outside, CanonicalNumbers.canonical(outside), "canonical replaced a value outside the table");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Integer results narrow to Integer where they fit, and simplified fractions match simplifyRational")
+    void testIntegersAndSimplified() {
+
+        assertInstanceOf(Integer.class, CanonicalNumbers.integer((long) Integer.MAX_VALUE), "MAX_INT is not Integer");
+        assertInstanceOf(Integer.class, CanonicalNumbers.integer((long) Integer.MIN_VALUE), "MIN_INT is not Integer");
+        assertInstanceOf(Long.class, CanonicalNumbers.integer((long) Integer.MAX_VALUE + 1L), "MAX_INT+1 is not Long");
+        assertInstanceOf(Long.class, CanonicalNumbers.integer((long) Integer.MIN_VALUE - 1L), "MIN_INT-1 is not Long");
+        assertSame(CanonicalNumbers.INTEGER_ZERO, CanonicalNumbers.integer(0L), "Zero is not the shared Integer");
+
+        assertEquals(Integer.valueOf(2), CanonicalNumbers.simplified(6L, 3L), "6/3 is not the Integer 2");
+        assertEquals(Integer.valueOf(2), CanonicalNumbers.simplified(-6L, -3L), "-6/-3 is not the Integer 2");
+        assertEquals(Long.valueOf(Long.MAX_VALUE), CanonicalNumbers.simplified(Long.MAX_VALUE, 1L),
+                "MAX_LONG/1 is not a Long");
+        assertSame(CanonicalNumbers.rational(-1L, 2L), CanonicalNumbers.simplified(3L, -6L),
+                "3/-6 is not the shared -1/2");
+
+        for (long numer = -20L; numer <= 20L; ++numer) {
+            for (long denom = -7L; denom <= 7L; ++denom) {
+                if (denom != 0L) {
+                    assertEquals(NumberUtils.simplifyRational(new Rational(numer, denom)),
+                            CanonicalNumbers.simplified(numer, denom), "simplified(" + numer + ", " + denom + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("isZero and isOne agree for shared instances and for equal values that are not shared")
+    void testIsZeroIsOne() {
+
+        final Number[] zeros = {CanonicalNumbers.INTEGER_ZERO, CanonicalNumbers.LONG_ZERO,
+                CanonicalNumbers.RATIONAL_ZERO, CanonicalNumbers.rational(0L, 9L), new Rational(0L, 1L),
+                BigInteger.ZERO, new BigDecimal("0.000"), new BigRational(BigInteger.ZERO, BigInteger.TEN),
+                Short.valueOf((short) 0), Double.valueOf(0.0)};
+        final Number[] ones = {CanonicalNumbers.INTEGER_ONE, CanonicalNumbers.LONG_ONE, CanonicalNumbers.RATIONAL_ONE,
+                CanonicalNumbers.rational(7L, 7L), new Rational(1L, 1L), BigInteger.ONE, new BigDecimal("1.00"),
+                new BigRational(BigInteger.ONE, BigInteger.ONE), Byte.valueOf((byte) 1), Double.valueOf(1.0)};
+        final Number[] others = {CanonicalNumbers.rational(1L, 2L), CanonicalNumbers.rational(-1L, 1L),
+                Integer.valueOf(2), Long.valueOf(-1L), new BigDecimal("0.001"), BigInteger.TWO};
+
+        for (final Number zero : zeros) {
+            assertTrue(NumberUtils.isZero(zero), zero + " is not zero");
+            assertFalse(NumberUtils.isOne(zero), zero + " is one");
+        }
+        for (final Number one : ones) {
+            assertTrue(NumberUtils.isOne(one), one + " is not one");
+            assertFalse(NumberUtils.isZero(one), one + " is zero");
+        }
+        for (final Number other : others) {
+            assertFalse(NumberUtils.isZero(other), other + " is zero");
+            assertFalse(NumberUtils.isOne(other), other + " is one");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ExactAccumulator class.
+ */
+final class TestExactAccumulator {
+
+    /**
+     * Constructs a new {@code TestExactAccumulator}.
+     */
+    TestExactAccumulator() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Sum of rationals is reduced")
+    void testSumRationals() {
+
+        final ExactAccumulator accumulator = new ExactAccumulator();
+        accumulator.add(new Rational(1L, 6L));
+        accumulator.add(new Rational(1L, 3L));
+        accumulator.add(Long.valueOf(2L));
+
+        final Number result = accumulator.result();
+
+        assertInstanceOf(Rational.class, result, "Sum is not a Rational");
+        assertEquals(5L, ((Rational) result).numerator, "Numerator is incorrect");
+        assertEquals(2L, ((Rational) result).denominator, "Denominator is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Sum that overflows long is exact")
+    void testSumOverflow() {
+
+        final ExactAccumulator accumulator = new ExactAccumulator();
+        accumulator.add(Long.valueOf(Long.MAX_VALUE));
+        accumulator.add(Long.valueOf(Long.MAX_VALUE));
+        accumulator.add(new Rational(1L, Long.MAX_VALUE));
+
+        final Number result = accumulator.result();
+
+        final BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+        final BigInteger expectedNumer = max.multiply(max).shiftLeft(1).add(BigInteger.ONE);
+
+        assertInstanceOf(BigRational.class, result, "Sum is not a BigRational");
+        assertEquals(expectedNumer, ((BigRational) result).numerator, "Numerator is incorrect");
+        assertEquals(max, ((BigRational) result).denominator, "Denominator is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Product and quotient reduce to an integer")
+    void testProductQuotient() {
+
+        final ExactAccumulator accumulator = new ExactAccumulator(new Rational(3L, 7L));
+        accumulator.multiply(Long.valueOf(Long.MAX_VALUE));
+        accumulator.multiply(Long.valueOf(Long.MAX_VALUE));
+        accumulator.divide(Long.valueOf(Long.MAX_VALUE));
+        accumulator.divide(new Rational(-3L, 14L));
+
+        final Number result = accumulator.result();
+
+        final BigInteger expected = BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1).negate();
+
+        assertEquals(expected, result, "Product is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Inexact values switch to double, and zero divisors give NaN")
+    void testInexact() {
+
+        final ExactAccumulator accumulator = new ExactAccumulator();
+        accumulator.add(new Rational(1L, 4L));
+        accumulator.add(Double.valueOf(0.5));
+
+        assertEquals(Double.valueOf(0.75), accumulator.result(), "Sum is incorrect");
+
+        accumulator.divide(Long.valueOf(0L));
+        final Number result = accumulator.result();
+
+        assertTrue(result instanceof Double && Double.isNaN(result.doubleValue()), "Quotient is not NaN");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Unboxed fractions add exactly, including past long overflow")
+    void testAddFraction() {
+
+        final ExactAccumulator accumulator = new ExactAccumulator();
+        accumulator.addFraction(1L, 6L);
+        accumulator.addFraction(-1L, 3L);
+
+        assertEquals(new Rational(-1L, 6L), accumulator.result(), "Sum is incorrect");
+
+        accumulator.addFraction(Long.MAX_VALUE, 1L);
+        accumulator.addFraction(Long.MAX_VALUE, 1L);
+
+        final BigInteger expectedNumer = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(12L))
+                .subtract(BigInteger.ONE);
+        final Number result = accumulator.result();
+
+        assertInstanceOf(BigRational.class, result, "Sum is not a BigRational");
+        assertEquals(expectedNumer, ((BigRational) result).numerator, "Numerator is incorrect");
+        assertEquals(BigInteger.valueOf(6L), ((BigRational) result).denominator, "Denominator is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Merging accumulators adds their values and leaves the other unchanged")
+    void testAddAccumulator() {
+
+        final ExactAccumulator big = new ExactAccumulator(Long.valueOf(Long.MAX_VALUE));
+        big.add(Long.valueOf(Long.MAX_VALUE));
+
+        final ExactAccumulator small = new ExactAccumulator(new Rational(1L, 2L));
+        small.add(big);
+        small.add(new ExactAccumulator(Long.valueOf(-Long.MAX_VALUE)));
+
+        final BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+        final Number merged = small.result();
+
+        assertInstanceOf(BigRational.class, merged, "Merged sum is not a BigRational");
+        assertEquals(max.shiftLeft(1).add(BigInteger.ONE), ((BigRational) merged).numerator,
+                "Numerator is incorrect");
+        assertEquals(BigInteger.TWO, ((BigRational) merged).denominator, "Denominator is incorrect");
+        assertEquals(max.shiftLeft(1), big.result(), "Merged accumulator was changed");
+
+        final ExactAccumulator inexact = new ExactAccumulator(Double.valueOf(0.25));
+        small.add(inexact);
+        assertInstanceOf(Double.class, small.result(), "Merging an inexact accumulator stayed exact");
+    }
+}
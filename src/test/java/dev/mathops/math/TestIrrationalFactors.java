@@ -0,0 +1,266 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigIrrational;
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.EIrrationalFactor;
+import dev.mathops.commons.number.Irrational;
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the IrrationalFactors class, through both its own methods and NumberComparator.
+ */
+final class TestIrrationalFactors {
+
+    /** The precision of reference values. */
+    private static final MathContext CONTEXT = new MathContext(120, RoundingMode.HALF_EVEN);
+
+    /** Pi to 100 decimal places. */
+    private static final BigDecimal PI = new BigDecimal("3.14159265358979323846264338327950288419716939937510"
+                                                        + "58209749445923078164062862089986280348253421170679");
+
+    /** Euler's number to 100 decimal places. */
+    private static final BigDecimal E = new BigDecimal("2.71828182845904523536028747135266249775724709369995"
+                                                       + "95749669676277240766303535475945713821785251664274");
+
+    /** The largest convergent denominator tested, well within the precision of the reference values. */
+    private static final BigInteger MAX_DENOMINATOR = BigInteger.TEN.pow(30);
+
+    /**
+     * Constructs a new {@code TestIrrationalFactors}.
+     */
+    TestIrrationalFactors() {
+
+        // No action
+    }
+
+    /**
+     * Computes the continued fraction convergents of a positive value, which alternate between lying below and above
+     * it and approach it more closely than any fraction with a smaller denominator.
+     *
+     * @param value the value
+     * @return the list of convergents, each a two-element array of numerator and denominator
+     */
+    private static List<BigInteger[]> convergents(final BigDecimal value) {
+
+        final List<BigInteger[]> result = new ArrayList<>(60);
+
+        BigInteger h1 = BigInteger.ONE;
+        BigInteger h2 = BigInteger.ZERO;
+        BigInteger k1 = BigInteger.ZERO;
+        BigInteger k2 = BigInteger.ONE;
+        BigDecimal x = value;
+
+        while (true) {
+            final BigInteger a = x.setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+            final BigInteger h = a.multiply(h1).add(h2);
+            final BigInteger k = a.multiply(k1).add(k2);
+            if (k.compareTo(MAX_DENOMINATOR) > 0) {
+                break;
+            }
+            result.add(new BigInteger[]{h, k});
+            h2 = h1;
+            h1 = h;
+            k2 = k1;
+            k1 = k;
+            x = BigDecimal.ONE.divide(x.subtract(new BigDecimal(a)), CONTEXT);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the sign of {@code p/q - value} exactly enough for convergents of the value.
+     *
+     * @param p     the numerator
+     * @param q     the denominator (positive)
+     * @param value the reference value
+     * @return -1, 0, or 1
+     */
+    private static int referenceSign(final BigInteger p, final BigInteger q, final BigDecimal value) {
+
+        return new BigDecimal(p).compareTo(new BigDecimal(q).multiply(value));
+    }
+
+    /**
+     * Creates a {@code Rational} if a fraction fits in {@code long} parts, or a {@code BigRational} if not.
+     *
+     * @param p the numerator
+     * @param q the denominator (positive)
+     * @return the fraction
+     */
+    private static Number fraction(final BigInteger p, final BigInteger q) {
+
+        return p.bitLength() < 64 && q.bitLength() < 64 ? new Rational(p.longValue(), q.longValue())
+                : new BigRational(p, q);
+    }
+
+    /**
+     * Compares two numbers with NumberComparator, reducing the result to its sign.
+     *
+     * @param a the first number
+     * @param b the second number
+     * @return -1, 0, or 1
+     */
+    private static int compare(final Number a, final Number b) {
+
+        return Integer.signum(NumberComparator.INSTANCE.compare(a, b));
+    }
+
+    /**
+     * Checks that every convergent of an irrational value compares correctly to that value in both orders and both
+     * signs, as a {@code Rational} or {@code BigRational}, and also when both sides are scaled by a common rational
+     * coefficient.
+     *
+     * @param reference the reference value of the irrational factor
+     * @param factor    the factor
+     * @param base      the integer whose square root is the factor, if the factor is {@code SQRT}
+     * @return the number of convergents whose {@code double} value equals that of the irrational value
+     */
+    private static int checkConvergents(final BigDecimal reference, final EIrrationalFactor factor,
+                                        final long base) {
+
+        final Irrational irrational = new Irrational(factor, base, 1L, 1L);
+        final Irrational negIrrational = new Irrational(factor, base, -1L, 1L);
+        final Irrational scaled = new Irrational(factor, base, 3L, 7L);
+        final BigInteger three = BigInteger.valueOf(3L);
+        final BigInteger seven = BigInteger.valueOf(7L);
+        int doublesEqual = 0;
+
+        for (final BigInteger[] convergent : convergents(reference)) {
+            final BigInteger p = convergent[0];
+            final BigInteger q = convergent[1];
+            final int expected = referenceSign(p, q, reference);
+            final Number rational = fraction(p, q);
+            final String label = p + "/" + q + " vs " + factor + base;
+
+            assertTrue(expected != 0, "Convergent " + label + " equals the reference");
+            assertEquals(expected, compare(rational, irrational), label);
+            assertEquals(-expected, compare(irrational, rational), label + " reversed");
+            assertEquals(-expected, compare(fraction(p.negate(), q), negIrrational), label + " negated");
+            assertEquals(expected, compare(fraction(p.multiply(three), q.multiply(seven)), scaled),
+                    label + " scaled by 3/7");
+
+            if (rational.doubleValue() == irrational.doubleValue()) {
+                ++doublesEqual;
+            }
+        }
+
+        return doublesEqual;
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Known approximations of pi compare on the correct side")
+    void testPiApproximations() {
+
+        final Irrational pi = new Irrational(EIrrationalFactor.PI, 0L, 1L, 1L);
+
+        assertEquals(1, compare(new Rational(355L, 113L), pi), "355/113 is not above pi");
+        assertEquals(-1, compare(new Rational(103993L, 33102L), pi), "103993/33102 is not below pi");
+        assertEquals(1, compare(new Rational(104348L, 33215L), pi), "104348/33215 is not above pi");
+
+        final Rational close = new Rational(245850922L, 78256779L);
+        assertEquals(Math.PI, close.doubleValue(), "245850922/78256779 does not round to the double nearest pi");
+        assertEquals(-1, compare(close, pi), "245850922/78256779 is not below pi");
+        assertEquals(-1, IrrationalFactors.compareRational(245850922L, 78256779L, 1L, 1L, EIrrationalFactor.PI, 0L),
+                "Long comparison of 245850922/78256779 to pi is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Convergents of pi, e, and square roots compare exactly, even when their doubles are equal")
+    void testConvergents() {
+
+        assertTrue(checkConvergents(PI, EIrrationalFactor.PI, 0L) > 0, "No pi convergent had an equal double");
+        assertTrue(checkConvergents(E, EIrrationalFactor.E, 0L) > 0, "No e convergent had an equal double");
+
+        for (final long base : new long[]{2L, 3L, 5L, 1000003L}) {
+            final BigDecimal root = new BigDecimal(base).sqrt(CONTEXT);
+            assertTrue(checkConvergents(root, EIrrationalFactor.SQRT, base) > 0,
+                    "No convergent of sqrt(" + base + ") had an equal double");
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Big rationals and big irrationals compare exactly near pi and e")
+    void testBigOperands() {
+
+        for (final BigDecimal reference : new BigDecimal[]{PI, E}) {
+            final EIrrationalFactor factor = reference == PI ? EIrrationalFactor.PI : EIrrationalFactor.E;
+
+            for (final BigInteger[] convergent : convergents(reference)) {
+                final BigInteger p = convergent[0];
+                final BigInteger q = convergent[1];
+                final int expected = referenceSign(p, q, reference);
+
+                // p/q vs K has the sign of p vs qK
+                final BigIrrational multiple = new BigIrrational(factor, 0L, q, BigInteger.ONE);
+                final String label = p + " vs " + q + factor;
+                assertEquals(expected, compare(p, multiple), label);
+                assertEquals(-expected, compare(multiple, p), label + " reversed");
+                assertEquals(expected, IrrationalFactors.compareRational(p, BigInteger.ONE, q, BigInteger.ONE, factor,
+                        0L), label + " by BigInteger comparison");
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Multiples of distinct irrational factors compare exactly when nearly equal")
+    void testIrrationalPairs() {
+
+        final BigDecimal sqrt2 = BigDecimal.TWO.sqrt(CONTEXT);
+        final BigDecimal sqrt3 = new BigDecimal(3L).sqrt(CONTEXT);
+        final BigDecimal[][] pairs = {{PI, E}, {PI, sqrt2}, {E, sqrt3}, {sqrt3, sqrt2}};
+        final EIrrationalFactor[][] factors = {{EIrrationalFactor.PI, EIrrationalFactor.E},
+                {EIrrationalFactor.PI, EIrrationalFactor.SQRT}, {EIrrationalFactor.E, EIrrationalFactor.SQRT},
+                {EIrrationalFactor.SQRT, EIrrationalFactor.SQRT}};
+        final long[][] bases = {{0L, 0L}, {0L, 2L}, {0L, 3L}, {3L, 2L}};
+
+        for (int i = 0; i < pairs.length; ++i) {
+            final BigDecimal ratio = pairs[i][0].divide(pairs[i][1], CONTEXT);
+
+            for (final BigInteger[] convergent : convergents(ratio)) {
+                final BigInteger p = convergent[0];
+                final BigInteger q = convergent[1];
+
+                // p/q vs K1/K2 has the sign of pK2 vs qK1
+                final int expected = referenceSign(p, q, ratio);
+                final String label = p + factors[i][1].name() + " vs " + q + factors[i][0].name();
+                final Number lhs;
+                final Number rhs;
+                if (p.bitLength() < 64 && q.bitLength() < 64) {
+                    lhs = new Irrational(factors[i][1], bases[i][1], p.longValue(), 1L);
+                    rhs = new Irrational(factors[i][0], bases[i][0], q.longValue(), 1L);
+                } else {
+                    lhs = new BigIrrational(factors[i][1], bases[i][1], p, BigInteger.ONE);
+                    rhs = new BigIrrational(factors[i][0], bases[i][0], q, BigInteger.ONE);
+                }
+
+                assertEquals(expected, compare(lhs, rhs), label);
+                assertEquals(-expected, compare(rhs, lhs), label + " reversed");
+            }
+        }
+    }
+}
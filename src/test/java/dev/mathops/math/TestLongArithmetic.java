@@ -0,0 +1,206 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static dev.mathops.math.NumberFixtures.assertFraction;
+import static dev.mathops.math.NumberFixtures.fraction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the LongArithmetic class and the rational fast paths that use it.
+ */
+final class TestLongArithmetic {
+
+    /** 2^63, which is one more than {@code Long.MAX_VALUE}. */
+    private static final BigInteger TWO_63 = BigInteger.ONE.shiftLeft(63);
+
+    /** The largest value whose square fits in a {@code long} (its successor's square does not). */
+    private static final long SQRT_MAX = 3037000499L;
+
+    /** Values at and near the boundaries of {@code long} arithmetic. */
+    private static final long[] BOUNDARY = {Long.MIN_VALUE, Long.MIN_VALUE + 1L, -SQRT_MAX - 1L, -SQRT_MAX,
+            -(1L << 32), -(1L << 31), -7L, -1L, 0L, 1L, 2L, 3L, 1L << 31, 1L << 32, SQRT_MAX, SQRT_MAX + 1L,
+            Long.MAX_VALUE - 1L, Long.MAX_VALUE};
+
+    /** Numerators for rational operands. */
+    private static final long[] NUMERATORS = {Long.MIN_VALUE + 1L, -Long.MAX_VALUE / 3L, -SQRT_MAX, -7L, -1L, 0L, 1L,
+            3L, 1L << 31, SQRT_MAX + 1L, Long.MAX_VALUE};
+
+    /** Denominators for rational operands. */
+    private static final long[] DENOMINATORS = {1L, 2L, 3L, 6L, SQRT_MAX, 1L << 32, Long.MAX_VALUE};
+
+    /**
+     * Constructs a new {@code TestLongArithmetic}.
+     */
+    TestLongArithmetic() {
+
+        // No action
+    }
+
+    /**
+     * Tests whether a {@code BigInteger} fits in a {@code long}.
+     *
+     * @param value the value
+     * @return true if the value fits
+     */
+    private static boolean fits(final BigInteger value) {
+
+        return value.bitLength() <= 63;
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Binary GCD matches BigInteger, including |Long.MIN_VALUE| as an unsigned 2^63")
+    void testGcd() {
+
+        for (final long a : BOUNDARY) {
+            for (final long b : BOUNDARY) {
+                final BigInteger expected = BigInteger.valueOf(a).gcd(BigInteger.valueOf(b));
+                final long actual = LongArithmetic.gcd(a, b);
+                assertEquals(expected, new BigInteger(Long.toUnsignedString(actual)), "gcd(" + a + ", " + b + ")");
+            }
+        }
+
+        assertEquals(Long.MIN_VALUE, LongArithmetic.gcd(Long.MIN_VALUE, 0L), "gcd(MIN, 0) is not 2^63");
+        assertEquals(Long.MIN_VALUE, LongArithmetic.gcd(Long.MIN_VALUE, Long.MIN_VALUE), "gcd(MIN, MIN) is not 2^63");
+        assertEquals(2L, LongArithmetic.gcd(Long.MIN_VALUE, 6L), "gcd(MIN, 6) is incorrect");
+        assertEquals(0L, LongArithmetic.gcd(0L, 0L), "gcd(0, 0) is not zero");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Products just below 2^63 fit and products at or above it overflow")
+    void testMultiplyOverflows() {
+
+        assertFalse(LongArithmetic.multiplyOverflows(SQRT_MAX, SQRT_MAX), "Largest fitting square overflowed");
+        assertTrue(LongArithmetic.multiplyOverflows(SQRT_MAX + 1L, SQRT_MAX + 1L), "Square above 2^63 fit");
+        assertTrue(LongArithmetic.multiplyOverflows(1L << 32, 1L << 31), "2^63 fit");
+        assertFalse(LongArithmetic.multiplyOverflows(-(1L << 32), 1L << 31), "-2^63 overflowed");
+        assertTrue(LongArithmetic.multiplyOverflows(Long.MIN_VALUE, -1L), "-MIN fit");
+        assertFalse(LongArithmetic.multiplyOverflows(Long.MIN_VALUE, 1L), "MIN * 1 overflowed");
+        assertFalse(LongArithmetic.multiplyOverflows(Long.MAX_VALUE, -1L), "-MAX overflowed");
+
+        for (final long a : BOUNDARY) {
+            for (final long b : BOUNDARY) {
+                final BigInteger exact = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+                assertEquals(!fits(exact), LongArithmetic.multiplyOverflows(a, b), a + " * " + b);
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Sums overflow exactly when they leave the long range")
+    void testAddOverflows() {
+
+        assertTrue(LongArithmetic.addOverflows(Long.MAX_VALUE, 1L, Long.MAX_VALUE + 1L), "MAX + 1 fit");
+        assertTrue(LongArithmetic.addOverflows(Long.MIN_VALUE, -1L, Long.MIN_VALUE - 1L), "MIN - 1 fit");
+        assertFalse(LongArithmetic.addOverflows(Long.MAX_VALUE, Long.MIN_VALUE, -1L), "MAX + MIN overflowed");
+
+        for (final long a : BOUNDARY) {
+            for (final long b : BOUNDARY) {
+                final BigInteger exact = BigInteger.valueOf(a).add(BigInteger.valueOf(b));
+                assertEquals(!fits(exact), LongArithmetic.addOverflows(a, b, a + b), a + " + " + b);
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("128-bit product comparison matches BigInteger")
+    void testCompareProducts() {
+
+        assertEquals(-1, LongArithmetic.compareProducts(SQRT_MAX, SQRT_MAX, SQRT_MAX + 1L, SQRT_MAX + 1L),
+                "Products straddling 2^63 compared incorrectly");
+        assertEquals(1, LongArithmetic.compareProducts(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE,
+                Long.MAX_VALUE), "2^126 is not above (2^63 - 1)^2");
+        assertEquals(0, LongArithmetic.compareProducts(1L << 32, 1L << 31, Long.MIN_VALUE, -1L),
+                "Equal products of 2^63 compared unequal");
+
+        for (final long a : BOUNDARY) {
+            for (final long b : BOUNDARY) {
+                final BigInteger ab = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+                for (final long c : BOUNDARY) {
+                    for (final long d : BOUNDARY) {
+                        final BigInteger cd = BigInteger.valueOf(c).multiply(BigInteger.valueOf(d));
+                        assertEquals(ab.compareTo(cd), LongArithmetic.compareProducts(a, b, c, d),
+                                a + " * " + b + " vs " + c + " * " + d);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Rational kernels are exact whether or not the long fast path applies")
+    void testRationalKernels() {
+
+        for (final long n1 : NUMERATORS) {
+            for (final long d1 : DENOMINATORS) {
+                final Rational r1 = new Rational(n1, d1);
+                final BigInteger a = BigInteger.valueOf(r1.numerator);
+                final BigInteger b = BigInteger.valueOf(r1.denominator);
+
+                for (final long n2 : NUMERATORS) {
+                    final Long lng = Long.valueOf(n2);
+                    final BigInteger n = BigInteger.valueOf(n2);
+                    final String lngLabel = r1 + " and " + n2;
+
+                    assertFraction(n.multiply(b).add(a), b, Add.longPlusRational(lng, r1), "Sum of " + lngLabel);
+                    assertFraction(n.multiply(a), b, Multiply.longTimesRational(lng, r1), "Product of " + lngLabel);
+                    if (n2 != 0L) {
+                        assertFraction(a, b.multiply(n), Divide.rationalDivLong(r1, lng), "Quotient of " + lngLabel);
+                    }
+
+                    for (final long d2 : DENOMINATORS) {
+                        final Rational r2 = new Rational(n2, d2);
+                        final BigInteger c = BigInteger.valueOf(r2.numerator);
+                        final BigInteger d = BigInteger.valueOf(r2.denominator);
+                        final String label = r1 + " and " + r2;
+
+                        assertFraction(a.multiply(d).add(c.multiply(b)), b.multiply(d),
+                                Add.rationalPlusRational(r1, r2), "Sum of " + label);
+                        assertFraction(a.multiply(c), b.multiply(d), Multiply.rationalTimesRational(r1, r2),
+                                "Product of " + label);
+                        assertEquals(a.multiply(d).compareTo(c.multiply(b)),
+                                Integer.signum(NumberComparator.INSTANCE.compare(r1, r2)), "Comparison of " + label);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Results that fit in a long stay Rational, and those that do not become BigRational")
+    void testResultTypes() {
+
+        final Number small = Add.rationalPlusRational(new Rational(1L, 6L), new Rational(1L, 10L));
+        assertFraction(BigInteger.valueOf(4L), BigInteger.valueOf(15L), small, "1/6 + 1/10");
+        assertTrue(small instanceof Rational, "Small sum left long arithmetic");
+
+        final Number big = Add.rationalPlusRational(new Rational(1L, Long.MAX_VALUE), new Rational(1L, SQRT_MAX));
+        assertTrue(big instanceof BigRational, "Sum with a denominator above 2^63 is not a BigRational");
+        assertTrue(fraction(big)[1].compareTo(TWO_63) > 0, "Denominator is not above 2^63");
+    }
+}
@@ -0,0 +1,203 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.BigIrrational;
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.EIrrationalFactor;
+import dev.mathops.commons.number.Irrational;
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static dev.mathops.math.NumberFixtures.HUGE;
+import static dev.mathops.math.NumberFixtures.mixed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the NumberSorter class.
+ */
+final class TestNumberSorter {
+
+    /**
+     * Constructs a new {@code TestNumberSorter}.
+     */
+    TestNumberSorter() {
+
+        // No action
+    }
+
+    /**
+     * Sorts a copy of an array with the exact comparator, and asserts that NumberSorter produces the same order.
+     *
+     * @param values  the values
+     * @param message the message if the assertion fails
+     */
+    private static void assertSortsLikeComparator(final Number[] values, final String message) {
+
+        final Number[] expected = values.clone();
+        Arrays.sort(expected, NumberComparator.INSTANCE);
+
+        final Number[] actual = values.clone();
+        NumberSorter.sort(actual);
+
+        int mismatch = -1;
+        for (int i = 0; i < expected.length; ++i) {
+            if (expected[i] != actual[i]) {
+                mismatch = i;
+                break;
+            }
+        }
+        assertEquals(-1, mismatch, message + ": " + Arrays.toString(actual));
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Values with no useful error bound are ordered against the whole array")
+    void testUnboundedError() {
+
+        final BigInteger negHuge = HUGE.negate();
+        final Number[] values = {Long.valueOf(-10L), Long.valueOf(-5L), negHuge, Long.valueOf(3L)};
+        NumberSorter.sort(values);
+
+        assertSame(negHuge, values[0], "-10^400 is not first");
+        assertEquals(Long.valueOf(-10L), values[1], "-10 is not second");
+        assertEquals(Long.valueOf(-5L), values[2], "-5 is not third");
+        assertEquals(Long.valueOf(3L), values[3], "3 is not last");
+
+        // About 10 + 10^-399, whose numerator and denominator both overflow a double
+        final BigRational nearTen = new BigRational(HUGE.multiply(BigInteger.TEN).add(BigInteger.ONE), HUGE);
+        final Rational tenAndHalf = new Rational(21L, 2L);
+        final Number[] middle = {Long.valueOf(11L), tenAndHalf, Long.valueOf(9L), nearTen, Long.valueOf(10L),
+                new BigDecimal("-1e400"), HUGE};
+        assertSortsLikeComparator(middle, "Unbounded values among small values");
+        NumberSorter.sort(middle);
+        assertSame(nearTen, middle[3], "10 + 10^-399 is not between 10 and 10.5");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Big fractions whose denominators overflow a double, or whose quotients underflow, sort correctly")
+    void testSmallQuotients() {
+
+        // 10^300 / 10^310 = 10^-10: the numerator converts to a double, but the denominator does not
+        final BigInteger numer = BigInteger.TEN.pow(300);
+        final BigInteger denom = BigInteger.TEN.pow(310);
+        final BigRational tenth = new BigRational(numer, denom);
+        final BigIrrational rootTwoTenth = new BigIrrational(EIrrationalFactor.SQRT, 2L, numer, denom);
+        final BigDecimal below = new BigDecimal("1e-11");
+        final BigDecimal between = new BigDecimal("1.2e-10");
+        final BigDecimal above = new BigDecimal("1e-9");
+        final Number[] values = {above, rootTwoTenth, tenth, between, below, Long.valueOf(0L)};
+
+        assertSortsLikeComparator(values, "Quotients with an overflowed denominator");
+        NumberSorter.sort(values);
+        assertSame(below, values[1], "10^-11 is not above zero");
+        assertSame(tenth, values[2], "10^-10 is not above 10^-11");
+        assertSame(between, values[3], "1.2 * 10^-10 is not above 10^-10");
+        assertSame(rootTwoTenth, values[4], "sqrt(2) * 10^-10 is not above 1.2 * 10^-10");
+        assertEquals(-1, NumberSorter.binarySearch(values, new BigDecimal("-1e-10")),
+                "Insertion point of -10^-10 is incorrect");
+        assertEquals(2, NumberSorter.binarySearch(values, new BigDecimal("1e-10")), "Did not find 10^-10");
+
+        // Quotients below the smallest normal double, among subnormal doubles and values that also underflow
+        final BigRational tiny = new BigRational(BigInteger.ONE, HUGE);
+        final BigRational negTiny = new BigRational(BigInteger.ONE.negate(), HUGE);
+        final BigRational subnormal = new BigRational(BigInteger.ONE, BigInteger.TEN.pow(310));
+        final Number[] underflow = {subnormal, new BigDecimal("2e-400"), tiny, Long.valueOf(0L), negTiny,
+                new BigDecimal("5e-401"), new BigDecimal("1e-309"), new BigDecimal("-1e-309")};
+        assertSortsLikeComparator(underflow, "Quotients that underflow");
+        NumberSorter.sort(underflow);
+        assertSame(negTiny, underflow[1], "-10^-400 is not second");
+        assertSame(tiny, underflow[4], "10^-400 is not between 5 * 10^-401 and 2 * 10^-400");
+        assertSame(subnormal, underflow[6], "10^-310 is not between 2 * 10^-400 and 10^-309");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Mixed Long, Rational, BigRational, and Irrational values sort as the exact comparator does")
+    void testMixedTypes() {
+
+        final Random random = new Random(1L);
+
+        for (final int size : new int[]{0, 1, 2, 5, 31, 32, 33, 100, 1000}) {
+            for (int trial = 0; trial < 8; ++trial) {
+                assertSortsLikeComparator(mixed(random, size, true), "Mixed array of " + size);
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Numerically equal values keep their original order")
+    void testStability() {
+
+        final Number[] values = {Long.valueOf(1L), new BigDecimal("0.5"), Integer.valueOf(1), new Rational(1L, 2L),
+                BigInteger.ONE, new BigRational(BigInteger.ONE, BigInteger.TWO), Short.valueOf((short) 1),
+                new BigDecimal("0.50"), Long.valueOf(-1L), new BigDecimal("1.000")};
+        final Number[] expected = {values[8], values[1], values[3], values[5], values[7], values[0], values[2],
+                values[4], values[6], values[9]};
+
+        NumberSorter.sort(values);
+
+        for (int i = 0; i < values.length; ++i) {
+            assertSame(expected[i], values[i], "Equal values reordered at " + i + ": " + Arrays.toString(values));
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Binary search finds equal values of any type and the correct insertion point otherwise")
+    void testBinarySearch() {
+
+        final Random random = new Random(2L);
+        final Number[] sorted = mixed(random, 500, true);
+        NumberSorter.sort(sorted);
+
+        for (final Number value : sorted) {
+            final int index = NumberSorter.binarySearch(sorted, value);
+            assertTrue(index >= 0 && NumberComparator.INSTANCE.compare(sorted[index], value) == 0,
+                    "Did not find " + value);
+        }
+
+        for (final Number key : mixed(random, 500, true)) {
+            final int index = NumberSorter.binarySearch(sorted, key);
+
+            if (index >= 0) {
+                assertEquals(0, NumberComparator.INSTANCE.compare(sorted[index], key), "Found a value unequal to "
+                                                                                       + key);
+            } else {
+                final int insertion = -index - 1;
+                assertTrue(insertion == 0 || NumberComparator.INSTANCE.compare(sorted[insertion - 1], key) < 0,
+                        "Insertion point for " + key + " is after a value that is not less");
+                assertTrue(insertion == sorted.length
+                           || NumberComparator.INSTANCE.compare(sorted[insertion], key) > 0,
+                        "Insertion point for " + key + " is before a value that is not greater");
+            }
+        }
+
+        final Number[] distinct = {Long.valueOf(-3L), new Rational(-1L, 2L), Long.valueOf(0L),
+                new Irrational(EIrrationalFactor.E, 0L, 1L, 1L), HUGE};
+        assertEquals(3, NumberSorter.binarySearch(distinct, new Irrational(EIrrationalFactor.E, 0L, 2L, 2L)),
+                "Did not find e");
+        assertEquals(-4, NumberSorter.binarySearch(distinct, Long.valueOf(1L)), "Insertion point of 1 is incorrect");
+        assertEquals(-6, NumberSorter.binarySearch(distinct, HUGE.add(BigInteger.ONE)),
+                "Insertion point above 10^400 is incorrect");
+        assertEquals(-1, NumberSorter.binarySearch(new Number[0], Long.valueOf(0L)), "Empty array search is incorrect");
+    }
+}
@@ -0,0 +1,67 @@
+package dev.mathops.math;
+
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the Power class.
+ */
+final class TestPower {
+
+    /**
+     * Constructs a new {@code TestPower}.
+     */
+    TestPower() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Rational powers are exact")
+    void testRationalPower() {
+
+        final Number result = Power.numberPowLong(new Rational(3L, 4L), 12L);
+
+        assertInstanceOf(Rational.class, result, "Power is not a Rational");
+        assertEquals(531441L, ((Rational) result).numerator, "Numerator is incorrect");
+        assertEquals(16777216L, ((Rational) result).denominator, "Denominator is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Negative exponents produce the reciprocal")
+    void testNegativeExponent() {
+
+        final Number result = Power.numberPowLong(new Rational(-3L, 4L), -3L);
+
+        assertInstanceOf(Rational.class, result, "Power is not a Rational");
+        assertEquals(-64L, ((Rational) result).numerator, "Numerator is incorrect");
+        assertEquals(27L, ((Rational) result).denominator, "Denominator is incorrect");
+
+        assertTrue(Double.isNaN(Power.numberPowLong(Long.valueOf(0L), -1L).doubleValue()), "0^-1 is not NaN");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Powers that overflow long are exact")
+    void testOverflow() {
+
+        final Number result = Power.numberPowLong(Long.valueOf(3L), 41L);
+
+        assertEquals(BigInteger.valueOf(3L).pow(41), result, "Power is incorrect");
+    }
+}
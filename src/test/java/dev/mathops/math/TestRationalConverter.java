@@ -4,6 +4,7 @@ import dev.mathops.commons.number.Rational;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
@@ -31,4 +32,44 @@ final class TestRationalConverter {
 
         assertSame(input, output, "Rational is not converted to itself");
     }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Best rational approximation with bounded denominator")
+    void testBestRational() {
+
+        final Rational tenth = RationalConverter.toBestRational(0.1, 1000L);
+        assertEquals(1L, tenth.numerator, "0.1 numerator is incorrect");
+        assertEquals(10L, tenth.denominator, "0.1 denominator is incorrect");
+
+        final Rational pi = RationalConverter.toBestRational(Math.PI, 1000L);
+        assertEquals(355L, pi.numerator, "pi numerator is incorrect");
+        assertEquals(113L, pi.denominator, "pi denominator is incorrect");
+
+        // 311/99 is a semiconvergent, closer to pi than the convergent 22/7
+        final Rational piSemi = RationalConverter.toBestRational(Math.PI, 100L);
+        assertEquals(311L, piSemi.numerator, "pi semiconvergent numerator is incorrect");
+        assertEquals(99L, piSemi.denominator, "pi semiconvergent denominator is incorrect");
+
+        final Rational negE = RationalConverter.toBestRational(-Math.E, 10L);
+        assertEquals(-19L, negE.numerator, "-e numerator is incorrect");
+        assertEquals(7L, negE.denominator, "-e denominator is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Best rational approximation within a tolerance")
+    void testBestRationalTolerance() {
+
+        final Number pi = RationalConverter.toBestRational(Math.PI, 1000000L, 1.0e-3);
+        assertEquals(new Rational(333L, 106L), pi, "pi within 1e-3 is incorrect");
+
+        final Number[] thirds = RationalConverter.toBestRational(new double[]{1.0 / 3.0, 2.0 / 3.0}, 100L, 1.0e-12);
+        assertEquals(new Rational(1L, 3L), thirds[0], "1/3 is incorrect");
+        assertEquals(new Rational(2L, 3L), thirds[1], "2/3 is incorrect");
+    }
 }
@@ -0,0 +1,90 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.math.function.ExprFunction;
+import dev.mathops.math.set.number.RealInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the BatchEvaluator class and the batch evaluation methods that use it.
+ */
+final class TestBatchEvaluator {
+
+    /**
+     * Constructs a new {@code TestBatchEvaluator}.
+     */
+    TestBatchEvaluator() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Batch results match point-by-point evaluation across several blocks")
+    void testMatchesPointwise() {
+
+        final Expr expr = ExpressionParser.parseExpr("sin(x)*x^2-sqrt(abs(x))/(x*x+1)+log2(x*x+2)");
+        final CompiledExpr program = ExprCompiler.compile(expr, "x");
+        final BatchEvaluator batch = new BatchEvaluator(program);
+
+        // A count that is not a multiple of the block size exercises the partial final block
+        final int count = BatchEvaluator.BLOCK_SIZE * 3 + 17;
+        final double[] xs = new double[count];
+        for (int i = 0; i < count; ++i) {
+            xs[i] = (double) i * 0.01 - 4.0;
+        }
+        final double[] out = new double[count];
+        batch.evaluate(xs, out);
+
+        final double[] registers = program.newRegisters();
+        for (int i = 0; i < count; ++i) {
+            registers[0] = xs[i];
+            assertEquals(program.evaluate(registers), out[i], "Value is incorrect at point " + i);
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Column form evaluates expressions of several variables")
+    void testColumns() {
+
+        final Expr expr = ExpressionParser.parseExpr("2*x-y/z");
+        final double[][] columns = {{1.0, 2.0, 3.0}, {4.0, 6.0, 9.0}, {2.0, 3.0, -3.0}};
+        final double[] out = new double[3];
+        expr.evalBatch(new String[]{"x", "y", "z"}, columns, out);
+
+        assertEquals(0.0, out[0], "First value is incorrect");
+        assertEquals(2.0, out[1], "Second value is incorrect");
+        assertEquals(9.0, out[2], "Third value is incorrect");
+
+        assertThrows(IllegalArgumentException.class, () -> expr.evalBatch("x", columns[0], out),
+                "Unknown variable was accepted");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("ExprFunction batch evaluation clamps arguments to the domain")
+    void testFunction() {
+
+        final Expr expr = ExpressionParser.parseExpr("x^2+1");
+        final ExprFunction function = new ExprFunction(new RealInterval(Double.valueOf(-1.0), Double.valueOf(2.0)),
+                expr, "x");
+
+        final double[] xs = {-3.0, 0.5, 1.5, 5.0};
+        final double[] out = new double[4];
+        function.evalBatch(xs, out);
+
+        for (int i = 0; i < xs.length; ++i) {
+            assertEquals(function.evaluate(xs[i])[0], out[i], 1.0e-12, "Value is incorrect at point " + i);
+        }
+    }
+}
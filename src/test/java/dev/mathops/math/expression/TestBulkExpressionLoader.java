@@ -0,0 +1,154 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the BulkExpressionLoader class.
+ */
+final class TestBulkExpressionLoader {
+
+    /**
+     * Constructs a new {@code TestBulkExpressionLoader}.
+     */
+    TestBulkExpressionLoader() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Records are parsed in input order with errors reported by record number")
+    void testOrderAndErrors() {
+
+        final String text = "x+1\r\nsin(y)\n\n2*(z\n  \ncos(x)*y";
+        final BulkLoadResult result = new BulkExpressionLoader().load(text);
+
+        assertEquals(6, result.getNumRecords(), "Wrong record count");
+        assertEquals(3, result.getNumParsed(), "Wrong parsed count");
+        assertEquals(ExpressionParser.parseExpr("x+1"), result.getExpression(0), "Record 1 is incorrect");
+        assertEquals(ExpressionParser.parseExpr("sin(y)"), result.getExpression(1), "Record 2 is incorrect");
+        assertNull(result.getExpression(2), "Empty record gave an expression");
+        assertNull(result.getExpression(3), "Invalid record gave an expression");
+        assertNull(result.getExpression(4), "Blank record gave an expression");
+        assertEquals(ExpressionParser.parseExpr("cos(x)*y"), result.getExpression(5), "Record 6 is incorrect");
+
+        final List<BulkLoadError> errors = result.getErrors();
+        assertEquals(1, errors.size(), "Wrong error count");
+        assertEquals(4, errors.getFirst().getRecordNumber(), "Wrong error record number");
+        assertEquals("2*(z", errors.getFirst().getText(), "Wrong error text");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Errors report whether a record failed to scan or to parse, and where")
+    void testErrorDetails() {
+
+        final String text = "x+#y\nx+1\n(x+1)*y)\n sin(x\n2*y\n*x";
+        final List<BulkLoadError> errors = new BulkExpressionLoader().load(text).getErrors();
+
+        assertEquals(4, errors.size(), "Wrong error count");
+
+        final BulkLoadError invalidChar = errors.get(0);
+        assertEquals(1, invalidChar.getRecordNumber(), "Wrong record number for invalid character");
+        assertEquals(EParseFailure.LEXICAL, invalidChar.getFailure(), "Invalid character is not a lexical failure");
+        assertEquals(2, invalidChar.getFailureOffset(), "Wrong offset of invalid character");
+
+        // The grammar matches "(x+1)*y", so the failure is at the unmatched ')'
+        final BulkLoadError extraParen = errors.get(1);
+        assertEquals(3, extraParen.getRecordNumber(), "Wrong record number for extra parenthesis");
+        assertEquals(EParseFailure.SYNTACTIC, extraParen.getFailure(), "Extra parenthesis is not a syntax failure");
+        assertEquals(7, extraParen.getFailureOffset(), "Wrong offset of extra parenthesis");
+
+        // No prefix of an unclosed function call is an expression, so the failure is at its first token
+        final BulkLoadError unclosed = errors.get(2);
+        assertEquals(4, unclosed.getRecordNumber(), "Wrong record number for unclosed call");
+        assertEquals(EParseFailure.SYNTACTIC, unclosed.getFailure(), "Unclosed call is not a syntax failure");
+        assertEquals(0, unclosed.getFailureOffset(), "Wrong offset of unclosed call");
+
+        final BulkLoadError leadingOp = errors.get(3);
+        assertEquals(6, leadingOp.getRecordNumber(), "Wrong record number for leading operator");
+        assertEquals(EParseFailure.SYNTACTIC, leadingOp.getFailure(), "Leading operator is not a syntax failure");
+        assertEquals(0, leadingOp.getFailureOffset(), "Wrong offset of leading operator");
+        assertEquals("Record 6: syntax error at offset 0 in '*x'", leadingOp.toString(), "Wrong error string");
+
+        final ExpressionTokenBuffer tokens = new ExpressionTokenBuffer();
+        assertNull(ExpressionParser.parseExpr("x+#y", 0, 4, tokens), "Invalid text was parsed");
+        assertEquals(EParseFailure.LEXICAL, tokens.getFailure(), "Buffer does not report a lexical failure");
+        assertNotNull(ExpressionParser.parseExpr("x+1", 0, 3, tokens), "Valid text was not parsed");
+        assertNull(tokens.getFailure(), "Buffer reports a failure after a successful parse");
+        assertEquals(-1, tokens.getFailureOffset(), "Buffer reports a failure offset after a successful parse");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Many records split across tasks keep their order")
+    void testParallel() {
+
+        final int count = 5000;
+        final StringBuilder text = new StringBuilder(count * 12);
+        for (int i = 0; i < count; ++i) {
+            text.append(i).append("*x+y").append(';');
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final BulkLoadResult result = new BulkExpressionLoader(';', pool, 64).load(text);
+
+            assertEquals(count, result.getNumRecords(), "Wrong record count");
+            assertEquals(count, result.getNumParsed(), "Wrong parsed count");
+            assertTrue(result.getErrors().isEmpty(), "Unexpected errors");
+            for (int i = 0; i < count; ++i) {
+                final Number leading = result.getExpression(i).getTerm(0).getFactor(0).getNumber();
+                assertEquals((double) i, leading.doubleValue(), 0.0, "Record " + i + " is out of order");
+            }
+            assertTrue(result.getParseNanos() > 0L, "Parse time was not recorded");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A test case.
+     *
+     * @throws IOException if the temporary file cannot be written
+     */
+    @Test
+    @DisplayName("Expressions are loaded from a UTF-8 file")
+    void testFile() throws IOException {
+
+        final Path file = Files.createTempFile("exprs", ".txt");
+        try {
+            Files.writeString(file, "{θ}*2\nhypot(3,4)\n", StandardCharsets.UTF_8);
+            final BulkLoadResult result = new BulkExpressionLoader().load(file);
+
+            assertEquals(2, result.getNumRecords(), "Wrong record count");
+            assertEquals(ExpressionParser.parseExpr("{θ}*2"), result.getExpression(0), "Record 1 is incorrect");
+            assertEquals(ExpressionParser.parseExpr("hypot(3,4)"), result.getExpression(1), "Record 2 is incorrect");
+        } finally {
+            Files.delete(file);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new BulkExpressionLoader('\n', null, 10),
+                "Null pool was accepted");
+    }
+}
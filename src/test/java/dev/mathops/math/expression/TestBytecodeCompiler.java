@@ -0,0 +1,83 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the BytecodeCompiler and TieredFunction classes.
+ */
+final class TestBytecodeCompiler {
+
+    /**
+     * Constructs a new {@code TestBytecodeCompiler}.
+     */
+    TestBytecodeCompiler() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Generated code matches the interpreter")
+    void testMatchesInterpreter() {
+
+        final Expr expr = ExpressionParser.parseExpr("sin(x)*cos(y)+hypot(x,y)/(x-1)-log2(y*y+1)");
+        final CompiledExpr program = ExprCompiler.compile(expr, "x", "y");
+        final ICompiledFunction function = BytecodeCompiler.compile(program);
+        assertNotNull(function, "Program was not compiled");
+
+        final double[] registers = program.newRegisters();
+        for (int i = 0; i < 50; ++i) {
+            final double x = (double) i * 0.17 - 4.0;
+            final double y = 3.0 - (double) i * 0.11;
+            registers[0] = x;
+            registers[1] = y;
+
+            // The same operations run in the same order, so results agree exactly
+            assertEquals(program.evaluate(registers), function.evaluate(x, y), "Value is incorrect");
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Functions of one argument support applyAsDouble")
+    void testUnary() {
+
+        final Expr expr = ExpressionParser.parseExpr("x*x*x-2*x+1");
+        final ICompiledFunction function = BytecodeCompiler.compile(ExprCompiler.compile(expr, "x"));
+        assertNotNull(function, "Program was not compiled");
+
+        assertEquals(1, function.getNumInputs(), "Number of inputs is incorrect");
+        assertEquals(1, function.getNumOutputs(), "Number of outputs is incorrect");
+        assertEquals(5.0, function.applyAsDouble(2.0), "Value is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Tiered functions compile after the threshold")
+    void testTiered() {
+
+        final CompiledExpr program = ExprCompiler.compile(ExpressionParser.parseExpr("2*x+y"), "x", "y");
+        final TieredFunction function = new TieredFunction(program, 10);
+
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(7.0, function.evaluate(3.0, 1.0), "Interpreted value is incorrect");
+        }
+        assertFalse(function.isCompiled(), "Function was compiled before the threshold");
+
+        assertEquals(7.0, function.evaluate(3.0, 1.0), "Compiled value is incorrect");
+        assertTrue(function.isCompiled(), "Function was not compiled at the threshold");
+        assertTrue(function.getCompileNanos() > 0L, "Compile time was not recorded");
+    }
+}
@@ -0,0 +1,160 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.math.function.ExprFunction;
+import dev.mathops.math.set.number.RealInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress tests for evaluating shared expressions from several threads at once.
+ */
+final class TestConcurrentEval {
+
+    /** The number of threads. */
+    private static final int NUM_THREADS = 8;
+
+    /** The number of points each thread evaluates. */
+    private static final int NUM_POINTS = 20000;
+
+    /** An expression with exponents (which were once converted lazily, on first evaluation). */
+    private static final String SOURCE = "2*x^3/y-sin(x)*y^2+x^2^2/(y*y+1)";
+
+    /**
+     * Constructs a new {@code TestConcurrentEval}.
+     */
+    TestConcurrentEval() {
+
+        // No action
+    }
+
+    /**
+     * Computes the expected value of the test expression.
+     *
+     * @param x the value of x
+     * @param y the value of y
+     * @return the expected value
+     */
+    private static double expected(final double x, final double y) {
+
+        final double x4 = Math.pow(Math.pow(x, 2.0), 2.0);
+
+        return 2.0 * Math.pow(x, 3.0) / y - Math.sin(x) * Math.pow(y, 2.0) + x4 / (y * y + 1.0);
+    }
+
+    /**
+     * Runs a task on several threads at once, released together, and returns the number of mismatches found.
+     *
+     * @param task the task (which returns the number of mismatches it found)
+     * @return the total number of mismatches
+     * @throws Exception if a task fails
+     */
+    private static int runConcurrently(final Callable<Integer> task) throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        int mismatches = 0;
+
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>(NUM_THREADS);
+            for (int i = 0; i < NUM_THREADS; ++i) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (final Future<Integer> future : futures) {
+                mismatches += future.get().intValue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        return mismatches;
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("One parsed expression evaluates correctly from many threads")
+    void testSharedExpr() throws Exception {
+
+        final Expr expr = ExpressionParser.parseExpr(SOURCE);
+        final VariableLayout layout = VariableLayout.of(expr, "x", "y");
+
+        final int mismatches = runConcurrently(() -> {
+            final VariableFrame frame = layout.newFrame();
+            int count = 0;
+            for (int i = 0; i < NUM_POINTS; ++i) {
+                final double x = (double) (i % 200) * 0.05 - 5.0;
+                final double y = (double) (i % 37) * 0.1 + 0.5;
+                frame.setDouble(0, x);
+                frame.setDouble(1, y);
+                final double actual = expr.eval(frame).doubleValue();
+                if (Math.abs(actual - expected(x, y)) > 1.0e-9 * Math.max(1.0, Math.abs(actual))) {
+                    ++count;
+                }
+            }
+            return Integer.valueOf(count);
+        });
+
+        assertEquals(0, mismatches, "Concurrent evaluation produced incorrect values");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("One ExprFunction evaluates correctly from many threads")
+    void testSharedFunction() throws Exception {
+
+        final Expr expr = ExpressionParser.parseExpr("x^3-x^2*2+1");
+        final RealInterval domain = new RealInterval(Double.valueOf(-10.0), Double.valueOf(10.0));
+        final ExprFunction function = new ExprFunction(domain, expr, "x");
+
+        final int mismatches = runConcurrently(() -> {
+            int count = 0;
+            for (int i = 0; i < NUM_POINTS; ++i) {
+                final double x = (double) (i % 400) * 0.05 - 10.0;
+                final double actual = function.evaluate(x)[0];
+                if (Math.abs(actual - (x * x * x - 2.0 * x * x + 1.0)) > 1.0e-9 * Math.max(1.0, Math.abs(actual))) {
+                    ++count;
+                }
+            }
+            return Integer.valueOf(count);
+        });
+
+        assertEquals(0, mismatches, "Concurrent evaluation produced incorrect values");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Evaluating and differentiating does not change an expression")
+    void testNoSideEffects() {
+
+        final Expr expr = ExpressionParser.parseExpr(SOURCE);
+        final String before = expr.toString();
+
+        final VariableValues values = new VariableValues();
+        values.set("x", Double.valueOf(1.5));
+        values.set("y", Double.valueOf(2.0));
+        expr.eval(values);
+        expr.differentiate("x");
+        expr.simplify();
+
+        assertEquals(before, expr.toString(), "Expression was modified");
+    }
+}
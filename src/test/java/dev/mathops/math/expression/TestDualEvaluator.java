@@ -0,0 +1,96 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.math.function.ExprFunction;
+import dev.mathops.math.set.number.RealInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the DualEvaluator class.
+ */
+final class TestDualEvaluator {
+
+    /** The tolerance for comparing derivatives. */
+    private static final double EPSILON = 1.0e-9;
+
+    /**
+     * Constructs a new {@code TestDualEvaluator}.
+     */
+    TestDualEvaluator() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Derivatives of every function match symbolic differentiation")
+    void testMatchesSymbolic() {
+
+        final String[] sources = {"abs(x-2)", "acos(x/3)", "asin(x/3)", "atan(x)", "cbrt(x)", "cos(x)", "exp(x)",
+                "expm1(x)", "log(x)", "log1p(x)", "log10(x)", "log2(x)", "sin(x)", "sqrt(x)", "tan(x)", "toDeg(x)",
+                "toRad(x)", "atan2(x,2)", "hypot(x,2)", "pow(x,3)", "pow(2,x)", "pow(x,x)", "x^2-3/x"};
+
+        final VariableValues values = new VariableValues();
+        values.set("x", Double.valueOf(1.3));
+
+        for (final String source : sources) {
+            final Expr expr = ExpressionParser.parseExpr(source);
+            final DualNumber dual = DualEvaluator.derivative(expr, values, "x");
+            final double expectedValue = expr.eval(values).doubleValue();
+            final double expectedDeriv = expr.differentiate("x").eval(values).doubleValue();
+
+            assertEquals(expectedValue, dual.getValue(), EPSILON, "Value of " + source + " is incorrect");
+            assertEquals(expectedDeriv, dual.getDerivative(), EPSILON, "Derivative of " + source + " is incorrect");
+        }
+
+        final Expr withSymbol = new Expr(new Term(new Factor(ESymbol.PI), ExpressionTokens.TimesDivCaretTok.TIMES,
+                new Factor("x")), false);
+        final DualNumber dual = DualEvaluator.derivative(withSymbol, values, "x");
+        assertEquals(Math.PI * 1.3, dual.getValue(), EPSILON, "Value with symbol is incorrect");
+        assertEquals(Math.PI, dual.getDerivative(), EPSILON, "Derivative with symbol is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Gradients give every partial derivative in one pass")
+    void testGradient() {
+
+        final Expr expr = ExpressionParser.parseExpr("x*x*y-sin(y)/z");
+        final VariableValues values = new VariableValues();
+        values.set("x", Double.valueOf(2.0));
+        values.set("y", Double.valueOf(0.5));
+        values.set("z", Double.valueOf(4.0));
+
+        final DualNumber grad = DualEvaluator.gradient(expr, values, "x", "y", "z");
+
+        assertEquals(2.0 - Math.sin(0.5) / 4.0, grad.getValue(), EPSILON, "Value is incorrect");
+        assertEquals(2.0, grad.getPartial(0), EPSILON, "Partial with respect to x is incorrect");
+        assertEquals(4.0 - Math.cos(0.5) / 4.0, grad.getPartial(1), EPSILON, "Partial with respect to y is incorrect");
+        assertEquals(Math.sin(0.5) / 16.0, grad.getPartial(2), EPSILON, "Partial with respect to z is incorrect");
+
+        assertNull(DualEvaluator.derivative(expr, new VariableValues(), "x"), "Unset variables did not give null");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("ExprFunction gives its value and derivative together")
+    void testFunction() {
+
+        final Expr expr = ExpressionParser.parseExpr("x^3-2*x");
+        final ExprFunction function = new ExprFunction(new RealInterval(Double.valueOf(-5.0), Double.valueOf(5.0)),
+                expr, "x");
+
+        final DualNumber dual = function.evaluateDual(2.0);
+        assertEquals(4.0, dual.getValue(), EPSILON, "Value is incorrect");
+        assertEquals(10.0, dual.getDerivative(), EPSILON, "Derivative is incorrect");
+    }
+}
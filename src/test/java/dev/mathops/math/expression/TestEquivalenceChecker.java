@@ -0,0 +1,131 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.math.set.number.RealInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the EquivalenceChecker class.
+ */
+final class TestEquivalenceChecker {
+
+    /**
+     * Constructs a new {@code TestEquivalenceChecker}.
+     */
+    TestEquivalenceChecker() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Equivalent forms are accepted and different ones rejected")
+    void testCheck() {
+
+        final Map<String, RealInterval> domains = Map.of("x", new RealInterval(-2, 2), "y",
+                new RealInterval(0.5, 3.0));
+        final EquivalenceChecker checker = new EquivalenceChecker(ExpressionParser.parseExpr("(x+y)^2"), domains);
+
+        assertEquals(EquivalenceChecker.DEFAULT_NUM_POINTS, checker.getNumPoints(), "Wrong number of points");
+        assertArrayEquals(new String[]{"x", "y"}, checker.getVariableNames(), "Wrong variable names");
+
+        assertEquals(EEquivalence.EQUIVALENT, checker.check(ExpressionParser.parseExpr("x*x+2*x*y+y^2")),
+                "Expanded form was rejected");
+        assertEquals(EEquivalence.EQUIVALENT, checker.check(ExpressionParser.parseExpr("(y+x)*(x+y)+0*x-0")),
+                "Reordered form was rejected");
+        assertEquals(EEquivalence.NOT_EQUIVALENT, checker.check(ExpressionParser.parseExpr("x^2+y^2")),
+                "Different expression was accepted");
+        assertEquals(EEquivalence.NOT_EQUIVALENT, checker.check(ExpressionParser.parseExpr("(x+y)^2*(1+1e-6)")),
+                "Expression outside tolerance was accepted");
+        assertEquals(EEquivalence.NOT_EQUIVALENT, checker.check(null), "Null candidate was accepted");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Points where either side is undefined are skipped")
+    void testUndefined() {
+
+        final Map<String, RealInterval> domains = Map.of("x", new RealInterval(-1, 1));
+
+        // The reference is undefined for x < 0, so points are drawn until enough are found where it is defined
+        final EquivalenceChecker sqrtChecker = new EquivalenceChecker(ExpressionParser.parseExpr("sqrt(x)"), domains);
+        assertEquals(EquivalenceChecker.DEFAULT_NUM_POINTS, sqrtChecker.getNumPoints(), "Wrong number of points");
+        assertEquals(EEquivalence.EQUIVALENT, sqrtChecker.check(ExpressionParser.parseExpr("pow(x,0.5)")),
+                "Equivalent power was rejected");
+
+        // The candidate is undefined at about a third of the points, which are skipped
+        final EquivalenceChecker xChecker = new EquivalenceChecker(ExpressionParser.parseExpr("x"),
+                Map.of("x", new RealInterval(-0.5, 1)));
+        assertEquals(EEquivalence.EQUIVALENT, xChecker.check(ExpressionParser.parseExpr("sqrt(x)^2")),
+                "Candidate undefined at some points was rejected");
+        assertEquals(EEquivalence.UNDETERMINED, xChecker.check(ExpressionParser.parseExpr("log(x-2)")),
+                "Candidate undefined everywhere was decided");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Many points and many candidates are checked in parallel")
+    void testParallel() {
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final Map<String, RealInterval> domains = Map.of("t", new RealInterval(-10, 10));
+            final EquivalenceChecker checker = new EquivalenceChecker(ExpressionParser.parseExpr("sin(t)^2"), domains,
+                    5000, 1.0e-9, 1.0e-12, 17L, pool);
+
+            assertEquals(EEquivalence.EQUIVALENT, checker.check(ExpressionParser.parseExpr("1-cos(t)^2")),
+                    "Identity was rejected");
+            assertEquals(EEquivalence.NOT_EQUIVALENT, checker.check(ExpressionParser.parseExpr("sin(t^2)")),
+                    "Different expression was accepted");
+
+            final List<Expr> candidates = new ArrayList<>(100);
+            for (int i = 0; i < 100; ++i) {
+                candidates.add(ExpressionParser.parseExpr(i % 2 == 0 ? "(1-cos(2*t))/2" : "sin(t)*cos(t)"));
+            }
+            final EEquivalence[] results = checker.checkAll(candidates);
+            for (int i = 0; i < 100; ++i) {
+                final EEquivalence expected = i % 2 == 0 ? EEquivalence.EQUIVALENT : EEquivalence.NOT_EQUIVALENT;
+                assertEquals(expected, results[i], "Result " + i + " is incorrect");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Invalid references and domains are rejected")
+    void testInvalid() {
+
+        final Expr reference = ExpressionParser.parseExpr("x*y");
+        final Map<String, RealInterval> onlyX = Map.of("x", new RealInterval(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new EquivalenceChecker(reference, onlyX),
+                "Variable with no domain was accepted");
+
+        final Map<String, RealInterval> unbounded = Map.of("x", new RealInterval(0, 1), "y",
+                new RealInterval(Double.valueOf(0.0), Double.valueOf(Double.POSITIVE_INFINITY)));
+        assertThrows(IllegalArgumentException.class, () -> new EquivalenceChecker(reference, unbounded),
+                "Unbounded domain was accepted");
+
+        final EquivalenceChecker checker = new EquivalenceChecker(ExpressionParser.parseExpr("2*x"), onlyX);
+        assertEquals(EEquivalence.NOT_EQUIVALENT, checker.check(ExpressionParser.parseExpr("2*X")),
+                "Candidate with an unknown variable was accepted");
+    }
+}
@@ -0,0 +1,152 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code double} evaluation path of Expr, Term, Factor, and the function classes.
+ */
+final class TestEvalDouble {
+
+    /** The tolerance for comparing values. */
+    private static final double EPSILON = 1.0e-12;
+
+    /**
+     * Constructs a new {@code TestEvalDouble}.
+     */
+    TestEvalDouble() {
+
+        // No action
+    }
+
+    /**
+     * Asserts that an expression has an expected value by both the exact and the {@code double} paths.
+     *
+     * @param source   the expression source
+     * @param values   the variable values
+     * @param expected the expected value
+     */
+    private static void assertValue(final String source, final VariableValues values, final double expected) {
+
+        final Expr expr = ExpressionParser.parseExpr(source);
+        final String label = source + " at " + values.get("x") + ", " + values.get("y");
+
+        assertEquals(expected, expr.eval(values).doubleValue(), EPSILON, "Exact value of " + label + " is incorrect");
+        assertEquals(expected, expr.evalDouble(values), EPSILON, "Double value of " + label + " is incorrect");
+    }
+
+    /**
+     * Creates a set of variable values for "x" and "y".
+     *
+     * @param x the value of "x"
+     * @param y the value of "y"
+     * @return the variable values
+     */
+    private static VariableValues point(final Number x, final Number y) {
+
+        final VariableValues values = new VariableValues();
+        values.set("x", x);
+        values.set("y", y);
+
+        return values;
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Powers of a negative base are real for integer exponents and NaN otherwise")
+    void testPowNegativeBase() {
+
+        final VariableValues integers = point(Long.valueOf(-2L), Long.valueOf(3L));
+        assertValue("pow(x,y)", integers, -8.0);
+        assertValue("x^y", integers, -8.0);
+        assertValue("pow(x,y+1)", integers, 16.0);
+        assertValue("pow(x,-y)", integers, -0.125);
+        assertValue("pow(x,0)", integers, 1.0);
+
+        final VariableValues doubles = point(Double.valueOf(-1.5), Double.valueOf(2.0));
+        assertValue("pow(x,y)", doubles, 2.25);
+        assertValue("pow(x,-y)", doubles, 1.0 / 2.25);
+
+        for (final String source : new String[]{"pow(x,0.5)", "pow(x,1/3)", "pow(x,y/4)"}) {
+            final Expr expr = ExpressionParser.parseExpr(source);
+            assertTrue(Double.isNaN(expr.eval(doubles).doubleValue()), "Exact " + source + " is not NaN");
+            assertTrue(Double.isNaN(expr.evalDouble(doubles)), "Double " + source + " is not NaN");
+        }
+
+        final VariableValues zero = point(Double.valueOf(0.0), Double.valueOf(-1.0));
+        assertValue("pow(x,y)", zero, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("atan2 gives the angle in the correct quadrant and on each axis")
+    void testAtan2Quadrants() {
+
+        final double quarter = Math.PI / 4.0;
+
+        assertValue("atan2(y,x)", point(Long.valueOf(1L), Long.valueOf(1L)), quarter);
+        assertValue("atan2(y,x)", point(Long.valueOf(-1L), Long.valueOf(1L)), 3.0 * quarter);
+        assertValue("atan2(y,x)", point(Long.valueOf(-1L), Long.valueOf(-1L)), -3.0 * quarter);
+        assertValue("atan2(y,x)", point(Long.valueOf(1L), Long.valueOf(-1L)), -quarter);
+
+        assertValue("atan2(y,x)", point(Double.valueOf(3.0), Double.valueOf(0.0)), 0.0);
+        assertValue("atan2(y,x)", point(Double.valueOf(0.0), Double.valueOf(2.0)), 2.0 * quarter);
+        assertValue("atan2(y,x)", point(Double.valueOf(-3.0), Double.valueOf(0.0)), Math.PI);
+        assertValue("atan2(y,x)", point(Double.valueOf(0.0), Double.valueOf(-2.0)), -2.0 * quarter);
+
+        // The first argument is the ordinate, so swapping arguments reflects the angle about y = x
+        assertValue("atan2(x,y)", point(Double.valueOf(-2.0), Double.valueOf(0.5)), Math.atan2(-2.0, 0.5));
+        assertValue("atan2(y,x)", point(Double.valueOf(-2.0), Double.valueOf(0.5)), Math.atan2(0.5, -2.0));
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Symbols evaluate to their double values")
+    void testSymbol() {
+
+        final VariableValues values = point(Double.valueOf(1.3), Long.valueOf(3L));
+        final Expr symbol = new Expr(new Term(new Factor(ESymbol.PI), ExpressionTokens.TimesDivCaretTok.TIMES,
+                new Factor("x")), false);
+        assertEquals(symbol.eval(values).doubleValue(), symbol.evalDouble(values), EPSILON, "Symbol is incorrect");
+        assertEquals(Math.PI * 1.3, symbol.evalDouble(values), EPSILON, "Symbol value is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Double evaluation reads frame slots and gives NaN for un-set variables")
+    void testFrame() {
+
+        final Expr expr = ExpressionParser.parseExpr("sin(x)*y+hypot(x,z)/(x-1)");
+        final VariableLayout layout = VariableLayout.of(expr);
+
+        final VariableValues values = new VariableValues();
+        values.set("x", Double.valueOf(2.5));
+        values.set("y", Long.valueOf(3L));
+        values.set("z", Double.valueOf(-1.0));
+        final double expected = expr.eval(values).doubleValue();
+
+        final VariableFrame frame = layout.newFrame();
+        frame.load(values);
+        assertEquals(expected, expr.evalDouble(frame), EPSILON, "Frame value is incorrect");
+
+        // A frame whose layout differs from the bound one falls back to lookup by name
+        final VariableFrame other = new VariableLayout("z", "y", "x").newFrame();
+        other.load(values);
+        assertEquals(expected, expr.evalDouble(other), EPSILON, "Value from unbound frame is incorrect");
+
+        final VariableFrame empty = layout.newFrame();
+        assertTrue(Double.isNaN(expr.evalDouble(empty)), "Un-set variables did not give NaN");
+        assertTrue(Double.isNaN(expr.evalDouble(new VariableValues())), "Missing variables did not give NaN");
+    }
+}
@@ -0,0 +1,213 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.commons.number.BigIrrational;
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.EIrrationalFactor;
+import dev.mathops.commons.number.Irrational;
+import dev.mathops.commons.number.Rational;
+import dev.mathops.math.set.number.RealInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for interval evaluation of expressions.
+ */
+final class TestEvalInterval {
+
+    /**
+     * Constructs a new {@code TestEvalInterval}.
+     */
+    TestEvalInterval() {
+
+        // No action
+    }
+
+    /**
+     * Evaluates an expression of one variable over an interval.
+     *
+     * @param source the expression source
+     * @param lower  the lower bound of the variable
+     * @param upper  the upper bound of the variable
+     * @return the enclosing interval
+     */
+    private static RealInterval enclose(final String source, final double lower, final double upper) {
+
+        final Map<String, RealInterval> boxes = Map.of("x", new RealInterval(Double.valueOf(lower),
+                Double.valueOf(upper)));
+
+        return ExpressionParser.parseExpr(source).evalInterval(boxes);
+    }
+
+    /**
+     * Asserts that an interval encloses a range and is no more than slightly wider.
+     *
+     * @param lower    the lower bound of the range
+     * @param upper    the upper bound of the range
+     * @param interval the interval
+     * @param message  the message if the assertion fails
+     */
+    private static void assertEncloses(final double lower, final double upper, final RealInterval interval,
+                                       final String message) {
+
+        final double lo = interval.lowerBound.doubleValue();
+        final double hi = interval.upperBound.doubleValue();
+
+        assertTrue(lo <= lower && hi >= upper, message + ": " + interval + " does not enclose the range");
+        assertEquals(lower, lo, 1.0e-12, message + ": lower bound is too loose");
+        assertEquals(upper, hi, 1.0e-12, message + ": upper bound is too loose");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Functions are bounded tightly, including extrema inside the interval")
+    void testFunctions() {
+
+        assertEncloses(-0.5, 1.0, enclose("sin(x)", -Math.PI / 6.0, 2.0), "sin over a maximum");
+        assertEncloses(-1.0, Math.cos(1.0), enclose("cos(x)", 1.0, 4.0), "cos over a minimum");
+        assertEncloses(0.0, 1.0, enclose("tan(x)", 0.0, Math.PI / 4.0), "tan");
+        assertEncloses(0.0, 2.0, enclose("abs(x)", -1.0, 2.0), "abs");
+        assertEncloses(0.0, 4.0, enclose("pow(x,2)", -1.0, 2.0), "even power");
+        assertEncloses(-1.0, 8.0, enclose("pow(x,3)", -1.0, 2.0), "odd power");
+        assertEncloses(0.25, 1.0, enclose("pow(x,-2)", 1.0, 2.0), "negative power");
+        assertEncloses(0.0, 2.0, enclose("sqrt(x)", -3.0, 4.0), "sqrt restricted to its domain");
+        assertEncloses(0.0, 3.0, enclose("log2(x)", 1.0, 8.0), "log2");
+        assertEncloses(-Math.PI / 2.0, Math.PI / 2.0, enclose("atan2(x,1)", Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY), "atan2 in the right half plane");
+        assertEncloses(5.0, Math.hypot(6.0, 7.0), enclose("hypot(x,x+1)", 3.0, 6.0), "hypot");
+
+        final RealInterval pole = enclose("tan(x)", 1.0, 2.0);
+        assertTrue(Double.isInfinite(pole.lowerBound.doubleValue()), "tan across a pole has a lower bound");
+        assertTrue(Double.isInfinite(pole.upperBound.doubleValue()), "tan across a pole has an upper bound");
+
+        final RealInterval quotient = enclose("1/x", 0.0, 2.0);
+        final double quotientLower = quotient.lowerBound.doubleValue();
+        assertTrue(quotientLower <= 0.5 && quotientLower > 0.5 - 1.0e-12, "reciprocal lower bound is incorrect");
+        assertTrue(Double.isInfinite(quotient.upperBound.doubleValue()), "reciprocal near zero is not unbounded");
+
+        assertNull(enclose("log(x)", -2.0, -1.0), "log of negative values was defined");
+        assertNull(enclose("1/x", 0.0, 0.0), "division by zero was defined");
+        assertNull(ExpressionParser.parseExpr("x+y").evalInterval(Map.of("x", RealInterval.UNIT_INTERVAL)),
+                "missing variable was defined");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Inexact constants are rounded outward")
+    void testOutwardRounding() {
+
+        final Expr third = new Expr(new Term(new Factor(new Rational(1L, 3L))), false);
+        final RealInterval interval = third.evalInterval(Map.of());
+
+        final double lower = interval.lowerBound.doubleValue();
+        final double upper = interval.upperBound.doubleValue();
+        assertTrue(lower <= 1.0 / 3.0 && upper >= 1.0 / 3.0 && lower < upper, "1/3 is not enclosed as an interval");
+
+        final RealInterval tenth = enclose("x*10", 0.1, 0.1);
+        assertTrue(tenth.lowerBound.doubleValue() < 1.0 && tenth.upperBound.doubleValue() >= 1.0,
+                "Rounded product is not enclosed");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Exact constants are enclosed by adjacent doubles, and irrational constants within a few ulps")
+    void testConstantBounds() {
+
+        final double third = 1.0 / 3.0;
+        final double[] thirdBounds = IntervalArithmetic.ofNumber(new Rational(1L, 3L));
+        assertTrue(thirdBounds[0] == third && thirdBounds[1] == Math.nextUp(third)
+                   || thirdBounds[1] == third && thirdBounds[0] == Math.nextDown(third), "1/3 is not tightly enclosed");
+
+        final double[] bigThird = IntervalArithmetic.ofNumber(new BigRational(BigInteger.TEN.pow(400),
+                BigInteger.TEN.pow(400).multiply(BigInteger.valueOf(3L))));
+        assertEquals(thirdBounds[0], bigThird[0], 0.0, "1/3 with huge parts has a different lower bound");
+        assertEquals(thirdBounds[1], bigThird[1], 0.0, "1/3 with huge parts has a different upper bound");
+
+        final double twoTo53 = 0x1p53;
+        final double[] odd = IntervalArithmetic.ofNumber(Long.valueOf((1L << 53) + 1L));
+        assertEquals(twoTo53, odd[0], 0.0, "2^53+1 lower bound is incorrect");
+        assertEquals(twoTo53 + 2.0, odd[1], 0.0, "2^53+1 upper bound is incorrect");
+
+        final double[] exact = IntervalArithmetic.ofNumber(new BigDecimal("0.375"));
+        assertTrue(exact[0] == 0.375 && exact[1] == 0.375, "0.375 is not a single point");
+
+        final double[] tenth = IntervalArithmetic.ofNumber(new BigDecimal("0.1"));
+        assertTrue(tenth[0] < 0.1 || tenth[1] > 0.1, "0.1 is a single point");
+        assertTrue(tenth[0] <= 0.1 && tenth[1] >= 0.1 && tenth[1] == Math.nextUp(tenth[0]),
+                "0.1 is not tightly enclosed");
+
+        final double[] huge = IntervalArithmetic.ofNumber(BigInteger.TEN.pow(400).negate());
+        assertTrue(huge[0] == Double.NEGATIVE_INFINITY && huge[1] == -Double.MAX_VALUE,
+                "-10^400 is not enclosed below the finite range");
+
+        // Math.PI is below pi, so a tight enclosure reaches above it, but only by a few units in the last place
+        final double[] pi = IntervalArithmetic.ofNumber(new Irrational(EIrrationalFactor.PI, 0L, 1L, 1L));
+        assertTrue(pi[0] < Math.PI && pi[1] > Math.PI, "pi is not enclosed");
+        assertTrue(pi[1] - pi[0] <= 10.0 * Math.ulp(Math.PI), "pi enclosure is too wide");
+
+        final double[] root = IntervalArithmetic.ofNumber(new Irrational(EIrrationalFactor.SQRT, 2L, -3L, 7L));
+        final double rootValue = -3.0 * Math.sqrt(2.0) / 7.0;
+        assertTrue(root[0] < rootValue && root[1] > rootValue, "-3sqrt(2)/7 is not enclosed");
+        assertTrue(root[1] - root[0] <= 10.0 * Math.ulp(rootValue), "-3sqrt(2)/7 enclosure is too wide");
+
+        final double[] tiny = IntervalArithmetic.ofNumber(new BigIrrational(EIrrationalFactor.E, 0L, BigInteger.ONE,
+                BigInteger.TEN.pow(320)));
+        assertTrue(tiny[0] < 2.718281828459045e-320 && tiny[1] > 2.718281828459045e-320,
+                "subnormal multiple of e is not enclosed");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Values at sampled points lie within the enclosure")
+    void testContainsSamples() {
+
+        final String[] sources = {"abs(x-y)", "acos(x)", "asin(y)", "atan(x*10)", "cbrt(x-0.3)", "cos(x*7)",
+                "exp(x*3)", "expm1(y)", "log(x)", "log1p(y)", "log10(x)", "log2(y)", "sin(x*5+y)", "sqrt(x)",
+                "tan(x*3)", "toDeg(x)", "toRad(y)", "atan2(y,x)", "hypot(x,y)", "pow(x,y)", "pow(x,3)", "x/y",
+                "1/(x-y)", "sin(x)^2+cos(x)^2"};
+
+        final Random random = new Random(1L);
+        final VariableValues values = new VariableValues();
+
+        for (final String source : sources) {
+            final Expr expr = ExpressionParser.parseExpr(source);
+
+            for (int box = 0; box < 200; ++box) {
+                final double x0 = (random.nextDouble() - 0.5) * 8.0;
+                final double x1 = x0 + random.nextDouble() * 3.0;
+                final double y0 = (random.nextDouble() - 0.5) * 8.0;
+                final double y1 = y0 + random.nextDouble() * 3.0;
+                final RealInterval interval = expr.evalInterval(Map.of("x", new RealInterval(x0, x1), "y",
+                        new RealInterval(y0, y1)));
+
+                for (int i = 0; i < 20; ++i) {
+                    values.set("x", Double.valueOf(x0 + (x1 - x0) * random.nextDouble()));
+                    values.set("y", Double.valueOf(y0 + (y1 - y0) * random.nextDouble()));
+                    final double value = expr.evalDouble(values);
+
+                    if (Double.isFinite(value)) {
+                        assertTrue(interval != null && value >= interval.lowerBound.doubleValue()
+                                   && value <= interval.upperBound.doubleValue(),
+                                "Value of " + source + " at " + values + " is outside " + interval);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the EvaluationSession class.
+ */
+final class TestEvaluationSession {
+
+    /** The tolerance for comparing values. */
+    private static final double EPSILON = 1.0e-12;
+
+    /**
+     * Constructs a new {@code TestEvaluationSession}.
+     */
+    TestEvaluationSession() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Values track variable changes and match full evaluation")
+    void testValues() {
+
+        final Expr expr = ExpressionParser.parseExpr("sin(x)*y+exp(z/2)+log(3+4)*x-pow(y,2)");
+        final EvaluationSession session = new EvaluationSession(expr);
+        final VariableValues values = new VariableValues();
+
+        assertNull(session.getValue(), "Value with unset variables was not null");
+
+        final double[][] points = {{0.5, 2.0, 1.0}, {0.7, 2.0, 1.0}, {0.7, -1.5, 1.0}, {0.7, -1.5, 3.0},
+                {0.7, -1.5, 3.0}, {-2.0, 4.0, 0.0}};
+
+        for (final double[] point : points) {
+            session.set("x", Double.valueOf(point[0]));
+            session.set("y", Double.valueOf(point[1]));
+            session.set("z", Double.valueOf(point[2]));
+            values.set("x", Double.valueOf(point[0]));
+            values.set("y", Double.valueOf(point[1]));
+            values.set("z", Double.valueOf(point[2]));
+
+            assertEquals(expr.eval(values).doubleValue(), session.getValue().doubleValue(), EPSILON,
+                    "Session value differs from full evaluation");
+        }
+
+        session.set("y", null);
+        assertNull(session.getValue(), "Value after un-setting a variable was not null");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Changing a variable discards only the values that depend on it")
+    void testDependencies() {
+
+        final Expr expr = ExpressionParser.parseExpr("sin(x)*y+exp(z/2)+log(3+4)*x");
+        final FunctionOf1 sinX = expr.getTerm(0).getFactor(0).getFunctionOf1();
+        final FunctionOf1 expZ = expr.getTerm(1).getFactor(0).getFunctionOf1();
+        final FunctionOf1 log7 = expr.getTerm(2).getFactor(0).getFunctionOf1();
+
+        final EvaluationSession session = new EvaluationSession(expr);
+        assertTrue(session.isCached(log7), "Constant subexpression was not folded");
+        assertTrue(session.dependsOn("z"), "Dependency on z not found");
+        assertFalse(session.dependsOn("w"), "Dependency on w found");
+
+        session.set("x", Double.valueOf(1.0));
+        session.set("y", Double.valueOf(2.0));
+        session.set("z", Double.valueOf(3.0));
+        session.getValue();
+        assertTrue(session.isCached(sinX), "sin(x) was not cached");
+        assertTrue(session.isCached(expZ), "exp(z/2) was not cached");
+
+        session.set("x", Double.valueOf(1.5));
+        assertFalse(session.isCached(sinX), "sin(x) was not discarded when x changed");
+        assertFalse(session.isCached(expr), "Root was not discarded when x changed");
+        assertTrue(session.isCached(expZ), "exp(z/2) was discarded when x changed");
+        assertTrue(session.isCached(log7), "Constant was discarded when x changed");
+
+        final double expected = Math.sin(1.5) * 2.0 + Math.exp(1.5) + Math.log(7.0) * 1.5;
+        assertEquals(expected, session.getValue().doubleValue(), EPSILON, "Value after change is incorrect");
+
+        session.set("w", Double.valueOf(1.0));
+        assertTrue(session.isCached(expr), "Root was discarded by an unreferenced variable");
+    }
+}
@@ -0,0 +1,141 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.commons.number.BigRational;
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ExprCodec class.
+ */
+final class TestExprCodec {
+
+    /**
+     * Constructs a new {@code TestExprCodec}.
+     */
+    TestExprCodec() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Parsed expressions survive encoding and decoding")
+    void testRoundTrip() {
+
+        final String[] sources = {"x", "-2*x+3", "sin(x)*cos(y)/tan(z)", "atan2(y,x)-hypot(3,4)", "x^2^3",
+                "{theta}*(1+(2-x))", "log10(x)+expm1(1.5e-7)", "pow(x,y)*0.1"};
+
+        for (final String source : sources) {
+            final Expr expr = ExpressionParser.parseExpr(source);
+            final Expr decoded = ExprCodec.decodeExpr(ExprCodec.encode(expr));
+
+            assertEquals(expr, decoded, "Decoded '" + source + "' is not equal");
+            assertEquals(expr.toString(), decoded.toString(), "Decoded '" + source + "' prints differently");
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Exact numbers, symbols, and nulls are preserved")
+    void testNumbers() {
+
+        final Number[] numbers = {Integer.valueOf(-7), Long.valueOf(Long.MIN_VALUE), Long.valueOf(300L),
+                Double.valueOf(-0.0), Double.valueOf(Double.NaN), Double.valueOf(-12.0), Double.valueOf(1.0e300),
+                new BigInteger("123456789012345678901234567890"), new Rational(-22L, 7L),
+                new BigRational(BigInteger.TEN.pow(30), BigInteger.valueOf(3L))};
+
+        final List<Expr> exprs = new ArrayList<>(numbers.length + 2);
+        for (final Number number : numbers) {
+            exprs.add(new Expr(new Term(new Factor(number), ExpressionTokens.TimesDivCaretTok.TIMES,
+                    new Factor("x")), false));
+        }
+        exprs.add(null);
+        exprs.add(new Expr(new Term(new Factor(ESymbol.PI)), true));
+
+        final List<Expr> decoded = ExprCodec.decode(ByteBuffer.wrap(ExprCodec.encode(exprs)));
+
+        assertEquals(exprs.size(), decoded.size(), "Wrong number of expressions");
+        for (int i = 0; i < numbers.length; ++i) {
+            final Number number = decoded.get(i).getTerm(0).getFactor(0).getNumber();
+            assertEquals(numbers[i].getClass(), number.getClass(), "Number " + i + " changed type");
+            assertEquals(numbers[i], number, "Number " + i + " changed value");
+        }
+        assertNull(decoded.get(numbers.length), "Null entry was not preserved");
+        assertEquals(exprs.getLast(), decoded.getLast(), "Symbol expression is not equal");
+        assertTrue(decoded.getLast().isSimplified(), "Simplified flag was not preserved");
+
+        // Variable names are written once and shared on decoding
+        final String name1 = decoded.get(0).getTerm(0).getFactor(1).getVarName();
+        final String name2 = decoded.get(1).getTerm(0).getFactor(1).getVarName();
+        assertSame(name1, name2, "Variable names were not shared");
+    }
+
+    /**
+     * A test case.
+     *
+     * @throws IOException if the temporary file cannot be written
+     */
+    @Test
+    @DisplayName("Expressions are written to and memory-mapped from a file")
+    void testFile() throws IOException {
+
+        final List<Expr> exprs = Arrays.asList(ExpressionParser.parseExpr("x+1"), ExpressionParser.parseExpr("2*y"));
+        final Path file = Files.createTempFile("exprs", ".bin");
+        try {
+            ExprCodec.write(file, exprs);
+            assertEquals(exprs, ExprCodec.read(file), "Expressions read from file are not equal");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Invalid streams are rejected")
+    void testInvalid() {
+
+        final byte[] valid = ExprCodec.encode(ExpressionParser.parseExpr("sin(x)+2"));
+
+        final byte[] badMagic = valid.clone();
+        badMagic[0] = (byte) 'Z';
+        assertThrows(IllegalArgumentException.class, () -> ExprCodec.decodeExpr(badMagic), "Bad magic accepted");
+
+        final byte[] badVersion = valid.clone();
+        badVersion[4] = (byte) (ExprCodec.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> ExprCodec.decodeExpr(badVersion), "Bad version accepted");
+
+        final byte[] truncated = Arrays.copyOf(valid, valid.length - 2);
+        assertThrows(IllegalArgumentException.class, () -> ExprCodec.decodeExpr(truncated), "Truncation accepted");
+
+        // The encodings of x*y and x/y differ only in the operator code; no code is defined after that of '/'
+        final byte[] times = ExprCodec.encode(ExpressionParser.parseExpr("x*y"));
+        final byte[] badOperator = ExprCodec.encode(ExpressionParser.parseExpr("x/y"));
+        final int opIndex = Arrays.mismatch(times, badOperator);
+        assertEquals(1, (int) badOperator[opIndex] - (int) times[opIndex], "Operator codes are not adjacent");
+        ++badOperator[opIndex];
+        assertThrows(IllegalArgumentException.class, () -> ExprCodec.decodeExpr(badOperator),
+                "Undefined operator code accepted");
+    }
+}
@@ -0,0 +1,91 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the ExprCompiler class.
+ */
+final class TestExprCompiler {
+
+    /** A tolerance for comparing computed values. */
+    private static final double EPSILON = 1.0e-12;
+
+    /**
+     * Constructs a new {@code TestExprCompiler}.
+     */
+    TestExprCompiler() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Compiled polynomial matches direct computation")
+    void testPolynomial() {
+
+        final Expr expr = ExpressionParser.parseExpr("x*x+3*x-2/y");
+        final CompiledExpr compiled = ExprCompiler.compile(expr, "x", "y");
+        final double[] registers = compiled.newRegisters();
+
+        for (int i = -10; i <= 10; ++i) {
+            final double x = (double) i * 0.37;
+            final double y = (double) i * 0.11 + 5.0;
+            registers[compiled.indexOf("x")] = x;
+            registers[compiled.indexOf("y")] = y;
+
+            assertEquals(x * x + 3.0 * x - 2.0 / y, compiled.evaluate(registers), EPSILON, "Value is incorrect");
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Exponents bind more tightly than products and quotients")
+    void testExponentPrecedence() {
+
+        final Expr expr = ExpressionParser.parseExpr("2*x^3/y-sin(x)");
+        final CompiledExpr compiled = ExprCompiler.compile(expr, "x", "y");
+        final double[] registers = compiled.newRegisters();
+        registers[0] = 1.5;
+        registers[1] = 4.0;
+
+        final double expected = 2.0 * Math.pow(1.5, 3.0) / 4.0 - Math.sin(1.5);
+        assertEquals(expected, compiled.evaluate(registers), EPSILON, "Value is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Constant subexpressions are folded")
+    void testConstantFolding() {
+
+        final Expr expr = ExpressionParser.parseExpr("(2+3)*4+x");
+        final CompiledExpr compiled = ExprCompiler.compile(expr, "x");
+        final double[] registers = compiled.newRegisters();
+        registers[0] = 1.0;
+
+        assertEquals(1, compiled.getNumInstructions(), "Constants were not folded");
+        assertEquals(21.0, compiled.evaluate(registers), EPSILON, "Value is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Unknown variables are rejected")
+    void testUnknownVariable() {
+
+        final Expr expr = ExpressionParser.parseExpr("x+z");
+
+        assertThrows(IllegalArgumentException.class, () -> ExprCompiler.compile(expr, "x"),
+                "Unknown variable was accepted");
+    }
+}
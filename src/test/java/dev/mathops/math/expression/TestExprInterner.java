@@ -0,0 +1,84 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for the ExprInterner class, structural equality of expressions, and evaluation of shared subexpressions.
+ */
+final class TestExprInterner {
+
+    /**
+     * Constructs a new {@code TestExprInterner}.
+     */
+    TestExprInterner() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Structurally equal expressions are equal and intern to one instance")
+    void testCanonical() {
+
+        final Expr expr1 = ExpressionParser.parseExprUncached("sin(x)*cos(x)+sin(x)");
+        final Expr expr2 = ExpressionParser.parseExprUncached("sin(x)*cos(x)+sin(x)");
+        assertNotSame(expr1, expr2, "Uncached parses returned the same instance");
+        assertEquals(expr1, expr2, "Structurally equal expressions are not equal");
+        assertEquals(expr1.hashCode(), expr2.hashCode(), "Hash codes differ");
+
+        final ExprInterner interner = new ExprInterner();
+        final Expr interned = interner.intern(expr1);
+        assertSame(interned, interner.intern(expr2), "Equal expressions interned to different instances");
+
+        final FunctionOf1 first = interned.getTerm(0).getFactor(0).getFunctionOf1();
+        final FunctionOf1 repeated = interned.getTerm(1).getFactor(0).getFunctionOf1();
+        assertSame(first, repeated, "Repeated subexpression was not shared");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Derivatives of products are correct and evaluate the same over the shared graph")
+    void testProductDerivative() {
+
+        final Expr expr = ExpressionParser.parseExpr("x*sin(x)*exp(x)*cos(x)");
+        final Expr deriv = new ExprInterner().intern(expr.differentiate("x"));
+
+        final double x = 0.7;
+        final double s = Math.sin(x);
+        final double c = Math.cos(x);
+        final double e = Math.exp(x);
+        final double expected = s * e * c + x * c * e * c + x * s * e * c - x * s * e * s;
+
+        final VariableValues values = new VariableValues();
+        values.set("x", Double.valueOf(x));
+        assertEquals(expected, deriv.eval(values).doubleValue(), 1.0e-12, "Derivative is incorrect");
+        assertEquals(deriv.eval(values), deriv.evalShared(values), "Shared evaluation differs");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("The compiler evaluates repeated subexpressions once")
+    void testCompilerSharing() {
+
+        final CompiledExpr program = ExprCompiler.compile(ExpressionParser.parseExpr("sin(x)*sin(x)+sin(x)"), "x");
+
+        // One call to sin, one multiply, one add
+        assertEquals(3, program.getNumInstructions(), "Repeated subexpression was not shared");
+
+        final double[] registers = program.newRegisters();
+        registers[0] = 0.5;
+        final double sin = Math.sin(0.5);
+        assertEquals(sin * sin + sin, program.evaluate(registers), "Value is incorrect");
+    }
+}
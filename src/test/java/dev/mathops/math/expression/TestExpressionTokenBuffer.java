@@ -0,0 +1,120 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ExpressionTokenBuffer class and parsing of expressions from token buffers.
+ */
+final class TestExpressionTokenBuffer {
+
+    /**
+     * Constructs a new {@code TestExpressionTokenBuffer}.
+     */
+    TestExpressionTokenBuffer() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Parsing from a token buffer gives the same expressions as parsing from a string")
+    void testMatchesStringParse() {
+
+        final String[] sources = {"x", "2*x+3", " -x ^ 2 - 3 / x ", "sin(x)*cos(y)", "atan2(y, x)",
+                "pow(x,2)+hypot(3,4)", "{theta}*2", "log10(x)-log1p(x)+toDeg(x)", "expm1(x)/x_1", "((x))",
+                "1.5e3*x", "2.*.5", "1e*x", "x+", "x*", "x*/y", "sin x", "(x", "x)", "3 $ 4", "{1x}", ""};
+
+        final ExpressionTokenBuffer tokens = new ExpressionTokenBuffer();
+
+        for (final String source : sources) {
+            final Expr expected = ExpressionParser.parseExprUncached(source);
+            final Expr actual = ExpressionParser.parseExpr(source, 0, source.length(), tokens);
+
+            assertEquals(expected, actual, "Parse of '" + source + "' differs");
+            if (expected != null) {
+                assertEquals(expected.toString(), actual.toString(), "String form of '" + source + "' differs");
+            }
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Expressions are parsed from regions of a character buffer")
+    void testRegions() {
+
+        final CharBuffer text = CharBuffer.wrap("x+1\nsin(y)\n2*z\nbad)\n");
+        final ExpressionTokenBuffer tokens = new ExpressionTokenBuffer();
+
+        final String[] expected = {"x+1", "sin(y)", "2*z", null};
+        int start = 0;
+        for (final String exp : expected) {
+            int end = start;
+            while (text.charAt(end) != '\n') {
+                ++end;
+            }
+
+            final Expr expr = ExpressionParser.parseExpr(text, start, end, tokens);
+            if (exp == null) {
+                assertNull(expr, "Invalid region parsed");
+            } else {
+                assertEquals(ExpressionParser.parseExprUncached(exp), expr, "Region '" + exp + "' parsed incorrectly");
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Scanned numbers have the same values as Double.parseDouble gives")
+    void testNumbers() {
+
+        final String[] sources = {"0", "0.1", "0.3", "123.456", "1e22", "1e23", "1.7976931348623157e308", "4.9e-324",
+                "123456789012345678901", "0.000000000000000000001", "9007199254740993", "2.5E-3", "7e+2", "000.0"};
+
+        final ExpressionTokenBuffer tokens = new ExpressionTokenBuffer();
+
+        for (final String source : sources) {
+            assertTrue(ExpressionLexicalGrammar.scan(source, 0, source.length(), tokens), "Failed to scan " + source);
+            assertEquals(1, tokens.size(), "Wrong token count for " + source);
+            assertEquals(ExpressionTokenBuffer.KIND_NUMBER, tokens.getKind(0), "Wrong token kind for " + source);
+            assertEquals(Double.parseDouble(source), tokens.getNumber(0), 0.0, "Wrong value for " + source);
+        }
+
+        assertFalse(ExpressionLexicalGrammar.scan(".", 0, 1, tokens), "Lone '.' was scanned");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("The buffer grows to hold long token sequences")
+    void testGrowth() {
+
+        final StringBuilder source = new StringBuilder(2000);
+        source.append("x0");
+        for (int i = 1; i < 300; ++i) {
+            source.append('+').append('x').append(i);
+        }
+
+        final ExpressionTokenBuffer tokens = new ExpressionTokenBuffer();
+        final Expr expr = ExpressionParser.parseExpr(source, 0, source.length(), tokens);
+
+        assertEquals(599, tokens.size(), "Wrong token count");
+        assertEquals(300, expr.getNumTerms(), "Wrong term count");
+        assertEquals("x299", tokens.getVariableName(598), "Wrong variable name");
+    }
+}
@@ -0,0 +1,156 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the GradientTape class.
+ */
+final class TestGradientTape {
+
+    /** The tolerance for comparing derivatives. */
+    private static final double EPSILON = 1.0e-9;
+
+    /**
+     * Constructs a new {@code TestGradientTape}.
+     */
+    TestGradientTape() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Values in registers the compiled program reuses are kept for the backward pass")
+    void testRegisterReuse() {
+
+        final Expr expr = ExpressionParser.parseExpr("sin(x)*cos(y)+exp(x)*log(y)+sqrt(x)*atan(y)");
+        final CompiledExpr program = ExprCompiler.compile(expr, "x", "y");
+        final int temporaries = program.getNumRegisters() - program.getNumVariables() - program.getNumConstants();
+        assertTrue(temporaries < program.getNumInstructions(), "Program does not reuse registers");
+
+        final double x = 0.7;
+        final double y = 1.9;
+        final double[] gradient = new double[2];
+        final double value = new GradientTape(program).evaluate(new double[]{x, y}, gradient);
+
+        assertEquals(Math.sin(x) * Math.cos(y) + Math.exp(x) * Math.log(y) + Math.sqrt(x) * Math.atan(y), value,
+                EPSILON, "Value is incorrect");
+        assertEquals(Math.cos(x) * Math.cos(y) + Math.exp(x) * Math.log(y) + Math.atan(y) / (2.0 * Math.sqrt(x)),
+                gradient[0], EPSILON, "Partial with respect to x is incorrect");
+        assertEquals(-Math.sin(x) * Math.sin(y) + Math.exp(x) / y + Math.sqrt(x) / (1.0 + y * y), gradient[1],
+                EPSILON, "Partial with respect to y is incorrect");
+
+        // "x*y" and "x+y" are each computed once and used twice, so their adjoints sum two contributions
+        final GradientTape shared = GradientTape.of(ExpressionParser.parseExpr("x*y*(x+y)+sin(x*y)*cos(x+y)"), "x",
+                "y");
+        shared.evaluate(new double[]{x, y}, gradient);
+        final double common = x * y + (-Math.sin(x * y) * Math.sin(x + y));
+        final double cosProduct = Math.cos(x * y) * Math.cos(x + y);
+        assertEquals(y * (x + y) + y * cosProduct + common, gradient[0], EPSILON, "Shared partial x is incorrect");
+        assertEquals(x * (x + y) + x * cosProduct + common, gradient[1], EPSILON, "Shared partial y is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Functions of two arguments propagate adjoints to both arguments")
+    void testTwoArgumentFunctions() {
+
+        final double x = 1.5;
+        final double y = -0.8;
+        final double[] point = {x, y};
+        final double[] gradient = new double[2];
+        final double rSquared = x * x + y * y;
+
+        final GradientTape atan2 = GradientTape.of(ExpressionParser.parseExpr("atan2(y,x)"), "x", "y");
+        assertEquals(Math.atan2(y, x), atan2.evaluate(point, gradient), EPSILON, "atan2 value is incorrect");
+        assertEquals(-y / rSquared, gradient[0], EPSILON, "atan2 partial x is incorrect");
+        assertEquals(x / rSquared, gradient[1], EPSILON, "atan2 partial y is incorrect");
+
+        final GradientTape hypot = GradientTape.of(ExpressionParser.parseExpr("hypot(x,y)"), "x", "y");
+        assertEquals(Math.sqrt(rSquared), hypot.evaluate(point, gradient), EPSILON, "hypot value is incorrect");
+        assertEquals(x / Math.sqrt(rSquared), gradient[0], EPSILON, "hypot partial x is incorrect");
+        assertEquals(y / Math.sqrt(rSquared), gradient[1], EPSILON, "hypot partial y is incorrect");
+
+        final GradientTape pow = GradientTape.of(ExpressionParser.parseExpr("pow(x,y)"), "x", "y");
+        assertEquals(Math.pow(x, y), pow.evaluate(point, gradient), EPSILON, "pow value is incorrect");
+        assertEquals(y * Math.pow(x, y - 1.0), gradient[0], EPSILON, "pow partial x is incorrect");
+        assertEquals(Math.pow(x, y) * Math.log(x), gradient[1], EPSILON, "pow partial y is incorrect");
+
+        final GradientTape quotient = GradientTape.of(ExpressionParser.parseExpr("x/y"), "x", "y");
+        assertEquals(x / y, quotient.evaluate(point, gradient), EPSILON, "Quotient value is incorrect");
+        assertEquals(1.0 / y, gradient[0], EPSILON, "Quotient partial x is incorrect");
+        assertEquals(-x / (y * y), gradient[1], EPSILON, "Quotient partial y is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Gradients of many-variable expressions match forward-mode differentiation")
+    void testManyVariables() {
+
+        final int count = 20;
+        final String[] names = new String[count];
+        final double[] point = new double[count];
+        final VariableValues values = new VariableValues();
+        final StringBuilder source = new StringBuilder(400);
+
+        for (int i = 0; i < count; ++i) {
+            names[i] = "x" + i;
+            point[i] = 0.1 * (double) (i + 1);
+            values.set(names[i], Double.valueOf(point[i]));
+            if (i > 0) {
+                source.append('+');
+            }
+            // Each variable appears in two terms, and the shared subexpression "x(i)*x(i)" is reused
+            final int next = (i + 1) % count;
+            source.append("x").append(i).append("*x").append(i).append("*sin(x").append(next).append(")/(1+x")
+                    .append(i).append("*x").append(i).append(')');
+        }
+
+        final Expr expr = ExpressionParser.parseExpr(source.toString());
+        final DualNumber dual = DualEvaluator.gradient(expr, values, names);
+        final GradientTape tape = GradientTape.of(expr, names);
+        final double[] gradient = new double[count];
+
+        // Evaluating twice checks that buffers are reset between calls
+        tape.evaluate(point, gradient);
+        final double value = tape.evaluate(point, gradient);
+
+        assertEquals(dual.getValue(), value, EPSILON, "Value is incorrect");
+        for (int i = 0; i < count; ++i) {
+            assertEquals(dual.getPartial(i), gradient[i], EPSILON, "Partial " + i + " is incorrect");
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Variables the expression does not use have zero partial derivatives")
+    void testUnusedVariable() {
+
+        final GradientTape tape = GradientTape.of(ExpressionParser.parseExpr("x*3"), "x", "y");
+        final double[] gradient = {9.0, 9.0};
+
+        assertEquals(6.0, tape.evaluate(new double[]{2.0, 5.0}, gradient), EPSILON, "Value is incorrect");
+        assertEquals(3.0, gradient[0], EPSILON, "Partial with respect to x is incorrect");
+        assertEquals(0.0, gradient[1], EPSILON, "Partial with respect to y is incorrect");
+
+        final GradientTape plain = GradientTape.of(ExpressionParser.parseExpr("y"), "x", "y");
+        assertEquals(5.0, plain.evaluate(new double[]{2.0, 5.0}, gradient), EPSILON, "Value of variable is incorrect");
+        assertEquals(1.0, gradient[1], EPSILON, "Partial of variable is incorrect");
+
+        assertThrows(IllegalArgumentException.class, () -> tape.evaluate(new double[1], gradient),
+                "Short point array was accepted");
+    }
+}
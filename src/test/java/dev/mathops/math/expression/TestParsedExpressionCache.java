@@ -0,0 +1,85 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ParsedExpressionCache class.
+ */
+final class TestParsedExpressionCache {
+
+    /**
+     * Constructs a new {@code TestParsedExpressionCache}.
+     */
+    TestParsedExpressionCache() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Repeated lookups return the cached expression and count hits")
+    void testHits() {
+
+        final ParsedExpressionCache cache = new ParsedExpressionCache(100, 10000L);
+
+        final Expr first = cache.get("2*x+1");
+        assertNotNull(first, "Expression did not parse");
+        assertSame(first, cache.get("2*x+1"), "Cached expression was not returned");
+        assertEquals(1L, cache.getMissCount(), "Miss count is incorrect");
+        assertEquals(1L, cache.getHitCount(), "Hit count is incorrect");
+        assertEquals(5L, cache.getWeight(), "Weight is incorrect");
+
+        assertNull(cache.get("2*+"), "Invalid expression parsed");
+        assertNull(cache.get("2*+"), "Invalid expression parsed from cache");
+        assertEquals(2L, cache.getMissCount(), "Failure was not cached");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("The least recently used entries are evicted when the entry bound is exceeded")
+    void testEntryBound() {
+
+        final ParsedExpressionCache cache = new ParsedExpressionCache(10, 10000L);
+
+        final Expr keep = cache.get("x+0");
+        for (int i = 1; i <= 10; ++i) {
+            cache.get("x+" + i);
+            assertSame(keep, cache.get("x+0"), "Recently used entry was evicted");
+        }
+
+        assertTrue(cache.size() <= 10, "Cache exceeds its entry bound");
+        assertTrue(cache.getEvictionCount() > 0L, "No entries were evicted");
+        cache.get("x+1");
+        assertEquals(12L, cache.getMissCount(), "Least recently used entry was not evicted");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Entries are evicted when the weight bound is exceeded")
+    void testWeightBound() {
+
+        final ParsedExpressionCache cache = new ParsedExpressionCache(1000, 40L);
+
+        for (int i = 10; i < 30; ++i) {
+            cache.get("x*" + i);
+        }
+        assertTrue(cache.getWeight() <= 40L, "Cache exceeds its weight bound");
+
+        cache.clear();
+        assertEquals(0, cache.size(), "Cache was not cleared");
+        assertEquals(0L, cache.getWeight(), "Weight was not cleared");
+    }
+}
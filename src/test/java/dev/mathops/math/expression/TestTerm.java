@@ -0,0 +1,84 @@
+package dev.mathops.math.expression;
+
+import dev.mathops.commons.number.Rational;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests for the Term class.
+ */
+final class TestTerm {
+
+    /**
+     * Constructs a new {@code TestTerm}.
+     */
+    TestTerm() {
+
+        // No action
+    }
+
+    /**
+     * Asserts that an expression has an expected value by both the exact and the {@code double} paths.
+     *
+     * @param source   the expression source
+     * @param x        the value of "x"
+     * @param expected the expected value
+     */
+    private static void assertValue(final String source, final double x, final double expected) {
+
+        final Expr expr = ExpressionParser.parseExpr(source);
+        final VariableValues values = new VariableValues();
+        values.set("x", Double.valueOf(x));
+
+        final Number exact = expr.eval(values);
+        assertNotNull(exact, source + " has no exact value");
+        assertEquals(expected, exact.doubleValue(), 0.0, "Exact value of " + source + " is incorrect");
+        assertEquals(expected, expr.evalDouble(values), 0.0, "Double value of " + source + " is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("A chain of '^' operations groups from the left")
+    void testExponentAssociativity() {
+
+        // Grouping from the right would give 2^(3^2) = 512 and 2^(x^2) = 256
+        assertValue("2^3^2", 0.0, 64.0);
+        assertValue("x^2^3", 2.0, 64.0);
+        assertValue("2^x^2^0", 3.0, 1.0);
+
+        // '^' binds more tightly than '*' and '/' on either side
+        assertValue("2*3^2^0", 0.0, 2.0);
+        assertValue("2^3*2", 0.0, 16.0);
+        assertValue("64/2^x^2", 3.0, 1.0);
+        assertValue("-x^2", 3.0, -9.0);
+
+        final Term term = ExpressionParser.parseExpr("x^2^3").getTerm(0);
+        assertEquals(1, term.getNumFactors(), "Chain of '^' was not folded into one factor");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("A power with an integer literal exponent is computed exactly")
+    void testExactPower() {
+
+        final Expr expr = ExpressionParser.parseExpr("x^12");
+        final VariableValues values = new VariableValues();
+        values.set("x", new Rational(3L, 4L));
+
+        final Number result = expr.eval(values);
+        assertInstanceOf(Rational.class, result, "(3/4)^12 is not a Rational");
+        assertEquals(531441L, ((Rational) result).numerator, "Numerator of (3/4)^12 is incorrect");
+        assertEquals(16777216L, ((Rational) result).denominator, "Denominator of (3/4)^12 is incorrect");
+
+        values.set("x", Long.valueOf(3L));
+        assertEquals(Long.valueOf(531441L), expr.eval(values), "3^12 is not an exact Long");
+    }
+}
@@ -0,0 +1,94 @@
+package dev.mathops.math.expression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the VariableLayout and VariableFrame classes.
+ */
+final class TestVariableFrame {
+
+    /**
+     * Constructs a new {@code TestVariableFrame}.
+     */
+    TestVariableFrame() {
+
+        // No action
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Layouts place leading names first, then variables in order of appearance")
+    void testLayout() {
+
+        final Expr expr = ExpressionParser.parseExpr("y*sin(z)+x");
+        final VariableLayout layout = VariableLayout.of(expr, "x");
+
+        assertArrayEquals(new String[]{"x", "y", "z"}, layout.getNames(), "Names are incorrect");
+        assertEquals(2, layout.slotOf("z"), "Slot is incorrect");
+        assertEquals(-1, layout.slotOf("w"), "Missing variable has a slot");
+        assertThrows(IllegalArgumentException.class, () -> new VariableLayout("x", "x"), "Duplicate was accepted");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Evaluating against a frame matches evaluating against VariableValues")
+    void testEval() {
+
+        final Expr expr = ExpressionParser.parseExpr("sin(x)*y+hypot(x,z)/(x-1)");
+        final VariableLayout layout = VariableLayout.of(expr);
+
+        final VariableValues values = new VariableValues();
+        values.set("x", Double.valueOf(2.5));
+        values.set("y", Long.valueOf(3L));
+        values.set("z", Double.valueOf(-1.0));
+        final Number expected = expr.eval(values);
+
+        final VariableFrame frame = layout.newFrame();
+        frame.load(values);
+        assertEquals(expected, expr.eval(frame), "Frame value is incorrect");
+
+        // A frame whose layout differs from the bound one falls back to lookup by name
+        final VariableFrame other = new VariableLayout("z", "y", "x").newFrame();
+        other.load(values);
+        assertEquals(expected, expr.eval(other), "Value with another layout is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Setting either form of a slot sets both")
+    void testSetters() {
+
+        final VariableFrame frame = new VariableLayout("a", "b").newFrame();
+        frame.setDouble(0, 1.5);
+        frame.set("b", Long.valueOf(4L));
+
+        assertEquals(Double.valueOf(1.5), frame.get("a"), "Number value is incorrect");
+        assertEquals(4.0, frame.getDouble(1), "Double value is incorrect");
+
+        // A value set as a double replaces an earlier Number, and is boxed once when first read
+        frame.setDouble(1, -2.5);
+        final Number boxed = frame.get(1);
+        assertEquals(Double.valueOf(-2.5), boxed, "Number value after setDouble is incorrect");
+        assertSame(boxed, frame.get("b", 1), "Value was boxed more than once");
+        frame.set(1, Long.valueOf(7L));
+        assertEquals(Long.valueOf(7L), frame.get(1), "Number value after set is incorrect");
+
+        frame.set(1, null);
+        assertNull(frame.get(1), "Slot was not cleared");
+        assertThrows(IllegalArgumentException.class, () -> frame.set("c", Long.valueOf(1L)),
+                "Unknown variable was accepted");
+    }
+}
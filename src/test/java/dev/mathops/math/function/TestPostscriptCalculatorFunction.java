@@ -0,0 +1,106 @@
+package dev.mathops.math.function;
+
+import dev.mathops.math.expression.TieredFunction;
+import dev.mathops.math.set.number.RealInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the PostscriptCalculatorFunction class, through both the translated and the interpreted paths.
+ */
+final class TestPostscriptCalculatorFunction {
+
+    /** The tolerance for comparing values. */
+    private static final double EPSILON = 1.0e-12;
+
+    /**
+     * Constructs a new {@code TestPostscriptCalculatorFunction}.
+     */
+    TestPostscriptCalculatorFunction() {
+
+        // No action
+    }
+
+    /**
+     * Creates a function.
+     *
+     * @param numInputs  the number of inputs
+     * @param numOutputs the number of outputs
+     * @param source     the expression source, including the enclosing braces
+     * @return the function
+     */
+    private static PostscriptCalculatorFunction function(final int numInputs, final int numOutputs,
+                                                         final String source) {
+
+        final RealInterval[] domain = new RealInterval[numInputs];
+        for (int i = 0; i < numInputs; ++i) {
+            domain[i] = new RealInterval(Double.valueOf(-1000.0), Double.valueOf(1000.0));
+        }
+
+        return new PostscriptCalculatorFunction(numInputs, numOutputs, domain, null,
+                source.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Translated functions give the same results before and after they are compiled to bytecode")
+    void testTiering() {
+
+        final PostscriptCalculatorFunction func = function(2, 2, "{ 2 copy mul 3 1 roll sin exch 2 exp add }");
+
+        for (int i = 0; i < 2 * TieredFunction.DEFAULT_THRESHOLD; ++i) {
+            final double x = 0.5 * (double) (i % 200) - 50.0;
+            final double y = 0.01 * (double) i;
+            final double[] result = func.evaluate(x, y);
+
+            assertEquals(2, result.length, "Wrong number of outputs at call " + i);
+            assertEquals(Math.sin(Math.toRadians(y)) + x * x, result[0], EPSILON, "Sum at call " + i + " is wrong");
+            assertEquals(x * y, result[1], EPSILON, "Product at call " + i + " is wrong");
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Functions that cannot be translated are interpreted")
+    void testDeclined() {
+
+        final PostscriptCalculatorFunction truncate = function(1, 1, "{ cvi cvr }");
+        assertEquals(2.0, truncate.evaluate(2.7)[0], 0.0, "cvi of 2.7 is incorrect");
+        assertEquals(-2.0, truncate.evaluate(-2.7)[0], 0.0, "cvi of -2.7 is incorrect");
+
+        // A comparison of computed values gives a boolean, which the translation does not represent
+        final PostscriptCalculatorFunction compare = function(2, 1, "{ 2 copy gt pop add }");
+        assertEquals(5.0, compare.evaluate(2.0, 3.0)[0], 0.0, "Sum after comparison is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Evaluations the interpreter reports as errors fall back to the interpreter and throw")
+    void testErrorFallback() {
+
+        final PostscriptCalculatorFunction atan = function(2, 1, "{ atan }");
+        assertEquals(Math.atan2(1.0, 0.0), atan.evaluate(1.0, 0.0)[0], EPSILON, "atan of 1, 0 is incorrect");
+        assertEquals(Math.atan2(0.0, -1.0), atan.evaluate(0.0, -1.0)[0], EPSILON, "atan of 0, -1 is incorrect");
+        assertThrows(IllegalArgumentException.class, () -> atan.evaluate(0.0, 0.0), "atan of 0, 0 did not throw");
+
+        final PostscriptCalculatorFunction div = function(2, 1, "{ div }");
+        assertEquals(-0.25, div.evaluate(1.0, -4.0)[0], EPSILON, "Quotient is incorrect");
+        assertThrows(IllegalArgumentException.class, () -> div.evaluate(1.0, 0.0), "Division by zero did not throw");
+
+        // The intermediate product overflows, even though it is then multiplied by zero
+        final PostscriptCalculatorFunction overflow = function(1, 1, "{ 1.0e300 mul 1.0e300 mul 0.0 mul }");
+        assertEquals(0.0, overflow.evaluate(1.0e-300)[0], 0.0, "Small product is incorrect");
+        assertThrows(IllegalArgumentException.class, () -> overflow.evaluate(10.0), "Overflow did not throw");
+    }
+}
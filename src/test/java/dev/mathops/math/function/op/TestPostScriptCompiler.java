@@ -0,0 +1,357 @@
+package dev.mathops.math.function.op;
+
+import dev.mathops.math.expression.CompiledExpr;
+import dev.mathops.text.ByteQueue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the PostScriptCompiler class, which must agree with the operator interpreter.
+ */
+final class TestPostScriptCompiler {
+
+    /** The tolerance for comparing values. */
+    private static final double EPSILON = 1.0e-12;
+
+    /**
+     * Constructs a new {@code TestPostScriptCompiler}.
+     */
+    TestPostScriptCompiler() {
+
+        // No action
+    }
+
+    /**
+     * Parses an expression.
+     *
+     * @param source the expression source, including the enclosing braces
+     * @return the expression
+     */
+    private static PostScriptExpression parse(final String source) {
+
+        return new PostScriptExpression(new ByteQueue(source.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Builds an expression from a list of operators.  This allows procedures as operands of {@code if} and
+     * {@code ifelse}.
+     *
+     * @param operators the operators
+     * @return the expression
+     */
+    private static PostScriptExpression build(final AbstractOperator... operators) {
+
+        final PostScriptExpression expression = new PostScriptExpression();
+        expression.getOperators().addAll(List.of(operators));
+
+        return expression;
+    }
+
+    /**
+     * Evaluates an expression with the operator interpreter.
+     *
+     * @param expression the expression
+     * @param numOutputs the number of outputs
+     * @param inputs     the inputs, pushed in order
+     * @return the outputs, output 0 being the top of the stack
+     * @throws OperatorException if the expression reports an error
+     */
+    private static double[] interpret(final PostScriptExpression expression, final int numOutputs,
+                                      final double... inputs) throws OperatorException {
+
+        final OperatorStack stack = new OperatorStack();
+        for (final double input : inputs) {
+            stack.pushDouble(input);
+        }
+        expression.execute(stack);
+
+        assertEquals(numOutputs, stack.size(), "Interpreter left the wrong number of values");
+        final double[] outputs = new double[numOutputs];
+        for (int i = 0; i < numOutputs; ++i) {
+            outputs[i] = assertInstanceOf(Double.class, stack.poll(), "Output is not real").doubleValue();
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Evaluates a translated program.
+     *
+     * @param program the program
+     * @param inputs  the inputs
+     * @return the outputs, followed by the check value
+     */
+    private static double[] run(final CompiledExpr program, final double... inputs) {
+
+        final double[] registers = program.newRegisters();
+        System.arraycopy(inputs, 0, registers, 0, inputs.length);
+        program.evaluate(registers);
+
+        final int numOutputs = program.getNumOutputs();
+        final double[] outputs = new double[numOutputs];
+        for (int i = 0; i < numOutputs; ++i) {
+            outputs[i] = registers[program.getOutputRegister(i)];
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Asserts that an expression translates, and that the translation gives the same outputs as the interpreter at
+     * each of a set of points, with a finite check value.
+     *
+     * @param expression the expression
+     * @param label      a label for assertion messages
+     * @param numOutputs the number of outputs
+     * @param points     the points, each with one entry per input
+     * @return the interpreted outputs at the first point
+     * @throws OperatorException if the interpreter reports an error
+     */
+    private static double[] assertAgrees(final PostScriptExpression expression, final String label,
+                                         final int numOutputs, final double[]... points) throws OperatorException {
+
+        final CompiledExpr program = PostScriptCompiler.compile(expression, points[0].length, numOutputs);
+        assertNotNull(program, label + " was not translated");
+        assertEquals(numOutputs + 1, program.getNumOutputs(), label + " has the wrong number of outputs");
+
+        double[] first = null;
+        for (final double[] point : points) {
+            final double[] expected = interpret(expression, numOutputs, point);
+            final double[] actual = run(program, point);
+
+            for (int i = 0; i < numOutputs; ++i) {
+                assertEquals(expected[i], actual[i], EPSILON, label + " output " + i + " is incorrect");
+            }
+            assertTrue(Double.isFinite(actual[numOutputs]), label + " check value is not finite");
+            if (first == null) {
+                first = expected;
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Asserts that a parsed expression translates and agrees with the interpreter.
+     *
+     * @param source     the expression source
+     * @param numOutputs the number of outputs
+     * @param points     the points, each with one entry per input
+     * @return the interpreted outputs at the first point
+     * @throws OperatorException if the interpreter reports an error
+     */
+    private static double[] assertAgrees(final String source, final int numOutputs, final double[]... points)
+            throws OperatorException {
+
+        return assertAgrees(parse(source), source, numOutputs, points);
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Arithmetic on real values agrees with the interpreter")
+    void testArithmetic() throws OperatorException {
+
+        final double[][] points = {{2.5, 4.0}, {-1.25, 0.5}, {37.0, -3.0}};
+
+        for (final String source : new String[]{"{ add }", "{ sub }", "{ mul }", "{ div }", "{ atan }",
+                "{ exch sub 2 mul }", "{ dup mul exch dup mul add sqrt }", "{ sin exch cos add }",
+                "{ abs exch neg add floor }", "{ 2.5 div ceiling exch round add }", "{ truncate exch cvr sub }",
+                "{ abs ln exch abs log add }", "{ abs exch 2 exp add }", "{ pop 3 4 add mul }"}) {
+            assertAgrees(source, 1, points);
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Stack operations with literal counts agree with the interpreter")
+    void testStackOperators() throws OperatorException {
+
+        final double[][] points = {{1.0, 2.0, 3.0}, {-4.5, 0.25, 7.0}};
+
+        for (final String source : new String[]{"{ }", "{ exch }", "{ pop dup }", "{ 2 copy add 3 1 roll mul }",
+                "{ 1 index 2 index mul 4 1 roll pop }", "{ 3 -1 roll }", "{ 3 7 roll }", "{ 2 0 roll }",
+                "{ 0 copy }", "{ 3 copy pop pop 4 1 roll pop }"}) {
+            assertAgrees(source, 3, points);
+        }
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("if and ifelse on literal conditions translate the procedure the condition selects")
+    void testLiteralConditions() throws OperatorException {
+
+        final double[][] points = {{3.0}, {-0.5}};
+
+        final PostScriptExpression ifTrue = build(new TrueOperator(), build(new LiteralNumberOperator(2L),
+                new MulOperator()), new IfOperator());
+        assertEquals(6.0, assertAgrees(ifTrue, "true {2 mul} if", 1, points)[0], EPSILON, "if true is incorrect");
+
+        final PostScriptExpression ifFalse = build(new FalseOperator(), build(new NegOperator()), new IfOperator());
+        assertEquals(3.0, assertAgrees(ifFalse, "false {neg} if", 1, points)[0], EPSILON, "if false is incorrect");
+
+        // "1 2 lt" is evaluated now, so the condition is a literal true
+        final PostScriptExpression ifElse = build(new LiteralNumberOperator(1L), new LiteralNumberOperator(2L),
+                new LtOperator(), build(new NegOperator()), build(new LiteralNumberOperator(10.0), new AddOperator()),
+                new IfElseOperator());
+        assertEquals(-3.0, assertAgrees(ifElse, "1 2 lt {neg} {10.0 add} ifelse", 1, points)[0], EPSILON,
+                "ifelse true is incorrect");
+
+        final PostScriptExpression elseBranch = build(new LiteralNumberOperator(1L), new LiteralNumberOperator(2L),
+                new GtOperator(), build(new NegOperator()), build(new LiteralNumberOperator(10.0), new AddOperator()),
+                new IfElseOperator());
+        assertEquals(13.0, assertAgrees(elseBranch, "1 2 gt {neg} {10.0 add} ifelse", 1, points)[0], EPSILON,
+                "ifelse false is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("Programs with computed conditions, integer operations, computed counts, or bad results decline")
+    void testDeclined() {
+
+        final PostScriptExpression computedCondition = build(new DupOperator(), new LiteralNumberOperator(0.0),
+                new GtOperator(), build(new NegOperator()), new IfOperator());
+        assertNull(PostScriptCompiler.compile(computedCondition, 1, 1), "Computed condition was translated");
+
+        assertNull(PostScriptCompiler.compile(parse("{ cvi cvr }"), 1, 1), "cvi of a real value was translated");
+        assertNull(PostScriptCompiler.compile(parse("{ 2 mod }"), 1, 1), "mod of a real value was translated");
+        assertNull(PostScriptCompiler.compile(parse("{ index }"), 2, 1), "Computed index was translated");
+        assertNull(PostScriptCompiler.compile(parse("{ 2 1 roll 1 roll }"), 2, 1), "Computed roll was translated");
+        assertNull(PostScriptCompiler.compile(parse("{ dup }"), 1, 1), "Too many results were translated");
+        assertNull(PostScriptCompiler.compile(parse("{ add }"), 2, 2), "Too few results were translated");
+        assertNull(PostScriptCompiler.compile(parse("{ pop true }"), 1, 1), "Boolean result was translated");
+        assertNull(PostScriptCompiler.compile(parse("{ pop 1 }"), 1, 1), "Integer result was translated");
+        assertNull(PostScriptCompiler.compile(parse("{ 1 0 div }"), 1, 2), "Literal division by zero was translated");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("The check value is not finite where the interpreter reports an error")
+    void testCheckValue() {
+
+        final double[][] errors = {{1.0, 0.0}, {0.0, 0.0}, {-2.0, 1.0}};
+        final String[] sources = {"{ div }", "{ atan }", "{ pop sqrt }"};
+
+        for (int i = 0; i < sources.length; ++i) {
+            final PostScriptExpression expression = parse(sources[i]);
+            final CompiledExpr program = PostScriptCompiler.compile(expression, 2, 1);
+            assertNotNull(program, sources[i] + " was not translated");
+
+            final double[] point = errors[i];
+            assertThrows(OperatorException.class, () -> interpret(expression, 1, point),
+                    sources[i] + " did not report an error");
+            assertFalse(Double.isFinite(run(program, point)[1]), sources[i] + " check value is finite");
+        }
+
+        // A non-finite result in an intermediate value is detected even when the output is finite
+        final PostScriptExpression overflow = parse("{ 1.0e300 mul 1.0e300 mul 0.0 mul }");
+        final CompiledExpr program = PostScriptCompiler.compile(overflow, 1, 1);
+        assertNotNull(program, "Overflowing product was not translated");
+        assertThrows(IllegalArgumentException.class, () -> interpret(overflow, 1, 10.0),
+                "Overflowing product did not report an error");
+        assertFalse(Double.isFinite(run(program, 10.0)[1]), "Overflowing product check value is finite");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("sin computes the sine of real and integer arguments in degrees")
+    void testSinRegression() throws OperatorException {
+
+        final double[] outputs = assertAgrees("{ sin exch sin }", 2, new double[]{90.0, 30.0},
+                new double[]{-45.0, 180.0});
+        assertEquals(1.0, outputs[0], EPSILON, "sin 90.0 is incorrect");
+        assertEquals(0.5, outputs[1], EPSILON, "sin 30.0 is incorrect");
+
+        assertEquals(1.0, interpret(parse("{ pop 90 sin }"), 1, 0.0)[0], 0.0, "sin 90 is incorrect");
+        assertEquals(-1.0, interpret(parse("{ pop 270 sin }"), 1, 0.0)[0], 0.0, "sin 270 is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("mul multiplies when either argument is real")
+    void testMulRegression() throws OperatorException {
+
+        assertEquals(7.5, assertAgrees("{ 3 mul }", 1, new double[]{2.5})[0], EPSILON, "Real times integer is wrong");
+        assertEquals(7.5, assertAgrees("{ 3 exch mul }", 1, new double[]{2.5})[0], EPSILON,
+                "Integer times real is wrong");
+        assertEquals(-1.5, assertAgrees("{ mul }", 1, new double[]{0.5, -3.0})[0], EPSILON,
+                "Real times real is wrong");
+        assertEquals(1.0, interpret(parse("{ pop 0.5 2 mul }"), 1, 0.0)[0], 0.0, "Literal product is wrong");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("The parser consumes number literals and continues with the next operator")
+    void testLiteralRegression() throws OperatorException {
+
+        final List<AbstractOperator> operators = parse("{ 2 -3 +4.5 1.0e1 add }").getOperators();
+        assertEquals(5, operators.size(), "Wrong number of operators");
+        for (int i = 0; i < 4; ++i) {
+            assertInstanceOf(LiteralNumberOperator.class, operators.get(i), "Operator " + i + " is not a literal");
+        }
+        assertInstanceOf(AddOperator.class, operators.get(4), "Last operator is not add");
+
+        assertEquals(12.5, assertAgrees("{ 2 -3 add add 1.0e1 add }", 1, new double[]{3.5})[0], EPSILON,
+                "Sum with literals is incorrect");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("index counts from the top of the stack")
+    void testIndexRegression() throws OperatorException {
+
+        final double[] top = assertAgrees("{ 0 index }", 4, new double[]{1.0, 2.0, 3.0});
+        assertEquals(3.0, top[0], 0.0, "0 index did not copy the top");
+
+        final double[] deep = assertAgrees("{ 2 index }", 4, new double[]{1.0, 2.0, 3.0});
+        assertEquals(1.0, deep[0], 0.0, "2 index did not copy the bottom of three");
+        assertEquals(3.0, deep[1], 0.0, "2 index changed the stack");
+    }
+
+    /**
+     * A test case.
+     */
+    @Test
+    @DisplayName("roll rotates the entire stack when the count equals the stack size")
+    void testRollRegression() throws OperatorException {
+
+        // Rolling (1 2 3) by 1 gives (3 1 2), with 2 on top
+        final double[] up = assertAgrees("{ 3 1 roll }", 3, new double[]{1.0, 2.0, 3.0});
+        assertEquals(2.0, up[0], 0.0, "Top after 3 1 roll is incorrect");
+        assertEquals(1.0, up[1], 0.0, "Middle after 3 1 roll is incorrect");
+        assertEquals(3.0, up[2], 0.0, "Bottom after 3 1 roll is incorrect");
+
+        final double[] down = assertAgrees("{ 3 -1 roll }", 3, new double[]{1.0, 2.0, 3.0});
+        assertEquals(1.0, down[0], 0.0, "Top after 3 -1 roll is incorrect");
+        assertEquals(3.0, down[1], 0.0, "Middle after 3 -1 roll is incorrect");
+        assertEquals(2.0, down[2], 0.0, "Bottom after 3 -1 roll is incorrect");
+    }
+}